@@ -0,0 +1,10 @@
+package com.capacitacion.domain.application;
+
+import com.capacitacion.domain.model.ResultadoIdempotente;
+import com.capacitacion.domain.model.Transaccion;
+
+import java.util.function.UnaryOperator;
+
+public interface IdempotenciaService {
+    public ResultadoIdempotente ejecutar(String clave, Transaccion transaccion, UnaryOperator<Transaccion> operacion);
+}
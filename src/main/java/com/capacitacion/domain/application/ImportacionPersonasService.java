@@ -0,0 +1,10 @@
+package com.capacitacion.domain.application;
+
+import com.capacitacion.domain.model.FilaImportacion;
+import com.capacitacion.domain.model.ResultadoImportacion;
+
+import java.util.Iterator;
+
+public interface ImportacionPersonasService {
+    public ResultadoImportacion importar(Iterator<FilaImportacion> filas);
+}
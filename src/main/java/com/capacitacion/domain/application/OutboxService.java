@@ -0,0 +1,10 @@
+package com.capacitacion.domain.application;
+
+import com.capacitacion.domain.model.EventoOutbox;
+
+import java.util.List;
+
+public interface OutboxService {
+    public void registrar(String topic, String clave, Object evento);
+    public void registrarTodos(List<EventoOutbox> eventos);
+}
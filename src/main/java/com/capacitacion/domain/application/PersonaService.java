@@ -2,16 +2,30 @@ package com.capacitacion.domain.application;
 
 import com.capacitacion.domain.model.Persona;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 
 public interface PersonaService {
     public Persona crear(Persona persona);
+    public void validar(Persona persona);
     public Persona actualizar(String idPersona, Persona persona);
+    public Persona fraccionarCreditos(String dniPersona, int fracciones);
     public Persona recuperar(String idPersona);
     public Persona obtenerPorDni(String dniPersona);
+    public boolean podriaExistir(String dniPersona);
+    public Map<String, Persona> obtenerPorDnis(Collection<String> dnisPersonas);
     public Persona obtenerPorNombre(String nombrePersona);
+    public void debitarCreditos(String dniPersona, int monto);
+    public void acreditarCreditos(String dniPersona, int monto);
+    public void aplicarMovimientos(Map<String, Integer> movimientos);
+    public void actualizarDirecciones(Map<String, String> direccionesPorNombre);
+    public void actualizarDireccionesPorDni(Map<String, String> direccionesPorDni);
     public void eliminar(String idPersona);
     public List<Persona> recuperarTodos();
+    public List<Persona> recuperarPagina(String despuesDeId, int limite);
+    public Stream<Persona> recorrerTodos();
     public void eliminarTodo();
 }
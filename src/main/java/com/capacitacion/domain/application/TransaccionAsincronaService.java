@@ -0,0 +1,12 @@
+package com.capacitacion.domain.application;
+
+import com.capacitacion.domain.model.SolicitudTransaccionEvent;
+import com.capacitacion.domain.model.TicketTransaccion;
+import com.capacitacion.domain.model.Transaccion;
+
+public interface TransaccionAsincronaService {
+    public TicketTransaccion encolarTransaccion(Transaccion transaccion);
+    public void procesarSolicitud(SolicitudTransaccionEvent solicitud);
+    public void marcarFallida(String idTicket, String motivo);
+    public TicketTransaccion obtenerTicket(String idTicket);
+}
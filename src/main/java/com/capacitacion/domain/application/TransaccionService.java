@@ -1,8 +1,16 @@
 package com.capacitacion.domain.application;
 
+import com.capacitacion.domain.model.ResultadoTransaccion;
 import com.capacitacion.domain.model.Transaccion;
 
+import java.time.Instant;
+import java.util.List;
+
 public interface TransaccionService {
+    public void validarSolicitud(Transaccion transaccion);
     public Transaccion realizarTransaccion(Transaccion transaccion);
+    public Transaccion realizarTransaccionUnica(Transaccion transaccion);
+    public List<ResultadoTransaccion> realizarTransacciones(List<Transaccion> transacciones);
+    public List<Transaccion> obtenerHistorial(String dni, Instant desde, Instant hasta, String despuesDeId, int limite);
     public void eliminarTodo();
 }
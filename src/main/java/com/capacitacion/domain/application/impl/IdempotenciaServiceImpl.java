@@ -0,0 +1,164 @@
+package com.capacitacion.domain.application.impl;
+
+import com.capacitacion.domain.application.IdempotenciaService;
+import com.capacitacion.domain.model.ClaveIdempotencia;
+import com.capacitacion.domain.model.ResultadoIdempotente;
+import com.capacitacion.domain.model.Transaccion;
+import com.capacitacion.domain.model.exception.ClaveIdempotenciaReutilizadaException;
+import com.capacitacion.domain.model.exception.SolicitudEnCursoException;
+import com.capacitacion.domain.repository.ClaveIdempotenciaRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Evita realizar dos veces una transacción reintentada por el cliente con la misma clave de idempotencia.
+ * Antes de realizar la operación, la clave se reserva en MongoDB con una escritura atómica que no forma parte de la
+ * transacción, por lo que una solicitud concurrente con la misma clave encuentra la reserva y se rechaza sin realizar
+ * la operación. Si la operación falla sin haberse aplicado, la reserva se elimina y la clave puede volver a usarse.
+ * La reserva tiene un arrendamiento corto: si la instancia se cae o no puede eliminarla, otra solicitud con la misma
+ * clave la retoma cuando vence. La reserva fija el ID de la transacción, que la operación debe aplicar a lo sumo una
+ * vez, de modo que una solicitud que retoma la reserva de una transferencia ya aplicada en el ledger de créditos, que
+ * no es transaccional, no vuelve a realizarla.
+ * Las claves de las transacciones realizadas se conservan durante la ventana configurada, en un cache local acotado y
+ * en una colección con índice TTL, de modo que la ventana se mantiene después de un reinicio y entre instancias.
+ */
+@Service
+@Slf4j
+public class IdempotenciaServiceImpl implements IdempotenciaService {
+
+    @Autowired
+    private final ClaveIdempotenciaRepository claveIdempotenciaRepository;
+    @Autowired
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<String, Transaccion> recientes;
+    private final Duration ventana;
+    private final Duration arrendamiento;
+    private final boolean ledgerHabilitado;
+
+    /**
+     * Constructor de IdempotenciaServiceImpl.
+     *
+     * @param claveIdempotenciaRepository Repositorio de las claves de idempotencia.
+     * @param transactionTemplate         Plantilla para realizar la operación y registrar la clave en una transacción.
+     * @param ventana                     Tiempo durante el que se recuerda cada clave.
+     * @param arrendamiento               Tiempo durante el que una reserva en curso impide a otra solicitud retomarla.
+     * @param tamanioMaximo               Cantidad máxima de claves en el cache local.
+     * @param ledgerHabilitado            Indica si las transacciones se realizan sobre el ledger de créditos en memoria,
+     *                                    fuera de las transacciones de MongoDB.
+     */
+    public IdempotenciaServiceImpl(ClaveIdempotenciaRepository claveIdempotenciaRepository, TransactionTemplate transactionTemplate,
+                                   @Value("${capacitacion.idempotencia.ventana:1d}") Duration ventana,
+                                   @Value("${capacitacion.idempotencia.arrendamiento:30s}") Duration arrendamiento,
+                                   @Value("${capacitacion.idempotencia.tamanio-maximo:100000}") long tamanioMaximo,
+                                   @Value("${capacitacion.ledger.habilitado:false}") boolean ledgerHabilitado) {
+        this.claveIdempotenciaRepository = claveIdempotenciaRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.ventana = ventana;
+        this.arrendamiento = arrendamiento;
+        this.ledgerHabilitado = ledgerHabilitado;
+        this.recientes = Caffeine.newBuilder()
+                .maximumSize(tamanioMaximo)
+                .expireAfterWrite(ventana)
+                .build();
+    }
+
+    /**
+     * Realiza una transacción si la clave no se usó dentro de la ventana; si ya se usó, devuelve la transacción
+     * realizada en aquella oportunidad.
+     *
+     * @param clave       Clave de idempotencia enviada por el cliente.
+     * @param transaccion Transacción solicitada.
+     * @param operacion   Operación que realiza la transacción con el ID recibido, a lo sumo una vez por ID.
+     * @return Transacción realizada, indicando si corresponde a un uso anterior de la clave.
+     * @throws SolicitudEnCursoException             Si hay otra solicitud en curso con la misma clave.
+     * @throws ClaveIdempotenciaReutilizadaException Si la clave ya se usó para una transacción con otros datos.
+     */
+    @Override
+    public ResultadoIdempotente ejecutar(String clave, Transaccion transaccion, UnaryOperator<Transaccion> operacion) {
+        Transaccion registrada = recientes.getIfPresent(clave);
+        if (registrada != null) {
+            return repetida(registrada, transaccion);
+        }
+        Optional<Transaccion> anterior = buscarVigente(clave);
+        if (anterior.isPresent()) {
+            return repetida(anterior.get(), transaccion);
+        }
+        Instant ahora = Instant.now();
+        ClaveIdempotencia reserva = claveIdempotenciaRepository.reservar(clave, ahora.minus(ventana), ahora.plus(arrendamiento));
+        if (reserva == null) {
+            Optional<Transaccion> ganadora = buscarVigente(clave);
+            if (ganadora.isPresent()) {
+                return repetida(ganadora.get(), transaccion);
+            }
+            throw new SolicitudEnCursoException();
+        }
+        transaccion.setId(reserva.getTransaccionId());
+        AtomicReference<Transaccion> aplicada = new AtomicReference<>();
+        try {
+            if (ledgerHabilitado) {
+                realizar(clave, transaccion, operacion, aplicada);
+            } else {
+                transactionTemplate.executeWithoutResult(status -> realizar(clave, transaccion, operacion, aplicada));
+            }
+        } catch (RuntimeException e) {
+            liberar(clave, aplicada.get(), e);
+            throw e;
+        }
+        recientes.put(clave, aplicada.get());
+        return new ResultadoIdempotente(aplicada.get(), false);
+    }
+
+    private void realizar(String clave, Transaccion transaccion, UnaryOperator<Transaccion> operacion,
+                          AtomicReference<Transaccion> aplicada) {
+        aplicada.set(operacion.apply(transaccion));
+        claveIdempotenciaRepository.save(new ClaveIdempotencia(clave, aplicada.get()));
+    }
+
+    /**
+     * Elimina la reserva de una clave cuya operación falló. Si la operación se aplicó fuera de una transacción de
+     * MongoDB, no se deshace: la reserva se conserva para que el reintento que la retome, al vencer el arrendamiento,
+     * obtenga la transacción ya aplicada con el mismo ID.
+     */
+    private void liberar(String clave, Transaccion aplicada, RuntimeException causa) {
+        if (ledgerHabilitado && aplicada != null) {
+            log.error("La transacción {} se realizó pero no pudo registrarse la clave de idempotencia {}; "
+                    + "la clave queda reservada hasta que venza el arrendamiento", aplicada.getId(), clave, causa);
+            return;
+        }
+        try {
+            claveIdempotenciaRepository.deleteById(clave);
+        } catch (DataAccessException e) {
+            causa.addSuppressed(e);
+            log.warn("No se pudo liberar la clave de idempotencia {}; queda reservada hasta que venza el arrendamiento", clave, e);
+        }
+    }
+
+    private Optional<Transaccion> buscarVigente(String clave) {
+        Instant limite = Instant.now().minus(ventana);
+        return claveIdempotenciaRepository.findById(clave)
+                .filter(registro -> registro.getTransaccion() != null && registro.getFecha().isAfter(limite))
+                .map(ClaveIdempotencia::getTransaccion);
+    }
+
+    private ResultadoIdempotente repetida(Transaccion registrada, Transaccion solicitada) {
+        if (!Objects.equals(registrada.getDniOrigen(), solicitada.getDniOrigen())
+                || !Objects.equals(registrada.getDniDestino(), solicitada.getDniDestino())
+                || registrada.getMonto() != solicitada.getMonto()) {
+            throw new ClaveIdempotenciaReutilizadaException();
+        }
+        return new ResultadoIdempotente(registrada, true);
+    }
+}
@@ -0,0 +1,211 @@
+package com.capacitacion.domain.application.impl;
+
+import com.capacitacion.domain.application.ImportacionPersonasService;
+import com.capacitacion.domain.application.OutboxService;
+import com.capacitacion.domain.application.PersonaService;
+import com.capacitacion.domain.model.EventoOutbox;
+import com.capacitacion.domain.model.FilaImportacion;
+import com.capacitacion.domain.model.Persona;
+import com.capacitacion.domain.model.PersonaEvent;
+import com.capacitacion.domain.model.ResultadoImportacion;
+import com.capacitacion.domain.model.exception.DniAsignadoException;
+import com.capacitacion.domain.model.exception.DniNoValidoException;
+import com.capacitacion.domain.model.exception.NombreNoValidoException;
+import com.capacitacion.domain.model.exception.VidaErroneaException;
+import com.capacitacion.domain.repository.PersonaRepository;
+import com.capacitacion.infraestructura.cache.FiltroDnis;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Importa personas en lotes desde un archivo leído de forma incremental, sin cargarlo en memoria. En cada lote las
+ * filas se validan en paralelo con las mismas reglas que el alta individual, los DNIs se verifican con una única
+ * consulta ({@code $in}) y las personas válidas se insertan con un {@code insertMany}, junto con sus eventos de alta
+ * en el outbox, en una misma transacción. El relay del outbox publica los eventos en Kafka en lotes.
+ */
+@Service
+@Slf4j
+public class ImportacionPersonasServiceImpl implements ImportacionPersonasService {
+
+    private static final String TOPIC_ALTA = "alta-persona-topic";
+
+    @Autowired
+    private final PersonaRepository personaRepository;
+    @Autowired
+    private final PersonaService personaService;
+    @Autowired
+    private final OutboxService outboxService;
+    @Autowired
+    private final TransactionTemplate transactionTemplate;
+    @Autowired
+    private final FiltroDnis filtroDnis;
+    private final int tamanioLote;
+    private final int erroresMaximos;
+
+    /**
+     * Constructor de ImportacionPersonasServiceImpl.
+     *
+     * @param personaRepository   Repositorio de Persona para verificar los DNIs e insertar las personas.
+     * @param personaService      Servicio de Persona, con las reglas de validación del alta.
+     * @param outboxService       Servicio de outbox para registrar los eventos de alta.
+     * @param transactionTemplate Plantilla para insertar cada lote junto con sus eventos en una transacción.
+     * @param filtroDnis          Filtro de los DNIs registrados, que se actualiza con las personas importadas.
+     * @param tamanioLote         Cantidad de filas de cada lote.
+     * @param erroresMaximos      Cantidad máxima de errores detallados en el resultado.
+     */
+    public ImportacionPersonasServiceImpl(PersonaRepository personaRepository, PersonaService personaService,
+                                          OutboxService outboxService, TransactionTemplate transactionTemplate, FiltroDnis filtroDnis,
+                                          @Value("${capacitacion.importacion.tamanio-lote:1000}") int tamanioLote,
+                                          @Value("${capacitacion.importacion.errores-maximos:10000}") int erroresMaximos) {
+        this.personaRepository = personaRepository;
+        this.personaService = personaService;
+        this.outboxService = outboxService;
+        this.transactionTemplate = transactionTemplate;
+        this.filtroDnis = filtroDnis;
+        this.tamanioLote = tamanioLote;
+        this.erroresMaximos = erroresMaximos;
+    }
+
+    /**
+     * Importa las personas de las filas indicadas, procesándolas en lotes a medida que se leen.
+     * Las filas con errores se informan en el resultado y no impiden importar las demás.
+     *
+     * @param filas Filas leídas del archivo.
+     * @return Resultado de la importación, con el error de cada fila rechazada.
+     */
+    @Override
+    public ResultadoImportacion importar(Iterator<FilaImportacion> filas) {
+        ResultadoImportacion resultado = new ResultadoImportacion(erroresMaximos);
+        List<FilaImportacion> lote = new ArrayList<>(tamanioLote);
+        while (filas.hasNext()) {
+            lote.add(filas.next());
+            if (lote.size() == tamanioLote) {
+                importarLote(lote, resultado);
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            importarLote(lote, resultado);
+        }
+        log.info("Importación terminada: {} filas, {} importadas, {} rechazadas",
+                resultado.getFilas(), resultado.getImportadas(), resultado.getRechazadas());
+        return resultado;
+    }
+
+    /**
+     * Valida e importa un lote de filas.
+     *
+     * @param lote      Filas del lote.
+     * @param resultado Resultado donde se registran las filas importadas y rechazadas.
+     */
+    private void importarLote(List<FilaImportacion> lote, ResultadoImportacion resultado) {
+        List<String> errores = lote.parallelStream().map(this::validar).toList();
+
+        List<FilaImportacion> validas = new ArrayList<>(lote.size());
+        Set<String> dnis = new HashSet<>();
+        for (int i = 0; i < lote.size(); i++) {
+            FilaImportacion fila = lote.get(i);
+            String error = errores.get(i);
+            if (error == null && !dnis.add(fila.getPersona().getDni())) {
+                error = "DNI repetido en el archivo";
+            }
+            if (error != null) {
+                resultado.registrarError(fila.getLinea(), fila.getPersona() == null ? null : fila.getPersona().getDni(), error);
+            } else {
+                validas.add(fila);
+            }
+        }
+        if (validas.isEmpty()) {
+            return;
+        }
+
+        Set<String> asignados = new HashSet<>();
+        personaRepository.findByDniIn(dnis).forEach(persona -> asignados.add(persona.getDni()));
+        List<Persona> personas = new ArrayList<>(validas.size());
+        for (FilaImportacion fila : validas) {
+            if (asignados.contains(fila.getPersona().getDni())) {
+                resultado.registrarError(fila.getLinea(), fila.getPersona().getDni(), new DniAsignadoException().getMessage());
+            } else {
+                personas.add(fila.getPersona());
+            }
+        }
+        if (personas.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> insertar(personas));
+            resultado.registrarImportadas(personas.size());
+        } catch (DuplicateKeyException e) {
+            // Otra operación dio de alta alguno de los DNIs después de la verificación: se reintenta fila por fila.
+            log.warn("Conflicto de DNI al insertar un lote de {} personas, se insertan de a una", personas.size());
+            importarDeAUna(validas, asignados, resultado);
+        }
+    }
+
+    /**
+     * Inserta las filas de un lote de a una, registrando como rechazadas las de DNIs ya asignados.
+     *
+     * @param validas   Filas válidas del lote.
+     * @param asignados DNIs ya registrados como asignados.
+     * @param resultado Resultado donde se registran las filas importadas y rechazadas.
+     */
+    private void importarDeAUna(List<FilaImportacion> validas, Set<String> asignados, ResultadoImportacion resultado) {
+        for (FilaImportacion fila : validas) {
+            Persona persona = fila.getPersona();
+            if (asignados.contains(persona.getDni())) {
+                continue;
+            }
+            try {
+                persona.setId(null);
+                transactionTemplate.executeWithoutResult(status -> insertar(List.of(persona)));
+                resultado.registrarImportadas(1);
+            } catch (DuplicateKeyException e) {
+                resultado.registrarError(fila.getLinea(), persona.getDni(), new DniAsignadoException().getMessage());
+            }
+        }
+    }
+
+    /**
+     * Inserta las personas con un único {@code insertMany} y registra sus eventos de alta en el outbox.
+     *
+     * @param personas Personas a insertar.
+     */
+    private void insertar(List<Persona> personas) {
+        List<Persona> insertadas = personaRepository.insert(personas);
+        List<EventoOutbox> eventos = new ArrayList<>(insertadas.size());
+        for (Persona persona : insertadas) {
+            filtroDnis.agregar(persona.getDni());
+            eventos.add(new EventoOutbox(TOPIC_ALTA, persona.getDni(), new PersonaEvent(persona)));
+        }
+        outboxService.registrarTodos(eventos);
+    }
+
+    /**
+     * Valida una fila con las reglas del alta de personas.
+     *
+     * @param fila Fila a validar.
+     * @return Motivo del rechazo, o null si la fila es válida.
+     */
+    private String validar(FilaImportacion fila) {
+        if (fila.getError() != null) {
+            return fila.getError();
+        }
+        try {
+            personaService.validar(fila.getPersona());
+            return null;
+        } catch (NombreNoValidoException | VidaErroneaException | DniNoValidoException e) {
+            return e.getMessage();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.capacitacion.domain.application.impl;
+
+import com.capacitacion.domain.application.TransaccionService;
+import com.capacitacion.domain.ledger.AlmacenLedger;
+import com.capacitacion.domain.ledger.LedgerCreditos;
+import com.capacitacion.domain.model.ResultadoTransaccion;
+import com.capacitacion.domain.model.Transaccion;
+import com.capacitacion.domain.model.exception.*;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implementación de {@link TransaccionService} que aplica las transacciones sobre el {@link LedgerCreditos} en memoria
+ * y las persiste de forma asíncrona. Se activa con {@code capacitacion.ledger.habilitado=true}; mientras está activa,
+ * el ledger es la fuente de verdad de los créditos de cada cuenta.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "capacitacion.ledger.habilitado", havingValue = "true")
+@Slf4j
+public class LedgerTransaccionServiceImpl implements TransaccionService {
+
+    @Autowired
+    private final TransaccionServiceImpl transaccionService;
+    @Autowired
+    private final LedgerCreditos ledger;
+    @Autowired
+    private final AlmacenLedger almacen;
+
+    /**
+     * Constructor de LedgerTransaccionServiceImpl.
+     *
+     * @param transaccionService Servicio de Transacciones sobre MongoDB, usado para validar, eliminar y buscar las persistidas.
+     * @param ledger             Ledger de créditos en memoria.
+     * @param almacen            Almacén desde donde se cargan los créditos persistidos.
+     */
+    public LedgerTransaccionServiceImpl(TransaccionServiceImpl transaccionService, LedgerCreditos ledger, AlmacenLedger almacen) {
+        this.transaccionService = transaccionService;
+        this.ledger = ledger;
+        this.almacen = almacen;
+    }
+
+    /**
+     * Carga en el ledger los créditos de todas las personas al iniciar la aplicación. Las cuentas usadas antes
+     * de terminar la carga se cargan individualmente al primer uso.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarSaldos() {
+        AtomicLong cargadas = new AtomicLong();
+        almacen.cargarSaldos((dni, creditos) -> {
+            ledger.cargar(dni, creditos);
+            cargadas.incrementAndGet();
+        });
+        log.info("Ledger de créditos cargado con {} cuentas", cargadas.get());
+    }
+
+    @Override
+    public void validarSolicitud(Transaccion transaccion) {
+        transaccionService.validarSolicitud(transaccion);
+    }
+
+    /**
+     * Realiza una transacción sobre el ledger en memoria. La transacción se devuelve con su ID asignado
+     * y se persiste de forma asíncrona; si el almacén lo requiere, se espera a que sea durable antes de devolverla.
+     *
+     * @param transaccion Transacción a realizar.
+     * @return La nueva Transacción creada.
+     * @throws DniNoValidoException        Si el DNI no tiene el formato adecuado.
+     * @throws MontoNoValidoException      Si el monto de la transacción no es válido.
+     * @throws PersonaNoExisteException    Si una de las personas involucradas en la transacción no existe.
+     * @throws DniRepetidoException        Si los DNIs de origen y destino son iguales.
+     * @throws MontoInsuficienteException  Si el monto a transferir excede los créditos disponibles en la cuenta de origen.
+     */
+    @Override
+    public Transaccion realizarTransaccion(Transaccion transaccion) {
+        almacen.esperarPersistencia(aplicar(transaccion));
+        return transaccion;
+    }
+
+    /**
+     * Realiza sobre el ledger en memoria una transacción con el ID ya asignado por quien la solicita, a lo sumo una vez.
+     * Si ya se persistió una transacción con ese ID se devuelve sin volver a aplicarla; si no, el ledger la descarta
+     * cuando ya aplicó una con el mismo ID, incluso si las dos llegan a la vez.
+     *
+     * @param transaccion Transacción a realizar, con su ID asignado.
+     * @return La transacción realizada con ese ID.
+     * @throws DniNoValidoException        Si el DNI no tiene el formato adecuado.
+     * @throws MontoNoValidoException      Si el monto de la transacción no es válido.
+     * @throws PersonaNoExisteException    Si una de las personas involucradas en la transacción no existe.
+     * @throws DniRepetidoException        Si los DNIs de origen y destino son iguales.
+     * @throws MontoInsuficienteException  Si el monto a transferir excede los créditos disponibles en la cuenta de origen.
+     */
+    @Override
+    public Transaccion realizarTransaccionUnica(Transaccion transaccion) {
+        validarSolicitud(transaccion);
+        // Se consulta antes de aplicarla: el ledger recuerda el ID durante la retención, mucho más de lo que tarda
+        // en persistirse, por lo que una transacción que no estaba persistida al consultar sigue en el ledger.
+        Transaccion realizada = transaccionService.buscarRealizada(transaccion.getId());
+        if (realizada != null) {
+            return realizada;
+        }
+        asegurarCuenta(transaccion.getDniOrigen());
+        asegurarCuenta(transaccion.getDniDestino());
+        transaccion.setFecha(Instant.now());
+        almacen.esperarPersistencia(ledger.transferirUnica(transaccion));
+        return transaccion;
+    }
+
+    /**
+     * Realiza un lote de transacciones sobre el ledger en memoria, informando el resultado de cada una.
+     * Si el almacén lo requiere, se espera una única vez a que todo el lote sea durable, y después se verifica que
+     * ninguna transacción del lote haya quedado en cuarentena.
+     *
+     * @param transacciones Transacciones a realizar.
+     * @return Resultado de cada transacción, en el mismo orden del lote.
+     */
+    @Override
+    public List<ResultadoTransaccion> realizarTransacciones(List<Transaccion> transacciones) {
+        List<ResultadoTransaccion> resultados = new ArrayList<>(transacciones.size());
+        long[] secuencias = new long[transacciones.size()];
+        int aplicadas = 0;
+        for (int indice = 0; indice < transacciones.size(); indice++) {
+            try {
+                Transaccion nuevaTransaccion = transacciones.get(indice);
+                secuencias[aplicadas] = aplicar(nuevaTransaccion);
+                aplicadas++;
+                resultados.add(ResultadoTransaccion.exitosa(indice, nuevaTransaccion.getId()));
+            } catch (DniNoValidoException | MontoNoValidoException | DniRepetidoException
+                     | PersonaNoExisteException | MontoInsuficienteException e) {
+                resultados.add(ResultadoTransaccion.rechazada(indice, e.getMessage()));
+            }
+        }
+        if (aplicadas > 0) {
+            almacen.esperarPersistencia(secuencias[aplicadas - 1]);
+            // Las secuencias anteriores ya se resolvieron: cada espera sólo verifica que no se hayan descartado.
+            for (int i = 0; i < aplicadas - 1; i++) {
+                almacen.esperarPersistencia(secuencias[i]);
+            }
+        }
+        return resultados;
+    }
+
+    /**
+     * Obtiene el historial de transacciones persistidas de una persona. Las transacciones realizadas sobre el ledger
+     * aparecen cuando se terminan de persistir.
+     */
+    @Override
+    public List<Transaccion> obtenerHistorial(String dni, Instant desde, Instant hasta, String despuesDeId, int limite) {
+        return transaccionService.obtenerHistorial(dni, desde, hasta, despuesDeId, limite);
+    }
+
+    @Override
+    public void eliminarTodo() {
+        transaccionService.eliminarTodo();
+    }
+
+    /**
+     * Valida una transacción y la aplica sobre el ledger, asignándole ID y fecha.
+     *
+     * @param transaccion Transacción a aplicar.
+     * @return Secuencia de la transacción en el ledger.
+     */
+    private long aplicar(Transaccion transaccion) {
+        validarSolicitud(transaccion);
+        asegurarCuenta(transaccion.getDniOrigen());
+        asegurarCuenta(transaccion.getDniDestino());
+        transaccion.setId(new ObjectId().toHexString());
+        transaccion.setFecha(Instant.now());
+        return ledger.transferir(transaccion);
+    }
+
+    /**
+     * Carga en el ledger la cuenta con el DNI indicado si todavía no estaba cargada.
+     *
+     * @param dniPersona DNI de la cuenta.
+     * @throws PersonaNoExisteException Si no existe una persona con el DNI indicado.
+     */
+    private void asegurarCuenta(String dniPersona) {
+        if (!ledger.contiene(dniPersona)) {
+            Integer creditos = almacen.saldo(dniPersona);
+            if (creditos == null) {
+                throw new PersonaNoExisteException();
+            }
+            ledger.cargar(dniPersona, creditos);
+        }
+    }
+}
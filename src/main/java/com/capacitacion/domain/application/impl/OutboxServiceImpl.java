@@ -0,0 +1,50 @@
+package com.capacitacion.domain.application.impl;
+
+import com.capacitacion.domain.application.OutboxService;
+import com.capacitacion.domain.model.EventoOutbox;
+import com.capacitacion.domain.repository.EventoOutboxRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+public class OutboxServiceImpl implements OutboxService {
+
+    @Autowired
+    private final EventoOutboxRepository eventoOutboxRepository;
+
+    /**
+     * Constructor de OutboxServiceImpl.
+     *
+     * @param eventoOutboxRepository Repositorio de los eventos pendientes de publicación.
+     */
+    public OutboxServiceImpl(EventoOutboxRepository eventoOutboxRepository) {
+        this.eventoOutboxRepository = eventoOutboxRepository;
+    }
+
+    /**
+     * Registra un evento pendiente de publicación. Al ejecutarse dentro de la transacción del cambio que lo origina,
+     * el evento se confirma o se descarta junto con ese cambio.
+     *
+     * @param topic  Topic de Kafka donde debe publicarse el evento.
+     * @param clave  Clave del mensaje (puede ser nula).
+     * @param evento Evento a publicar.
+     */
+    @Override
+    public void registrar(String topic, String clave, Object evento) {
+        eventoOutboxRepository.insert(new EventoOutbox(topic, clave, evento));
+    }
+
+    /**
+     * Registra varios eventos pendientes de publicación con una única escritura ({@code insertMany}).
+     *
+     * @param eventos Eventos a publicar.
+     */
+    @Override
+    public void registrarTodos(List<EventoOutbox> eventos) {
+        if (!eventos.isEmpty()) {
+            eventoOutboxRepository.insert(eventos);
+        }
+    }
+}
@@ -1,36 +1,88 @@
 package com.capacitacion.domain.application.impl;
 
 import com.capacitacion.domain.model.PersonaEvent;
+import com.capacitacion.domain.model.SubSaldo;
 import com.capacitacion.domain.model.exception.*;
+import com.capacitacion.domain.ledger.LedgerCreditos;
 import com.capacitacion.domain.repository.PersonaRepository;
+import com.capacitacion.domain.repository.SubSaldoRepository;
+import com.capacitacion.domain.application.OutboxService;
 import com.capacitacion.domain.application.PersonaService;
 import com.capacitacion.domain.model.Persona;
+import com.capacitacion.infraestructura.cache.FiltroDnis;
+import com.capacitacion.infraestructura.cache.PersonaCache;
+import com.capacitacion.infraestructura.metricas.MetricasEtapas;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
 
 @Service
 public class PersonaServiceImpl implements PersonaService {
 
+    private static final String OPERACION_CREAR = "persona.crear";
+    private static final int FRACCIONES_MAXIMAS = 64;
+
     @Autowired
     private final PersonaRepository personaRepository;
     @Autowired
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final SubSaldoRepository subSaldoRepository;
+    @Autowired
+    private final OutboxService outboxService;
+    @Autowired
+    private final PersonaCache personaCache;
+    @Autowired
+    private final MetricasEtapas metricasEtapas;
+    @Autowired
+    private final FiltroDnis filtroDnis;
+    /** Ledger en memoria que administra los créditos, único que puede modificarlos; null si no está habilitado. */
+    private final LedgerCreditos ledgerCreditos;
+    /** Si los créditos los administra el ledger en memoria. */
+    private final boolean ledgerHabilitado;
+    /** Cantidad de fracciones de las personas con saldo fraccionado ya vistas, por DNI. */
+    private final Map<String, Integer> fraccionesPorDni = new ConcurrentHashMap<>();
 
     /**
      * Constructor de PersonaServiceImpl.
      *
-     * @param personaRepository Repositorio de Persona para acceder a la base de datos.
-     * @param kafkaTemplate     Plantilla de Kafka para enviar eventos relacionados con la entidad Persona.
+     * @param personaRepository  Repositorio de Persona para acceder a la base de datos.
+     * @param subSaldoRepository Repositorio de las fracciones de saldo de las personas con saldo fraccionado.
+     * @param outboxService      Servicio de outbox para registrar los eventos relacionados con la entidad Persona.
+     * @param personaCache       Cache local de personas por ID, DNI y nombre.
+     * @param metricasEtapas     Métricas de duración de las etapas de cada operación.
+     * @param filtroDnis         Filtro de los DNIs registrados, para descartar DNIs inexistentes sin consultar la base.
+     * @param ledgerCreditos     Ledger en memoria que administra los créditos, si está habilitado.
      */
-    public PersonaServiceImpl(PersonaRepository personaRepository, KafkaTemplate<String, Object> kafkaTemplate) {
+    public PersonaServiceImpl(PersonaRepository personaRepository, SubSaldoRepository subSaldoRepository, OutboxService outboxService,
+                              PersonaCache personaCache, MetricasEtapas metricasEtapas, FiltroDnis filtroDnis,
+                              ObjectProvider<LedgerCreditos> ledgerCreditos) {
         this.personaRepository = personaRepository;
-        this.kafkaTemplate = kafkaTemplate;
+        this.subSaldoRepository = subSaldoRepository;
+        this.outboxService = outboxService;
+        this.personaCache = personaCache;
+        this.metricasEtapas = metricasEtapas;
+        this.filtroDnis = filtroDnis;
+        this.ledgerCreditos = ledgerCreditos.getIfAvailable();
+        this.ledgerHabilitado = this.ledgerCreditos != null;
     }
 
     /**
-     * Crea una nueva persona y la guarda en la base de datos.
+     * Crea una nueva persona y la guarda en la base de datos. El evento de alta se registra en el outbox
+     * dentro de la misma transacción, y se publica en Kafka de forma asíncrona.
+     * Los datos se validan antes de cualquier acceso a la base de datos, y la unicidad del DNI la garantiza el índice
+     * único de la colección, sin una consulta previa.
      *
      * @param persona Persona a ser creada y almacenada.
      * @return Persona creada y almacenada.
@@ -40,26 +92,30 @@ public class PersonaServiceImpl implements PersonaService {
      * @throws DniAsignadoException    Si el DNI ya está asignado a otra persona.
      */
     @Override
+    @Transactional
     public Persona crear(Persona persona) {
-        validar(persona);
-        Persona personaNueva = personaRepository.save(persona);
+        MetricasEtapas.Operacion operacion = metricasEtapas.operacion(OPERACION_CREAR, persona.getDni());
+        operacion.medirAccion("validacion", () -> validar(persona));
+        Persona personaNueva = operacion.medir("guardado", () -> guardarNueva(persona));
+        filtroDnis.agregar(personaNueva.getDni());
 
-        PersonaEvent personaEvent = new PersonaEvent(personaNueva.getNombre());
-        kafkaTemplate.send("alta-persona-topic", personaEvent);
+        PersonaEvent personaEvent = new PersonaEvent(personaNueva);
+        operacion.medirAccion("publicacion",
+                () -> outboxService.registrar("alta-persona-topic", personaNueva.getDni(), personaEvent));
 
         return personaNueva;
     }
 
     /**
-     * Realiza la validación general de los datos de una persona antes de crearla.
+     * Realiza la validación general de los datos de una persona antes de crearla, sin acceder a la base de datos.
      *
      * @param persona Persona a ser validada.
      * @throws NombreNoValidoException Si el nombre de la persona es nulo o vacío.
      * @throws VidaErroneaException    Si la edad de la persona está fuera del rango permitido.
      * @throws DniNoValidoException    Si el DNI de la persona es nulo o no tiene la longitud adecuada.
-     * @throws DniAsignadoException    Si el DNI ya está asignado a otra persona.
      */
-    private void validar(Persona persona) {
+    @Override
+    public void validar(Persona persona) {
         validarNombre(persona.getNombre());
         validarEdad(persona.getEdad());
         validarDni(persona.getDni());
@@ -98,34 +154,120 @@ public class PersonaServiceImpl implements PersonaService {
      *
      * @param dniPersona DNI de la persona a ser validado.
      * @throws DniNoValidoException    Si el DNI de la persona es nulo o no tiene la longitud adecuada.
-     * @throws DniAsignadoException    Si el DNI ya está asignado a otra persona.
      */
     private void validarDni(String dniPersona)  {
-        Persona persona = personaRepository.findByDni(dniPersona);
         if (dniPersona == null || dniPersona.length() != 8) {
             throw new DniNoValidoException();
         }
-        if (persona != null) {
+    }
+
+    /**
+     * Guarda una persona nueva. Si el DNI ya está asignado, el índice único de {@code dni} rechaza la escritura,
+     * también cuando dos altas con el mismo DNI se procesan en simultáneo.
+     *
+     * @param persona Persona a guardar.
+     * @return Persona guardada.
+     * @throws DniAsignadoException    Si el DNI ya está asignado a otra persona.
+     */
+    private Persona guardarNueva(Persona persona) {
+        try {
+            return personaRepository.save(persona);
+        } catch (DuplicateKeyException e) {
             throw new DniAsignadoException();
         }
     }
 
     /**
      * Actualiza los datos de una persona existente en la base de datos.
+     * Si la persona tiene el saldo fraccionado, los nuevos créditos se reparten entre sus fracciones. La persona se lee
+     * de la base de datos y no del cache, para decidir sobre su fraccionamiento actual.
+     * Con el ledger habilitado los créditos no se modifican: se actualizan sólo los demás datos, sin reescribir el
+     * documento completo, para no pisar los créditos que persiste el ledger.
      *
      * @param idPersona          Identificador único de la persona a ser actualizada.
      * @param personaActualizada Nuevos datos de la persona.
      * @return Persona actualizada.
-     * @throws PersonaNoExisteException Si no se encuentra una persona con el ID proporcionado.
+     * @throws PersonaNoExisteException         Si no se encuentra una persona con el ID proporcionado.
+     * @throws CreditosNoModificablesException  Si el ledger está habilitado y los créditos solicitados difieren de los actuales.
      */
     @Override
+    @Transactional
     public Persona actualizar(String idPersona, Persona personaActualizada) {
-        Persona persona = this.recuperar(idPersona);
+        Persona persona = recuperarSinCache(idPersona);
+        if (ledgerHabilitado) {
+            return actualizarDatos(persona, personaActualizada);
+        }
+        personaCache.invalidar(persona);
         persona.setEdad(personaActualizada.getEdad());
         persona.setNombre(personaActualizada.getNombre());
         persona.setCreditos(personaActualizada.getCreditos());
         persona.setDireccion(personaActualizada.getDireccion());
-        return personaRepository.save(persona);
+        if (persona.tieneSaldoFraccionado()) {
+            repartirCreditos(persona, persona.getFracciones(), personaActualizada.getCreditos());
+        }
+        Persona personaGuardada = personaRepository.save(persona);
+        personaGuardada.setCreditos(personaActualizada.getCreditos());
+        personaCache.invalidar(personaGuardada);
+        return personaGuardada;
+    }
+
+    /**
+     * Actualiza el nombre, la edad y la dirección de una persona sin modificar sus créditos, que administra el ledger.
+     *
+     * @param persona            Persona a actualizar.
+     * @param personaActualizada Nuevos datos de la persona.
+     * @return Persona actualizada.
+     * @throws PersonaNoExisteException        Si la persona dejó de existir.
+     * @throws CreditosNoModificablesException Si los créditos solicitados difieren de los actuales.
+     */
+    private Persona actualizarDatos(Persona persona, Persona personaActualizada) {
+        if (personaActualizada.getCreditos() != persona.getCreditos()) {
+            throw new CreditosNoModificablesException();
+        }
+        personaCache.invalidar(persona);
+        persona.setEdad(personaActualizada.getEdad());
+        persona.setNombre(personaActualizada.getNombre());
+        persona.setDireccion(personaActualizada.getDireccion());
+        boolean actualizada = personaRepository.actualizarDatos(persona);
+        personaCache.invalidar(persona);
+        if (!actualizada) {
+            throw new PersonaNoExisteException();
+        }
+        return persona;
+    }
+
+    /**
+     * Fracciona los créditos de una persona en varios sub-saldos, para que las transacciones concurrentes sobre su
+     * cuenta actualicen documentos distintos en lugar de serializarse sobre el de la persona. Los créditos actuales se
+     * reparten en partes iguales; con una única fracción, los créditos vuelven al documento de la persona.
+     *
+     * @param dniPersona DNI de la persona.
+     * @param fracciones Cantidad de fracciones, entre 1 y {@value #FRACCIONES_MAXIMAS}.
+     * @return Persona actualizada, con sus créditos totales.
+     * @throws FraccionesNoValidasException         Si la cantidad de fracciones está fuera del rango permitido.
+     * @throws PersonaNoExisteException             Si no se encuentra una persona con el DNI proporcionado.
+     * @throws FraccionamientoNoDisponibleException Si el ledger está habilitado, porque carga y persiste sólo los
+     *                                              créditos del documento de la persona.
+     */
+    @Override
+    @Transactional
+    public Persona fraccionarCreditos(String dniPersona, int fracciones) {
+        if (ledgerHabilitado) {
+            throw new FraccionamientoNoDisponibleException();
+        }
+        if (fracciones < 1 || fracciones > FRACCIONES_MAXIMAS) {
+            throw new FraccionesNoValidasException();
+        }
+        Persona persona = agregarCreditos(personaRepository.findByDni(dniPersona));
+        if (persona == null) {
+            throw new PersonaNoExisteException();
+        }
+        int creditos = persona.getCreditos();
+        repartirCreditos(persona, fracciones, creditos);
+        Persona personaGuardada = personaRepository.save(persona);
+        personaGuardada.setCreditos(creditos);
+        personaCache.invalidar(personaGuardada);
+        return personaGuardada;
     }
 
     /**
@@ -137,13 +279,28 @@ public class PersonaServiceImpl implements PersonaService {
      */
     @Override
     public Persona recuperar(String idPersona) {
-        Persona persona = personaRepository.findPersonaById(idPersona);
+        Persona persona = personaCache.obtenerPorId(idPersona, id -> agregarCreditos(personaRepository.findPersonaById(id)));
         if(persona == null) {
             throw new PersonaNoExisteException();
         }
         return persona;
     }
 
+    /**
+     * Recupera una persona por su ID directamente de la base de datos, sin pasar por el cache.
+     *
+     * @param idPersona Identificador único de la persona a recuperar.
+     * @return Persona recuperada, con sus créditos totales.
+     * @throws PersonaNoExisteException Si no se encuentra una persona con el ID proporcionado.
+     */
+    private Persona recuperarSinCache(String idPersona) {
+        Persona persona = agregarCreditos(personaRepository.findPersonaById(idPersona));
+        if (persona == null) {
+            throw new PersonaNoExisteException();
+        }
+        return persona;
+    }
+
     /**
      * Recupera una persona por su DNI.
      *
@@ -153,13 +310,49 @@ public class PersonaServiceImpl implements PersonaService {
      */
     @Override
     public Persona obtenerPorDni(String dniPersona) {
-        Persona persona = personaRepository.findByDni(dniPersona); //TODO: agregar validacion para dni repetido
+        Persona persona = personaCache.obtenerPorDni(dniPersona, dni -> agregarCreditos(personaRepository.findByDni(dni))); //TODO: agregar validacion para dni repetido
         if(persona == null) {
             throw new PersonaNoExisteException();
         }
         return persona;
     }
 
+    /**
+     * Indica si una persona con el DNI indicado podría estar registrada. Si el filtro de DNIs la considera posible o la
+     * descarta, responde sin consultar la base de datos. Sólo poco después de construir o vaciar el filtro, cuando
+     * puede no conocer altas de otras instancias, los DNIs descartados se confirman con una consulta sobre el índice
+     * de {@code dni}.
+     *
+     * @param dniPersona DNI a consultar.
+     * @return false si no hay una persona con ese DNI; true si podría haberla.
+     */
+    @Override
+    public boolean podriaExistir(String dniPersona) {
+        if (filtroDnis.podriaExistir(dniPersona)) {
+            return true;
+        }
+        if (dniPersona == null || !filtroDnis.requiereConfirmacion() || !personaRepository.existsByDni(dniPersona)) {
+            return false;
+        }
+        filtroDnis.registrarFaltante(dniPersona);
+        return true;
+    }
+
+    /**
+     * Recupera en una única consulta ({@code $in}) todas las personas con los DNIs indicados.
+     *
+     * @param dnisPersonas DNIs de las personas a recuperar.
+     * @return Personas encontradas indexadas por DNI; los DNIs inexistentes no figuran en el resultado.
+     */
+    @Override
+    public Map<String, Persona> obtenerPorDnis(Collection<String> dnisPersonas) {
+        Map<String, Persona> personas = new HashMap<>();
+        for (Persona persona : agregarCreditos(personaRepository.findByDniIn(dnisPersonas))) {
+            personas.put(persona.getDni(), persona);
+        }
+        return personas;
+    }
+
     /**
      * Recupera una persona por su nombre.
      *
@@ -169,7 +362,7 @@ public class PersonaServiceImpl implements PersonaService {
      */
     @Override
     public Persona obtenerPorNombre(String nombrePersona) {
-        Persona persona = personaRepository.findByNombre(nombrePersona); //TODO: agregar validacion para nombre repetido
+        Persona persona = personaCache.obtenerPorNombre(nombrePersona, nombre -> agregarCreditos(personaRepository.findByNombre(nombre))); //TODO: agregar validacion para nombre repetido
         if(persona == null) {
             throw new PersonaNoExisteException();
         }
@@ -177,15 +370,157 @@ public class PersonaServiceImpl implements PersonaService {
     }
 
     /**
-     * Elimina una persona de la base de datos por su ID.
+     * Resta créditos a una persona con una única actualización condicional ({@code creditos >= monto}).
+     * Si la persona tiene el saldo fraccionado, el débito se aplica sobre sus fracciones.
+     *
+     * @param dniPersona DNI de la persona a debitar.
+     * @param monto      Monto a restar.
+     * @throws PersonaNoExisteException   Si no se encuentra una persona con el DNI proporcionado.
+     * @throws MontoInsuficienteException Si la persona no dispone de créditos suficientes.
+     */
+    @Override
+    public void debitarCreditos(String dniPersona, int monto) {
+        Integer fracciones = fraccionesPorDni.get(dniPersona);
+        if (fracciones == null) {
+            boolean debitado = personaRepository.debitarCreditos(dniPersona, monto);
+            personaCache.invalidarPorDni(dniPersona);
+            if (debitado) {
+                return;
+            }
+            // Sólo en el camino de error se consulta la persona para distinguir el motivo.
+            fracciones = fraccionesDe(dniPersona);
+            if (fracciones == null) {
+                throw new MontoInsuficienteException();
+            }
+        }
+        debitarFracciones(dniPersona, fracciones, monto);
+        personaCache.invalidarPorDni(dniPersona);
+    }
+
+    /**
+     * Suma créditos a una persona con una única actualización atómica ({@code $inc}).
+     * Si la persona tiene el saldo fraccionado, el crédito se aplica sobre una de sus fracciones, elegida al azar.
+     *
+     * @param dniPersona DNI de la persona a acreditar.
+     * @param monto      Monto a sumar.
+     * @throws PersonaNoExisteException Si no se encuentra una persona con el DNI proporcionado.
+     */
+    @Override
+    public void acreditarCreditos(String dniPersona, int monto) {
+        Integer fracciones = fraccionesPorDni.get(dniPersona);
+        boolean acreditado = fracciones == null
+                ? personaRepository.acreditarCreditos(dniPersona, monto)
+                : acreditarFraccion(dniPersona, fracciones, monto);
+        if (!acreditado) {
+            // La persona no existe, tiene el saldo fraccionado o cambió su cantidad de fracciones.
+            fracciones = fraccionesDe(dniPersona);
+            acreditado = fracciones == null
+                    ? personaRepository.acreditarCreditos(dniPersona, monto)
+                    : acreditarFraccion(dniPersona, fracciones, monto);
+        }
+        personaCache.invalidarPorDni(dniPersona);
+        if (!acreditado) {
+            throw new PersonaNoExisteException();
+        }
+    }
+
+    /**
+     * Aplica en una única escritura masiva las variaciones de créditos por DNI.
+     *
+     * @param movimientos Variación de créditos por DNI.
+     * @throws SaldoModificadoException Si alguna persona dejó de existir o de tener saldo suficiente
+     *                                  desde que se leyeron sus créditos.
+     */
+    @Override
+    public void aplicarMovimientos(Map<String, Integer> movimientos) {
+        Map<String, Integer> movimientosPersonas = new HashMap<>(movimientos);
+        try {
+            movimientos.forEach((dni, variacion) -> {
+                Integer fracciones = fraccionesPorDni.get(dni);
+                if (fracciones == null) {
+                    return;
+                }
+                if (variacion < 0) {
+                    debitarFracciones(dni, fracciones, -variacion);
+                    movimientosPersonas.remove(dni);
+                } else if (acreditarFraccion(dni, fracciones, variacion)) {
+                    movimientosPersonas.remove(dni);
+                }
+            });
+        } catch (MontoInsuficienteException e) {
+            movimientos.keySet().forEach(personaCache::invalidarPorDni);
+            throw new SaldoModificadoException();
+        }
+        int actualizadas = personaRepository.aplicarMovimientos(movimientosPersonas);
+        movimientos.keySet().forEach(personaCache::invalidarPorDni);
+        if (actualizadas != movimientosPersonas.size()) {
+            throw new SaldoModificadoException();
+        }
+    }
+
+    /**
+     * Actualiza en una única escritura masiva la dirección de las personas indicadas por nombre.
+     *
+     * @param direccionesPorNombre Nueva dirección por nombre de persona.
+     */
+    @Override
+    public void actualizarDirecciones(Map<String, String> direccionesPorNombre) {
+        personaRepository.actualizarDireccionesPorNombre(direccionesPorNombre);
+        direccionesPorNombre.keySet().forEach(personaCache::invalidarPorNombre);
+    }
+
+    /**
+     * Actualiza en una única escritura masiva la dirección de las personas indicadas por DNI.
+     *
+     * @param direccionesPorDni Nueva dirección por DNI de persona.
+     */
+    @Override
+    public void actualizarDireccionesPorDni(Map<String, String> direccionesPorDni) {
+        personaRepository.actualizarDireccionesPorDni(direccionesPorDni);
+        direccionesPorDni.keySet().forEach(personaCache::invalidarPorDni);
+    }
+
+    /**
+     * Elimina una persona de la base de datos por su ID, junto con las fracciones de su saldo. La persona se lee de la
+     * base de datos y no del cache, para decidir sobre su fraccionamiento actual. Se quita del cache antes y después de
+     * borrarla (y otra vez al confirmar la transacción), para que una lectura concurrente que la haya cargado antes del
+     * borrado no la deje en el cache hasta que venza. Con el ledger habilitado, su cuenta se quita del ledger de la misma
+     * forma, para que una persona nueva con el mismo DNI no herede los créditos en memoria.
      *
      * @param idPersona Identificador único de la persona a ser eliminada.
      * @throws PersonaNoExisteException Si no se encuentra una persona con el ID proporcionado.
      */
     @Override
+    @Transactional
     public void eliminar(String idPersona) {
-        Persona persona = this.recuperar(idPersona);
+        Persona persona = recuperarSinCache(idPersona);
+        personaCache.invalidar(persona);
         personaRepository.delete(persona);
+        if (persona.tieneSaldoFraccionado() || fraccionesPorDni.containsKey(persona.getDni())) {
+            subSaldoRepository.deleteByDni(persona.getDni());
+            fraccionesPorDni.remove(persona.getDni());
+        }
+        personaCache.invalidar(persona);
+        quitarDelLedger(persona.getDni());
+    }
+
+    /**
+     * Quita la cuenta del ledger ahora y otra vez al confirmar la transacción, por si una transacción concurrente la
+     * volvió a cargar desde la persona todavía visible.
+     */
+    private void quitarDelLedger(String dniPersona) {
+        if (ledgerCreditos == null) {
+            return;
+        }
+        ledgerCreditos.quitar(dniPersona);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    ledgerCreditos.quitar(dniPersona);
+                }
+            });
+        }
     }
 
     /**
@@ -195,14 +530,187 @@ public class PersonaServiceImpl implements PersonaService {
      */
     @Override
     public List<Persona> recuperarTodos() {
-        return personaRepository.findAll();
+        return agregarCreditos(personaRepository.findAll());
     }
 
     /**
-     * Elimina todas las personas de la base de datos.
+     * Recupera una página de personas ordenadas por ID, usando como cursor el ID de la última persona de la página
+     * anterior. La consulta recorre el índice de {@code _id} desde el cursor, por lo que su costo no depende
+     * de la posición de la página.
+     *
+     * @param despuesDeId ID de la última persona de la página anterior, o null para la primera página.
+     * @param limite      Cantidad máxima de personas de la página.
+     * @return Personas de la página.
+     */
+    @Override
+    public List<Persona> recuperarPagina(String despuesDeId, int limite) {
+        if (despuesDeId == null || despuesDeId.isBlank()) {
+            return agregarCreditos(personaRepository.findAllByOrderByIdAsc(Limit.of(limite)));
+        }
+        return agregarCreditos(personaRepository.findByIdGreaterThanOrderByIdAsc(despuesDeId, Limit.of(limite)));
+    }
+
+    /**
+     * Recorre todas las personas con un cursor de MongoDB, sin cargarlas en memoria.
+     * El stream debe cerrarse para liberar el cursor.
+     *
+     * @return Stream de todas las personas.
+     */
+    @Override
+    public Stream<Persona> recorrerTodos() {
+        return personaRepository.streamAllBy().map(this::agregarCreditos);
+    }
+
+    /**
+     * Elimina todas las personas de la base de datos, y sus cuentas del ledger si está habilitado.
      */
     @Override
     public void eliminarTodo() {
         personaRepository.deleteAll();
+        subSaldoRepository.deleteAll();
+        if (ledgerCreditos != null) {
+            ledgerCreditos.vaciar();
+        }
+        fraccionesPorDni.clear();
+        filtroDnis.vaciar();
+        personaCache.invalidarTodo();
+    }
+
+    /**
+     * Consulta si la persona tiene el saldo fraccionado y recuerda su cantidad de fracciones.
+     *
+     * @param dniPersona DNI de la persona.
+     * @return Cantidad de fracciones, o null si la persona no tiene el saldo fraccionado.
+     * @throws PersonaNoExisteException Si no se encuentra una persona con el DNI proporcionado.
+     */
+    private Integer fraccionesDe(String dniPersona) {
+        Persona persona = personaRepository.findByDni(dniPersona);
+        if (persona == null) {
+            fraccionesPorDni.remove(dniPersona);
+            throw new PersonaNoExisteException();
+        }
+        if (!persona.tieneSaldoFraccionado()) {
+            fraccionesPorDni.remove(dniPersona);
+            return null;
+        }
+        fraccionesPorDni.put(dniPersona, persona.getFracciones());
+        return persona.getFracciones();
+    }
+
+    /**
+     * Suma créditos a una fracción del saldo de una persona, elegida al azar para repartir las escrituras.
+     *
+     * @param dniPersona DNI de la persona.
+     * @param fracciones Cantidad de fracciones de la persona.
+     * @param monto      Monto a sumar.
+     * @return true si se aplicó el crédito, false si la fracción no existe.
+     */
+    private boolean acreditarFraccion(String dniPersona, int fracciones, int monto) {
+        return subSaldoRepository.acreditar(dniPersona, ThreadLocalRandom.current().nextInt(fracciones), monto);
+    }
+
+    /**
+     * Resta créditos de las fracciones del saldo de una persona. Se prueban las fracciones de a una, empezando por una
+     * al azar; si ninguna alcanza por sí sola, se junta el monto de varias. En ese caso un débito que no se completa
+     * deja fracciones debitadas, que revierte la transacción de MongoDB de la operación.
+     *
+     * @param dniPersona DNI de la persona.
+     * @param fracciones Cantidad de fracciones de la persona.
+     * @param monto      Monto a restar.
+     * @throws MontoInsuficienteException Si la suma de las fracciones no alcanza para el monto.
+     */
+    private void debitarFracciones(String dniPersona, int fracciones, int monto) {
+        int inicio = ThreadLocalRandom.current().nextInt(fracciones);
+        for (int i = 0; i < fracciones; i++) {
+            if (subSaldoRepository.debitar(dniPersona, (inicio + i) % fracciones, monto)) {
+                return;
+            }
+        }
+        List<SubSaldo> subSaldos = subSaldoRepository.findByDni(dniPersona);
+        if (subSaldos.isEmpty()) {
+            // La persona dejó de tener el saldo fraccionado desde que se leyó su cantidad de fracciones.
+            fraccionesPorDni.remove(dniPersona);
+            if (personaRepository.debitarCreditos(dniPersona, monto)) {
+                return;
+            }
+        }
+        int restante = monto;
+        for (SubSaldo subSaldo : subSaldos) {
+            int parte = Math.min(subSaldo.getCreditos(), restante);
+            if (parte > 0 && subSaldoRepository.debitar(dniPersona, subSaldo.getIndice(), parte)) {
+                restante -= parte;
+                if (restante == 0) {
+                    return;
+                }
+            }
+        }
+        throw new MontoInsuficienteException();
+    }
+
+    /**
+     * Reparte los créditos de una persona en la cantidad de fracciones indicada, reemplazando las fracciones que
+     * tuviera. Con más de una fracción los créditos del documento de la persona quedan en cero; con una, los créditos
+     * vuelven al documento. La persona debe guardarse después.
+     *
+     * @param persona    Persona a fraccionar.
+     * @param fracciones Cantidad de fracciones.
+     * @param creditos   Créditos totales de la persona.
+     */
+    private void repartirCreditos(Persona persona, int fracciones, int creditos) {
+        subSaldoRepository.deleteByDni(persona.getDni());
+        if (fracciones == 1) {
+            persona.setCreditos(creditos);
+            persona.setFracciones(null);
+            fraccionesPorDni.remove(persona.getDni());
+            return;
+        }
+        List<SubSaldo> subSaldos = new ArrayList<>(fracciones);
+        for (int indice = 0; indice < fracciones; indice++) {
+            int parte = creditos / fracciones + (indice < creditos % fracciones ? 1 : 0);
+            subSaldos.add(new SubSaldo(persona.getDni(), indice, parte));
+        }
+        subSaldoRepository.insert(subSaldos);
+        persona.setCreditos(0);
+        persona.setFracciones(fracciones);
+        fraccionesPorDni.put(persona.getDni(), fracciones);
+    }
+
+    /**
+     * Suma a los créditos de una persona con el saldo fraccionado los de sus fracciones.
+     *
+     * @param persona Persona leída de la base de datos (puede ser nula).
+     * @return La misma persona, con sus créditos totales.
+     */
+    private Persona agregarCreditos(Persona persona) {
+        if (persona != null && persona.tieneSaldoFraccionado()) {
+            fraccionesPorDni.put(persona.getDni(), persona.getFracciones());
+            for (SubSaldo subSaldo : subSaldoRepository.findByDni(persona.getDni())) {
+                persona.aumentarCreditoPorTransaccion(subSaldo.getCreditos());
+            }
+        }
+        return persona;
+    }
+
+    /**
+     * Suma a los créditos de las personas con el saldo fraccionado los de sus fracciones, con una única consulta
+     * ({@code $in}) para todas ellas.
+     *
+     * @param personas Personas leídas de la base de datos.
+     * @return Las mismas personas, con sus créditos totales.
+     */
+    private List<Persona> agregarCreditos(List<Persona> personas) {
+        Map<String, Persona> fraccionadas = new HashMap<>();
+        for (Persona persona : personas) {
+            if (persona.tieneSaldoFraccionado()) {
+                fraccionadas.put(persona.getDni(), persona);
+                fraccionesPorDni.put(persona.getDni(), persona.getFracciones());
+            }
+        }
+        if (!fraccionadas.isEmpty()) {
+            for (SubSaldo subSaldo : subSaldoRepository.findByDniIn(fraccionadas.keySet())) {
+                fraccionadas.get(subSaldo.getDni()).aumentarCreditoPorTransaccion(subSaldo.getCreditos());
+            }
+        }
+        return personas;
     }
 }
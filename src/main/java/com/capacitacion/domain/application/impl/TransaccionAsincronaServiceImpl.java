@@ -0,0 +1,122 @@
+package com.capacitacion.domain.application.impl;
+
+import com.capacitacion.domain.application.OutboxService;
+import com.capacitacion.domain.application.TransaccionAsincronaService;
+import com.capacitacion.domain.application.TransaccionService;
+import com.capacitacion.domain.model.SolicitudTransaccionEvent;
+import com.capacitacion.domain.model.TicketTransaccion;
+import com.capacitacion.domain.model.Transaccion;
+import com.capacitacion.domain.model.exception.*;
+import com.capacitacion.domain.repository.TicketTransaccionRepository;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Service
+public class TransaccionAsincronaServiceImpl implements TransaccionAsincronaService {
+
+    public static final String TOPIC_COMANDOS = "transaccion-comando-topic";
+
+    @Autowired
+    private final TransaccionService transaccionService;
+    @Autowired
+    private final TicketTransaccionRepository ticketRepository;
+    @Autowired
+    private final OutboxService outboxService;
+    @Autowired
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Constructor de TransaccionAsincronaServiceImpl.
+     *
+     * @param transaccionService  Servicio de Transacciones que aplica cada solicitud.
+     * @param ticketRepository    Repositorio de los tickets de las solicitudes.
+     * @param outboxService       Servicio de outbox para registrar las solicitudes a publicar.
+     * @param transactionTemplate Plantilla para registrar el ticket y la solicitud, y para aplicar la transacción
+     *                            y cerrar el ticket, atómicamente.
+     */
+    public TransaccionAsincronaServiceImpl(TransaccionService transaccionService, TicketTransaccionRepository ticketRepository,
+                                           OutboxService outboxService, TransactionTemplate transactionTemplate) {
+        this.transaccionService = transaccionService;
+        this.ticketRepository = ticketRepository;
+        this.outboxService = outboxService;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Valida la solicitud sin acceder a las cuentas, registra un ticket pendiente y registra en el outbox la solicitud
+     * para el topic de comandos, con el DNI de origen como clave, de modo que las solicitudes de una misma cuenta
+     * se apliquen en orden.
+     *
+     * @param transaccion Transacción solicitada.
+     * @return Ticket pendiente asociado a la solicitud.
+     * @throws DniNoValidoException   Si el DNI no tiene el formato adecuado.
+     * @throws MontoNoValidoException Si el monto de la transacción no es válido.
+     * @throws DniRepetidoException   Si los DNIs de origen y destino son iguales.
+     */
+    @Override
+    public TicketTransaccion encolarTransaccion(Transaccion transaccion) {
+        transaccionService.validarSolicitud(transaccion);
+        return transactionTemplate.execute(status -> {
+            TicketTransaccion ticket = ticketRepository.save(new TicketTransaccion(transaccion));
+            outboxService.registrar(TOPIC_COMANDOS, ticket.getDniOrigen(), new SolicitudTransaccionEvent(ticket));
+            return ticket;
+        });
+    }
+
+    /**
+     * Aplica una solicitud recibida desde el topic de comandos. Antes de aplicarla se reclama el ticket, que pasa de
+     * pendiente a en proceso con el ID de la transacción a realizar fijado, y la transacción se realiza a lo sumo una
+     * vez por ese ID. Así, una solicitud reentregada mientras se procesa, o después de una caída entre la transacción
+     * y el cierre del ticket, realiza la misma transacción y no otra, también con el ledger habilitado, cuyos saldos
+     * en memoria no se revierten con la transacción de MongoDB. Una solicitud cuyo ticket ya se cerró se descarta.
+     *
+     * @param solicitud Solicitud de transacción a aplicar.
+     */
+    @Override
+    public void procesarSolicitud(SolicitudTransaccionEvent solicitud) {
+        TicketTransaccion ticket = ticketRepository.reclamar(solicitud.getTicketId(), new ObjectId().toHexString());
+        if (ticket == null) {
+            return;
+        }
+        Transaccion transaccion = solicitud.aTransaccion();
+        transaccion.setId(ticket.getTransaccionId());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Transaccion nuevaTransaccion = transaccionService.realizarTransaccionUnica(transaccion);
+                ticket.completar(nuevaTransaccion.getId());
+                ticketRepository.save(ticket);
+            });
+        } catch (DniNoValidoException | MontoNoValidoException | DniRepetidoException
+                 | PersonaNoExisteException | MontoInsuficienteException e) {
+            ticket.rechazar(e.getMessage());
+            ticketRepository.save(ticket);
+        }
+    }
+
+    /**
+     * Marca como fallido el ticket de una solicitud que no pudo procesarse después de agotar los reintentos. Los
+     * tickets ya cerrados no se modifican. El ticket conserva el ID de la transacción fijado al reclamarlo, con el que
+     * puede verificarse si la transacción llegó a realizarse antes de la falla.
+     *
+     * @param idTicket Identificador del ticket.
+     * @param motivo   Motivo de la falla.
+     */
+    @Override
+    public void marcarFallida(String idTicket, String motivo) {
+        ticketRepository.marcarFallido(idTicket, motivo);
+    }
+
+    /**
+     * Recupera un ticket por su ID.
+     *
+     * @param idTicket Identificador del ticket.
+     * @return Ticket recuperado.
+     * @throws TicketNoExisteException Si no se encuentra un ticket con el ID proporcionado.
+     */
+    @Override
+    public TicketTransaccion obtenerTicket(String idTicket) {
+        return ticketRepository.findById(idTicket).orElseThrow(TicketNoExisteException::new);
+    }
+}
@@ -1,43 +1,99 @@
 package com.capacitacion.domain.application.impl;
 import com.capacitacion.domain.model.Persona;
+import com.capacitacion.domain.model.ResultadoTransaccion;
 import com.capacitacion.domain.model.TransaccionEvent;
 import com.capacitacion.domain.model.exception.*;
+import com.capacitacion.domain.repository.ConflictosEscritura;
 import com.capacitacion.domain.repository.TransaccionRepository;
 import com.capacitacion.domain.model.Transaccion;
+import com.capacitacion.domain.application.OutboxService;
 import com.capacitacion.domain.application.PersonaService;
+import com.capacitacion.domain.model.EventoOutbox;
 import com.capacitacion.domain.application.TransaccionService;
+import com.capacitacion.infraestructura.metricas.MetricasEtapas;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.UnaryOperator;
 
 @Service
+@Slf4j
 public class TransaccionServiceImpl implements TransaccionService {
 
+    private static final String OPERACION_REALIZAR = "transaccion.realizar";
+    private static final String ERROR_TRAMO = "Message Error: No se pudo realizar la transaccion, debe reintentarse la operacion";
+
     @Autowired
     private final TransaccionRepository transaccionRepository;
     @Autowired
     private final PersonaService personaService;
     @Autowired
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final OutboxService outboxService;
+    @Autowired
+    private final MetricasEtapas metricasEtapas;
+    @Autowired
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanioTramo;
+    private final int reintentosTramo;
 
     /**
      * Constructor de TransaccionServiceImpl.
      *
      * @param transaccionRepository Repositorio de Transacciones.
      * @param personaService        Servicio de Persona.
-     * @param kafkaTemplate         Plantilla de Kafka.
+     * @param outboxService         Servicio de outbox para registrar los eventos de transacción.
+     * @param metricasEtapas        Métricas de duración de las etapas de cada operación.
+     * @param transactionTemplate   Plantilla para realizar cada tramo de un lote en su propia transacción.
+     * @param tamanioTramo          Cantidad máxima de transacciones de un lote que se realizan en una misma transacción.
+     * @param reintentosTramo       Cantidad de reintentos de un tramo cuyos saldos cambiaron durante su procesamiento.
      */
     @Autowired
-    public TransaccionServiceImpl(TransaccionRepository transaccionRepository, PersonaService personaService, KafkaTemplate<String, Object> kafkaTemplate) {
+    public TransaccionServiceImpl(TransaccionRepository transaccionRepository, PersonaService personaService, OutboxService outboxService,
+                                  MetricasEtapas metricasEtapas, TransactionTemplate transactionTemplate,
+                                  @Value("${capacitacion.transaccion.lote.tamanio-tramo:1000}") int tamanioTramo,
+                                  @Value("${capacitacion.transaccion.lote.reintentos-tramo:3}") int reintentosTramo) {
         this.transaccionRepository = transaccionRepository;
         this.personaService = personaService;
-        this.kafkaTemplate = kafkaTemplate;
+        this.outboxService = outboxService;
+        this.metricasEtapas = metricasEtapas;
+        this.transactionTemplate = transactionTemplate;
+        this.tamanioTramo = Math.max(1, tamanioTramo);
+        this.reintentosTramo = Math.max(0, reintentosTramo);
+    }
+
+    /**
+     * Valida una transacción sin acceder a la base de datos: formato de los DNIs, monto y que las cuentas sean distintas.
+     *
+     * @param transaccion Transacción a validar.
+     * @throws DniNoValidoException   Si el DNI no tiene el formato adecuado.
+     * @throws MontoNoValidoException Si el monto de la transacción no es válido.
+     * @throws DniRepetidoException   Si los DNIs de origen y destino son iguales.
+     */
+    @Override
+    public void validarSolicitud(Transaccion transaccion) {
+        validarCampos(transaccion);
+        verificarDnis(transaccion.getDniOrigen(), transaccion.getDniDestino());
     }
 
     /**
-     * Realiza una transacción, valida campos, realiza actualizaciones y envía un evento a Kafka.
+     * Realiza una transacción, valida campos, realiza actualizaciones y registra un evento en el outbox para Kafka.
+     * El débito, el crédito y el evento se escriben dentro de una misma transacción de MongoDB,
+     * por lo que un fallo en cualquiera de los pasos deja ambos saldos sin cambios y no publica el evento.
+     * Las transacciones con DNIs que el filtro de DNIs descarta se rechazan antes de acceder a la base.
      *
      * @param transaccion Transacción a realizar.
      * @return La nueva Transacción creada.
@@ -48,17 +104,208 @@ public class TransaccionServiceImpl implements TransaccionService {
      * @throws MontoInsuficienteException  Si el monto a transferir excede los créditos disponibles en la cuenta de origen.
      */
     @Override
+    @Transactional
     public Transaccion realizarTransaccion(Transaccion transaccion) {
-        validarCampos(transaccion);
-        validarTransaccion(transaccion);
-        actualizarPartes(transaccion.getDniOrigen(), transaccion.getDniDestino(), transaccion.getMonto());
-        Transaccion nuevaTransaccion = transaccionRepository.save(transaccion);
+        return realizar(transaccion, transaccionRepository::save);
+    }
+
+    /**
+     * Realiza una transacción con el ID ya asignado por quien la solicita, a lo sumo una vez. Si ya existe una
+     * transacción con ese ID se devuelve sin volver a aplicarla; si no, se realiza como en
+     * {@link #realizarTransaccion(Transaccion)} pero se inserta en lugar de guardarse, de modo que si otra solicitud con
+     * el mismo ID se realiza a la vez, el índice único de {@code _id} rechaza la segunda y revierte su transacción.
+     *
+     * @param transaccion Transacción a realizar, con su ID asignado.
+     * @return La transacción realizada con ese ID.
+     * @throws DniNoValidoException        Si el DNI no tiene el formato adecuado.
+     * @throws MontoNoValidoException      Si el monto de la transacción no es válido.
+     * @throws PersonaNoExisteException    Si una de las personas involucradas en la transacción no existe.
+     * @throws DniRepetidoException        Si los DNIs de origen y destino son iguales.
+     * @throws MontoInsuficienteException  Si el monto a transferir excede los créditos disponibles en la cuenta de origen.
+     */
+    @Override
+    @Transactional
+    public Transaccion realizarTransaccionUnica(Transaccion transaccion) {
+        Transaccion realizada = buscarRealizada(transaccion.getId());
+        if (realizada != null) {
+            return realizada;
+        }
+        return realizar(transaccion, transaccionRepository::insert);
+    }
+
+    /**
+     * Busca una transacción ya guardada por su ID.
+     *
+     * @param idTransaccion ID de la transacción.
+     * @return Transacción guardada, o null si no existe.
+     */
+    public Transaccion buscarRealizada(String idTransaccion) {
+        return transaccionRepository.findById(idTransaccion).orElse(null);
+    }
 
-        TransaccionEvent transaccionEvent = new TransaccionEvent(nuevaTransaccion.getId());
-        kafkaTemplate.send("transaccion-topic", transaccionEvent);
+    private Transaccion realizar(Transaccion transaccion, UnaryOperator<Transaccion> guardar) {
+        MetricasEtapas.Operacion operacion = metricasEtapas.operacion(OPERACION_REALIZAR,
+                transaccion.getDniOrigen(), transaccion.getDniDestino(), transaccion.getMonto());
+        operacion.medirAccion("validacion", () -> {
+            validarSolicitud(transaccion);
+            verificarPersonas(transaccion.getDniOrigen(), transaccion.getDniDestino());
+        });
+        operacion.medirAccion("actualizacion-saldos",
+                () -> actualizarPartes(transaccion.getDniOrigen(), transaccion.getDniDestino(), transaccion.getMonto()));
+        transaccion.setFecha(Instant.now());
+        Transaccion nuevaTransaccion = operacion.medir("guardado", () -> guardar.apply(transaccion));
+
+        TransaccionEvent transaccionEvent = new TransaccionEvent(nuevaTransaccion);
+        operacion.medirAccion("publicacion",
+                () -> outboxService.registrar("transaccion-topic", nuevaTransaccion.getDniOrigen(), transaccionEvent));
         return nuevaTransaccion;
     }
 
+    /**
+     * Realiza un lote de transacciones en tramos de a lo sumo {@code tamanioTramo} transacciones, cada uno en su propia
+     * transacción de MongoDB, para acotar la duración y el tamaño de cada transacción. Cada tramo se realiza con una
+     * cantidad fija de accesos a la base de datos: una consulta {@code $in} para todas las personas involucradas, una
+     * escritura masiva con las variaciones de créditos y un {@code insertMany} con las transacciones aceptadas. Las
+     * transacciones se evalúan en el orden recibido, de modo que cada una ve el efecto de las anteriores del lote.
+     * Si los saldos de un tramo cambian por otra operación mientras se procesa, el tramo se reintenta; si sigue
+     * fallando, sus transacciones se informan como rechazadas y se continúa con el tramo siguiente.
+     *
+     * @param transacciones Transacciones a realizar.
+     * @return Resultado de cada transacción, en el mismo orden del lote.
+     */
+    @Override
+    public List<ResultadoTransaccion> realizarTransacciones(List<Transaccion> transacciones) {
+        List<ResultadoTransaccion> resultados = new ArrayList<>(transacciones.size());
+        for (int inicio = 0; inicio < transacciones.size(); inicio += tamanioTramo) {
+            List<Transaccion> tramo = transacciones.subList(inicio, Math.min(inicio + tamanioTramo, transacciones.size()));
+            resultados.addAll(realizarTramo(tramo, inicio));
+        }
+        return resultados;
+    }
+
+    /**
+     * Realiza un tramo de un lote en una transacción, reintentándolo si sus saldos cambiaron durante el procesamiento.
+     *
+     * @param tramo  Transacciones del tramo.
+     * @param inicio Posición de la primera transacción del tramo dentro del lote.
+     * @return Resultado de cada transacción del tramo; todas rechazadas si el tramo no pudo realizarse.
+     */
+    private List<ResultadoTransaccion> realizarTramo(List<Transaccion> tramo, int inicio) {
+        RuntimeException error = null;
+        for (int intento = 0; intento <= reintentosTramo; intento++) {
+            try {
+                return transactionTemplate.execute(status -> procesarTramo(tramo, inicio));
+            } catch (SaldoModificadoException e) {
+                error = e;
+            } catch (DataAccessException | TransactionException e) {
+                if (!ConflictosEscritura.esTransitorio(e)) {
+                    log.error("No se pudo realizar el tramo de {} transacciones desde la posicion {}", tramo.size(), inicio, e);
+                    return rechazarTramo(tramo, inicio, ERROR_TRAMO);
+                }
+                error = new ConflictoEscrituraException();
+            }
+        }
+        log.warn("Tramo de {} transacciones desde la posicion {} rechazado despues de {} intentos: {}",
+                tramo.size(), inicio, reintentosTramo + 1, error.getMessage());
+        return rechazarTramo(tramo, inicio, error.getMessage());
+    }
+
+    /**
+     * Informa como rechazadas todas las transacciones de un tramo.
+     *
+     * @param tramo   Transacciones del tramo.
+     * @param inicio  Posición de la primera transacción del tramo dentro del lote.
+     * @param mensaje Motivo del rechazo.
+     * @return Resultado rechazado de cada transacción del tramo.
+     */
+    private List<ResultadoTransaccion> rechazarTramo(List<Transaccion> tramo, int inicio, String mensaje) {
+        List<ResultadoTransaccion> resultados = new ArrayList<>(tramo.size());
+        for (int i = 0; i < tramo.size(); i++) {
+            resultados.add(ResultadoTransaccion.rechazada(inicio + i, mensaje));
+        }
+        return resultados;
+    }
+
+    /**
+     * Procesa un tramo de un lote dentro de la transacción en curso.
+     *
+     * @param transacciones Transacciones del tramo.
+     * @param inicio        Posición de la primera transacción del tramo dentro del lote.
+     * @return Resultado de cada transacción del tramo.
+     * @throws SaldoModificadoException Si los saldos cambiaron por otra operación mientras se procesaba el tramo;
+     *                                  en ese caso no se aplica ninguna transacción del tramo.
+     */
+    private List<ResultadoTransaccion> procesarTramo(List<Transaccion> transacciones, int inicio) {
+        Set<String> dnis = new HashSet<>();
+        for (Transaccion transaccion : transacciones) {
+            if (transaccion.getDniOrigen() != null) {
+                dnis.add(transaccion.getDniOrigen());
+            }
+            if (transaccion.getDniDestino() != null) {
+                dnis.add(transaccion.getDniDestino());
+            }
+        }
+        Map<String, Integer> saldos = new HashMap<>();
+        for (Persona persona : personaService.obtenerPorDnis(dnis).values()) {
+            saldos.put(persona.getDni(), persona.getCreditos());
+        }
+
+        ResultadoTransaccion[] resultados = new ResultadoTransaccion[transacciones.size()];
+        Map<String, Integer> movimientos = new HashMap<>();
+        List<Transaccion> aceptadas = new ArrayList<>();
+        List<Integer> indicesAceptadas = new ArrayList<>();
+        for (int indice = 0; indice < transacciones.size(); indice++) {
+            Transaccion transaccion = transacciones.get(indice);
+            try {
+                validarSolicitud(transaccion);
+                simularPartes(transaccion, saldos, movimientos);
+                aceptadas.add(transaccion);
+                indicesAceptadas.add(indice);
+            } catch (DniNoValidoException | MontoNoValidoException | DniRepetidoException
+                     | PersonaNoExisteException | MontoInsuficienteException e) {
+                resultados[indice] = ResultadoTransaccion.rechazada(inicio + indice, e.getMessage());
+            }
+        }
+
+        personaService.aplicarMovimientos(movimientos);
+        Instant fecha = Instant.now();
+        aceptadas.forEach(transaccion -> transaccion.setFecha(fecha));
+        List<Transaccion> nuevasTransacciones = aceptadas.isEmpty() ? aceptadas : transaccionRepository.insert(aceptadas);
+        List<EventoOutbox> eventos = new ArrayList<>(nuevasTransacciones.size());
+        for (int i = 0; i < nuevasTransacciones.size(); i++) {
+            Transaccion nuevaTransaccion = nuevasTransacciones.get(i);
+            int indice = indicesAceptadas.get(i);
+            resultados[indice] = ResultadoTransaccion.exitosa(inicio + indice, nuevaTransaccion.getId());
+            eventos.add(new EventoOutbox("transaccion-topic", nuevaTransaccion.getDniOrigen(), new TransaccionEvent(nuevaTransaccion)));
+        }
+        outboxService.registrarTodos(eventos);
+        return List.of(resultados);
+    }
+
+    /**
+     * Obtiene el historial de transacciones de una persona, como origen o como destino, de la más reciente a la más
+     * antigua. Se pagina con la última transacción de la página anterior como cursor, por lo que el costo de cada
+     * página no depende de su posición ni de la cantidad de transacciones almacenadas.
+     *
+     * @param dni         DNI de la persona.
+     * @param desde       Fecha mínima, inclusive (puede ser nula).
+     * @param hasta       Fecha máxima, inclusive (puede ser nula).
+     * @param despuesDeId ID de la última transacción de la página anterior, o null para la primera página.
+     * @param limite      Cantidad máxima de transacciones de la página.
+     * @return Transacciones de la página.
+     * @throws DniNoValidoException         Si el DNI no tiene el formato adecuado.
+     * @throws TransaccionNoExisteException Si no existe la transacción usada como cursor.
+     */
+    @Override
+    public List<Transaccion> obtenerHistorial(String dni, Instant desde, Instant hasta, String despuesDeId, int limite) {
+        validarDni(dni);
+        if (despuesDeId == null || despuesDeId.isBlank()) {
+            return transaccionRepository.buscarHistorial(dni, desde, hasta, null, null, limite);
+        }
+        Transaccion cursor = transaccionRepository.findById(despuesDeId).orElseThrow(TransaccionNoExisteException::new);
+        return transaccionRepository.buscarHistorial(dni, desde, hasta, cursor.getFecha(), cursor.getId(), limite);
+    }
+
     /**
      * Elimina todas las transacciones.
      */
@@ -104,34 +351,6 @@ public class TransaccionServiceImpl implements TransaccionService {
         }
     }
 
-    /**
-     * Valida la transacción, verificando la existencia de las personas, la no repetición de DNIs y la suficiencia de créditos.
-     *
-     * @param transaccion Transacción a validar.
-     * @throws PersonaNoExisteException   Si una de las personas involucradas en la transacción no existe.
-     * @throws DniRepetidoException       Si los DNIs de origen y destino son iguales.
-     * @throws MontoInsuficienteException Si el monto a transferir excede los créditos disponibles en la cuenta de origen.
-     */
-    private void validarTransaccion(Transaccion transaccion) {
-        validarPersona(transaccion.getDniOrigen());
-        validarPersona(transaccion.getDniDestino());
-        verificarDnis(transaccion.getDniOrigen(), transaccion.getDniDestino());
-        validarMontoATransferir(transaccion.getDniOrigen(), transaccion.getMonto());
-    }
-
-    /**
-     * Valida la existencia de una persona por su DNI.
-     *
-     * @param dniPersona DNI de la persona a validar.
-     * @throws PersonaNoExisteException Si la persona con el DNI especificado no existe.
-     */
-    private void validarPersona(String dniPersona) {
-        Persona persona = personaService.obtenerPorDni(dniPersona);
-        if (persona == null) {
-            throw new PersonaNoExisteException();
-        }
-    }
-
     /**
      * Verifica que los DNIs no sean iguales en una transacción.
      *
@@ -146,32 +365,55 @@ public class TransaccionServiceImpl implements TransaccionService {
     }
 
     /**
-     * Valida que el monto a transferir no exceda los créditos disponibles en la cuenta de origen.
+     * Descarta las transacciones con un DNI que no está registrado. Los DNIs que el filtro de DNIs considera posibles
+     * no se consultan en la base de datos.
      *
-     * @param dniPersona DNI de la persona origen.
-     * @param monto Monto a transferir.
-     * @throws MontoInsuficienteException Si el monto a transferir excede los créditos disponibles en la cuenta de origen.
+     * @param dniOrigen  DNI de la persona de origen.
+     * @param dniDestino DNI de la persona de destino.
+     * @throws PersonaNoExisteException Si una de las personas no existe.
      */
-    private void validarMontoATransferir(String dniPersona, int monto) {
-        Persona persona = personaService.obtenerPorDni(dniPersona);
-        if (persona.getCreditos() < monto) {
-            throw new MontoInsuficienteException();
+    private void verificarPersonas(String dniOrigen, String dniDestino) {
+        if (!personaService.podriaExistir(dniOrigen) || !personaService.podriaExistir(dniDestino)) {
+            throw new PersonaNoExisteException();
         }
     }
 
     /**
      * Actualiza las cuentas de origen y destino después de una transacción.
+     * El débito sólo se aplica si la cuenta de origen dispone de créditos suficientes.
      *
      * @param dniOrigen DNI de la persona de origen.
      * @param dniDestino DNI de la persona de destino.
      * @param monto Monto de la transacción.
+     * @throws PersonaNoExisteException   Si una de las personas involucradas en la transacción no existe.
+     * @throws MontoInsuficienteException Si el monto a transferir excede los créditos disponibles en la cuenta de origen.
      */
     private void actualizarPartes(String dniOrigen, String dniDestino, int monto) {
-        Persona personaOrigen = personaService.obtenerPorDni(dniOrigen);
-        Persona personaDestino = personaService.obtenerPorDni(dniDestino);
-        personaOrigen.restarCreditoPorTransaccion(monto);
-        personaDestino.aumentarCreditoPorTransaccion(monto);
-        personaService.actualizar(personaOrigen.getId(), personaOrigen);
-        personaService.actualizar(personaDestino.getId(), personaDestino);
+        personaService.debitarCreditos(dniOrigen, monto);
+        personaService.acreditarCreditos(dniDestino, monto);
+    }
+
+    /**
+     * Aplica una transacción sobre los saldos en memoria de un lote, acumulando la variación de créditos por DNI.
+     *
+     * @param transaccion Transacción a aplicar.
+     * @param saldos      Saldos actuales por DNI de las personas del lote.
+     * @param movimientos Variación acumulada de créditos por DNI.
+     * @throws PersonaNoExisteException   Si una de las personas involucradas en la transacción no existe.
+     * @throws MontoInsuficienteException Si el monto a transferir excede los créditos disponibles en la cuenta de origen.
+     */
+    private void simularPartes(Transaccion transaccion, Map<String, Integer> saldos, Map<String, Integer> movimientos) {
+        Integer saldoOrigen = saldos.get(transaccion.getDniOrigen());
+        if (saldoOrigen == null || !saldos.containsKey(transaccion.getDniDestino())) {
+            throw new PersonaNoExisteException();
+        }
+        int monto = transaccion.getMonto();
+        if (saldoOrigen < monto) {
+            throw new MontoInsuficienteException();
+        }
+        saldos.put(transaccion.getDniOrigen(), saldoOrigen - monto);
+        saldos.merge(transaccion.getDniDestino(), monto, Integer::sum);
+        movimientos.merge(transaccion.getDniOrigen(), -monto, Integer::sum);
+        movimientos.merge(transaccion.getDniDestino(), monto, Integer::sum);
     }
 }
@@ -0,0 +1,73 @@
+package com.capacitacion.domain.ledger;
+
+import com.capacitacion.domain.model.EventoOutbox;
+import com.capacitacion.domain.model.Transaccion;
+import com.capacitacion.domain.model.TransaccionEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Persistencia de los créditos del {@link LedgerCreditos}. Se elige con {@code capacitacion.ledger.persistencia}:
+ * {@code saldos} actualiza los créditos de cada persona en su documento, {@code asientos} guarda cada débito y
+ * crédito como un asiento inmutable, con snapshots periódicos de los saldos, y {@code mapeado} los guarda en un
+ * archivo local mapeado en memoria con un log de escritura anticipada.
+ */
+public interface AlmacenLedger {
+
+    /**
+     * Recupera los créditos persistidos de todas las cuentas.
+     *
+     * @param cuenta Función que recibe el DNI y los créditos de cada cuenta.
+     */
+    void cargarSaldos(BiConsumer<String, Integer> cuenta);
+
+    /**
+     * Recupera los créditos persistidos de una cuenta.
+     *
+     * @param dni DNI de la cuenta.
+     * @return Créditos de la cuenta, o null si no existe una persona con el DNI indicado.
+     */
+    Integer saldo(String dni);
+
+    /**
+     * Persiste un lote de transacciones aplicadas por el ledger, junto con sus eventos del outbox, de forma atómica.
+     *
+     * @param lote Transacciones a persistir, en el orden en que se aplicaron.
+     */
+    void persistir(List<Transaccion> lote);
+
+    /**
+     * Espera a que la transacción con la secuencia indicada sea durable. Los almacenes que confirman las
+     * transacciones antes de persistirlas no esperan.
+     *
+     * @param secuencia Secuencia devuelta por {@link LedgerCreditos#transferir(Transaccion)}.
+     */
+    default void esperarPersistencia(long secuencia) {
+    }
+
+    /**
+     * Informa que un lote no pudo persistirse y quedó en cuarentena. Los almacenes que confirman las transacciones
+     * después de persistirlas dejan de esperarlas: {@link #esperarPersistencia(long)} falla para las transacciones
+     * del lote en lugar de confirmarlas.
+     *
+     * @param lote Transacciones del lote puesto en cuarentena, en el orden en que se aplicaron.
+     */
+    default void descartar(List<Transaccion> lote) {
+    }
+
+    /**
+     * Arma los eventos del outbox de un lote de transacciones.
+     *
+     * @param lote Transacciones del lote.
+     * @return Un evento por transacción.
+     */
+    static List<EventoOutbox> eventos(List<Transaccion> lote) {
+        List<EventoOutbox> eventos = new ArrayList<>(lote.size());
+        for (Transaccion transaccion : lote) {
+            eventos.add(new EventoOutbox("transaccion-topic", transaccion.getDniOrigen(), new TransaccionEvent(transaccion)));
+        }
+        return eventos;
+    }
+}
@@ -0,0 +1,227 @@
+package com.capacitacion.domain.ledger;
+
+import com.capacitacion.domain.application.OutboxService;
+import com.capacitacion.domain.model.AsientoLedger;
+import com.capacitacion.domain.model.CheckpointLedger;
+import com.capacitacion.domain.model.Persona;
+import com.capacitacion.domain.model.Transaccion;
+import com.capacitacion.domain.repository.AsientoLedgerRepository;
+import com.capacitacion.domain.repository.CheckpointLedgerRepository;
+import com.capacitacion.domain.repository.PersonaRepository;
+import com.capacitacion.domain.repository.TransaccionRepository;
+import com.capacitacion.infraestructura.cache.PersonaCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * {@link AlmacenLedger} que guarda cada transacción como dos asientos inmutables (débito y crédito) en lugar de
+ * reescribir los documentos de las personas. Los créditos de {@link Persona} pasan a ser una proyección de los asientos
+ * que se actualiza en cada snapshot periódico, registrando en un {@link CheckpointLedger} el último asiento incluido.
+ * Al iniciar, los saldos se reconstruyen desde el último snapshot más los asientos posteriores, recorriendo las
+ * particiones de DNIs en paralelo. Entre snapshots, los créditos que se leen de las personas pueden estar atrasados;
+ * los del ledger en memoria son siempre los vigentes.
+ */
+@Component
+@ConditionalOnExpression("${capacitacion.ledger.habilitado:false} and '${capacitacion.ledger.persistencia:saldos}' == 'asientos'")
+@Slf4j
+public class AlmacenLedgerAsientos implements AlmacenLedger {
+
+    private final AsientoLedgerRepository asientoRepository;
+    private final CheckpointLedgerRepository checkpointRepository;
+    private final PersonaRepository personaRepository;
+    private final TransaccionRepository transaccionRepository;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final PersonaCache personaCache;
+    private final int particiones;
+
+    private final Map<String, Integer> saldosPersistidos = new HashMap<>();
+    private final Set<String> modificadosDesdeSnapshot = new HashSet<>();
+    private long ultimaSecuencia = -1;
+
+    /**
+     * Constructor de AlmacenLedgerAsientos.
+     *
+     * @param asientoRepository     Repositorio de los asientos.
+     * @param checkpointRepository  Repositorio del checkpoint del último snapshot.
+     * @param personaRepository     Repositorio de Persona, donde se guarda el snapshot de los créditos.
+     * @param transaccionRepository Repositorio de Transacciones.
+     * @param outboxService         Servicio de outbox para registrar los eventos de transacción.
+     * @param transactionTemplate   Plantilla para escribir cada lote y cada snapshot en una transacción.
+     * @param personaCache          Cache de personas a invalidar al tomar un snapshot.
+     * @param particiones           Cantidad de particiones de DNIs de los asientos; no debe cambiarse con asientos guardados.
+     */
+    public AlmacenLedgerAsientos(AsientoLedgerRepository asientoRepository, CheckpointLedgerRepository checkpointRepository,
+                                 PersonaRepository personaRepository, TransaccionRepository transaccionRepository,
+                                 OutboxService outboxService, TransactionTemplate transactionTemplate, PersonaCache personaCache,
+                                 @Value("${capacitacion.ledger.asientos.particiones:16}") int particiones) {
+        this.asientoRepository = asientoRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.personaRepository = personaRepository;
+        this.transaccionRepository = transaccionRepository;
+        this.outboxService = outboxService;
+        this.transactionTemplate = transactionTemplate;
+        this.personaCache = personaCache;
+        this.particiones = particiones;
+    }
+
+    /**
+     * Reconstruye los créditos de todas las cuentas: parte de los créditos de las personas (el último snapshot)
+     * y les suma los asientos posteriores al checkpoint, recorriendo cada partición en un hilo distinto.
+     */
+    @Override
+    public synchronized void cargarSaldos(BiConsumer<String, Integer> cuenta) {
+        long inicio = System.nanoTime();
+        Map<String, Integer> saldos = new ConcurrentHashMap<>();
+        try (Stream<Persona> personas = personaRepository.streamAllBy()) {
+            personas.forEach(persona -> saldos.put(persona.getDni(), persona.getCreditos()));
+        }
+        long desde = secuenciaDelSnapshot();
+        ExecutorService ejecutor = Executors.newFixedThreadPool(Math.min(particiones, Runtime.getRuntime().availableProcessors()));
+        try {
+            List<Future<Long>> replays = new ArrayList<>(particiones);
+            for (int particion = 0; particion < particiones; particion++) {
+                int actual = particion;
+                replays.add(ejecutor.submit(() -> reproducir(actual, desde, saldos)));
+            }
+            long asientos = 0;
+            for (Future<Long> replay : replays) {
+                asientos += replay.get();
+            }
+            log.info("Saldos del ledger reconstruidos: {} cuentas y {} asientos posteriores al snapshot en {} ms",
+                    saldos.size(), asientos, (System.nanoTime() - inicio) / 1_000_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Se interrumpió la reconstrucción de los saldos del ledger", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("No se pudieron reconstruir los saldos del ledger", e.getCause());
+        } finally {
+            ejecutor.shutdown();
+        }
+        saldosPersistidos.putAll(saldos);
+        saldos.forEach(cuenta);
+    }
+
+    /**
+     * Recupera los créditos de una cuenta desde el último snapshot más los asientos posteriores de su partición.
+     */
+    @Override
+    public synchronized Integer saldo(String dni) {
+        Integer persistido = saldosPersistidos.get(dni);
+        return persistido != null ? persistido : saldoDesdeSnapshot(dni);
+    }
+
+    @Override
+    public synchronized void persistir(List<Transaccion> lote) {
+        inicializarSecuencia();
+        List<AsientoLedger> asientos = new ArrayList<>(lote.size() * 2);
+        Map<String, Integer> movimientos = new HashMap<>();
+        long secuencia = ultimaSecuencia;
+        for (Transaccion transaccion : lote) {
+            asientos.add(asiento(++secuencia, transaccion.getDniOrigen(), -transaccion.getMonto(), transaccion));
+            asientos.add(asiento(++secuencia, transaccion.getDniDestino(), transaccion.getMonto(), transaccion));
+            movimientos.merge(transaccion.getDniOrigen(), -transaccion.getMonto(), Integer::sum);
+            movimientos.merge(transaccion.getDniDestino(), transaccion.getMonto(), Integer::sum);
+        }
+        for (String dni : movimientos.keySet()) {
+            if (!saldosPersistidos.containsKey(dni)) {
+                Integer saldo = saldoDesdeSnapshot(dni);
+                saldosPersistidos.put(dni, saldo == null ? 0 : saldo);
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            asientoRepository.insert(asientos);
+            transaccionRepository.insert(lote);
+            outboxService.registrarTodos(AlmacenLedger.eventos(lote));
+        });
+        ultimaSecuencia = secuencia;
+        movimientos.forEach((dni, variacion) -> saldosPersistidos.merge(dni, variacion, Integer::sum));
+        modificadosDesdeSnapshot.addAll(movimientos.keySet());
+    }
+
+    /**
+     * Guarda en las personas los créditos de las cuentas modificadas desde el snapshot anterior y registra
+     * el último asiento incluido, en una única transacción.
+     */
+    @Scheduled(fixedDelayString = "${capacitacion.ledger.asientos.intervalo-snapshot-ms:60000}")
+    public synchronized void tomarSnapshot() {
+        if (modificadosDesdeSnapshot.isEmpty()) {
+            return;
+        }
+        Map<String, Integer> creditos = new HashMap<>();
+        modificadosDesdeSnapshot.forEach(dni -> creditos.put(dni, saldosPersistidos.get(dni)));
+        CheckpointLedger checkpoint = new CheckpointLedger(ultimaSecuencia);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                personaRepository.fijarCreditos(creditos);
+                checkpointRepository.save(checkpoint);
+            });
+        } catch (RuntimeException e) {
+            log.warn("No se pudo guardar el snapshot de {} cuentas del ledger, se reintentará", creditos.size(), e);
+            return;
+        }
+        modificadosDesdeSnapshot.clear();
+        creditos.keySet().forEach(personaCache::invalidarPorDni);
+        log.debug("Snapshot del ledger guardado hasta el asiento {} con {} cuentas", checkpoint.getUltimaSecuencia(), creditos.size());
+    }
+
+    private long reproducir(int particion, long desde, Map<String, Integer> saldos) {
+        long asientos = 0;
+        try (Stream<AsientoLedger> tail = asientoRepository.streamByParticionAndIdGreaterThanOrderByIdAsc(particion, desde)) {
+            for (AsientoLedger asiento : (Iterable<AsientoLedger>) tail::iterator) {
+                saldos.merge(asiento.getDni(), asiento.getVariacion(), Integer::sum);
+                asientos++;
+            }
+        }
+        return asientos;
+    }
+
+    private Integer saldoDesdeSnapshot(String dni) {
+        Persona persona = personaRepository.findByDni(dni);
+        if (persona == null) {
+            return null;
+        }
+        int saldo = persona.getCreditos();
+        for (AsientoLedger asiento : asientoRepository.findByParticionAndIdGreaterThanAndDni(particion(dni), secuenciaDelSnapshot(), dni)) {
+            saldo += asiento.getVariacion();
+        }
+        return saldo;
+    }
+
+    private long secuenciaDelSnapshot() {
+        return checkpointRepository.findById(CheckpointLedger.ID).map(CheckpointLedger::getUltimaSecuencia).orElse(0L);
+    }
+
+    private void inicializarSecuencia() {
+        if (ultimaSecuencia < 0) {
+            AsientoLedger ultimo = asientoRepository.findFirstByOrderByIdDesc();
+            ultimaSecuencia = ultimo == null ? 0 : ultimo.getId();
+        }
+    }
+
+    private AsientoLedger asiento(long secuencia, String dni, int variacion, Transaccion transaccion) {
+        return new AsientoLedger(secuencia, particion(dni), dni, variacion, transaccion.getId(), transaccion.getFecha());
+    }
+
+    private int particion(String dni) {
+        return Math.floorMod(dni.hashCode(), particiones);
+    }
+}
@@ -0,0 +1,560 @@
+package com.capacitacion.domain.ledger;
+
+import com.capacitacion.domain.application.OutboxService;
+import com.capacitacion.domain.model.Persona;
+import com.capacitacion.domain.model.Transaccion;
+import com.capacitacion.domain.repository.PersonaRepository;
+import com.capacitacion.domain.repository.TransaccionRepository;
+import com.capacitacion.infraestructura.cache.PersonaCache;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * {@link AlmacenLedger} que guarda los créditos en un archivo local mapeado en memoria, con una posición fija de
+ * 8 bytes por DNI de ocho dígitos, y cada transacción en un log de escritura anticipada. Cada lote del
+ * {@link PersistidorLedger} se agrega al log con un único {@code fsync} (group commit) antes de escribirse en el
+ * archivo de saldos, y recién entonces se confirman las transacciones del lote que esperan en
+ * {@link #esperarPersistencia(long)}. Los lotes puestos en cuarentena sin llegar al log avanzan la secuencia igual que
+ * los confirmados, pero quienes esperan sus transacciones reciben un error. Las transacciones y sus eventos del outbox
+ * se guardan en MongoDB después de confirmarlas, fuera del camino crítico.
+ * <p>
+ * Cada registro del log guarda la transferencia completa (ID, DNIs, monto y fecha) y los créditos resultantes de cada
+ * cuenta, no la variación, así que reproducirlo más de una vez no cambia el resultado. Al iniciar se reproduce el log
+ * completo sobre el archivo de saldos y se guardan en MongoDB las transacciones del log que todavía no están en la
+ * colección, con sus eventos del outbox. En cada checkpoint se fuerza el archivo de saldos a disco y se vacía el log,
+ * salvo que haya un lote confirmado que todavía no se guardó en MongoDB. Los créditos de las personas en MongoDB son
+ * una proyección que se actualiza en cada checkpoint. Los DNIs que no son de ocho dígitos no tienen posición en el
+ * archivo y se persisten sobre MongoDB como en {@link AlmacenLedgerSaldos}.
+ */
+@Component
+@ConditionalOnExpression("${capacitacion.ledger.habilitado:false} and '${capacitacion.ledger.persistencia:saldos}' == 'mapeado'")
+@Slf4j
+public class AlmacenLedgerMapeado implements AlmacenLedger {
+
+    private static final long FIRMA = 0x4C45444745523031L;
+    private static final int CABECERA = 64;
+    private static final int POSICIONES = 100_000_000;
+    /** Longitud máxima del contenido de un registro; una longitud mayor sólo puede ser un registro corrupto. */
+    private static final int REGISTRO_MAXIMO = 4096;
+    private static final int TRANSACCIONES_POR_ESCRITURA = 1000;
+
+    private final PersonaRepository personaRepository;
+    private final TransaccionRepository transaccionRepository;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final PersonaCache personaCache;
+    private final long esperaMaximaMs;
+
+    private final FileChannel archivoSaldos;
+    private final MappedByteBuffer saldos;
+    private final FileChannel diario;
+    /** Fin del último registro completo del log; lo que haya después es un registro cortado y se descarta. */
+    private long finDiario;
+    private ByteBuffer registros = ByteBuffer.allocateDirect(64 * 1024);
+    private final CRC32 crc = new CRC32();
+
+    private final Set<Integer> modificadosDesdeCheckpoint = new HashSet<>();
+    private final Object confirmaciones = new Object();
+    /** Secuencia de la última transacción confirmada o descartada; los lotes llegan en el orden de la secuencia. */
+    private long confirmadas;
+    /** Rangos de secuencias de los lotes descartados, de la primera a la última de cada lote. */
+    private final NavigableMap<Long, Long> descartadas = new TreeMap<>();
+    private Transaccion ultimaRegistrada;
+    /** Indica si el último lote agregado al log todavía no se guardó en MongoDB, por lo que el log no puede vaciarse. */
+    private boolean registradaSinGuardar;
+
+    /**
+     * Constructor de AlmacenLedgerMapeado. Abre (o crea) el archivo de saldos y el log en el directorio indicado.
+     *
+     * @param personaRepository     Repositorio de Persona, desde donde se cargan las cuentas que todavía no están en el archivo.
+     * @param transaccionRepository Repositorio de Transacciones.
+     * @param outboxService         Servicio de outbox para registrar los eventos de transacción.
+     * @param transactionTemplate   Plantilla para escribir cada lote en una transacción.
+     * @param personaCache          Cache de personas a invalidar al proyectar los créditos.
+     * @param directorio            Directorio del archivo de saldos y del log.
+     * @param esperaMaximaMs        Tiempo máximo de espera para confirmar una transacción.
+     */
+    public AlmacenLedgerMapeado(PersonaRepository personaRepository, TransaccionRepository transaccionRepository,
+                                OutboxService outboxService, TransactionTemplate transactionTemplate, PersonaCache personaCache,
+                                @Value("${capacitacion.ledger.mapeado.directorio:ledger}") String directorio,
+                                @Value("${capacitacion.ledger.mapeado.espera-maxima-ms:5000}") long esperaMaximaMs) {
+        this.personaRepository = personaRepository;
+        this.transaccionRepository = transaccionRepository;
+        this.outboxService = outboxService;
+        this.transactionTemplate = transactionTemplate;
+        this.personaCache = personaCache;
+        this.esperaMaximaMs = esperaMaximaMs;
+        try {
+            Path carpeta = Files.createDirectories(Path.of(directorio));
+            this.archivoSaldos = FileChannel.open(carpeta.resolve("saldos.dat"),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            // El archivo queda disperso: sólo ocupan disco las páginas de los DNIs con cuenta.
+            this.saldos = archivoSaldos.map(FileChannel.MapMode.READ_WRITE, 0, CABECERA + (long) POSICIONES * Long.BYTES);
+            this.diario = FileChannel.open(carpeta.resolve("diario.log"),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.finDiario = diario.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudieron abrir los archivos del ledger en " + directorio, e);
+        }
+    }
+
+    /**
+     * Reproduce el log sobre el archivo de saldos y MongoDB, y recorre las cuentas guardadas. La primera vez, cuando
+     * el archivo todavía no tiene cuentas, las carga desde los créditos de las personas.
+     */
+    @Override
+    public synchronized void cargarSaldos(BiConsumer<String, Integer> cuenta) {
+        long inicio = System.nanoTime();
+        long reproducidos = reproducirDiario();
+        if (saldos.getLong(0) != FIRMA) {
+            inicializarDesdePersonas(cuenta);
+        }
+        long cuentas = 0;
+        for (int codigo = 0; codigo < POSICIONES; codigo++) {
+            long valor = saldos.getLong(posicion(codigo));
+            if (valor != 0) {
+                cuenta.accept(IndiceCuentas.decodificar(codigo), (int) (valor - 1));
+                cuentas++;
+            }
+        }
+        log.info("Saldos del ledger cargados desde el archivo: {} cuentas y {} registros del log reproducidos en {} ms",
+                cuentas, reproducidos, (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Recupera los créditos de una cuenta desde el archivo, o desde la persona si la cuenta todavía no está en él.
+     * No toma el lock del almacén: el ledger sólo lo consulta para cuentas que todavía no cargó, que no pueden
+     * estar escribiéndose.
+     */
+    @Override
+    public Integer saldo(String dni) {
+        int codigo = IndiceCuentas.codificar(dni);
+        if (codigo != IndiceCuentas.NO_NUMERICO) {
+            long valor = saldos.getLong(posicion(codigo));
+            if (valor != 0) {
+                return (int) (valor - 1);
+            }
+        }
+        Persona persona = personaRepository.findByDni(dni);
+        return persona == null ? null : persona.getCreditos();
+    }
+
+    /**
+     * Agrega el lote al log con un único {@code fsync}, lo aplica sobre el archivo de saldos y confirma sus
+     * transacciones; después guarda las transacciones y los eventos del outbox en MongoDB. Si falla la escritura en
+     * MongoDB, el reintento del mismo lote no lo vuelve a agregar al log.
+     */
+    @Override
+    public synchronized void persistir(List<Transaccion> lote) {
+        Map<String, Integer> movimientosNoNumericos = new HashMap<>();
+        if (lote.get(lote.size() - 1) != ultimaRegistrada) {
+            registrar(lote, movimientosNoNumericos);
+        } else {
+            for (Transaccion transaccion : lote) {
+                acumularNoNumerico(movimientosNoNumericos, transaccion.getDniOrigen(), -transaccion.getMonto());
+                acumularNoNumerico(movimientosNoNumericos, transaccion.getDniDestino(), transaccion.getMonto());
+            }
+        }
+        guardar(lote, movimientosNoNumericos);
+        registradaSinGuardar = false;
+    }
+
+    /**
+     * Espera a que el lote que contiene la transacción se agregue al log.
+     *
+     * @throws IllegalStateException Si la transacción no se confirma dentro del tiempo máximo de espera, o si su lote
+     *                               quedó en cuarentena sin agregarse al log.
+     */
+    @Override
+    public void esperarPersistencia(long secuencia) {
+        long limite = System.nanoTime() + esperaMaximaMs * 1_000_000;
+        synchronized (confirmaciones) {
+            while (confirmadas < secuencia) {
+                long restanteMs = (limite - System.nanoTime()) / 1_000_000;
+                if (restanteMs <= 0) {
+                    throw new IllegalStateException("La transacción " + secuencia + " no se confirmó en el log del ledger");
+                }
+                try {
+                    confirmaciones.wait(restanteMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Se interrumpió la espera de la transacción " + secuencia, e);
+                }
+            }
+            Map.Entry<Long, Long> descartado = descartadas.floorEntry(secuencia);
+            if (descartado != null && secuencia <= descartado.getValue()) {
+                throw new IllegalStateException("La transacción " + secuencia + " no pudo agregarse al log del ledger "
+                        + "y quedó en cuarentena");
+            }
+        }
+    }
+
+    /**
+     * Avanza la secuencia confirmada sobre un lote puesto en cuarentena, marcando sus transacciones como descartadas
+     * para que fallen quienes las esperan. Si el lote ya estaba en el log y sólo faltaba guardarlo en MongoDB, sus
+     * transacciones ya se confirmaron y no hay nada que descartar.
+     */
+    @Override
+    public synchronized void descartar(List<Transaccion> lote) {
+        if (lote.get(lote.size() - 1) == ultimaRegistrada) {
+            return;
+        }
+        synchronized (confirmaciones) {
+            descartadas.put(confirmadas + 1, confirmadas + lote.size());
+            confirmadas += lote.size();
+            confirmaciones.notifyAll();
+        }
+    }
+
+    /**
+     * Fuerza a disco el archivo de saldos, vacía el log y guarda en las personas los créditos de las cuentas
+     * modificadas desde el checkpoint anterior.
+     */
+    @Scheduled(fixedDelayString = "${capacitacion.ledger.mapeado.intervalo-checkpoint-ms:10000}")
+    public synchronized void tomarCheckpoint() {
+        if (modificadosDesdeCheckpoint.isEmpty()) {
+            return;
+        }
+        if (registradaSinGuardar) {
+            log.debug("Checkpoint del ledger postergado: el último lote del log todavía no se guardó en MongoDB");
+            return;
+        }
+        saldos.force();
+        try {
+            diario.truncate(0);
+            diario.force(true);
+            finDiario = 0;
+        } catch (IOException e) {
+            log.warn("No se pudo vaciar el log del ledger, se reintentará en el próximo checkpoint", e);
+            return;
+        }
+        Map<String, Integer> creditos = new HashMap<>();
+        for (int codigo : modificadosDesdeCheckpoint) {
+            creditos.put(IndiceCuentas.decodificar(codigo), (int) (saldos.getLong(posicion(codigo)) - 1));
+        }
+        try {
+            personaRepository.fijarCreditos(creditos);
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron proyectar los créditos de {} cuentas del ledger, se reintentará", creditos.size(), e);
+            return;
+        }
+        modificadosDesdeCheckpoint.clear();
+        creditos.keySet().forEach(personaCache::invalidarPorDni);
+    }
+
+    /**
+     * Fuerza a disco el archivo de saldos y cierra los archivos al detener la aplicación.
+     */
+    @PreDestroy
+    public synchronized void cerrar() throws IOException {
+        saldos.force();
+        diario.close();
+        archivoSaldos.close();
+    }
+
+    /**
+     * Calcula los créditos resultantes de cada transacción del lote, los agrega al log junto con la transferencia
+     * con un único {@code fsync}, los escribe en el archivo de saldos y confirma las transacciones. Si la escritura
+     * falla, el log se corta en el fin del último registro completo, para que el reintento no quede detrás de un
+     * registro parcial que la reproducción no podría pasar.
+     */
+    private void registrar(List<Transaccion> lote, Map<String, Integer> movimientosNoNumericos) {
+        IndiceCuentas resultantes = new IndiceCuentas(lote.size() * 2);
+        registros.clear();
+        for (Transaccion transaccion : lote) {
+            int origen = aplicar(resultantes, movimientosNoNumericos, transaccion.getDniOrigen(), -transaccion.getMonto());
+            int destino = aplicar(resultantes, movimientosNoNumericos, transaccion.getDniDestino(), transaccion.getMonto());
+            escribirRegistro(transaccion, origen, destino);
+        }
+        registros.flip();
+        try {
+            if (diario.size() != finDiario) {
+                diario.truncate(finDiario);
+            }
+            long posicion = finDiario;
+            while (registros.hasRemaining()) {
+                posicion += diario.write(registros, posicion);
+            }
+            diario.force(false);
+            finDiario = posicion;
+        } catch (IOException e) {
+            UncheckedIOException error = new UncheckedIOException("No se pudo agregar el lote al log del ledger", e);
+            cortarDiario(error);
+            throw error;
+        }
+        registros.flip();
+        while (leerRegistro(registros) != null) {
+            // Cada registro leído se aplica sobre el archivo de saldos.
+        }
+        ultimaRegistrada = lote.get(lote.size() - 1);
+        registradaSinGuardar = true;
+        synchronized (confirmaciones) {
+            confirmadas += lote.size();
+            confirmaciones.notifyAll();
+        }
+    }
+
+    /**
+     * Descarta lo escrito en el log después del último registro completo. Si tampoco puede cortarse, se vuelve a
+     * intentar antes de la próxima escritura.
+     */
+    private void cortarDiario(RuntimeException causa) {
+        try {
+            diario.truncate(finDiario);
+        } catch (IOException e) {
+            causa.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Guarda en MongoDB, en una transacción, las transacciones de un lote con sus eventos del outbox y los movimientos
+     * de las cuentas sin posición en el archivo.
+     */
+    private void guardar(List<Transaccion> lote, Map<String, Integer> movimientosNoNumericos) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!movimientosNoNumericos.isEmpty()) {
+                personaRepository.aplicarMovimientos(movimientosNoNumericos);
+            }
+            transaccionRepository.insert(lote);
+            outboxService.registrarTodos(AlmacenLedger.eventos(lote));
+        });
+        movimientosNoNumericos.keySet().forEach(personaCache::invalidarPorDni);
+    }
+
+    /**
+     * Aplica una variación sobre los créditos resultantes de una cuenta del lote.
+     *
+     * @return Créditos resultantes, o 0 si el DNI no es de ocho dígitos.
+     */
+    private int aplicar(IndiceCuentas resultantes, Map<String, Integer> movimientosNoNumericos, String dni, int variacion) {
+        int codigo = IndiceCuentas.codificar(dni);
+        if (codigo == IndiceCuentas.NO_NUMERICO) {
+            movimientosNoNumericos.merge(dni, variacion, Integer::sum);
+            return 0;
+        }
+        int posicion = resultantes.posicion(codigo);
+        if (posicion == IndiceCuentas.AUSENTE) {
+            Integer persistido = saldo(dni);
+            resultantes.agregarSiAusente(codigo, persistido == null ? 0 : persistido);
+            posicion = resultantes.posicion(codigo);
+        }
+        resultantes.sumarEn(posicion, variacion);
+        return resultantes.saldoEn(posicion);
+    }
+
+    private void acumularNoNumerico(Map<String, Integer> movimientosNoNumericos, String dni, int variacion) {
+        if (IndiceCuentas.codificar(dni) == IndiceCuentas.NO_NUMERICO) {
+            movimientosNoNumericos.merge(dni, variacion, Integer::sum);
+        }
+    }
+
+    /**
+     * Agrega al buffer de registros un registro con la longitud de su contenido, la transferencia, los créditos
+     * resultantes de las cuentas de origen y destino, y el CRC de todo lo anterior.
+     */
+    private void escribirRegistro(Transaccion transaccion, int creditosOrigen, int creditosDestino) {
+        byte[] id = transaccion.getId().getBytes(StandardCharsets.UTF_8);
+        byte[] dniOrigen = transaccion.getDniOrigen().getBytes(StandardCharsets.UTF_8);
+        byte[] dniDestino = transaccion.getDniDestino().getBytes(StandardCharsets.UTF_8);
+        int longitud = 3 * Short.BYTES + id.length + dniOrigen.length + dniDestino.length
+                + Long.BYTES + 4 * Integer.BYTES;
+        if (longitud > REGISTRO_MAXIMO) {
+            throw new IllegalArgumentException("La transacción " + transaccion.getId() + " no entra en un registro del log");
+        }
+        asegurarEspacio(Integer.BYTES + longitud + Integer.BYTES);
+        int inicio = registros.position();
+        registros.putInt(longitud);
+        escribirTexto(id);
+        escribirTexto(dniOrigen);
+        escribirTexto(dniDestino);
+        registros.putInt(transaccion.getMonto());
+        registros.putLong(transaccion.getFecha().getEpochSecond()).putInt(transaccion.getFecha().getNano());
+        registros.putInt(creditosOrigen).putInt(creditosDestino);
+        crc.reset();
+        crc.update(registros.slice(inicio, Integer.BYTES + longitud));
+        registros.putInt((int) crc.getValue());
+    }
+
+    private void escribirTexto(byte[] texto) {
+        registros.putShort((short) texto.length).put(texto);
+    }
+
+    private void asegurarEspacio(int bytes) {
+        if (registros.remaining() < bytes) {
+            ByteBuffer mayor = ByteBuffer.allocateDirect(Math.max(registros.capacity() * 2, registros.position() + bytes));
+            registros.flip();
+            mayor.put(registros);
+            registros = mayor;
+        }
+    }
+
+    /**
+     * Lee un registro y escribe sus créditos en el archivo de saldos.
+     *
+     * @return Transferencia del registro, o null si el registro está incompleto o corrupto, como el último registro de
+     *         un log cortado por una caída.
+     */
+    private Transaccion leerRegistro(ByteBuffer buffer) {
+        if (buffer.remaining() < Integer.BYTES) {
+            return null;
+        }
+        int inicio = buffer.position();
+        int longitud = buffer.getInt(inicio);
+        if (longitud <= 0 || longitud > REGISTRO_MAXIMO || buffer.remaining() < Integer.BYTES + longitud + Integer.BYTES) {
+            return null;
+        }
+        crc.reset();
+        crc.update(buffer.slice(inicio, Integer.BYTES + longitud));
+        if (buffer.getInt(inicio + Integer.BYTES + longitud) != (int) crc.getValue()) {
+            return null;
+        }
+        buffer.getInt();
+        String id = leerTexto(buffer);
+        String dniOrigen = leerTexto(buffer);
+        String dniDestino = leerTexto(buffer);
+        Transaccion transaccion = new Transaccion(id, dniOrigen, dniDestino, buffer.getInt());
+        long segundos = buffer.getLong();
+        transaccion.setFecha(Instant.ofEpochSecond(segundos, buffer.getInt()));
+        fijar(IndiceCuentas.codificar(dniOrigen), buffer.getInt());
+        fijar(IndiceCuentas.codificar(dniDestino), buffer.getInt());
+        buffer.getInt();
+        return transaccion;
+    }
+
+    private static String leerTexto(ByteBuffer buffer) {
+        byte[] texto = new byte[buffer.getShort()];
+        buffer.get(texto);
+        return new String(texto, StandardCharsets.UTF_8);
+    }
+
+    private void fijar(int codigo, int creditos) {
+        if (codigo != IndiceCuentas.NO_NUMERICO) {
+            saldos.putLong(posicion(codigo), creditos + 1L);
+            modificadosDesdeCheckpoint.add(codigo);
+        }
+    }
+
+    /**
+     * Reproduce los registros del log sobre el archivo de saldos, hasta el final o el primer registro corrupto, guarda
+     * en MongoDB las transacciones del log que todavía no están guardadas y vacía el log. Lo que sigue al último
+     * registro completo se descarta antes de escribir en MongoDB; si MongoDB falla, los registros completos se
+     * conservan para reproducirlos en el próximo inicio, y los lotes nuevos se agregan después de ellos.
+     *
+     * @return Cantidad de registros reproducidos.
+     */
+    private long reproducirDiario() {
+        ByteBuffer contenido;
+        try {
+            contenido = ByteBuffer.allocate((int) diario.size());
+            while (contenido.hasRemaining()) {
+                if (diario.read(contenido, contenido.position()) < 0) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el log del ledger", e);
+        }
+        contenido.flip();
+        List<Transaccion> reproducidas = new ArrayList<>();
+        Transaccion transaccion;
+        while ((transaccion = leerRegistro(contenido)) != null) {
+            reproducidas.add(transaccion);
+        }
+        try {
+            finDiario = contenido.position();
+            diario.truncate(finDiario);
+            diario.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo descartar el final cortado del log del ledger", e);
+        }
+        long guardadas = 0;
+        for (int inicio = 0; inicio < reproducidas.size(); inicio += TRANSACCIONES_POR_ESCRITURA) {
+            guardadas += guardarFaltantes(reproducidas.subList(inicio,
+                    Math.min(inicio + TRANSACCIONES_POR_ESCRITURA, reproducidas.size())));
+        }
+        if (guardadas > 0) {
+            log.warn("Se guardaron en MongoDB {} transacciones del log del ledger que no se habían guardado", guardadas);
+        }
+        try {
+            saldos.force();
+            diario.truncate(0);
+            diario.force(true);
+            finDiario = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo vaciar el log del ledger", e);
+        }
+        return reproducidas.size();
+    }
+
+    /**
+     * Guarda en MongoDB las transacciones reproducidas del log que no están en la colección. Como cada lote se guarda
+     * junto con sus eventos y movimientos en una transacción, una transacción guardada ya tiene todo lo demás.
+     *
+     * @return Cantidad de transacciones guardadas.
+     */
+    private int guardarFaltantes(List<Transaccion> reproducidas) {
+        Set<String> guardadas = new HashSet<>();
+        transaccionRepository.findAllById(reproducidas.stream().map(Transaccion::getId).toList())
+                .forEach(transaccion -> guardadas.add(transaccion.getId()));
+        List<Transaccion> faltantes = new ArrayList<>();
+        Map<String, Integer> movimientosNoNumericos = new HashMap<>();
+        for (Transaccion transaccion : reproducidas) {
+            if (!guardadas.contains(transaccion.getId())) {
+                faltantes.add(transaccion);
+                acumularNoNumerico(movimientosNoNumericos, transaccion.getDniOrigen(), -transaccion.getMonto());
+                acumularNoNumerico(movimientosNoNumericos, transaccion.getDniDestino(), transaccion.getMonto());
+            }
+        }
+        if (!faltantes.isEmpty()) {
+            guardar(faltantes, movimientosNoNumericos);
+        }
+        return faltantes.size();
+    }
+
+    private void inicializarDesdePersonas(BiConsumer<String, Integer> cuenta) {
+        try (Stream<Persona> personas = personaRepository.streamAllBy()) {
+            personas.forEach(persona -> {
+                int codigo = IndiceCuentas.codificar(persona.getDni());
+                if (codigo == IndiceCuentas.NO_NUMERICO) {
+                    cuenta.accept(persona.getDni(), persona.getCreditos());
+                } else {
+                    saldos.putLong(posicion(codigo), persona.getCreditos() + 1L);
+                }
+            });
+        }
+        saldos.force();
+        saldos.putLong(0, FIRMA);
+        saldos.force();
+    }
+
+    private static int posicion(int codigo) {
+        return CABECERA + codigo * Long.BYTES;
+    }
+}
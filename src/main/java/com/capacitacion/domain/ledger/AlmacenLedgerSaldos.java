@@ -0,0 +1,89 @@
+package com.capacitacion.domain.ledger;
+
+import com.capacitacion.domain.application.OutboxService;
+import com.capacitacion.domain.model.Persona;
+import com.capacitacion.domain.model.Transaccion;
+import com.capacitacion.domain.model.exception.CreditosDesincronizadosException;
+import com.capacitacion.domain.repository.PersonaRepository;
+import com.capacitacion.domain.repository.TransaccionRepository;
+import com.capacitacion.infraestructura.cache.PersonaCache;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * {@link AlmacenLedger} que aplica las variaciones de créditos de cada lote sobre los documentos de las personas,
+ * con una única escritura masiva, junto con un {@code insertMany} de transacciones y otro de eventos del outbox,
+ * dentro de una transacción de MongoDB.
+ */
+@Component
+@ConditionalOnExpression("${capacitacion.ledger.habilitado:false} and '${capacitacion.ledger.persistencia:saldos}' == 'saldos'")
+public class AlmacenLedgerSaldos implements AlmacenLedger {
+
+    private final PersonaRepository personaRepository;
+    private final TransaccionRepository transaccionRepository;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final PersonaCache personaCache;
+
+    /**
+     * Constructor de AlmacenLedgerSaldos.
+     *
+     * @param personaRepository     Repositorio de Persona donde se aplican las variaciones de créditos.
+     * @param transaccionRepository Repositorio de Transacciones.
+     * @param outboxService         Servicio de outbox para registrar los eventos de transacción.
+     * @param transactionTemplate   Plantilla para escribir cada lote en una transacción.
+     * @param personaCache          Cache de personas a invalidar al persistir los créditos.
+     */
+    public AlmacenLedgerSaldos(PersonaRepository personaRepository, TransaccionRepository transaccionRepository,
+                               OutboxService outboxService, TransactionTemplate transactionTemplate, PersonaCache personaCache) {
+        this.personaRepository = personaRepository;
+        this.transaccionRepository = transaccionRepository;
+        this.outboxService = outboxService;
+        this.transactionTemplate = transactionTemplate;
+        this.personaCache = personaCache;
+    }
+
+    @Override
+    public void cargarSaldos(BiConsumer<String, Integer> cuenta) {
+        try (Stream<Persona> personas = personaRepository.streamAllBy()) {
+            personas.forEach(persona -> cuenta.accept(persona.getDni(), persona.getCreditos()));
+        }
+    }
+
+    @Override
+    public Integer saldo(String dni) {
+        Persona persona = personaRepository.findByDni(dni);
+        return persona == null ? null : persona.getCreditos();
+    }
+
+    /**
+     * {@inheritDoc} Si alguna cuenta no se actualiza (porque la persona no existe o sus créditos persistidos no
+     * alcanzan para el débito), la transacción de MongoDB se revierte y el lote completo queda sin persistir.
+     *
+     * @throws CreditosDesincronizadosException Si los créditos persistidos difieren de los del ledger.
+     */
+    @Override
+    public void persistir(List<Transaccion> lote) {
+        Map<String, Integer> movimientos = new HashMap<>();
+        for (Transaccion transaccion : lote) {
+            movimientos.merge(transaccion.getDniOrigen(), -transaccion.getMonto(), Integer::sum);
+            movimientos.merge(transaccion.getDniDestino(), transaccion.getMonto(), Integer::sum);
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            int actualizadas = personaRepository.aplicarMovimientos(movimientos);
+            if (actualizadas != movimientos.size()) {
+                throw new CreditosDesincronizadosException(actualizadas, movimientos.size());
+            }
+            transaccionRepository.insert(lote);
+            outboxService.registrarTodos(AlmacenLedger.eventos(lote));
+        });
+        movimientos.keySet().forEach(personaCache::invalidarPorDni);
+    }
+}
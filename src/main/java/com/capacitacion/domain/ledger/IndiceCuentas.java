@@ -0,0 +1,232 @@
+package com.capacitacion.domain.ledger;
+
+import java.util.Arrays;
+
+/**
+ * Índice de saldos por DNI con claves primitivas. Aprovecha que los DNIs son de ocho dígitos para guardarlos como
+ * {@code int} en una tabla de direccionamiento abierto (sondeo lineal) sobre dos arreglos paralelos de claves y
+ * saldos, sin un objeto por cuenta: cada cuenta ocupa 8 bytes por posición de la tabla, de modo que decenas de
+ * millones de cuentas entran en unos cientos de MB y las consultas y transferencias no crean objetos.
+ * No es seguro para uso concurrente; quien lo usa debe sincronizar los accesos.
+ */
+public final class IndiceCuentas {
+
+    /** Valor de {@link #codificar(String)} para los DNIs que no son de ocho dígitos. */
+    public static final int NO_NUMERICO = -1;
+    /** Valor de {@link #posicion(int)} para las cuentas que no están en el índice. */
+    public static final int AUSENTE = -1;
+
+    private static final int VACIA = 0;
+    private static final double CARGA_MAXIMA = 0.7;
+
+    private int[] claves;
+    private int[] saldos;
+    private int tamanio;
+    private int limite;
+
+    /**
+     * Constructor de IndiceCuentas.
+     *
+     * @param capacidadInicial Cantidad de cuentas que entran sin agrandar la tabla.
+     */
+    public IndiceCuentas(int capacidadInicial) {
+        int posiciones = Integer.highestOneBit((int) Math.max(2, Math.ceil(capacidadInicial / CARGA_MAXIMA)) - 1) << 1;
+        this.claves = new int[posiciones];
+        this.saldos = new int[posiciones];
+        this.limite = (int) (posiciones * CARGA_MAXIMA);
+    }
+
+    /**
+     * Codifica un DNI de ocho dígitos como entero.
+     *
+     * @param dni DNI a codificar.
+     * @return DNI como entero, o {@link #NO_NUMERICO} si no tiene exactamente ocho dígitos.
+     */
+    public static int codificar(String dni) {
+        if (dni == null || dni.length() != 8) {
+            return NO_NUMERICO;
+        }
+        int codigo = 0;
+        for (int i = 0; i < 8; i++) {
+            int digito = dni.charAt(i) - '0';
+            if (digito < 0 || digito > 9) {
+                return NO_NUMERICO;
+            }
+            codigo = codigo * 10 + digito;
+        }
+        return codigo;
+    }
+
+    /**
+     * Vuelve a armar el DNI de ocho dígitos a partir de su código.
+     *
+     * @param codigo DNI codificado con {@link #codificar(String)}.
+     * @return DNI con ceros a la izquierda.
+     */
+    public static String decodificar(int codigo) {
+        char[] digitos = new char[8];
+        for (int i = 7; i >= 0; i--) {
+            digitos[i] = (char) ('0' + codigo % 10);
+            codigo /= 10;
+        }
+        return new String(digitos);
+    }
+
+    /**
+     * Mezcla los bits de un DNI codificado, para repartir DNIs consecutivos en posiciones y shards distintos.
+     *
+     * @param dni DNI codificado.
+     * @return Hash del DNI.
+     */
+    public static int hash(int dni) {
+        int hash = dni * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Busca la posición de una cuenta en la tabla.
+     *
+     * @param dni DNI codificado.
+     * @return Posición de la cuenta, o {@link #AUSENTE} si no está en el índice.
+     */
+    public int posicion(int dni) {
+        int clave = dni + 1;
+        int mascara = claves.length - 1;
+        for (int posicion = hash(dni) & mascara; ; posicion = (posicion + 1) & mascara) {
+            int actual = claves[posicion];
+            if (actual == clave) {
+                return posicion;
+            }
+            if (actual == VACIA) {
+                return AUSENTE;
+            }
+        }
+    }
+
+    /**
+     * Agrega una cuenta, salvo que ya estuviera en el índice (en cuyo caso se conserva su saldo).
+     *
+     * @param dni      DNI codificado.
+     * @param creditos Créditos de la cuenta.
+     * @return true si se agregó la cuenta.
+     */
+    public boolean agregarSiAusente(int dni, int creditos) {
+        if (tamanio >= limite) {
+            agrandar();
+        }
+        int clave = dni + 1;
+        int mascara = claves.length - 1;
+        int posicion = hash(dni) & mascara;
+        while (claves[posicion] != VACIA) {
+            if (claves[posicion] == clave) {
+                return false;
+            }
+            posicion = (posicion + 1) & mascara;
+        }
+        claves[posicion] = clave;
+        saldos[posicion] = creditos;
+        tamanio++;
+        return true;
+    }
+
+    /**
+     * Obtiene el saldo de la cuenta en una posición.
+     *
+     * @param posicion Posición devuelta por {@link #posicion(int)}.
+     * @return Créditos de la cuenta.
+     */
+    public int saldoEn(int posicion) {
+        return saldos[posicion];
+    }
+
+    /**
+     * Suma una variación al saldo de la cuenta en una posición.
+     *
+     * @param posicion  Posición devuelta por {@link #posicion(int)}.
+     * @param variacion Créditos a sumar (negativos para restar).
+     * @throws ArithmeticException Si el saldo resultante no entra en un {@code int}.
+     */
+    public void sumarEn(int posicion, int variacion) {
+        saldos[posicion] = Math.addExact(saldos[posicion], variacion);
+    }
+
+    /**
+     * Quita una cuenta del índice. Las cuentas siguientes del mismo tramo ocupado se corren hacia atrás cuando su
+     * posición ideal lo permite, para que las búsquedas sigan encontrándolas sin marcas de borrado.
+     * Las posiciones devueltas antes dejan de ser válidas.
+     *
+     * @param dni DNI codificado.
+     * @return true si la cuenta estaba en el índice.
+     */
+    public boolean quitar(int dni) {
+        int libre = posicion(dni);
+        if (libre == AUSENTE) {
+            return false;
+        }
+        int mascara = claves.length - 1;
+        for (int siguiente = (libre + 1) & mascara; claves[siguiente] != VACIA; siguiente = (siguiente + 1) & mascara) {
+            int ideal = hash(claves[siguiente] - 1) & mascara;
+            // Se corre si la posición libre está entre su posición ideal y la actual, recorriendo la tabla en círculo.
+            if (((siguiente - ideal) & mascara) >= ((siguiente - libre) & mascara)) {
+                claves[libre] = claves[siguiente];
+                saldos[libre] = saldos[siguiente];
+                libre = siguiente;
+            }
+        }
+        claves[libre] = VACIA;
+        saldos[libre] = 0;
+        tamanio--;
+        return true;
+    }
+
+    /**
+     * Quita todas las cuentas del índice, conservando el tamaño de la tabla.
+     */
+    public void vaciar() {
+        Arrays.fill(claves, VACIA);
+        Arrays.fill(saldos, 0);
+        tamanio = 0;
+    }
+
+    /**
+     * Cantidad de cuentas en el índice.
+     *
+     * @return Cantidad de cuentas.
+     */
+    public int tamanio() {
+        return tamanio;
+    }
+
+    /**
+     * Bytes ocupados por la tabla, sin contar los encabezados de los arreglos.
+     *
+     * @return Bytes ocupados.
+     */
+    public long bytes() {
+        return (long) claves.length * (Integer.BYTES + Integer.BYTES);
+    }
+
+    /**
+     * Duplica la tabla y vuelve a ubicar las cuentas. Las posiciones devueltas antes dejan de ser válidas.
+     */
+    private void agrandar() {
+        int[] clavesAnteriores = claves;
+        int[] saldosAnteriores = saldos;
+        claves = new int[clavesAnteriores.length << 1];
+        saldos = new int[claves.length];
+        limite = (int) (claves.length * CARGA_MAXIMA);
+        int mascara = claves.length - 1;
+        for (int i = 0; i < clavesAnteriores.length; i++) {
+            int clave = clavesAnteriores[i];
+            if (clave == VACIA) {
+                continue;
+            }
+            int posicion = hash(clave - 1) & mascara;
+            while (claves[posicion] != VACIA) {
+                posicion = (posicion + 1) & mascara;
+            }
+            claves[posicion] = clave;
+            saldos[posicion] = saldosAnteriores[i];
+        }
+    }
+}
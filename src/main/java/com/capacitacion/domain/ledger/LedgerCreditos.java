@@ -0,0 +1,314 @@
+package com.capacitacion.domain.ledger;
+
+import com.capacitacion.domain.model.Transaccion;
+import com.capacitacion.domain.model.exception.CreditosExcedidosException;
+import com.capacitacion.domain.model.exception.MontoInsuficienteException;
+import com.capacitacion.domain.model.exception.PersonaNoExisteException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Mantiene en memoria los créditos de todas las cuentas, repartidos en shards según el hash del DNI.
+ * Cada shard tiene su propio lock, por lo que las transacciones entre cuentas de shards distintos se aplican
+ * en paralelo. Las transacciones aplicadas quedan pendientes de persistencia en el orden en que se aplicaron.
+ * Los saldos de cada shard se guardan en un {@link IndiceCuentas} con el DNI codificado como entero; los DNIs que
+ * no son de ocho dígitos reciben un código propio del shard fuera del rango de los numéricos.
+ * Las transacciones con ID asignado por quien las solicita se aplican a lo sumo una vez mientras su ID se recuerde,
+ * durante {@code capacitacion.ledger.retencion-ids} desde que se aplicaron.
+ */
+@Component
+@ConditionalOnProperty(name = "capacitacion.ledger.habilitado", havingValue = "true")
+public class LedgerCreditos {
+
+    private static final int CAPACIDAD_INICIAL_SHARD = 1024;
+
+    private final Shard[] shards;
+    private final Queue<Transaccion> pendientes = new ConcurrentLinkedQueue<>();
+    private long encoladas;
+    /** Secuencia de las transacciones con ID asignado que se aplicaron, por ID. */
+    private final Map<String, Long> aplicadas = new ConcurrentHashMap<>();
+    /** IDs de {@link #aplicadas} en el orden en que se aplicaron, para olvidarlos al vencer la retención. */
+    private final Queue<IdAplicado> idsAplicados = new ConcurrentLinkedQueue<>();
+    private final long retencionIdsNanos;
+
+    /**
+     * Constructor de LedgerCreditos.
+     *
+     * @param cantidadShards Cantidad de shards en los que se reparten las cuentas.
+     * @param retencionIds   Tiempo durante el que se recuerdan los IDs de las transacciones con ID asignado.
+     */
+    public LedgerCreditos(@Value("${capacitacion.ledger.shards:64}") int cantidadShards,
+                          @Value("${capacitacion.ledger.retencion-ids:1h}") Duration retencionIds) {
+        this.retencionIdsNanos = retencionIds.toNanos();
+        this.shards = new Shard[cantidadShards];
+        for (int i = 0; i < cantidadShards; i++) {
+            shards[i] = new Shard();
+        }
+    }
+
+    /**
+     * Indica si la cuenta con el DNI indicado está cargada en el ledger.
+     *
+     * @param dni DNI de la cuenta.
+     * @return true si la cuenta está cargada.
+     */
+    public boolean contiene(String dni) {
+        Shard shard = shard(dni);
+        shard.lock.lock();
+        try {
+            return shard.posicion(dni, IndiceCuentas.codificar(dni)) != IndiceCuentas.AUSENTE;
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * Carga una cuenta en el ledger, salvo que ya estuviera cargada (en cuyo caso se conserva el saldo en memoria,
+     * que puede incluir transacciones todavía no persistidas).
+     *
+     * @param dni      DNI de la cuenta.
+     * @param creditos Créditos persistidos de la cuenta.
+     */
+    public void cargar(String dni, int creditos) {
+        Shard shard = shard(dni);
+        shard.lock.lock();
+        try {
+            shard.cuentas.agregarSiAusente(shard.codigoParaCargar(dni, IndiceCuentas.codificar(dni)), creditos);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * Quita una cuenta del ledger, como al eliminar a su persona; si vuelve a usarse se carga otra vez desde el almacén.
+     *
+     * @param dni DNI de la cuenta.
+     */
+    public void quitar(String dni) {
+        Shard shard = shard(dni);
+        shard.lock.lock();
+        try {
+            int codigo = IndiceCuentas.codificar(dni);
+            if (codigo == IndiceCuentas.NO_NUMERICO) {
+                Integer asignado = shard.codigosNoNumericos.remove(dni);
+                if (asignado == null) {
+                    return;
+                }
+                codigo = asignado;
+            }
+            shard.cuentas.quitar(codigo);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * Quita todas las cuentas del ledger. Los shards se vacían de a uno, con el lock de cada uno tomado.
+     */
+    public void vaciar() {
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                shard.cuentas.vaciar();
+                shard.codigosNoNumericos.clear();
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Obtiene los créditos en memoria de una cuenta.
+     *
+     * @param dni DNI de la cuenta.
+     * @return Créditos de la cuenta, o null si no está cargada.
+     */
+    public Integer saldo(String dni) {
+        Shard shard = shard(dni);
+        shard.lock.lock();
+        try {
+            int posicion = shard.posicion(dni, IndiceCuentas.codificar(dni));
+            return posicion == IndiceCuentas.AUSENTE ? null : shard.cuentas.saldoEn(posicion);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * Aplica una transacción sobre los saldos en memoria y la deja pendiente de persistencia.
+     * Los locks de los shards involucrados se toman siempre en el mismo orden para evitar deadlocks.
+     *
+     * @param transaccion Transacción a aplicar.
+     * @return Secuencia de la transacción en la cola de pendientes, empezando en 1.
+     * @throws PersonaNoExisteException   Si alguna de las cuentas no está cargada.
+     * @throws MontoInsuficienteException Si el monto excede los créditos de la cuenta de origen.
+     * @throws CreditosExcedidosException Si los créditos de la cuenta de destino superarían el máximo.
+     */
+    public long transferir(Transaccion transaccion) {
+        return transferir(transaccion, false);
+    }
+
+    /**
+     * Aplica una transacción con el ID ya asignado por quien la solicita, salvo que ya se haya aplicado una con el mismo
+     * ID. Las dos se comparan con los locks de sus shards tomados, que son los mismos porque tienen las mismas cuentas,
+     * por lo que dos aplicaciones concurrentes del mismo ID no pueden aplicarse ambas. Quien la llama debe verificar
+     * antes que la transacción no esté persistida: pasada la retención, el ledger deja de recordar su ID.
+     *
+     * @param transaccion Transacción a aplicar, con su ID asignado.
+     * @return Secuencia de la transacción en la cola de pendientes, o la de la transacción ya aplicada con ese ID.
+     * @throws PersonaNoExisteException   Si alguna de las cuentas no está cargada.
+     * @throws MontoInsuficienteException Si el monto excede los créditos de la cuenta de origen.
+     * @throws CreditosExcedidosException Si los créditos de la cuenta de destino superarían el máximo.
+     */
+    public long transferirUnica(Transaccion transaccion) {
+        olvidarIdsVencidos();
+        return transferir(transaccion, true);
+    }
+
+    private long transferir(Transaccion transaccion, boolean unica) {
+        int codigoOrigen = IndiceCuentas.codificar(transaccion.getDniOrigen());
+        int codigoDestino = IndiceCuentas.codificar(transaccion.getDniDestino());
+        int indiceOrigen = indice(transaccion.getDniOrigen(), codigoOrigen);
+        int indiceDestino = indice(transaccion.getDniDestino(), codigoDestino);
+        Shard primero = shards[Math.min(indiceOrigen, indiceDestino)];
+        Shard segundo = shards[Math.max(indiceOrigen, indiceDestino)];
+        primero.lock.lock();
+        if (segundo != primero) {
+            segundo.lock.lock();
+        }
+        try {
+            if (unica) {
+                Long secuencia = aplicadas.get(transaccion.getId());
+                if (secuencia != null) {
+                    return secuencia;
+                }
+            }
+            Shard shardOrigen = shards[indiceOrigen];
+            Shard shardDestino = shards[indiceDestino];
+            int origen = shardOrigen.posicion(transaccion.getDniOrigen(), codigoOrigen);
+            int destino = shardDestino.posicion(transaccion.getDniDestino(), codigoDestino);
+            if (origen == IndiceCuentas.AUSENTE || destino == IndiceCuentas.AUSENTE) {
+                throw new PersonaNoExisteException();
+            }
+            if (shardOrigen.cuentas.saldoEn(origen) < transaccion.getMonto()) {
+                throw new MontoInsuficienteException();
+            }
+            if (shardDestino.cuentas.saldoEn(destino) > Integer.MAX_VALUE - transaccion.getMonto()) {
+                throw new CreditosExcedidosException();
+            }
+            shardOrigen.cuentas.sumarEn(origen, -transaccion.getMonto());
+            shardDestino.cuentas.sumarEn(destino, transaccion.getMonto());
+            // Se encola dentro de los locks para que el orden de persistencia respete el de cada cuenta, y junto con
+            // la secuencia para que la posición en la cola coincida con ella.
+            long secuencia;
+            synchronized (pendientes) {
+                pendientes.add(transaccion);
+                secuencia = ++encoladas;
+            }
+            if (unica) {
+                aplicadas.put(transaccion.getId(), secuencia);
+                idsAplicados.add(new IdAplicado(transaccion.getId(), System.nanoTime()));
+            }
+            return secuencia;
+        } finally {
+            if (segundo != primero) {
+                segundo.lock.unlock();
+            }
+            primero.lock.unlock();
+        }
+    }
+
+    /**
+     * Extrae las transacciones pendientes de persistencia, en el orden en que se aplicaron.
+     *
+     * @param lote   Lista donde se agregan las transacciones extraídas.
+     * @param maximo Cantidad máxima de transacciones a extraer.
+     * @return Cantidad de transacciones extraídas.
+     */
+    public int drenar(List<Transaccion> lote, int maximo) {
+        int extraidas = 0;
+        Transaccion transaccion;
+        while (extraidas < maximo && (transaccion = pendientes.poll()) != null) {
+            lote.add(transaccion);
+            extraidas++;
+        }
+        return extraidas;
+    }
+
+    /**
+     * Olvida los IDs aplicados hace más que la retención. Los IDs se recorren en el orden en que se aplicaron, por lo
+     * que alcanza con mirar el primero.
+     */
+    private void olvidarIdsVencidos() {
+        long ahora = System.nanoTime();
+        IdAplicado primero;
+        while ((primero = idsAplicados.peek()) != null && ahora - primero.instante > retencionIdsNanos) {
+            if (idsAplicados.remove(primero)) {
+                aplicadas.remove(primero.id);
+            }
+        }
+    }
+
+    /**
+     * Elige el shard con los bits altos del hash. Dentro del shard, el {@link IndiceCuentas} ubica la cuenta con los
+     * bits bajos del mismo hash: si el shard también se eligiera con ellos, todas las cuentas de un shard
+     * compartirían esos bits y ocuparían sólo una fracción de las posiciones de su tabla.
+     */
+    private int indice(String dni, int codigo) {
+        int hash = IndiceCuentas.hash(codigo == IndiceCuentas.NO_NUMERICO ? dni.hashCode() : codigo);
+        return (int) ((Integer.toUnsignedLong(hash) * shards.length) >>> 32);
+    }
+
+    private Shard shard(String dni) {
+        return shards[indice(dni, IndiceCuentas.codificar(dni))];
+    }
+
+    private static final class IdAplicado {
+        private final String id;
+        private final long instante;
+
+        private IdAplicado(String id, long instante) {
+            this.id = id;
+            this.instante = instante;
+        }
+    }
+
+    private static final class Shard {
+        /** Primer código asignado a los DNIs no numéricos; los de ocho dígitos nunca lo alcanzan. */
+        private static final int PRIMER_CODIGO_NO_NUMERICO = 100_000_000;
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final IndiceCuentas cuentas = new IndiceCuentas(CAPACIDAD_INICIAL_SHARD);
+        private final Map<String, Integer> codigosNoNumericos = new HashMap<>();
+        /** Siguiente código para un DNI no numérico; no se reutilizan los de las cuentas quitadas. */
+        private int siguienteCodigoNoNumerico = PRIMER_CODIGO_NO_NUMERICO;
+
+        private int posicion(String dni, int codigo) {
+            if (codigo == IndiceCuentas.NO_NUMERICO) {
+                Integer asignado = codigosNoNumericos.get(dni);
+                if (asignado == null) {
+                    return IndiceCuentas.AUSENTE;
+                }
+                codigo = asignado;
+            }
+            return cuentas.posicion(codigo);
+        }
+
+        private int codigoParaCargar(String dni, int codigo) {
+            if (codigo != IndiceCuentas.NO_NUMERICO) {
+                return codigo;
+            }
+            return codigosNoNumericos.computeIfAbsent(dni, ignorado -> siguienteCodigoNoNumerico++);
+        }
+    }
+}
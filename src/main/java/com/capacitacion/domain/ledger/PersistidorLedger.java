@@ -0,0 +1,99 @@
+package com.capacitacion.domain.ledger;
+
+import com.capacitacion.domain.model.LoteLedgerCuarentena;
+import com.capacitacion.domain.model.Transaccion;
+import com.capacitacion.domain.repository.LoteLedgerCuarentenaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Persiste en lotes las transacciones aplicadas por el {@link LedgerCreditos}, usando el {@link AlmacenLedger}
+ * configurado. Si un lote falla se reintenta en la siguiente ejecución, sin descartarlo. Un lote que sigue fallando
+ * después de {@code capacitacion.ledger.reintentos-lote} reintentos se guarda en la colección {@code cuarentena_ledger}
+ * para revisarlo, y el persistidor continúa con los lotes siguientes.
+ */
+@Component
+@ConditionalOnProperty(name = "capacitacion.ledger.habilitado", havingValue = "true")
+@Slf4j
+public class PersistidorLedger {
+
+    private final LedgerCreditos ledger;
+    private final AlmacenLedger almacen;
+    private final LoteLedgerCuarentenaRepository cuarentenaRepository;
+    private final int tamanioLote;
+    private final int reintentosLote;
+    private final List<Transaccion> lote = new ArrayList<>();
+    private int fallos;
+
+    /**
+     * Constructor de PersistidorLedger.
+     *
+     * @param ledger               Ledger del que se extraen las transacciones pendientes.
+     * @param almacen              Almacén donde se persisten los lotes.
+     * @param cuarentenaRepository Repositorio de los lotes que no pudieron persistirse.
+     * @param tamanioLote          Cantidad máxima de transacciones por lote.
+     * @param reintentosLote       Cantidad de reintentos de un lote antes de ponerlo en cuarentena.
+     */
+    public PersistidorLedger(LedgerCreditos ledger, AlmacenLedger almacen, LoteLedgerCuarentenaRepository cuarentenaRepository,
+                             @Value("${capacitacion.ledger.tamanio-lote:5000}") int tamanioLote,
+                             @Value("${capacitacion.ledger.reintentos-lote:10}") int reintentosLote) {
+        this.ledger = ledger;
+        this.almacen = almacen;
+        this.cuarentenaRepository = cuarentenaRepository;
+        this.tamanioLote = tamanioLote;
+        this.reintentosLote = reintentosLote;
+    }
+
+    /**
+     * Persiste las transacciones pendientes hasta vaciar la cola del ledger.
+     */
+    @Scheduled(fixedDelayString = "${capacitacion.ledger.intervalo-persistencia-ms:50}")
+    public void persistirPendientes() {
+        while (true) {
+            if (lote.isEmpty() && ledger.drenar(lote, tamanioLote) == 0) {
+                return;
+            }
+            try {
+                almacen.persistir(lote);
+            } catch (RuntimeException e) {
+                if (++fallos <= reintentosLote) {
+                    log.warn("No se pudo persistir un lote de {} transacciones del ledger, se reintentará ({} de {})",
+                            lote.size(), fallos, reintentosLote, e);
+                    return;
+                }
+                if (!ponerEnCuarentena(e)) {
+                    return;
+                }
+            }
+            lote.clear();
+            fallos = 0;
+        }
+    }
+
+    /**
+     * Guarda el lote actual en la colección de cuarentena y lo informa al almacén, para que no confirme sus
+     * transacciones a quienes las esperan.
+     *
+     * @param error Error del último intento de persistir el lote.
+     * @return true si el lote quedó en cuarentena; false si tampoco pudo guardarse, en cuyo caso se vuelve a intentar
+     *         persistirlo en la siguiente ejecución.
+     */
+    private boolean ponerEnCuarentena(RuntimeException error) {
+        try {
+            LoteLedgerCuarentena cuarentena = cuarentenaRepository.save(new LoteLedgerCuarentena(lote, error.getMessage()));
+            log.error("Lote de {} transacciones del ledger puesto en cuarentena con ID {} despues de {} intentos",
+                    lote.size(), cuarentena.getId(), fallos, error);
+            almacen.descartar(lote);
+            return true;
+        } catch (RuntimeException e) {
+            log.error("No se pudo poner en cuarentena un lote de {} transacciones del ledger", lote.size(), e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.capacitacion.domain.model;
+
+import jakarta.persistence.Id;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Asiento de débito o crédito del ledger de créditos. Los asientos sólo se agregan, nunca se modifican, y se
+ * numeran con una secuencia creciente; los créditos de una cuenta son su saldo en el último snapshot más las
+ * variaciones de los asientos posteriores. Cada asiento guarda la partición de su DNI, para poder reconstruir
+ * los saldos recorriendo las particiones en paralelo.
+ */
+@Getter @Setter
+@Document(collection = "asientos")
+@CompoundIndex(name = "particion_secuencia", def = "{'particion': 1, '_id': 1}")
+public class AsientoLedger {
+
+    @Id
+    private long id;
+    private int particion;
+    private String dni;
+    private int variacion;
+    private String transaccionId;
+    private Instant fecha;
+
+    /**
+     * Constructor de AsientoLedger.
+     *
+     * @param id            Número de secuencia del asiento.
+     * @param particion     Partición del DNI.
+     * @param dni           DNI de la cuenta.
+     * @param variacion     Variación de créditos (negativa para los débitos).
+     * @param transaccionId ID de la transacción que originó el asiento.
+     * @param fecha         Fecha de la transacción.
+     */
+    public AsientoLedger(long id, int particion, String dni, int variacion, String transaccionId, Instant fecha) {
+        this.id = id;
+        this.particion = particion;
+        this.dni = dni;
+        this.variacion = variacion;
+        this.transaccionId = transaccionId;
+        this.fecha = fecha;
+    }
+
+    /**
+     * Constructor por defecto de AsientoLedger.
+     */
+    public AsientoLedger() {}
+}
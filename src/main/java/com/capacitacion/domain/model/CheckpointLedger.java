@@ -0,0 +1,40 @@
+package com.capacitacion.domain.model;
+
+import jakarta.persistence.Id;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Último snapshot de los saldos del ledger: los créditos de las personas incluyen todos los asientos hasta
+ * {@code ultimaSecuencia}, inclusive.
+ */
+@Getter @Setter
+@Document(collection = "checkpoints_ledger")
+public class CheckpointLedger {
+
+    public static final String ID = "ledger";
+
+    @Id
+    private String id;
+    private long ultimaSecuencia;
+    private Instant fecha;
+
+    /**
+     * Constructor de CheckpointLedger.
+     *
+     * @param ultimaSecuencia Secuencia del último asiento incluido en el snapshot.
+     */
+    public CheckpointLedger(long ultimaSecuencia) {
+        this.id = ID;
+        this.ultimaSecuencia = ultimaSecuencia;
+        this.fecha = Instant.now();
+    }
+
+    /**
+     * Constructor por defecto de CheckpointLedger.
+     */
+    public CheckpointLedger() {}
+}
@@ -0,0 +1,48 @@
+package com.capacitacion.domain.model;
+
+import jakarta.persistence.Id;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Transacción realizada con una clave de idempotencia, o reserva de la clave mientras la transacción está en curso.
+ * La reserva tiene un arrendamiento que vence en {@code enCurso}; vencido, otra solicitud con la misma clave puede
+ * retomarla. MongoDB elimina el documento cuando se cumple la ventana configurada en
+ * {@code capacitacion.idempotencia.ventana}, mediante un índice TTL sobre la fecha.
+ */
+@Getter @Setter
+@Document(collection = "claves_idempotencia")
+public class ClaveIdempotencia {
+
+    @Id
+    private String id;
+    private Transaccion transaccion;
+    /** ID asignado a la transacción al reservar la clave, que conservan las solicitudes que retoman la reserva. */
+    private String transaccionId;
+    /** Vencimiento del arrendamiento de la reserva; no se informa una vez registrada la transacción. */
+    private Instant enCurso;
+    @Indexed(name = "fecha_ttl", expireAfter = "#{@environment.getProperty('capacitacion.idempotencia.ventana', '1d')}")
+    private Instant fecha;
+
+    /**
+     * Constructor de ClaveIdempotencia.
+     *
+     * @param id          Clave de idempotencia enviada por el cliente.
+     * @param transaccion Transacción realizada con la clave.
+     */
+    public ClaveIdempotencia(String id, Transaccion transaccion) {
+        this.id = id;
+        this.transaccion = transaccion;
+        this.transaccionId = transaccion == null ? null : transaccion.getId();
+        this.fecha = Instant.now();
+    }
+
+    /**
+     * Constructor por defecto de ClaveIdempotencia.
+     */
+    public ClaveIdempotencia() {}
+}
@@ -0,0 +1,24 @@
+package com.capacitacion.domain.model;
+
+import lombok.Getter;
+
+@Getter
+public class ErrorImportacion {
+
+    private final long linea;
+    private final String dni;
+    private final String mensaje;
+
+    /**
+     * Constructor de ErrorImportacion.
+     *
+     * @param linea   Número de línea de la fila rechazada en el archivo.
+     * @param dni     DNI de la fila rechazada (nulo si no pudo leerse).
+     * @param mensaje Motivo del rechazo.
+     */
+    public ErrorImportacion(long linea, String dni, String mensaje) {
+        this.linea = linea;
+        this.dni = dni;
+        this.mensaje = mensaje;
+    }
+}
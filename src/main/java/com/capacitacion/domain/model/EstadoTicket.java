@@ -0,0 +1,9 @@
+package com.capacitacion.domain.model;
+
+public enum EstadoTicket {
+    PENDIENTE,
+    PROCESANDO,
+    COMPLETADA,
+    RECHAZADA,
+    FALLIDA
+}
@@ -0,0 +1,41 @@
+package com.capacitacion.domain.model;
+
+import jakarta.persistence.Id;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Getter @Setter
+@Document(collection = "outbox")
+public class EventoOutbox {
+
+    @Id
+    private String id;
+    private String topic;
+    private String clave;
+    private Object evento;
+    private Instant fecha;
+    /** Intentos de publicación que Kafka rechazó. */
+    private int intentos;
+
+    /**
+     * Constructor de EventoOutbox.
+     *
+     * @param topic  Topic de Kafka donde debe publicarse el evento.
+     * @param clave  Clave del mensaje (puede ser nula).
+     * @param evento Evento a publicar.
+     */
+    public EventoOutbox(String topic, String clave, Object evento) {
+        this.topic = topic;
+        this.clave = clave;
+        this.evento = evento;
+        this.fecha = Instant.now();
+    }
+
+    /**
+     * Constructor por defecto de EventoOutbox.
+     */
+    public EventoOutbox() {}
+}
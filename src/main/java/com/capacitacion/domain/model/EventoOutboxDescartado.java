@@ -0,0 +1,51 @@
+package com.capacitacion.domain.model;
+
+import jakarta.persistence.Id;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Evento del outbox que Kafka rechazó en los intentos configurados mientras aceptaba los demás eventos de sus lotes.
+ * Se guarda aparte, con el mismo ID, para que el relay siga con los eventos siguientes y el evento pueda revisarse
+ * y volver a registrarse a mano.
+ */
+@Getter @Setter
+@Document(collection = "outbox_descartados")
+public class EventoOutboxDescartado {
+
+    @Id
+    private String id;
+    private String topic;
+    private String clave;
+    private Object evento;
+    private Instant fechaRegistro;
+    private int intentos;
+    private String motivo;
+    private Instant fecha;
+
+    /**
+     * Constructor de EventoOutboxDescartado.
+     *
+     * @param evento   Evento del outbox que no pudo publicarse.
+     * @param intentos Cantidad de intentos fallidos de publicarlo.
+     * @param motivo   Error del último intento de publicarlo.
+     */
+    public EventoOutboxDescartado(EventoOutbox evento, int intentos, String motivo) {
+        this.id = evento.getId();
+        this.topic = evento.getTopic();
+        this.clave = evento.getClave();
+        this.evento = evento.getEvento();
+        this.fechaRegistro = evento.getFecha();
+        this.intentos = intentos;
+        this.motivo = motivo;
+        this.fecha = Instant.now();
+    }
+
+    /**
+     * Constructor por defecto de EventoOutboxDescartado.
+     */
+    public EventoOutboxDescartado() {}
+}
@@ -0,0 +1,49 @@
+package com.capacitacion.domain.model;
+
+import lombok.Getter;
+
+/**
+ * Fila leída de un archivo de importación de personas: la persona, o el error si la fila no pudo interpretarse.
+ */
+@Getter
+public class FilaImportacion {
+
+    private final long linea;
+    private final Persona persona;
+    private final String error;
+
+    /**
+     * Constructor de FilaImportacion.
+     *
+     * @param linea   Número de línea de la fila en el archivo.
+     * @param persona Persona leída (nula si la fila no pudo interpretarse).
+     * @param error   Motivo por el que la fila no pudo interpretarse (nulo si se leyó la persona).
+     */
+    public FilaImportacion(long linea, Persona persona, String error) {
+        this.linea = linea;
+        this.persona = persona;
+        this.error = error;
+    }
+
+    /**
+     * Crea una fila leída correctamente.
+     *
+     * @param linea   Número de línea de la fila en el archivo.
+     * @param persona Persona leída.
+     * @return Fila con la persona.
+     */
+    public static FilaImportacion valida(long linea, Persona persona) {
+        return new FilaImportacion(linea, persona, null);
+    }
+
+    /**
+     * Crea una fila que no pudo interpretarse.
+     *
+     * @param linea Número de línea de la fila en el archivo.
+     * @param error Motivo del error.
+     * @return Fila con el error.
+     */
+    public static FilaImportacion erronea(long linea, String error) {
+        return new FilaImportacion(linea, null, error);
+    }
+}
@@ -0,0 +1,42 @@
+package com.capacitacion.domain.model;
+
+import jakarta.persistence.Id;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lote de transacciones del ledger que no pudo persistirse después de los reintentos configurados. Se guarda aparte
+ * para que el persistidor siga con los lotes siguientes y el lote pueda revisarse y aplicarse a mano.
+ */
+@Getter @Setter
+@Document(collection = "cuarentena_ledger")
+public class LoteLedgerCuarentena {
+
+    @Id
+    private String id;
+    private List<Transaccion> transacciones;
+    private String motivo;
+    private Instant fecha;
+
+    /**
+     * Constructor de LoteLedgerCuarentena.
+     *
+     * @param transacciones Transacciones del lote, en el orden en que se aplicaron en el ledger.
+     * @param motivo        Error del último intento de persistir el lote.
+     */
+    public LoteLedgerCuarentena(List<Transaccion> transacciones, String motivo) {
+        this.transacciones = new ArrayList<>(transacciones);
+        this.motivo = motivo;
+        this.fecha = Instant.now();
+    }
+
+    /**
+     * Constructor por defecto de LoteLedgerCuarentena.
+     */
+    public LoteLedgerCuarentena() {}
+}
@@ -8,6 +8,7 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.Getter;
 import lombok.Setter;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Getter @Setter
@@ -17,6 +18,7 @@ public class Persona {
     @Id
     private String id;
     @NotBlank
+    @Indexed
     private String nombre;
     @NotBlank
     @DecimalMin(value = "1")
@@ -24,12 +26,15 @@ public class Persona {
     private int edad;
     @NotBlank
     @Size(max = 8)
+    @Indexed(unique = true)
     private String dni;
     @NotBlank
     @DecimalMin(value = "1")
     private int creditos = 100;
     @NotBlank
     private String direccion;
+    @Nullable
+    private Integer fracciones;
 
     /**
      * Constructor de Persona.
@@ -51,6 +56,15 @@ public class Persona {
      */
     public Persona() {}
 
+    /**
+     * Indica si los créditos de la persona están fraccionados en sub-saldos.
+     *
+     * @return true si la persona tiene más de una fracción de saldo.
+     */
+    public boolean tieneSaldoFraccionado() {
+        return fracciones != null && fracciones > 1;
+    }
+
     /**
      * Resta créditos a la persona por una transacción.
      *
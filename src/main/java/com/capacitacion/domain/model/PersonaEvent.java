@@ -3,20 +3,49 @@ package com.capacitacion.domain.model;
 import lombok.Getter;
 import lombok.Setter;
 import java.io.Serializable;
+import java.time.Instant;
 
-
+/**
+ * Evento de alta de una persona. Desde la versión 2 incluye todos los datos de la persona al darse de alta, de modo
+ * que los consumidores no necesitan consultarla en la base de datos. Los eventos de la versión 1 sólo tenían el
+ * nombre; al leerlos, los campos que faltan quedan nulos y la versión en 1.
+ */
 @Getter @Setter
 public class PersonaEvent implements Serializable {
+
+    public static final int VERSION = 2;
+
+    private int version;
+    private String id;
     private String nombre;
+    private int edad;
+    private String dni;
+    private Integer creditos;
+    /**
+     * Momento en que se armó el evento, al registrarlo en el outbox en la misma transacción que el alta. Persona no
+     * guarda su fecha de alta, por lo que es la mejor aproximación disponible; no es la fecha de publicación en Kafka.
+     */
+    private Instant fechaEvento;
 
     /**
      * Constructor de PersonaEvent.
      *
-     * @param nombre Nombre asociado al evento de Persona.
+     * @param persona Persona dada de alta, ya guardada.
      */
-    public PersonaEvent(String nombre) {
-        this.nombre = nombre;
+    public PersonaEvent(Persona persona) {
+        this.version = VERSION;
+        this.id = persona.getId();
+        this.nombre = persona.getNombre();
+        this.edad = persona.getEdad();
+        this.dni = persona.getDni();
+        this.creditos = persona.getCreditos();
+        this.fechaEvento = Instant.now();
     }
 
-
-}
\ No newline at end of file
+    /**
+     * Constructor por defecto de PersonaEvent, usado al deserializar. Los eventos sin versión son de la versión 1.
+     */
+    public PersonaEvent() {
+        this.version = 1;
+    }
+}
@@ -0,0 +1,24 @@
+package com.capacitacion.domain.model;
+
+import lombok.Getter;
+
+/**
+ * Resultado de una transacción solicitada con una clave de idempotencia.
+ */
+@Getter
+public class ResultadoIdempotente {
+
+    private final Transaccion transaccion;
+    private final boolean repetida;
+
+    /**
+     * Constructor de ResultadoIdempotente.
+     *
+     * @param transaccion Transacción realizada con la clave.
+     * @param repetida    true si la clave ya se había usado y no se volvió a realizar la transacción.
+     */
+    public ResultadoIdempotente(Transaccion transaccion, boolean repetida) {
+        this.transaccion = transaccion;
+        this.repetida = repetida;
+    }
+}
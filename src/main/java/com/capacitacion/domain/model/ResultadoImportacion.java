@@ -0,0 +1,60 @@
+package com.capacitacion.domain.model;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultado de una importación de personas: cantidad de filas procesadas e importadas, y el error de cada fila
+ * rechazada. Para acotar el tamaño del reporte se detallan hasta una cantidad máxima de errores; del resto sólo se
+ * informa la cantidad.
+ */
+@Getter
+public class ResultadoImportacion {
+
+    private long filas;
+    private long importadas;
+    private long rechazadas;
+    private long erroresOmitidos;
+    private final List<ErrorImportacion> errores = new ArrayList<>();
+    @Getter(AccessLevel.NONE)
+    private final int erroresMaximos;
+
+    /**
+     * Constructor de ResultadoImportacion.
+     *
+     * @param erroresMaximos Cantidad máxima de errores detallados en el reporte.
+     */
+    public ResultadoImportacion(int erroresMaximos) {
+        this.erroresMaximos = erroresMaximos;
+    }
+
+    /**
+     * Registra las filas importadas de un lote.
+     *
+     * @param cantidad Cantidad de filas importadas.
+     */
+    public void registrarImportadas(int cantidad) {
+        filas += cantidad;
+        importadas += cantidad;
+    }
+
+    /**
+     * Registra una fila rechazada.
+     *
+     * @param linea   Número de línea de la fila en el archivo.
+     * @param dni     DNI de la fila (puede ser nulo).
+     * @param mensaje Motivo del rechazo.
+     */
+    public void registrarError(long linea, String dni, String mensaje) {
+        filas++;
+        rechazadas++;
+        if (errores.size() < erroresMaximos) {
+            errores.add(new ErrorImportacion(linea, dni, mensaje));
+        } else {
+            erroresOmitidos++;
+        }
+    }
+}
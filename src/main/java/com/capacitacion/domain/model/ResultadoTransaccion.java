@@ -0,0 +1,49 @@
+package com.capacitacion.domain.model;
+
+import lombok.Getter;
+
+@Getter
+public class ResultadoTransaccion {
+
+    private final int indice;
+    private final String transaccionId;
+    private final boolean exitosa;
+    private final String mensaje;
+
+    /**
+     * Constructor de ResultadoTransaccion.
+     *
+     * @param indice        Posición de la transacción dentro del lote recibido.
+     * @param transaccionId Identificador de la transacción creada (nulo si fue rechazada).
+     * @param exitosa       Indica si la transacción fue aplicada.
+     * @param mensaje       Motivo del rechazo (nulo si fue aplicada).
+     */
+    public ResultadoTransaccion(int indice, String transaccionId, boolean exitosa, String mensaje) {
+        this.indice = indice;
+        this.transaccionId = transaccionId;
+        this.exitosa = exitosa;
+        this.mensaje = mensaje;
+    }
+
+    /**
+     * Crea el resultado de una transacción aplicada.
+     *
+     * @param indice        Posición de la transacción dentro del lote.
+     * @param transaccionId Identificador de la transacción creada.
+     * @return Resultado exitoso.
+     */
+    public static ResultadoTransaccion exitosa(int indice, String transaccionId) {
+        return new ResultadoTransaccion(indice, transaccionId, true, null);
+    }
+
+    /**
+     * Crea el resultado de una transacción rechazada.
+     *
+     * @param indice  Posición de la transacción dentro del lote.
+     * @param mensaje Motivo del rechazo.
+     * @return Resultado rechazado.
+     */
+    public static ResultadoTransaccion rechazada(int indice, String mensaje) {
+        return new ResultadoTransaccion(indice, null, false, mensaje);
+    }
+}
@@ -0,0 +1,40 @@
+package com.capacitacion.domain.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import java.io.Serializable;
+
+@Getter @Setter
+public class SolicitudTransaccionEvent implements Serializable {
+
+    private String ticketId;
+    private String dniOrigen;
+    private String dniDestino;
+    private int monto;
+
+    /**
+     * Constructor de SolicitudTransaccionEvent.
+     *
+     * @param ticket Ticket asociado a la transacción solicitada.
+     */
+    public SolicitudTransaccionEvent(TicketTransaccion ticket) {
+        this.ticketId = ticket.getId();
+        this.dniOrigen = ticket.getDniOrigen();
+        this.dniDestino = ticket.getDniDestino();
+        this.monto = ticket.getMonto();
+    }
+
+    /**
+     * Constructor por defecto de SolicitudTransaccionEvent.
+     */
+    public SolicitudTransaccionEvent() {}
+
+    /**
+     * Convierte la solicitud en la transacción a realizar.
+     *
+     * @return Transacción solicitada.
+     */
+    public Transaccion aTransaccion() {
+        return new Transaccion(null, dniOrigen, dniDestino, monto);
+    }
+}
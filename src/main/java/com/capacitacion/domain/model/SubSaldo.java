@@ -0,0 +1,54 @@
+package com.capacitacion.domain.model;
+
+import jakarta.persistence.Id;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Fracción de los créditos de una persona con saldo fraccionado. Cada fracción es un documento propio, de modo que
+ * las transacciones concurrentes sobre la misma cuenta actualizan documentos distintos en lugar de serializarse
+ * sobre el de la persona. Los créditos de la persona son la suma de sus fracciones más los del documento de la persona.
+ */
+@Getter @Setter
+@Document(collection = "subsaldos")
+public class SubSaldo {
+
+    @Id
+    private String id;
+    @Indexed
+    private String dni;
+    private int indice;
+    private int creditos;
+
+    /**
+     * Constructor de SubSaldo.
+     *
+     * @param dni      DNI de la persona.
+     * @param indice   Índice de la fracción, entre 0 y la cantidad de fracciones de la persona.
+     * @param creditos Créditos de la fracción.
+     */
+    public SubSaldo(String dni, int indice, int creditos) {
+        this.id = id(dni, indice);
+        this.dni = dni;
+        this.indice = indice;
+        this.creditos = creditos;
+    }
+
+    /**
+     * Constructor por defecto de SubSaldo.
+     */
+    public SubSaldo() {}
+
+    /**
+     * Devuelve el ID de una fracción, que se deriva del DNI y del índice para actualizarla sin consultarla antes.
+     *
+     * @param dni    DNI de la persona.
+     * @param indice Índice de la fracción.
+     * @return ID de la fracción.
+     */
+    public static String id(String dni, int indice) {
+        return dni + "-" + indice;
+    }
+}
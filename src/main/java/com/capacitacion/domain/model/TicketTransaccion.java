@@ -0,0 +1,57 @@
+package com.capacitacion.domain.model;
+
+import jakarta.persistence.Id;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+@Getter @Setter
+@Document(collection = "tickets")
+public class TicketTransaccion {
+
+    @Id
+    private String id;
+    private String dniOrigen;
+    private String dniDestino;
+    private int monto;
+    private EstadoTicket estado;
+    private String transaccionId;
+    private String mensaje;
+
+    /**
+     * Constructor de TicketTransaccion para una transacción recién encolada.
+     *
+     * @param transaccion Transacción solicitada.
+     */
+    public TicketTransaccion(Transaccion transaccion) {
+        this.dniOrigen = transaccion.getDniOrigen();
+        this.dniDestino = transaccion.getDniDestino();
+        this.monto = transaccion.getMonto();
+        this.estado = EstadoTicket.PENDIENTE;
+    }
+
+    /**
+     * Constructor por defecto de TicketTransaccion.
+     */
+    public TicketTransaccion() {}
+
+    /**
+     * Marca el ticket como completado.
+     *
+     * @param transaccionId Identificador de la transacción realizada.
+     */
+    public void completar(String transaccionId) {
+        this.estado = EstadoTicket.COMPLETADA;
+        this.transaccionId = transaccionId;
+    }
+
+    /**
+     * Marca el ticket como rechazado.
+     *
+     * @param mensaje Motivo del rechazo.
+     */
+    public void rechazar(String mensaje) {
+        this.estado = EstadoTicket.RECHAZADA;
+        this.mensaje = mensaje;
+    }
+}
@@ -6,12 +6,27 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.Getter;
 import lombok.Setter;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.time.Instant;
+
+/**
+ * Transferencia de créditos entre dos personas. Los índices compuestos por DNI de origen o de destino, fecha e ID
+ * incluyen todos los campos de la transacción, de modo que el historial de una persona se resuelve sólo con el índice.
+ */
 @Getter @Setter
 @Document(collection = "transacciones")
+@CompoundIndexes({
+        @CompoundIndex(name = Transaccion.INDICE_ORIGEN_FECHA, def = "{'dniOrigen': 1, 'fecha': -1, '_id': -1, 'dniDestino': 1, 'monto': 1}"),
+        @CompoundIndex(name = Transaccion.INDICE_DESTINO_FECHA, def = "{'dniDestino': 1, 'fecha': -1, '_id': -1, 'dniOrigen': 1, 'monto': 1}")
+})
 public class Transaccion {
 
+    public static final String INDICE_ORIGEN_FECHA = "dniOrigen_fecha";
+    public static final String INDICE_DESTINO_FECHA = "dniDestino_fecha";
+
     @Id
     private String id;
     @NotBlank
@@ -23,6 +38,7 @@ public class Transaccion {
     @NotBlank
     @DecimalMin(value = "1")
     private int monto;
+    private Instant fecha;
 
     /**
      * Constructor de Transaccion.
@@ -3,18 +3,43 @@ package com.capacitacion.domain.model;
 import lombok.Getter;
 import lombok.Setter;
 import java.io.Serializable;
+import java.time.Instant;
 
+/**
+ * Evento de una transacción realizada. Desde la versión 2 incluye las partes, el monto y la fecha de la transacción,
+ * de modo que los consumidores no necesitan consultarla en la base de datos. Los eventos de la versión 1 sólo tenían
+ * el ID; al leerlos, los campos que faltan quedan nulos y la versión en 1.
+ */
 @Getter @Setter
 public class TransaccionEvent implements Serializable {
 
+    public static final int VERSION = 2;
+
+    private int version;
     private String transaccionId;
+    private String dniOrigen;
+    private String dniDestino;
+    private Integer monto;
+    private Instant fecha;
 
     /**
      * Constructor de TransaccionEvent.
      *
-     * @param transaccionId Identificador único de la transacción.
+     * @param transaccion Transacción realizada, con su ID asignado.
+     */
+    public TransaccionEvent(Transaccion transaccion) {
+        this.version = VERSION;
+        this.transaccionId = transaccion.getId();
+        this.dniOrigen = transaccion.getDniOrigen();
+        this.dniDestino = transaccion.getDniDestino();
+        this.monto = transaccion.getMonto();
+        this.fecha = transaccion.getFecha();
+    }
+
+    /**
+     * Constructor por defecto de TransaccionEvent, usado al deserializar. Los eventos sin versión son de la versión 1.
      */
-    public TransaccionEvent(String transaccionId) {
-        this.transaccionId = transaccionId;
+    public TransaccionEvent() {
+        this.version = 1;
     }
 }
@@ -0,0 +1,26 @@
+package com.capacitacion.domain.model.exception;
+
+public class AdmisionRechazadaException extends RuntimeException {
+
+    private final long reintentarEnMs;
+
+    /**
+     * Constructor de AdmisionRechazadaException.
+     *
+     * @param reintentarEnMs Milisegundos que conviene esperar antes de reintentar.
+     */
+    public AdmisionRechazadaException(long reintentarEnMs) {
+        this.reintentarEnMs = reintentarEnMs;
+    }
+
+    public long getReintentarEnMs() {
+        return reintentarEnMs;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Message Error: Se supero el limite de transacciones, debe reintentarse mas tarde";
+    }
+
+    private static final long serialVersionUID = 1L;
+}
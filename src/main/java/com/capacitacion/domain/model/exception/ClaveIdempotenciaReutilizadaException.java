@@ -0,0 +1,11 @@
+package com.capacitacion.domain.model.exception;
+
+public class ClaveIdempotenciaReutilizadaException extends RuntimeException {
+
+    @Override
+    public String getMessage() {
+        return "Message Error: La clave de idempotencia ya se uso para una transaccion con otros datos.";
+    }
+
+    private static final long serialVersionUID = 1L;
+}
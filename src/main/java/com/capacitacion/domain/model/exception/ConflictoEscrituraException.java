@@ -0,0 +1,11 @@
+package com.capacitacion.domain.model.exception;
+
+public class ConflictoEscrituraException extends RuntimeException {
+
+    @Override
+    public String getMessage() {
+        return "Message Error: Otra operacion modifico los mismos saldos en simultaneo, debe reintentarse la operacion";
+    }
+
+    private static final long serialVersionUID = 1L;
+}
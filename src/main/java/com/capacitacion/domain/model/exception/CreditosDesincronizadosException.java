@@ -0,0 +1,26 @@
+package com.capacitacion.domain.model.exception;
+
+public class CreditosDesincronizadosException extends RuntimeException {
+
+    private final int actualizadas;
+    private final int esperadas;
+
+    /**
+     * Constructor de CreditosDesincronizadosException.
+     *
+     * @param actualizadas Cantidad de cuentas actualizadas.
+     * @param esperadas    Cantidad de cuentas que debían actualizarse.
+     */
+    public CreditosDesincronizadosException(int actualizadas, int esperadas) {
+        this.actualizadas = actualizadas;
+        this.esperadas = esperadas;
+    }
+
+    @Override
+    public String getMessage() {
+        return "Message Error: El lote del ledger actualizo " + actualizadas + " de " + esperadas
+                + " cuentas, los creditos persistidos difieren de los del ledger";
+    }
+
+    private static final long serialVersionUID = 1L;
+}
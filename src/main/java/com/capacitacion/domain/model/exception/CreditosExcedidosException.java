@@ -0,0 +1,15 @@
+package com.capacitacion.domain.model.exception;
+
+/**
+ * El monto llevaría los créditos de la cuenta de destino por encima del máximo representable. Es un monto no válido
+ * para esa transacción, por lo que se informa como tal.
+ */
+public class CreditosExcedidosException extends MontoNoValidoException {
+
+    @Override
+    public String getMessage() {
+        return "Message Error: El monto excede los creditos maximos de la persona correspondiente al dniDestino";
+    }
+
+    private static final long serialVersionUID = 1L;
+}
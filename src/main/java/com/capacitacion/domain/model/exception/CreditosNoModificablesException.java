@@ -0,0 +1,11 @@
+package com.capacitacion.domain.model.exception;
+
+public class CreditosNoModificablesException extends RuntimeException {
+
+    @Override
+    public String getMessage() {
+        return "Message Error: Con el ledger habilitado los creditos solo pueden modificarse mediante transacciones";
+    }
+
+    private static final long serialVersionUID = 1L;
+}
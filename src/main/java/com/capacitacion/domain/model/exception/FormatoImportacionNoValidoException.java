@@ -0,0 +1,11 @@
+package com.capacitacion.domain.model.exception;
+
+public class FormatoImportacionNoValidoException extends RuntimeException {
+
+    @Override
+    public String getMessage() {
+        return "Message Error: El archivo debe ser CSV con encabezado (nombre, edad, dni y opcionalmente direccion) o NDJSON";
+    }
+
+    private static final long serialVersionUID = 1L;
+}
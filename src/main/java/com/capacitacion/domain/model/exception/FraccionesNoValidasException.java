@@ -0,0 +1,11 @@
+package com.capacitacion.domain.model.exception;
+
+public class FraccionesNoValidasException extends RuntimeException {
+
+    @Override
+    public String getMessage() {
+        return "Message Error: La cantidad de fracciones del saldo debe estar entre 1 y 64";
+    }
+
+    private static final long serialVersionUID = 1L;
+}
@@ -0,0 +1,11 @@
+package com.capacitacion.domain.model.exception;
+
+public class SaldoModificadoException extends RuntimeException {
+
+    @Override
+    public String getMessage() {
+        return "Message Error: Los saldos fueron modificados mientras se procesaba el lote, debe reintentarse la operacion";
+    }
+
+    private static final long serialVersionUID = 1L;
+}
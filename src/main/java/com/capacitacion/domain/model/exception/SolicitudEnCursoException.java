@@ -0,0 +1,11 @@
+package com.capacitacion.domain.model.exception;
+
+public class SolicitudEnCursoException extends RuntimeException {
+
+    @Override
+    public String getMessage() {
+        return "Message Error: Hay otra solicitud en curso con la misma clave de idempotencia, debe reintentarse la operacion";
+    }
+
+    private static final long serialVersionUID = 1L;
+}
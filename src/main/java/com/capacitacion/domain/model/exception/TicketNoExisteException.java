@@ -0,0 +1,11 @@
+package com.capacitacion.domain.model.exception;
+
+public class TicketNoExisteException extends RuntimeException {
+
+    @Override
+    public String getMessage() {
+        return "Message Error: El ticket con el id proporcionado no existe.";
+    }
+
+    private static final long serialVersionUID = 1L;
+}
@@ -0,0 +1,16 @@
+package com.capacitacion.domain.repository;
+
+import com.capacitacion.domain.model.AsientoLedger;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface AsientoLedgerRepository extends MongoRepository<AsientoLedger, Long> {
+
+    AsientoLedger findFirstByOrderByIdDesc();
+    Stream<AsientoLedger> streamByParticionAndIdGreaterThanOrderByIdAsc(int particion, long id);
+    List<AsientoLedger> findByParticionAndIdGreaterThanAndDni(int particion, long id, String dni);
+}
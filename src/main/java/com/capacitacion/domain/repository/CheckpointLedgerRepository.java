@@ -0,0 +1,10 @@
+package com.capacitacion.domain.repository;
+
+import com.capacitacion.domain.model.CheckpointLedger;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CheckpointLedgerRepository extends MongoRepository<CheckpointLedger, String> {
+
+}
@@ -0,0 +1,10 @@
+package com.capacitacion.domain.repository;
+
+import com.capacitacion.domain.model.ClaveIdempotencia;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ClaveIdempotenciaRepository extends MongoRepository<ClaveIdempotencia, String>, ClaveIdempotenciaRepositoryCustom {
+
+}
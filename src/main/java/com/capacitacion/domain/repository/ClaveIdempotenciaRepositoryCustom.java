@@ -0,0 +1,22 @@
+package com.capacitacion.domain.repository;
+
+import com.capacitacion.domain.model.ClaveIdempotencia;
+
+import java.time.Instant;
+
+public interface ClaveIdempotenciaRepositoryCustom {
+
+    /**
+     * Reserva una clave de idempotencia con operaciones atómicas ({@code findAndModify}), sin transacción, por lo que
+     * la reserva queda confirmada apenas termina la operación. Primero intenta retomar una reserva sin transacción
+     * registrada cuyo arrendamiento venció, conservando el ID de su transacción; si no la hay, reserva la clave con
+     * {@code upsert} y un ID de transacción nuevo, sólo si la clave no existe o si su último uso es anterior al
+     * límite indicado.
+     *
+     * @param clave           Clave de idempotencia enviada por el cliente.
+     * @param vencidasAntesDe Fecha desde la que un uso anterior de la clave sigue vigente.
+     * @param arrendadaHasta  Vencimiento del arrendamiento de la reserva.
+     * @return Reserva de la clave, o null si hay un uso vigente o una reserva en curso de la clave.
+     */
+    ClaveIdempotencia reservar(String clave, Instant vencidasAntesDe, Instant arrendadaHasta);
+}
@@ -0,0 +1,48 @@
+package com.capacitacion.domain.repository;
+
+import com.capacitacion.domain.model.ClaveIdempotencia;
+import org.bson.types.ObjectId;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+
+public class ClaveIdempotenciaRepositoryCustomImpl implements ClaveIdempotenciaRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Constructor de ClaveIdempotenciaRepositoryCustomImpl.
+     *
+     * @param mongoTemplate Plantilla de MongoDB para ejecutar las operaciones atómicas.
+     */
+    public ClaveIdempotenciaRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public ClaveIdempotencia reservar(String clave, Instant vencidasAntesDe, Instant arrendadaHasta) {
+        Instant ahora = Instant.now();
+        Query abandonada = new Query(Criteria.where("_id").is(clave).and("transaccion").exists(false).and("enCurso").lt(ahora));
+        ClaveIdempotencia retomada = mongoTemplate.findAndModify(abandonada,
+                new Update().set("fecha", ahora).set("enCurso", arrendadaHasta),
+                FindAndModifyOptions.options().returnNew(true), ClaveIdempotencia.class);
+        if (retomada != null) {
+            return retomada;
+        }
+        Query query = new Query(Criteria.where("_id").is(clave).and("fecha").lt(vencidasAntesDe));
+        Update update = new Update().unset("transaccion").set("fecha", ahora).set("enCurso", arrendadaHasta)
+                .set("transaccionId", new ObjectId().toHexString());
+        try {
+            // Si la clave existe y está vigente o en curso, el upsert intenta insertar un documento con el mismo _id.
+            return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().upsert(true).returnNew(true),
+                    ClaveIdempotencia.class);
+        } catch (DuplicateKeyException e) {
+            return null;
+        }
+    }
+}
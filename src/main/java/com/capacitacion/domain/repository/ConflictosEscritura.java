@@ -0,0 +1,32 @@
+package com.capacitacion.domain.repository;
+
+import com.mongodb.MongoException;
+
+/**
+ * Reconoce los errores de MongoDB causados por otra operación que escribió los mismos documentos en simultáneo
+ * (conflictos de escritura y transacciones abortadas por el servidor), que se resuelven reintentando la operación.
+ */
+public final class ConflictosEscritura {
+
+    private static final int CODIGO_WRITE_CONFLICT = 112;
+
+    private ConflictosEscritura() {
+    }
+
+    /**
+     * Indica si el error, o alguna de sus causas, es un conflicto de escritura transitorio de MongoDB.
+     *
+     * @param error Error a analizar.
+     * @return true si la operación puede reintentarse.
+     */
+    public static boolean esTransitorio(Throwable error) {
+        for (Throwable causa = error; causa != null; causa = causa.getCause()) {
+            if (causa instanceof MongoException mongoException
+                    && (mongoException.hasErrorLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL)
+                        || mongoException.getCode() == CODIGO_WRITE_CONFLICT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,10 @@
+package com.capacitacion.domain.repository;
+
+import com.capacitacion.domain.model.EventoOutboxDescartado;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface EventoOutboxDescartadoRepository extends MongoRepository<EventoOutboxDescartado, String> {
+
+}
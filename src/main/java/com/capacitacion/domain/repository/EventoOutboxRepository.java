@@ -0,0 +1,14 @@
+package com.capacitacion.domain.repository;
+
+import com.capacitacion.domain.model.EventoOutbox;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface EventoOutboxRepository extends MongoRepository<EventoOutbox, String>, EventoOutboxRepositoryCustom {
+
+    List<EventoOutbox> findAllByOrderByIdAsc(Limit limite);
+}
@@ -0,0 +1,25 @@
+package com.capacitacion.domain.repository;
+
+import java.time.Duration;
+import java.util.List;
+
+public interface EventoOutboxRepositoryCustom {
+
+    /**
+     * Adquiere o renueva, con una única operación atómica ({@code findAndModify}), el arrendamiento que habilita a una
+     * instancia a publicar el outbox. El arrendamiento se concede si nadie lo tiene, si ya venció o si ya es de la
+     * instancia indicada.
+     *
+     * @param propietario Identificador de la instancia que lo solicita.
+     * @param duracion    Tiempo durante el que el arrendamiento es válido desde ahora.
+     * @return true si la instancia tiene el arrendamiento; false si lo tiene otra.
+     */
+    boolean renovarArrendamiento(String propietario, Duration duracion);
+
+    /**
+     * Suma un intento fallido de publicación a cada uno de los eventos indicados, con una única actualización.
+     *
+     * @param ids IDs de los eventos que no pudieron publicarse.
+     */
+    void sumarIntento(List<String> ids);
+}
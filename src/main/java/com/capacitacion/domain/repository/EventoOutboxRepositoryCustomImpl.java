@@ -0,0 +1,51 @@
+package com.capacitacion.domain.repository;
+
+import com.capacitacion.domain.model.EventoOutbox;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+public class EventoOutboxRepositoryCustomImpl implements EventoOutboxRepositoryCustom {
+
+    private static final String COLECCION_ARRENDAMIENTOS = "outbox_arrendamiento";
+    private static final String ID_ARRENDAMIENTO = "relay";
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Constructor de EventoOutboxRepositoryCustomImpl.
+     *
+     * @param mongoTemplate Plantilla de MongoDB para ejecutar las operaciones atómicas.
+     */
+    public EventoOutboxRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public boolean renovarArrendamiento(String propietario, Duration duracion) {
+        Instant ahora = Instant.now();
+        Query query = new Query(Criteria.where("_id").is(ID_ARRENDAMIENTO)
+                .orOperator(Criteria.where("vence").lt(ahora), Criteria.where("propietario").is(propietario)));
+        Update update = new Update().set("propietario", propietario).set("vence", ahora.plus(duracion));
+        try {
+            // Si otra instancia tiene el arrendamiento vigente, el upsert intenta insertar un documento con el mismo _id.
+            return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().upsert(true).returnNew(true),
+                    Document.class, COLECCION_ARRENDAMIENTOS) != null;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void sumarIntento(List<String> ids) {
+        mongoTemplate.updateMulti(new Query(Criteria.where("_id").in(ids)), new Update().inc("intentos", 1), EventoOutbox.class);
+    }
+}
@@ -1,15 +1,27 @@
 package com.capacitacion.domain.repository;
 
 import com.capacitacion.domain.model.Persona;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
-public interface PersonaRepository extends MongoRepository<Persona, String> {
+public interface PersonaRepository extends MongoRepository<Persona, String>, PersonaRepositoryCustom {
 
     @Query("{id: ?0}")
     Persona findPersonaById(String id);
     Persona findByDni(String dni);
+    boolean existsByDni(String dni);
+    List<Persona> findByDniIn(Collection<String> dnis);
     Persona findByNombre(String nombre);
-}
\ No newline at end of file
+    List<Persona> findAllByOrderByIdAsc(Limit limite);
+    List<Persona> findByIdGreaterThanOrderByIdAsc(String id, Limit limite);
+    Stream<Persona> streamAllBy();
+    @Query(value = "{}", fields = "{dni: 1}")
+    Stream<Persona> streamDnisBy();
+}
@@ -0,0 +1,67 @@
+package com.capacitacion.domain.repository;
+
+import com.capacitacion.domain.model.Persona;
+
+import java.util.Map;
+
+public interface PersonaRepositoryCustom {
+
+    /**
+     * Resta créditos de forma atómica a la persona con el DNI indicado, sólo si dispone del saldo suficiente.
+     *
+     * @param dni   DNI de la persona a debitar.
+     * @param monto Monto a restar.
+     * @return true si se aplicó el débito, false si la persona no existe o no tiene saldo suficiente.
+     */
+    boolean debitarCreditos(String dni, int monto);
+
+    /**
+     * Suma créditos de forma atómica a la persona con el DNI indicado, sólo si no tiene el saldo fraccionado.
+     *
+     * @param dni   DNI de la persona a acreditar.
+     * @param monto Monto a sumar.
+     * @return true si se aplicó el crédito, false si la persona no existe o tiene el saldo fraccionado.
+     */
+    boolean acreditarCreditos(String dni, int monto);
+
+    /**
+     * Actualiza el nombre, la edad y la dirección de una persona, sin modificar sus créditos.
+     *
+     * @param persona Persona con el ID y los nuevos datos.
+     * @return true si se encontró la persona, false si no existe.
+     */
+    boolean actualizarDatos(Persona persona);
+
+    /**
+     * Aplica en una única escritura masiva ({@code bulkWrite}) las variaciones de créditos por DNI.
+     * Las variaciones negativas sólo se aplican si la persona dispone del saldo suficiente.
+     *
+     * @param movimientos Variación de créditos por DNI.
+     * @return Cantidad de personas efectivamente actualizadas.
+     */
+    int aplicarMovimientos(Map<String, Integer> movimientos);
+
+    /**
+     * Actualiza en una única escritura masiva ({@code bulkWrite}) la dirección de las personas indicadas por nombre.
+     *
+     * @param direccionesPorNombre Nueva dirección por nombre de persona.
+     * @return Cantidad de personas efectivamente actualizadas.
+     */
+    int actualizarDireccionesPorNombre(Map<String, String> direccionesPorNombre);
+
+    /**
+     * Actualiza en una única escritura masiva ({@code bulkWrite}) la dirección de las personas indicadas por DNI.
+     *
+     * @param direccionesPorDni Nueva dirección por DNI de persona.
+     * @return Cantidad de personas efectivamente actualizadas.
+     */
+    int actualizarDireccionesPorDni(Map<String, String> direccionesPorDni);
+
+    /**
+     * Fija en una única escritura masiva ({@code bulkWrite}) los créditos de las personas indicadas por DNI.
+     *
+     * @param creditosPorDni Créditos por DNI.
+     * @return Cantidad de personas efectivamente encontradas.
+     */
+    int fijarCreditos(Map<String, Integer> creditosPorDni);
+}
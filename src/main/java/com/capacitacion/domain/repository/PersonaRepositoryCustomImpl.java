@@ -0,0 +1,97 @@
+package com.capacitacion.domain.repository;
+
+import com.capacitacion.domain.model.Persona;
+import com.mongodb.client.result.UpdateResult;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import java.util.Map;
+
+public class PersonaRepositoryCustomImpl implements PersonaRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Constructor de PersonaRepositoryCustomImpl.
+     *
+     * @param mongoTemplate Plantilla de MongoDB para ejecutar las actualizaciones atómicas.
+     */
+    public PersonaRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public boolean debitarCreditos(String dni, int monto) {
+        Query query = new Query(Criteria.where("dni").is(dni).and("creditos").gte(monto));
+        UpdateResult resultado = mongoTemplate.updateFirst(query, new Update().inc("creditos", -monto), Persona.class);
+        return resultado.getMatchedCount() > 0;
+    }
+
+    @Override
+    public boolean acreditarCreditos(String dni, int monto) {
+        Query query = new Query(Criteria.where("dni").is(dni).and("fracciones").is(null));
+        UpdateResult resultado = mongoTemplate.updateFirst(query, new Update().inc("creditos", monto), Persona.class);
+        return resultado.getMatchedCount() > 0;
+    }
+
+    @Override
+    public boolean actualizarDatos(Persona persona) {
+        Update update = new Update()
+                .set("nombre", persona.getNombre())
+                .set("edad", persona.getEdad())
+                .set("direccion", persona.getDireccion());
+        UpdateResult resultado = mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(persona.getId())), update, Persona.class);
+        return resultado.getMatchedCount() > 0;
+    }
+
+    @Override
+    public int aplicarMovimientos(Map<String, Integer> movimientos) {
+        if (movimientos.isEmpty()) {
+            return 0;
+        }
+        BulkOperations operaciones = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Persona.class);
+        movimientos.forEach((dni, variacion) -> {
+            Criteria criteria = Criteria.where("dni").is(dni);
+            if (variacion < 0) {
+                criteria = criteria.and("creditos").gte(-variacion);
+            }
+            operaciones.updateOne(new Query(criteria), new Update().inc("creditos", variacion));
+        });
+        return operaciones.execute().getMatchedCount();
+    }
+
+    @Override
+    public int actualizarDireccionesPorNombre(Map<String, String> direccionesPorNombre) {
+        if (direccionesPorNombre.isEmpty()) {
+            return 0;
+        }
+        BulkOperations operaciones = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Persona.class);
+        direccionesPorNombre.forEach((nombre, direccion) ->
+                operaciones.updateOne(new Query(Criteria.where("nombre").is(nombre)), new Update().set("direccion", direccion)));
+        return operaciones.execute().getMatchedCount();
+    }
+
+    @Override
+    public int actualizarDireccionesPorDni(Map<String, String> direccionesPorDni) {
+        if (direccionesPorDni.isEmpty()) {
+            return 0;
+        }
+        BulkOperations operaciones = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Persona.class);
+        direccionesPorDni.forEach((dni, direccion) ->
+                operaciones.updateOne(new Query(Criteria.where("dni").is(dni)), new Update().set("direccion", direccion)));
+        return operaciones.execute().getMatchedCount();
+    }
+
+    @Override
+    public int fijarCreditos(Map<String, Integer> creditosPorDni) {
+        if (creditosPorDni.isEmpty()) {
+            return 0;
+        }
+        BulkOperations operaciones = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Persona.class);
+        creditosPorDni.forEach((dni, creditos) ->
+                operaciones.updateOne(new Query(Criteria.where("dni").is(dni)), new Update().set("creditos", creditos)));
+        return operaciones.execute().getMatchedCount();
+    }
+}
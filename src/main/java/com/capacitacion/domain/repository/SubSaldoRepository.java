@@ -0,0 +1,16 @@
+package com.capacitacion.domain.repository;
+
+import com.capacitacion.domain.model.SubSaldo;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SubSaldoRepository extends MongoRepository<SubSaldo, String>, SubSaldoRepositoryCustom {
+
+    List<SubSaldo> findByDni(String dni);
+    List<SubSaldo> findByDniIn(Collection<String> dnis);
+    void deleteByDni(String dni);
+}
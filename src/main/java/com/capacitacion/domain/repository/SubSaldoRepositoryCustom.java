@@ -0,0 +1,24 @@
+package com.capacitacion.domain.repository;
+
+public interface SubSaldoRepositoryCustom {
+
+    /**
+     * Resta créditos de forma atómica a una fracción, sólo si dispone del saldo suficiente.
+     *
+     * @param dni    DNI de la persona.
+     * @param indice Índice de la fracción.
+     * @param monto  Monto a restar.
+     * @return true si se aplicó el débito, false si la fracción no existe o no tiene saldo suficiente.
+     */
+    boolean debitar(String dni, int indice, int monto);
+
+    /**
+     * Suma créditos de forma atómica a una fracción.
+     *
+     * @param dni    DNI de la persona.
+     * @param indice Índice de la fracción.
+     * @param monto  Monto a sumar.
+     * @return true si se aplicó el crédito, false si la fracción no existe.
+     */
+    boolean acreditar(String dni, int indice, int monto);
+}
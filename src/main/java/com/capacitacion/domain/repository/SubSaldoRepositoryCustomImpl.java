@@ -0,0 +1,36 @@
+package com.capacitacion.domain.repository;
+
+import com.capacitacion.domain.model.SubSaldo;
+import com.mongodb.client.result.UpdateResult;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+public class SubSaldoRepositoryCustomImpl implements SubSaldoRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Constructor de SubSaldoRepositoryCustomImpl.
+     *
+     * @param mongoTemplate Plantilla de MongoDB para ejecutar las actualizaciones atómicas.
+     */
+    public SubSaldoRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public boolean debitar(String dni, int indice, int monto) {
+        Query query = new Query(Criteria.where("_id").is(SubSaldo.id(dni, indice)).and("creditos").gte(monto));
+        UpdateResult resultado = mongoTemplate.updateFirst(query, new Update().inc("creditos", -monto), SubSaldo.class);
+        return resultado.getMatchedCount() > 0;
+    }
+
+    @Override
+    public boolean acreditar(String dni, int indice, int monto) {
+        Query query = new Query(Criteria.where("_id").is(SubSaldo.id(dni, indice)));
+        UpdateResult resultado = mongoTemplate.updateFirst(query, new Update().inc("creditos", monto), SubSaldo.class);
+        return resultado.getMatchedCount() > 0;
+    }
+}
@@ -0,0 +1,10 @@
+package com.capacitacion.domain.repository;
+
+import com.capacitacion.domain.model.TicketTransaccion;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TicketTransaccionRepository extends MongoRepository<TicketTransaccion, String>, TicketTransaccionRepositoryCustom {
+
+}
@@ -0,0 +1,27 @@
+package com.capacitacion.domain.repository;
+
+import com.capacitacion.domain.model.TicketTransaccion;
+
+public interface TicketTransaccionRepositoryCustom {
+
+    /**
+     * Reclama un ticket para procesar su solicitud. Un ticket pendiente pasa a {@code PROCESANDO} con una única
+     * operación atómica ({@code findAndModify}), que le fija el ID de la transacción a realizar; un ticket que ya estaba
+     * en proceso se devuelve con el ID fijado en el primer reclamo, para que una reentrega realice la misma
+     * transacción.
+     *
+     * @param idTicket      Identificador del ticket.
+     * @param transaccionId ID de la transacción a fijar si el ticket está pendiente.
+     * @return Ticket en proceso, o null si no existe o ya se cerró.
+     */
+    TicketTransaccion reclamar(String idTicket, String transaccionId);
+
+    /**
+     * Marca como fallido un ticket pendiente o en proceso, sin modificar los tickets ya cerrados.
+     *
+     * @param idTicket Identificador del ticket.
+     * @param mensaje  Motivo de la falla.
+     * @return true si el ticket se marcó como fallido.
+     */
+    boolean marcarFallido(String idTicket, String mensaje);
+}
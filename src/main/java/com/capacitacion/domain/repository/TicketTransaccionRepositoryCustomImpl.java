@@ -0,0 +1,45 @@
+package com.capacitacion.domain.repository;
+
+import com.capacitacion.domain.model.EstadoTicket;
+import com.capacitacion.domain.model.TicketTransaccion;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+public class TicketTransaccionRepositoryCustomImpl implements TicketTransaccionRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Constructor de TicketTransaccionRepositoryCustomImpl.
+     *
+     * @param mongoTemplate Plantilla de MongoDB para ejecutar las operaciones atómicas.
+     */
+    public TicketTransaccionRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public TicketTransaccion reclamar(String idTicket, String transaccionId) {
+        Query pendiente = new Query(Criteria.where("_id").is(idTicket).and("estado").is(EstadoTicket.PENDIENTE));
+        Update update = new Update().set("estado", EstadoTicket.PROCESANDO).set("transaccionId", transaccionId);
+        TicketTransaccion ticket = mongoTemplate.findAndModify(pendiente, update,
+                FindAndModifyOptions.options().returnNew(true), TicketTransaccion.class);
+        if (ticket != null) {
+            return ticket;
+        }
+        // El ID de la transacción de un ticket en proceso no cambia hasta que se cierra.
+        return mongoTemplate.findOne(new Query(Criteria.where("_id").is(idTicket).and("estado").is(EstadoTicket.PROCESANDO)),
+                TicketTransaccion.class);
+    }
+
+    @Override
+    public boolean marcarFallido(String idTicket, String mensaje) {
+        Query abierto = new Query(Criteria.where("_id").is(idTicket)
+                .and("estado").in(EstadoTicket.PENDIENTE, EstadoTicket.PROCESANDO));
+        Update update = new Update().set("estado", EstadoTicket.FALLIDA).set("mensaje", mensaje);
+        return mongoTemplate.updateFirst(abierto, update, TicketTransaccion.class).getModifiedCount() > 0;
+    }
+}
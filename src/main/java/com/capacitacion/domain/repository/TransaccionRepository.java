@@ -5,6 +5,6 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface TransaccionRepository extends MongoRepository<Transaccion, Long> {
+public interface TransaccionRepository extends MongoRepository<Transaccion, String>, TransaccionRepositoryCustom {
 
 }
@@ -0,0 +1,26 @@
+package com.capacitacion.domain.repository;
+
+import com.capacitacion.domain.model.Transaccion;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface TransaccionRepositoryCustom {
+
+    /**
+     * Busca las transacciones en las que participa un DNI, como origen o como destino, de la más reciente a la más
+     * antigua. La búsqueda continúa después de la transacción indicada como cursor, comparando por fecha y por ID,
+     * y se resuelve sólo con los índices compuestos de {@link Transaccion}. Las transacciones sin fecha se ubican
+     * después de todas las fechadas, ordenadas por ID.
+     *
+     * @param dni            DNI de la persona.
+     * @param desde          Fecha mínima, inclusive (puede ser nula).
+     * @param hasta          Fecha máxima, inclusive (puede ser nula).
+     * @param despuesDeFecha Fecha de la última transacción de la página anterior (nula para la primera página o si
+     *                       esa transacción no tiene fecha).
+     * @param despuesDeId    ID de la última transacción de la página anterior (nulo para la primera página).
+     * @param limite         Cantidad máxima de transacciones.
+     * @return Transacciones ordenadas por fecha e ID descendentes.
+     */
+    List<Transaccion> buscarHistorial(String dni, Instant desde, Instant hasta, Instant despuesDeFecha, String despuesDeId, int limite);
+}
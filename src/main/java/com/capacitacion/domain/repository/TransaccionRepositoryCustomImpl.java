@@ -0,0 +1,84 @@
+package com.capacitacion.domain.repository;
+
+import com.capacitacion.domain.model.Transaccion;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+public class TransaccionRepositoryCustomImpl implements TransaccionRepositoryCustom {
+
+    /** Mismo orden que MongoDB: las transacciones sin fecha, anteriores a que se registrara, quedan al final. */
+    private static final Comparator<Transaccion> MAS_RECIENTE_PRIMERO = Comparator
+            .comparing(Transaccion::getFecha, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(Transaccion::getId)
+            .reversed();
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Constructor de TransaccionRepositoryCustomImpl.
+     *
+     * @param mongoTemplate Plantilla de MongoDB para ejecutar las consultas del historial.
+     */
+    public TransaccionRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Consulta por separado las transacciones con el DNI como origen y como destino, cada una sobre su índice y con
+     * el mismo límite, y combina ambos resultados ya ordenados.
+     */
+    @Override
+    public List<Transaccion> buscarHistorial(String dni, Instant desde, Instant hasta, Instant despuesDeFecha, String despuesDeId, int limite) {
+        List<Transaccion> comoOrigen = buscar("dniOrigen", Transaccion.INDICE_ORIGEN_FECHA, dni, desde, hasta, despuesDeFecha, despuesDeId, limite);
+        List<Transaccion> comoDestino = buscar("dniDestino", Transaccion.INDICE_DESTINO_FECHA, dni, desde, hasta, despuesDeFecha, despuesDeId, limite);
+
+        List<Transaccion> historial = new ArrayList<>(Math.min(limite, comoOrigen.size() + comoDestino.size()));
+        int i = 0;
+        int j = 0;
+        while (historial.size() < limite && (i < comoOrigen.size() || j < comoDestino.size())) {
+            if (j == comoDestino.size()
+                    || (i < comoOrigen.size() && MAS_RECIENTE_PRIMERO.compare(comoOrigen.get(i), comoDestino.get(j)) <= 0)) {
+                historial.add(comoOrigen.get(i++));
+            } else {
+                historial.add(comoDestino.get(j++));
+            }
+        }
+        return historial;
+    }
+
+    private List<Transaccion> buscar(String campoDni, String indice, String dni, Instant desde, Instant hasta,
+                                     Instant despuesDeFecha, String despuesDeId, int limite) {
+        Criteria criteria = Criteria.where(campoDni).is(dni);
+        if (desde != null || hasta != null) {
+            Criteria fecha = criteria.and("fecha");
+            if (desde != null) {
+                fecha.gte(desde);
+            }
+            if (hasta != null) {
+                fecha.lte(hasta);
+            }
+        }
+        if (despuesDeId != null && despuesDeFecha != null) {
+            // Las transacciones sin fecha van después de todas las fechadas, pero $lt no las incluye.
+            criteria.orOperator(
+                    Criteria.where("fecha").lt(despuesDeFecha),
+                    Criteria.where("fecha").is(despuesDeFecha).and("id").lt(despuesDeId),
+                    Criteria.where("fecha").is(null));
+        } else if (despuesDeId != null) {
+            criteria.andOperator(Criteria.where("fecha").is(null), Criteria.where("id").lt(despuesDeId));
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "fecha", "id"))
+                .limit(limite)
+                .withHint(indice);
+        query.fields().include("dniOrigen", "dniDestino", "monto", "fecha");
+        return mongoTemplate.find(query, Transaccion.class);
+    }
+}
@@ -0,0 +1,207 @@
+package com.capacitacion.infraestructura.admision;
+
+import com.capacitacion.domain.model.exception.AdmisionRechazadaException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Control de admisión de las transacciones, antes de cualquier acceso a la base de datos. Limita la tasa de
+ * transacciones de cada DNI de origen con una cubeta de tokens por cuenta y la cantidad de transacciones en curso
+ * con un límite global. Las cubetas se implementan con el algoritmo GCRA, equivalente a una cubeta de tokens, que
+ * guarda el estado en un único {@link AtomicLong} y se actualiza sin locks. Las cubetas se guardan en un cache acotado
+ * que descarta las de las cuentas inactivas. Los lotes de transacciones pesan en ambos límites según su tamaño.
+ * Las solicitudes admitidas y rechazadas se cuentan en {@value #CONTADOR}, etiquetado por resultado.
+ */
+@Component
+public class ControlAdmision {
+
+    public static final String CONTADOR = "admision.solicitudes";
+
+    private final boolean habilitado;
+    private final long intervaloNs;
+    private final long toleranciaNs;
+    private final int rafaga;
+    private final int concurrenciaMaxima;
+    private final Semaphore enCurso;
+    private final Cache<String, Cubeta> cubetas;
+    private final Counter admitidas;
+    private final Counter rechazadasPorCuenta;
+    private final Counter rechazadasPorConcurrencia;
+
+    /**
+     * Constructor de ControlAdmision.
+     *
+     * @param habilitado         Indica si se aplica el control de admisión.
+     * @param tasaPorSegundo     Transacciones por segundo admitidas para cada DNI de origen.
+     * @param rafaga             Transacciones que un DNI puede realizar seguidas antes de quedar limitado a la tasa.
+     * @param concurrenciaMaxima Cantidad máxima de transacciones en curso.
+     * @param cuentasMaximas     Cantidad máxima de cubetas guardadas.
+     * @param inactividad        Tiempo sin transacciones después del cual se descarta la cubeta de una cuenta.
+     * @param meterRegistry      Registro de métricas de admisión.
+     */
+    public ControlAdmision(@Value("${capacitacion.admision.habilitada:true}") boolean habilitado,
+                           @Value("${capacitacion.admision.tasa-por-segundo:50}") double tasaPorSegundo,
+                           @Value("${capacitacion.admision.rafaga:100}") int rafaga,
+                           @Value("${capacitacion.admision.concurrencia-maxima:200}") int concurrenciaMaxima,
+                           @Value("${capacitacion.admision.cuentas-maximas:100000}") long cuentasMaximas,
+                           @Value("${capacitacion.admision.inactividad:60s}") Duration inactividad,
+                           MeterRegistry meterRegistry) {
+        this.habilitado = habilitado;
+        this.intervaloNs = (long) (TimeUnit.SECONDS.toNanos(1) / tasaPorSegundo);
+        this.toleranciaNs = intervaloNs * rafaga;
+        this.rafaga = rafaga;
+        this.concurrenciaMaxima = concurrenciaMaxima;
+        this.enCurso = new Semaphore(concurrenciaMaxima);
+        this.cubetas = Caffeine.newBuilder()
+                .maximumSize(cuentasMaximas)
+                .expireAfterAccess(inactividad)
+                .build();
+        this.admitidas = contador(meterRegistry, "admitida");
+        this.rechazadasPorCuenta = contador(meterRegistry, "rechazada-cuenta");
+        this.rechazadasPorConcurrencia = contador(meterRegistry, "rechazada-concurrencia");
+        meterRegistry.gauge("admision.en-curso", enCurso, semaforo -> this.concurrenciaMaxima - semaforo.availablePermits());
+        meterRegistry.gauge("admision.cuentas", cubetas, Cache::estimatedSize);
+    }
+
+    /**
+     * Admite una transacción del DNI indicado, o la rechaza si se alcanzó el límite de transacciones en curso o si la
+     * cuenta superó su tasa. El permiso devuelto debe cerrarse al terminar la transacción.
+     *
+     * @param dniOrigen DNI de origen de la transacción (si es nulo sólo se aplica el límite global).
+     * @return Permiso de la transacción admitida.
+     * @throws AdmisionRechazadaException Si la transacción no se admite.
+     */
+    public Permiso admitir(String dniOrigen) {
+        return admitir(dniOrigen == null ? Map.of() : Map.of(dniOrigen, 1), 1);
+    }
+
+    /**
+     * Admite un lote de transacciones como si fueran otras tantas solicitudes: ocupa un lugar en el límite de
+     * transacciones en curso por cada transacción, hasta el límite completo, y consume de la cubeta de cada DNI de
+     * origen un token por cada una de sus transacciones, hasta la ráfaga completa, para que un lote pueda admitirse
+     * con la cubeta llena. El lote se admite o se rechaza entero.
+     *
+     * @param dnisOrigen DNIs de origen de las transacciones del lote (los nulos sólo cuentan para el límite global).
+     * @return Permiso del lote admitido.
+     * @throws AdmisionRechazadaException Si el lote no se admite.
+     */
+    public Permiso admitirLote(List<String> dnisOrigen) {
+        Map<String, Integer> transaccionesPorDni = new HashMap<>();
+        for (String dni : dnisOrigen) {
+            if (dni != null) {
+                transaccionesPorDni.merge(dni, 1, Integer::sum);
+            }
+        }
+        return admitir(transaccionesPorDni, Math.max(1, Math.min(dnisOrigen.size(), concurrenciaMaxima)));
+    }
+
+    /**
+     * Toma primero los lugares del límite global, que se devuelven sin efectos si después se rechaza, y recién entonces
+     * consume los tokens de las cuentas; si alguna cuenta rechaza, se reintegran los tokens ya consumidos de las demás.
+     */
+    private Permiso admitir(Map<String, Integer> transaccionesPorDni, int lugares) {
+        if (!habilitado) {
+            return Permiso.SIN_LIMITE;
+        }
+        if (!enCurso.tryAcquire(lugares)) {
+            rechazadasPorConcurrencia.increment();
+            throw new AdmisionRechazadaException(1);
+        }
+        long ahora = System.nanoTime();
+        Map<Cubeta, Long> consumidos = new HashMap<>();
+        for (Map.Entry<String, Integer> transacciones : transaccionesPorDni.entrySet()) {
+            Cubeta cubeta = cubetas.get(transacciones.getKey(), dni -> new Cubeta());
+            long costoNs = intervaloNs * Math.min(transacciones.getValue(), rafaga);
+            long esperaNs = cubeta.consumir(ahora, costoNs, toleranciaNs);
+            if (esperaNs > 0) {
+                consumidos.forEach(Cubeta::reintegrar);
+                enCurso.release(lugares);
+                rechazadasPorCuenta.increment();
+                throw new AdmisionRechazadaException(TimeUnit.NANOSECONDS.toMillis(esperaNs) + 1);
+            }
+            consumidos.put(cubeta, costoNs);
+        }
+        admitidas.increment();
+        return new Permiso(enCurso, lugares);
+    }
+
+    private static Counter contador(MeterRegistry meterRegistry, String resultado) {
+        return Counter.builder(CONTADOR)
+                .description("Solicitudes de transacción admitidas y rechazadas por el control de admisión")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Permiso de una transacción admitida; al cerrarlo se libera su lugar en el límite de transacciones en curso.
+     */
+    public static final class Permiso implements AutoCloseable {
+
+        private static final Permiso SIN_LIMITE = new Permiso(null, 0);
+
+        private final Semaphore semaforo;
+        private final int lugares;
+        private final AtomicBoolean cerrado = new AtomicBoolean();
+
+        private Permiso(Semaphore semaforo, int lugares) {
+            this.semaforo = semaforo;
+            this.lugares = lugares;
+        }
+
+        @Override
+        public void close() {
+            if (semaforo != null && cerrado.compareAndSet(false, true)) {
+                semaforo.release(lugares);
+            }
+        }
+    }
+
+    /**
+     * Cubeta de una cuenta. Guarda el instante teórico en que la cuenta vuelve a estar al día con su tasa;
+     * una transacción se admite si ese instante, sumándole la transacción, no supera al actual en más que la ráfaga.
+     * El costo de las transacciones se expresa en nanosegundos: el intervalo de la tasa por cada una.
+     */
+    private static final class Cubeta {
+
+        private final AtomicLong instanteTeorico = new AtomicLong(Long.MIN_VALUE);
+
+        /**
+         * Intenta consumir los tokens que cubren el costo indicado.
+         *
+         * @return 0 si se consumieron los tokens, o los nanosegundos que faltan para que estén disponibles.
+         */
+        long consumir(long ahora, long costo, long tolerancia) {
+            while (true) {
+                long actual = instanteTeorico.get();
+                long nuevo = Math.max(actual, ahora) + costo;
+                long espera = nuevo - ahora - tolerancia;
+                if (espera > 0) {
+                    return espera;
+                }
+                if (instanteTeorico.compareAndSet(actual, nuevo)) {
+                    return 0;
+                }
+            }
+        }
+
+        /**
+         * Devuelve los tokens consumidos por una admisión que finalmente se rechazó.
+         */
+        void reintegrar(long costo) {
+            instanteTeorico.addAndGet(-costo);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.capacitacion.infraestructura.api;
+
+import com.capacitacion.domain.model.FilaImportacion;
+import com.capacitacion.domain.model.Persona;
+import com.capacitacion.domain.model.exception.FormatoImportacionNoValidoException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Lee de a una línea las filas de un archivo de importación de personas, en formato CSV (con encabezado) o NDJSON,
+ * sin cargar el archivo en memoria. Las filas que no pueden interpretarse se devuelven con su error, para que se
+ * informen junto con las demás filas rechazadas.
+ */
+public class LectorFilasPersonas implements Iterator<FilaImportacion> {
+
+    private static final String NOMBRE = "nombre";
+    private static final String EDAD = "edad";
+    private static final String DNI = "dni";
+    private static final String DIRECCION = "direccion";
+
+    private final BufferedReader lector;
+    private final ObjectMapper objectMapper;
+    private final List<String> columnas;
+    private long linea;
+    private String siguiente;
+
+    private LectorFilasPersonas(BufferedReader lector, ObjectMapper objectMapper, List<String> columnas, long linea) {
+        this.lector = lector;
+        this.objectMapper = objectMapper;
+        this.columnas = columnas;
+        this.linea = linea;
+    }
+
+    /**
+     * Crea un lector de un archivo CSV, cuya primera línea indica las columnas: nombre, edad, dni y opcionalmente
+     * direccion, en cualquier orden.
+     *
+     * @param lector Contenido del archivo.
+     * @return Lector de las filas del archivo.
+     * @throws FormatoImportacionNoValidoException Si el encabezado no tiene las columnas obligatorias.
+     */
+    public static LectorFilasPersonas csv(BufferedReader lector) {
+        String encabezado = leerLinea(lector);
+        if (encabezado == null) {
+            throw new FormatoImportacionNoValidoException();
+        }
+        List<String> columnas = new ArrayList<>();
+        for (String columna : dividirCsv(encabezado)) {
+            columnas.add(columna.trim().toLowerCase(Locale.ROOT));
+        }
+        if (!columnas.containsAll(List.of(NOMBRE, EDAD, DNI))) {
+            throw new FormatoImportacionNoValidoException();
+        }
+        return new LectorFilasPersonas(lector, null, columnas, 1);
+    }
+
+    /**
+     * Crea un lector de un archivo NDJSON, con un objeto por línea con los campos nombre, edad, dni y direccion.
+     *
+     * @param lector       Contenido del archivo.
+     * @param objectMapper Mapper para interpretar cada línea.
+     * @return Lector de las filas del archivo.
+     */
+    public static LectorFilasPersonas ndjson(BufferedReader lector, ObjectMapper objectMapper) {
+        return new LectorFilasPersonas(lector, objectMapper, null, 0);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (siguiente == null) {
+            String leida = leerLinea(lector);
+            if (leida == null) {
+                return false;
+            }
+            linea++;
+            if (!leida.isBlank()) {
+                siguiente = leida;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public FilaImportacion next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String contenido = siguiente;
+        siguiente = null;
+        try {
+            Map<String, String> campos = objectMapper == null ? camposCsv(contenido) : camposJson(contenido);
+            return FilaImportacion.valida(linea, aPersona(campos));
+        } catch (FilaNoValida e) {
+            return FilaImportacion.erronea(linea, e.getMessage());
+        }
+    }
+
+    private Map<String, String> camposCsv(String contenido) {
+        List<String> valores = dividirCsv(contenido);
+        if (valores.size() != columnas.size()) {
+            throw new FilaNoValida("La fila tiene " + valores.size() + " columnas y el encabezado " + columnas.size());
+        }
+        Map<String, String> campos = new HashMap<>();
+        for (int i = 0; i < columnas.size(); i++) {
+            campos.put(columnas.get(i), valores.get(i).trim());
+        }
+        return campos;
+    }
+
+    private Map<String, String> camposJson(String contenido) {
+        JsonNode nodo;
+        try {
+            nodo = objectMapper.readTree(contenido);
+        } catch (JsonProcessingException e) {
+            throw new FilaNoValida("JSON no válido: " + e.getOriginalMessage());
+        }
+        if (!nodo.isObject()) {
+            throw new FilaNoValida("La fila debe ser un objeto JSON");
+        }
+        Map<String, String> campos = new HashMap<>();
+        for (String campo : List.of(NOMBRE, EDAD, DNI, DIRECCION)) {
+            JsonNode valor = nodo.get(campo);
+            if (valor != null && !valor.isNull()) {
+                campos.put(campo, valor.asText());
+            }
+        }
+        return campos;
+    }
+
+    private static Persona aPersona(Map<String, String> campos) {
+        Persona persona = new Persona();
+        persona.setNombre(campos.get(NOMBRE));
+        persona.setDni(campos.get(DNI));
+        persona.setDireccion(campos.get(DIRECCION));
+        String edad = campos.get(EDAD);
+        try {
+            persona.setEdad(Integer.parseInt(edad));
+        } catch (NumberFormatException e) {
+            throw new FilaNoValida("Message Error: La edad no puede ser vacia y tiene que ser de tipo Number");
+        }
+        return persona;
+    }
+
+    /**
+     * Divide una línea CSV en sus valores. Los valores pueden ir entre comillas dobles para incluir comas, y una
+     * comilla dentro de un valor entre comillas se escribe duplicada.
+     */
+    private static List<String> dividirCsv(String contenido) {
+        List<String> valores = new ArrayList<>();
+        StringBuilder valor = new StringBuilder();
+        boolean entreComillas = false;
+        for (int i = 0; i < contenido.length(); i++) {
+            char caracter = contenido.charAt(i);
+            if (entreComillas) {
+                if (caracter == '"' && i + 1 < contenido.length() && contenido.charAt(i + 1) == '"') {
+                    valor.append('"');
+                    i++;
+                } else if (caracter == '"') {
+                    entreComillas = false;
+                } else {
+                    valor.append(caracter);
+                }
+            } else if (caracter == '"') {
+                entreComillas = true;
+            } else if (caracter == ',') {
+                valores.add(valor.toString());
+                valor.setLength(0);
+            } else {
+                valor.append(caracter);
+            }
+        }
+        valores.add(valor.toString());
+        return valores;
+    }
+
+    private static String leerLinea(BufferedReader lector) {
+        try {
+            return lector.readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Error de una fila que no pudo interpretarse.
+     */
+    private static final class FilaNoValida extends RuntimeException {
+
+        FilaNoValida(String mensaje) {
+            super(mensaje, null, false, false);
+        }
+
+        private static final long serialVersionUID = 1L;
+    }
+}
@@ -1,9 +1,13 @@
 package com.capacitacion.infraestructura.api;
 
 import com.capacitacion.domain.model.exception.*;
+import com.capacitacion.domain.application.ImportacionPersonasService;
 import com.capacitacion.domain.application.PersonaService;
+import com.capacitacion.domain.model.ResultadoImportacion;
 import com.capacitacion.infraestructura.api.dto.PersonaDTO;
 import com.capacitacion.domain.model.Persona;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -14,9 +18,17 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Configuration
 @RestController
@@ -24,35 +36,81 @@ import java.util.List;
 @Slf4j
 public class PersonaController {
 
+    private static final String CURSOR_SIGUIENTE = "X-Cursor-Siguiente";
+    private static final int LIMITE_MAXIMO = 1000;
+
     @Autowired
     private PersonaService personaService;
+    @Autowired
+    private ImportacionPersonasService importacionPersonasService;
+    @Autowired
+    private ObjectMapper objectMapper;
 
     /**
-     * Obtiene todas las personas almacenadas en la base de datos.
+     * Obtiene una página de las personas almacenadas en la base de datos, ordenadas por ID.
+     * Si hay más personas, el ID a usar como cursor de la página siguiente se informa en el header {@value #CURSOR_SIGUIENTE}.
      *
+     * @param despuesDe ID de la última persona de la página anterior (opcional).
+     * @param limite    Cantidad máxima de personas de la página (hasta {@value #LIMITE_MAXIMO}).
      * @return ResponseEntity con la lista de personas y el estado HTTP 200 (OK).
      */
-    @Operation(summary = "Obtiene todas las personas persistidas en la base de datos",
-            description = "Recupera la lista completa de personas almacenadas en la base de datos.")
+    @Operation(summary = "Obtiene una página de las personas persistidas en la base de datos",
+            description = "Recupera las personas almacenadas en la base de datos, paginadas por ID. "
+                    + "El cursor de la página siguiente se informa en el header " + CURSOR_SIGUIENTE + ".")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Obtiene una lista de personas",
                     content = { @Content(mediaType = "application/json",
                             array = @ArraySchema( schema = @Schema(implementation = Persona.class)))})})
     @GetMapping
-    public ResponseEntity<List<Persona>> obtenerTodasLasPersonas() {
+    public ResponseEntity<List<Persona>> obtenerTodasLasPersonas(@RequestParam(required = false) String despuesDe,
+                                                                 @RequestParam(defaultValue = "100") int limite) {
         try {
-            List<Persona> personas = personaService.recuperarTodos();
-            log.debug("Obteniendo todas las personas: {}", personas);
+            int limitePagina = Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+            List<Persona> personas = personaService.recuperarPagina(despuesDe, limitePagina);
+            log.debug("Obteniendo {} personas después del ID {}", personas.size(), despuesDe);
 
             if (personas.isEmpty()) {
                 return ResponseEntity.noContent().build();
             }
-            return ResponseEntity.ok(personas);
+            ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+            if (personas.size() == limitePagina) {
+                respuesta.header(CURSOR_SIGUIENTE, personas.get(personas.size() - 1).getId());
+            }
+            return respuesta.body(personas);
         } catch (Exception ex) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    /**
+     * Obtiene todas las personas almacenadas en la base de datos en formato NDJSON (una persona por línea).
+     * Las personas se leen con un cursor y se escriben en la respuesta a medida que se leen, por lo que el uso
+     * de memoria no depende de la cantidad de personas.
+     *
+     * @return ResponseEntity con el stream de personas y el estado HTTP 200 (OK).
+     */
+    @Operation(summary = "Obtiene todas las personas persistidas en la base de datos como stream NDJSON",
+            description = "Recorre todas las personas almacenadas en la base de datos escribiendo una persona por línea.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stream de personas",
+                    content = { @Content(mediaType = "application/x-ndjson",
+                            schema = @Schema(implementation = Persona.class))})})
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> recorrerTodasLasPersonas() {
+        ObjectWriter writer = objectMapper.writerFor(Persona.class);
+        StreamingResponseBody cuerpo = salida -> {
+            try (Stream<Persona> personas = personaService.recorrerTodos()) {
+                Iterator<Persona> iterador = personas.iterator();
+                while (iterador.hasNext()) {
+                    salida.write(writer.writeValueAsBytes(iterador.next()));
+                    salida.write('\n');
+                }
+            }
+            salida.flush();
+        };
+        return ResponseEntity.ok().body(cuerpo);
+    }
+
     /**
      * Elimina todas las personas de la base de datos.
      *
@@ -114,6 +172,45 @@ public class PersonaController {
         }
     }
 
+    /**
+     * Importa personas desde un archivo CSV o NDJSON enviado como cuerpo de la solicitud. El archivo se lee y se
+     * importa en lotes a medida que llega, sin cargarlo en memoria.
+     *
+     * @param tipo   Tipo de contenido del archivo: {@code text/csv} o {@code application/x-ndjson}.
+     * @param cuerpo Contenido del archivo.
+     * @return ResponseEntity con el resultado de la importación, que detalla el error de cada fila rechazada, y el estado HTTP 200 (OK).
+     *         En caso de que el archivo no tenga el formato esperado, retorna un ResponseEntity con el mensaje de error y el estado HTTP 400 (BAD REQUEST).
+     *         En caso de otros errores, retorna un ResponseEntity con un mensaje de error genérico y el estado HTTP 500 (INTERNAL SERVER ERROR).
+     */
+    @Operation(summary = "Importa personas desde un archivo CSV o NDJSON",
+            description = "Da de alta las personas de un archivo CSV (con encabezado nombre, edad, dni y opcionalmente direccion) "
+                    + "o NDJSON, validando cada fila como el alta individual. Las filas válidas se importan aunque haya filas rechazadas.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Archivo procesado, con el error de cada fila rechazada",
+                    content = { @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResultadoImportacion.class))}),
+            @ApiResponse(responseCode = "400", description = "El archivo no tiene el formato esperado",
+                    content = @Content),
+            @ApiResponse(responseCode = "500", description = "Error interno del servidor",
+                    content = @Content)
+    })
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"}, produces = "application/json")
+    public ResponseEntity<?> importarPersonas(@RequestHeader("Content-Type") String tipo, InputStream cuerpo) {
+        try {
+            BufferedReader lector = new BufferedReader(new InputStreamReader(cuerpo, StandardCharsets.UTF_8));
+            LectorFilasPersonas filas = "csv".equals(MediaType.parseMediaType(tipo).getSubtype())
+                    ? LectorFilasPersonas.csv(lector)
+                    : LectorFilasPersonas.ndjson(lector, objectMapper);
+            ResultadoImportacion resultado = importacionPersonasService.importar(filas);
+            log.info("Importación de personas: {} importadas, {} rechazadas", resultado.getImportadas(), resultado.getRechazadas());
+            return ResponseEntity.ok(resultado);
+        } catch (FormatoImportacionNoValidoException e) {
+            return handleBadRequest("Formato no válido: " + e.getMessage());
+        } catch (Exception e) {
+            return handleInternalServerError(e);
+        }
+    }
+
     /**
      * Obtiene una persona por su ID.
      *
@@ -179,6 +276,49 @@ public class PersonaController {
             return handleBadRequest("Nombre no válido: " + e.getMessage());
         } catch (VidaErroneaException e) {
             return handleBadRequest("Vida erronea: " + e.getMessage());
+        } catch (CreditosNoModificablesException e) {
+            return handleBadRequest("Creditos no modificables: " + e.getMessage());
+        } catch (Exception e) {
+            return handleInternalServerError(e);
+        }
+    }
+
+    /**
+     * Fracciona los créditos de una persona en varios sub-saldos. Pensado para cuentas que reciben muchas transacciones
+     * concurrentes, que así dejan de serializarse sobre un único documento; los créditos informados siguen siendo el total.
+     *
+     * @param dni      DNI de la persona.
+     * @param cantidad Cantidad de fracciones (1 vuelve a un único saldo).
+     * @return ResponseEntity con la persona actualizada y el estado HTTP 200 (OK).
+     *         En caso de no encontrar la persona, retorna un ResponseEntity con un mensaje de error y el estado HTTP 404 (NOT FOUND).
+     *         En caso de una cantidad de fracciones no válida o de tener el ledger habilitado, retorna un ResponseEntity con el mensaje de error y el estado HTTP 400 (BAD REQUEST).
+     *         En caso de otros errores, retorna un ResponseEntity con un mensaje de error genérico y el estado HTTP 500 (INTERNAL SERVER ERROR).
+     */
+    @Operation(summary = "Fracciona el saldo de una persona",
+            description = "Reparte los créditos de la persona en la cantidad de sub-saldos indicada, para que las transacciones "
+                    + "concurrentes sobre la cuenta no compitan por el mismo documento.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Saldo fraccionado",
+                    content = { @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = Persona.class))}),
+            @ApiResponse(responseCode = "400", description = "Cantidad de fracciones no válida, o ledger de créditos habilitado",
+                    content = @Content),
+            @ApiResponse(responseCode = "404", description = "Persona no encontrada para el DNI especificado",
+                    content = @Content),
+            @ApiResponse(responseCode = "500", description = "Error interno del servidor",
+                    content = @Content) })
+    @PutMapping("/dni/{dni}/fracciones")
+    public ResponseEntity<?> fraccionarCreditos(@PathVariable String dni, @RequestParam int cantidad) {
+        try {
+            Persona persona = personaService.fraccionarCreditos(dni, cantidad);
+            log.info("Saldo del DNI {} fraccionado en {} partes", dni, cantidad);
+            return ResponseEntity.ok(persona);
+        } catch (PersonaNoExisteException e) {
+            return handleNotFound(e, dni);
+        } catch (FraccionesNoValidasException e) {
+            return handleBadRequest("Fracciones no válidas: " + e.getMessage());
+        } catch (FraccionamientoNoDisponibleException e) {
+            return handleBadRequest("Fraccionamiento no disponible: " + e.getMessage());
         } catch (Exception e) {
             return handleInternalServerError(e);
         }
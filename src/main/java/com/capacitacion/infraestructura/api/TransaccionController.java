@@ -1,51 +1,104 @@
 package com.capacitacion.infraestructura.api;
 
+import com.capacitacion.domain.application.IdempotenciaService;
+import com.capacitacion.domain.application.TransaccionAsincronaService;
+import com.capacitacion.domain.model.ResultadoIdempotente;
+import com.capacitacion.domain.model.ResultadoTransaccion;
+import com.capacitacion.domain.model.TicketTransaccion;
 import com.capacitacion.domain.model.Transaccion;
 import com.capacitacion.domain.application.TransaccionService;
 import com.capacitacion.domain.model.exception.*;
+import com.capacitacion.domain.repository.ConflictosEscritura;
+import com.capacitacion.infraestructura.admision.ControlAdmision;
 import com.capacitacion.infraestructura.api.dto.TransaccionDTO;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+import java.time.Instant;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/transaccion")
 @Slf4j
 public class TransaccionController {
 
+    private static final String CURSOR_SIGUIENTE = "X-Cursor-Siguiente";
+    private static final String CLAVE_IDEMPOTENCIA = "Idempotency-Key";
+    private static final String RESPUESTA_REPETIDA = "Idempotent-Replayed";
+    private static final int LIMITE_MAXIMO = 1000;
+    private static final int TRANSACCIONES_POR_LOTE_MAXIMO = 100_000;
+
     @Autowired
     private TransaccionService transaccionService;
+    @Autowired
+    private TransaccionAsincronaService transaccionAsincronaService;
+    @Autowired
+    private IdempotenciaService idempotenciaService;
+    @Autowired
+    private ControlAdmision controlAdmision;
 
     /**
      * Realiza una transacción a partir de los datos proporcionados en el cuerpo de la solicitud.
+     * Si se envía el header {@value #CLAVE_IDEMPOTENCIA} y la clave ya se usó dentro de la ventana configurada, no se
+     * vuelve a realizar la transacción: se devuelve la realizada anteriormente, con el header {@value #RESPUESTA_REPETIDA}.
+     * Si el DNI de origen superó su tasa de transacciones o hay demasiadas transacciones en curso, la solicitud se
+     * rechaza antes de consultar la base de datos.
      *
-     * @param transaccion Datos de la transacción.
+     * @param transaccion       Datos de la transacción.
+     * @param claveIdempotencia Clave de idempotencia para reintentos de la misma solicitud (opcional).
      * @return Respuesta HTTP con la transacción realizada.
      */
     @Operation(summary = "Realiza una transacción",
-            description = "Este endpoint permite realizar una transacción a partir de los datos proporcionados en el cuerpo de la solicitud.")
+            description = "Este endpoint permite realizar una transacción a partir de los datos proporcionados en el cuerpo de la solicitud. "
+                    + "Los reintentos con el mismo header " + CLAVE_IDEMPOTENCIA + " devuelven la transacción ya realizada.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Transacción realizada exitosamente",
                     content = { @Content(mediaType = "application/json",
                             schema = @Schema(implementation = Transaccion.class))}),
             @ApiResponse(responseCode = "400", description = "Solicitud incorrecta o datos no válidos",
                     content = @Content),
+            @ApiResponse(responseCode = "409", description = "Otra solicitud con la misma clave de idempotencia está en curso, "
+                    + "u otra operación modificó los mismos saldos en simultáneo; debe reintentarse",
+                    content = @Content),
+            @ApiResponse(responseCode = "429", description = "Se superó el límite de transacciones, reintentar después del tiempo indicado en Retry-After",
+                    content = @Content),
             @ApiResponse(responseCode = "500", description = "Error interno del servidor",
                     content = @Content)
     })
     @PostMapping
-    public ResponseEntity<?> realizarTransaccion(@RequestBody TransaccionDTO transaccion) {
-        try {
-            Transaccion transaccionNueva = transaccionService.realizarTransaccion(transaccion.aModelo());
+    public ResponseEntity<?> realizarTransaccion(@RequestBody TransaccionDTO transaccion,
+                                                 @RequestHeader(value = CLAVE_IDEMPOTENCIA, required = false) String claveIdempotencia) {
+        Transaccion solicitud = transaccion.aModelo();
+        try (ControlAdmision.Permiso permiso = controlAdmision.admitir(solicitud.getDniOrigen())) {
+            if (claveIdempotencia != null && !claveIdempotencia.isBlank()) {
+                ResultadoIdempotente resultado = idempotenciaService.ejecutar(claveIdempotencia, solicitud,
+                        transaccionService::realizarTransaccionUnica);
+                ResponseEntity.BodyBuilder respuesta = ResponseEntity.status(HttpStatus.CREATED);
+                if (resultado.isRepetida()) {
+                    log.info("Solicitud repetida con clave {}, transaccion ID: {}", claveIdempotencia, resultado.getTransaccion().getId());
+                    respuesta.header(RESPUESTA_REPETIDA, "true");
+                } else {
+                    log.info("Transaccion realizada con ID: {}", resultado.getTransaccion().getId());
+                }
+                return respuesta.body(resultado.getTransaccion());
+            }
+            Transaccion transaccionNueva = transaccionService.realizarTransaccion(solicitud);
             log.info("Transaccion realizada con ID: {}", transaccionNueva.getId());
             return ResponseEntity.status(HttpStatus.CREATED).body(transaccionNueva);
+        } catch (AdmisionRechazadaException e) {
+            return handleTooManyRequests(e);
         } catch (DniNoValidoException e) {
             return handleBadRequest("DNI no válido: " + e.getMessage());
         } catch (MontoNoValidoException e) {
@@ -56,6 +109,175 @@ public class TransaccionController {
             return handleBadRequest("Monto Insuficiente: " + e.getMessage());
         } catch (DniRepetidoException e) {
             return handleBadRequest("DNI repetido: " + e.getMessage());
+        } catch (ClaveIdempotenciaReutilizadaException e) {
+            return handleBadRequest("Clave de idempotencia reutilizada: " + e.getMessage());
+        } catch (SolicitudEnCursoException e) {
+            return handleConflict("Solicitud en curso: " + e.getMessage());
+        } catch (Exception e) {
+            if (ConflictosEscritura.esTransitorio(e)) {
+                return handleConflict("Conflicto de escritura: " + new ConflictoEscrituraException().getMessage());
+            }
+            return handleInternalServerError(e);
+        }
+    }
+
+    /**
+     * Encola una transacción para ser aplicada de forma asíncrona, validando sólo el formato de los datos.
+     * Se aplica el mismo control de admisión que a las transacciones sincrónicas.
+     *
+     * @param transaccion Datos de la transacción.
+     * @return Respuesta HTTP 202 (ACCEPTED) con el ticket para consultar el resultado.
+     */
+    @Operation(summary = "Encola una transacción para realizarse de forma asíncrona",
+            description = "Valida los datos de la transacción, la encola y devuelve un ticket para consultar su resultado.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Transacción encolada",
+                    content = { @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = TicketTransaccion.class))}),
+            @ApiResponse(responseCode = "400", description = "Solicitud incorrecta o datos no válidos",
+                    content = @Content),
+            @ApiResponse(responseCode = "429", description = "Se superó el límite de transacciones, reintentar después del tiempo indicado en Retry-After",
+                    content = @Content),
+            @ApiResponse(responseCode = "500", description = "Error interno del servidor",
+                    content = @Content)
+    })
+    @PostMapping(params = "async=true")
+    public ResponseEntity<?> encolarTransaccion(@RequestBody TransaccionDTO transaccion) {
+        Transaccion solicitud = transaccion.aModelo();
+        try (ControlAdmision.Permiso permiso = controlAdmision.admitir(solicitud.getDniOrigen())) {
+            TicketTransaccion ticket = transaccionAsincronaService.encolarTransaccion(solicitud);
+            log.info("Transaccion encolada con ticket: {}", ticket.getId());
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/transaccion/tickets/" + ticket.getId()))
+                    .body(ticket);
+        } catch (AdmisionRechazadaException e) {
+            return handleTooManyRequests(e);
+        } catch (DniNoValidoException e) {
+            return handleBadRequest("DNI no válido: " + e.getMessage());
+        } catch (MontoNoValidoException e) {
+            return handleBadRequest("Monto no válido: " + e.getMessage());
+        } catch (DniRepetidoException e) {
+            return handleBadRequest("DNI repetido: " + e.getMessage());
+        } catch (Exception e) {
+            return handleInternalServerError(e);
+        }
+    }
+
+    /**
+     * Obtiene el estado de una transacción encolada.
+     *
+     * @param id ID del ticket.
+     * @return Respuesta HTTP con el ticket y el resultado final de la transacción, si ya fue procesada.
+     */
+    @Operation(summary = "Obtiene el estado de una transacción encolada")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Ticket encontrado",
+                    content = { @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = TicketTransaccion.class))}),
+            @ApiResponse(responseCode = "404", description = "Ticket no encontrado",
+                    content = @Content),
+            @ApiResponse(responseCode = "500", description = "Error interno del servidor",
+                    content = @Content)
+    })
+    @GetMapping(value = "/tickets/{id}", produces = "application/json")
+    public ResponseEntity<?> obtenerTicket(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok(transaccionAsincronaService.obtenerTicket(id));
+        } catch (TicketNoExisteException e) {
+            return handleNotFound(e, id);
+        } catch (Exception e) {
+            return handleInternalServerError(e);
+        }
+    }
+
+    /**
+     * Realiza un lote de transacciones, informando el resultado de cada una. El lote se procesa en tramos, cada uno en
+     * su propia transacción; las transacciones de un tramo que no pudo realizarse se informan como rechazadas.
+     * El control de admisión se aplica al lote entero, con el peso de todas sus transacciones.
+     *
+     * @param transacciones Datos de las transacciones (hasta {@value #TRANSACCIONES_POR_LOTE_MAXIMO}).
+     * @return Respuesta HTTP con el resultado de cada transacción, en el mismo orden recibido.
+     */
+    @Operation(summary = "Realiza un lote de transacciones",
+            description = "Este endpoint permite realizar miles de transacciones en una sola solicitud, informando el resultado de cada una.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lote procesado, con el resultado de cada transacción",
+                    content = { @Content(mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = ResultadoTransaccion.class)))}),
+            @ApiResponse(responseCode = "400", description = "El lote supera la cantidad máxima de transacciones",
+                    content = @Content),
+            @ApiResponse(responseCode = "429", description = "Se superó el límite de transacciones, reintentar después del tiempo indicado en Retry-After",
+                    content = @Content),
+            @ApiResponse(responseCode = "500", description = "Error interno del servidor",
+                    content = @Content)
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<?> realizarTransacciones(@RequestBody List<TransaccionDTO> transacciones) {
+        if (transacciones.size() > TRANSACCIONES_POR_LOTE_MAXIMO) {
+            return handleBadRequest("Lote demasiado grande: se admiten hasta " + TRANSACCIONES_POR_LOTE_MAXIMO + " transacciones por lote");
+        }
+        List<Transaccion> solicitudes = transacciones.stream().map(TransaccionDTO::aModelo).toList();
+        try (ControlAdmision.Permiso permiso = controlAdmision.admitirLote(
+                solicitudes.stream().map(Transaccion::getDniOrigen).toList())) {
+            List<ResultadoTransaccion> resultados = transaccionService.realizarTransacciones(solicitudes);
+            log.info("Lote de {} transacciones procesado", resultados.size());
+            return ResponseEntity.ok(resultados);
+        } catch (AdmisionRechazadaException e) {
+            return handleTooManyRequests(e);
+        } catch (Exception e) {
+            return handleInternalServerError(e);
+        }
+    }
+
+    /**
+     * Obtiene el historial de transacciones de una persona, como origen o como destino, de la más reciente a la más
+     * antigua. Si hay más transacciones, el ID a usar como cursor de la página siguiente se informa en el header
+     * {@value #CURSOR_SIGUIENTE}.
+     *
+     * @param dni       DNI de la persona.
+     * @param desde     Fecha mínima en formato ISO-8601, inclusive (opcional).
+     * @param hasta     Fecha máxima en formato ISO-8601, inclusive (opcional).
+     * @param despuesDe ID de la última transacción de la página anterior (opcional).
+     * @param limite    Cantidad máxima de transacciones de la página (hasta {@value #LIMITE_MAXIMO}).
+     * @return Respuesta HTTP con la página de transacciones.
+     */
+    @Operation(summary = "Obtiene el historial de transacciones de una persona",
+            description = "Recupera las transacciones en las que participa el DNI indicado, de la más reciente a la más antigua, "
+                    + "opcionalmente entre dos fechas. El cursor de la página siguiente se informa en el header " + CURSOR_SIGUIENTE + ".")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página del historial de transacciones",
+                    content = { @Content(mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = Transaccion.class)))}),
+            @ApiResponse(responseCode = "204", description = "No hay transacciones en el período",
+                    content = @Content),
+            @ApiResponse(responseCode = "400", description = "DNI o cursor no válidos",
+                    content = @Content),
+            @ApiResponse(responseCode = "500", description = "Error interno del servidor",
+                    content = @Content)
+    })
+    @GetMapping(params = "dni", produces = "application/json")
+    public ResponseEntity<?> obtenerHistorial(@RequestParam String dni,
+                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant desde,
+                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant hasta,
+                                              @RequestParam(required = false) String despuesDe,
+                                              @RequestParam(defaultValue = "100") int limite) {
+        try {
+            int limitePagina = Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+            List<Transaccion> transacciones = transaccionService.obtenerHistorial(dni, desde, hasta, despuesDe, limitePagina);
+            log.debug("Obteniendo {} transacciones del DNI {} después del ID {}", transacciones.size(), dni, despuesDe);
+
+            if (transacciones.isEmpty()) {
+                return ResponseEntity.noContent().build();
+            }
+            ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+            if (transacciones.size() == limitePagina) {
+                respuesta.header(CURSOR_SIGUIENTE, transacciones.get(transacciones.size() - 1).getId());
+            }
+            return respuesta.body(transacciones);
+        } catch (DniNoValidoException e) {
+            return handleBadRequest("DNI no válido: " + e.getMessage());
+        } catch (TransaccionNoExisteException e) {
+            return handleBadRequest("Cursor no válido: " + e.getMessage());
         } catch (Exception e) {
             return handleInternalServerError(e);
         }
@@ -95,6 +317,46 @@ public class TransaccionController {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorMessage);
     }
 
+    /**
+     * Maneja los errores de recurso no encontrado (HTTP 404 Not Found).
+     *
+     * @param e  Excepción que indica que el recurso no fue encontrado.
+     * @param id ID del recurso no encontrado.
+     * @return ResponseEntity con el mensaje de error y el estado HTTP 404 (Not Found).
+     */
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    private ResponseEntity<?> handleNotFound(RuntimeException e, String id) {
+        log.warn("No se encontró información para ID: {}", id, e);
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+    }
+
+    /**
+     * Maneja los errores de conflicto (HTTP 409 Conflict).
+     *
+     * @param errorMessage Mensaje de error detallado.
+     * @return ResponseEntity con el mensaje de error y el estado HTTP 409 (Conflict).
+     */
+    @ResponseStatus(HttpStatus.CONFLICT)
+    private ResponseEntity<?> handleConflict(String errorMessage) {
+        log.error("Conflicto al procesar la solicitud: {}", errorMessage);
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorMessage);
+    }
+
+    /**
+     * Maneja los rechazos del control de admisión (HTTP 429 Too Many Requests).
+     *
+     * @param e Excepción con el tiempo sugerido para reintentar.
+     * @return ResponseEntity con el mensaje de error, el header Retry-After y el estado HTTP 429 (Too Many Requests).
+     */
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    private ResponseEntity<?> handleTooManyRequests(AdmisionRechazadaException e) {
+        log.debug("Transaccion rechazada por el control de admision: {}", e.getMessage());
+        long segundos = Math.max(1, (e.getReintentarEnMs() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(segundos))
+                .body(e.getMessage());
+    }
+
     /**
      * Maneja las respuestas de error cuando ocurre una excepción de tipo {@code Exception}.
      *
@@ -0,0 +1,198 @@
+package com.capacitacion.infraestructura.cache;
+
+import com.capacitacion.domain.model.Persona;
+import com.capacitacion.domain.repository.PersonaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * Filtro de Bloom con los DNIs de todas las personas registradas, para confirmar en memoria los DNIs que podrían
+ * existir sin consultar la base de datos. El filtro puede dar falsos positivos (un DNI inexistente que "podría
+ * existir", y que se resuelve consultando la base) pero nunca falsos negativos para los DNIs que conoce.
+ * Se construye al iniciar la aplicación recorriendo la colección de personas, y se actualiza con cada alta local y
+ * con las de otras instancias a medida que llegan sus eventos. Mientras no está construido responde que cualquier DNI
+ * podría existir. Las altas de otras instancias hechas mientras se construye pueden no llegar (el consumidor empieza
+ * a leer desde el final del topic), y {@link #vaciar()} puede borrar un alta concurrente: durante
+ * {@code capacitacion.filtro-dnis.tolerancia} después de construirlo o vaciarlo, los DNIs descartados deben
+ * confirmarse en la base ({@link #requiereConfirmacion()}), y los encontrados se agregan con
+ * {@link #registrarFaltante(String)}. Pasada la tolerancia, el filtro es la referencia: un DNI que descarta no existe.
+ * Las bajas no se quitan del filtro; sólo aumentan los falsos positivos hasta la próxima reconstrucción.
+ */
+@Component
+@Slf4j
+public class FiltroDnis {
+
+    private final PersonaRepository personaRepository;
+    private final boolean habilitado;
+    private final long bits;
+    private final int funciones;
+    private final AtomicLongArray palabras;
+    private final Counter descartados;
+    private final Counter posibles;
+    private final Counter faltantes;
+    private volatile boolean construido;
+    private final long toleranciaNanos;
+    /** Instante, según {@link System#nanoTime()}, hasta el que los DNIs descartados se confirman en la base. */
+    private volatile long confirmarHasta;
+
+    /**
+     * Constructor de FiltroDnis.
+     *
+     * @param personaRepository    Repositorio de Persona para construir el filtro.
+     * @param habilitado           Indica si se usa el filtro; si no, cualquier DNI podría existir.
+     * @param capacidad            Cantidad de DNIs para la que se dimensiona el filtro.
+     * @param tasaFalsosPositivos  Tasa de falsos positivos esperada con la capacidad completa.
+     * @param tolerancia           Tiempo después de construir o vaciar el filtro durante el que los DNIs descartados
+     *                             se confirman en la base.
+     * @param meterRegistry        Registro de métricas de las consultas al filtro.
+     */
+    public FiltroDnis(PersonaRepository personaRepository,
+                      @Value("${capacitacion.filtro-dnis.habilitado:true}") boolean habilitado,
+                      @Value("${capacitacion.filtro-dnis.capacidad:10000000}") long capacidad,
+                      @Value("${capacitacion.filtro-dnis.tasa-falsos-positivos:0.01}") double tasaFalsosPositivos,
+                      @Value("${capacitacion.filtro-dnis.tolerancia:60s}") Duration tolerancia,
+                      MeterRegistry meterRegistry) {
+        this.personaRepository = personaRepository;
+        this.habilitado = habilitado;
+        this.toleranciaNanos = tolerancia.toNanos();
+        long palabrasNecesarias = (long) Math.ceil(-capacidad * Math.log(tasaFalsosPositivos) / (Math.log(2) * Math.log(2)) / Long.SIZE);
+        this.palabras = new AtomicLongArray((int) Math.max(1, Math.min(palabrasNecesarias, Integer.MAX_VALUE - 8)));
+        this.bits = (long) palabras.length() * Long.SIZE;
+        this.funciones = (int) Math.max(1, Math.round((double) bits / capacidad * Math.log(2)));
+        this.descartados = Counter.builder("personas.filtro-dnis.consultas").tag("resultado", "descartado").register(meterRegistry);
+        this.posibles = Counter.builder("personas.filtro-dnis.consultas").tag("resultado", "posible").register(meterRegistry);
+        this.faltantes = Counter.builder("personas.filtro-dnis.consultas").tag("resultado", "faltante").register(meterRegistry);
+    }
+
+    /**
+     * Construye el filtro con los DNIs de todas las personas registradas, leyendo sólo el DNI de cada una.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void construir() {
+        if (!habilitado) {
+            return;
+        }
+        long inicio = System.nanoTime();
+        long cantidad = 0;
+        try (Stream<Persona> personas = personaRepository.streamDnisBy()) {
+            for (Persona persona : (Iterable<Persona>) personas::iterator) {
+                agregar(persona.getDni());
+                cantidad++;
+            }
+        }
+        confirmarHasta = System.nanoTime() + toleranciaNanos;
+        construido = true;
+        log.info("Filtro de DNIs construido con {} personas en {} ms ({} bits, {} funciones de hash)",
+                cantidad, (System.nanoTime() - inicio) / 1_000_000, bits, funciones);
+    }
+
+    /**
+     * Indica si una persona con el DNI indicado podría estar registrada.
+     *
+     * @param dni DNI a consultar.
+     * @return false si el filtro no conoce el DNI, lo que debe confirmarse en la base mientras
+     *         {@link #requiereConfirmacion()}; true si podría estar registrado.
+     */
+    public boolean podriaExistir(String dni) {
+        if (!construido || dni == null) {
+            return true;
+        }
+        long hash = hash(dni);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= funciones; i++) {
+            long bit = indice(h1 + i * h2);
+            if ((palabras.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                descartados.increment();
+                return false;
+            }
+        }
+        posibles.increment();
+        return true;
+    }
+
+    /**
+     * Indica si los DNIs que el filtro descarta deben confirmarse en la base, porque todavía no pasó la tolerancia
+     * desde que se construyó o se vació.
+     *
+     * @return true durante la tolerancia; false cuando el filtro es la referencia de los DNIs registrados.
+     */
+    public boolean requiereConfirmacion() {
+        return System.nanoTime() - confirmarHasta < 0;
+    }
+
+    /**
+     * Agrega un DNI al filtro.
+     *
+     * @param dni DNI de una persona registrada.
+     */
+    public void agregar(String dni) {
+        if (dni == null) {
+            return;
+        }
+        long hash = hash(dni);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= funciones; i++) {
+            long bit = indice(h1 + i * h2);
+            int palabra = (int) (bit >>> 6);
+            long mascara = 1L << bit;
+            long actual = palabras.get(palabra);
+            while ((actual & mascara) == 0 && !palabras.compareAndSet(palabra, actual, actual | mascara)) {
+                actual = palabras.get(palabra);
+            }
+        }
+    }
+
+    /**
+     * Agrega un DNI que el filtro descartaba y que la base confirmó como registrado.
+     *
+     * @param dni DNI de una persona registrada.
+     */
+    public void registrarFaltante(String dni) {
+        faltantes.increment();
+        agregar(dni);
+    }
+
+    /**
+     * Vacía el filtro, después de eliminar todas las personas. Un alta concurrente puede borrarse, por lo que los DNIs
+     * descartados vuelven a confirmarse en la base durante la tolerancia.
+     */
+    public void vaciar() {
+        confirmarHasta = System.nanoTime() + toleranciaNanos;
+        for (int i = 0; i < palabras.length(); i++) {
+            palabras.set(i, 0);
+        }
+    }
+
+    private long indice(int hashCombinado) {
+        return (hashCombinado & 0x7fffffffL) % bits;
+    }
+
+    /**
+     * Hash de 64 bits del DNI (FNV-1a con la mezcla final de MurmurHash3), del que se derivan las funciones de hash
+     * con la técnica de doble hashing.
+     */
+    private static long hash(String dni) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < dni.length(); i++) {
+            hash ^= dni.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb93fe7a5ed53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
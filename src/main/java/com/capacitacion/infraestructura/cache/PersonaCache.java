@@ -0,0 +1,269 @@
+package com.capacitacion.infraestructura.cache;
+
+import com.capacitacion.domain.model.Persona;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Cache local y acotado de personas, accesible por ID, DNI y nombre. Las personas se guardan una sola vez, indexadas
+ * por ID, y los índices por DNI y nombre apuntan a ese ID, de modo que invalidar por cualquiera de las claves
+ * quita la persona para todas. Se desalojan por tamaño y por tiempo desde que se cargaron.
+ * Siempre se devuelven copias, para que los cambios de quien las usa no alteren el contenido del cache.
+ * Las invalidaciones hechas dentro de una transacción se repiten al confirmarla, para descartar lecturas
+ * que se hayan cacheado antes de que los cambios fueran visibles.
+ * Cada invalidación marca con un instante lógico las franjas de sus claves; una persona cargada sólo queda en el cache
+ * si ninguna de sus claves se invalidó desde que empezó la carga, porque la lectura pudo ver los datos anteriores.
+ */
+@Component
+public class PersonaCache {
+
+    private static final int FRANJAS = 4096;
+
+    private final Cache<String, Persona> porId;
+    /** Reloj lógico de las invalidaciones. */
+    private final AtomicLong reloj = new AtomicLong();
+    /** Instante de la última invalidación de cada franja de claves. */
+    private final AtomicLongArray invalidaciones = new AtomicLongArray(FRANJAS);
+    private volatile long ultimaInvalidacionTotal;
+    private final Map<String, String> idPorDni = new ConcurrentHashMap<>();
+    private final Map<String, String> idPorNombre = new ConcurrentHashMap<>();
+    private final Map<String, Counter> aciertos = new ConcurrentHashMap<>();
+    private final Map<String, Counter> fallos = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Constructor de PersonaCache.
+     *
+     * @param tamanioMaximo Cantidad máxima de personas en el cache.
+     * @param ttlSegundos   Segundos que una persona permanece en el cache desde que se cargó.
+     * @param meterRegistry Registro de métricas donde se exponen aciertos, fallos y desalojos.
+     */
+    public PersonaCache(@Value("${capacitacion.cache.personas.tamanio-maximo:100000}") long tamanioMaximo,
+                        @Value("${capacitacion.cache.personas.ttl-segundos:300}") long ttlSegundos,
+                        MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.porId = Caffeine.newBuilder()
+                .maximumSize(tamanioMaximo)
+                .expireAfterWrite(Duration.ofSeconds(ttlSegundos))
+                .removalListener(this::alQuitar)
+                .build();
+        for (String tipoClave : new String[] {"id", "dni", "nombre"}) {
+            aciertos.put(tipoClave, contadorAccesos(tipoClave, "acierto"));
+            fallos.put(tipoClave, contadorAccesos(tipoClave, "fallo"));
+        }
+        meterRegistry.gauge("personas.cache.tamanio", porId, Cache::estimatedSize);
+    }
+
+    /**
+     * Obtiene una persona por ID, cargándola con la función indicada si no está en el cache.
+     *
+     * @param id       ID de la persona.
+     * @param cargador Función que recupera la persona de la base de datos (puede devolver null).
+     * @return Copia de la persona, o null si no existe.
+     */
+    public Persona obtenerPorId(String id, Function<String, Persona> cargador) {
+        return obtener("id", id, id, cargador);
+    }
+
+    /**
+     * Obtiene una persona por DNI, cargándola con la función indicada si no está en el cache.
+     *
+     * @param dni      DNI de la persona.
+     * @param cargador Función que recupera la persona de la base de datos (puede devolver null).
+     * @return Copia de la persona, o null si no existe.
+     */
+    public Persona obtenerPorDni(String dni, Function<String, Persona> cargador) {
+        return obtener("dni", dni, dni == null ? null : idPorDni.get(dni), cargador);
+    }
+
+    /**
+     * Obtiene una persona por nombre, cargándola con la función indicada si no está en el cache.
+     *
+     * @param nombre   Nombre de la persona.
+     * @param cargador Función que recupera la persona de la base de datos (puede devolver null).
+     * @return Copia de la persona, o null si no existe.
+     */
+    public Persona obtenerPorNombre(String nombre, Function<String, Persona> cargador) {
+        return obtener("nombre", nombre, nombre == null ? null : idPorNombre.get(nombre), cargador);
+    }
+
+    /**
+     * Quita una persona del cache por todas sus claves.
+     *
+     * @param persona Persona a quitar.
+     */
+    public void invalidar(Persona persona) {
+        alConfirmar(() -> quitar(persona));
+    }
+
+    /**
+     * Quita del cache la persona con el DNI indicado.
+     *
+     * @param dni DNI de la persona.
+     */
+    public void invalidarPorDni(String dni) {
+        alConfirmar(() -> {
+            marcar(dni);
+            quitar(idPorDni.remove(dni));
+        });
+    }
+
+    /**
+     * Quita del cache la persona con el nombre indicado.
+     *
+     * @param nombre Nombre de la persona.
+     */
+    public void invalidarPorNombre(String nombre) {
+        alConfirmar(() -> {
+            marcar(nombre);
+            quitar(idPorNombre.remove(nombre));
+        });
+    }
+
+    /**
+     * Vacía el cache.
+     */
+    public void invalidarTodo() {
+        alConfirmar(() -> {
+            ultimaInvalidacionTotal = reloj.incrementAndGet();
+            porId.invalidateAll();
+            idPorDni.clear();
+            idPorNombre.clear();
+        });
+    }
+
+    private void alConfirmar(Runnable invalidacion) {
+        invalidacion.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidacion.run();
+                }
+            });
+        }
+    }
+
+    private void quitar(String id) {
+        if (id != null) {
+            marcar(id);
+            porId.invalidate(id);
+        }
+    }
+
+    private void quitar(Persona persona) {
+        marcar(persona.getId());
+        marcar(persona.getDni());
+        marcar(persona.getNombre());
+        if (persona.getId() != null) {
+            porId.invalidate(persona.getId());
+        }
+        if (persona.getDni() != null) {
+            idPorDni.remove(persona.getDni());
+        }
+        if (persona.getNombre() != null) {
+            idPorNombre.remove(persona.getNombre());
+        }
+    }
+
+    private Persona obtener(String tipoClave, String clave, String id, Function<String, Persona> cargador) {
+        Persona persona = id == null ? null : porId.getIfPresent(id);
+        if (persona != null) {
+            aciertos.get(tipoClave).increment();
+            return copiar(persona);
+        }
+        fallos.get(tipoClave).increment();
+        long inicio = reloj.get();
+        persona = cargador.apply(clave);
+        if (persona != null && persona.getId() != null) {
+            guardar(persona, clave, inicio);
+        }
+        return copiar(persona);
+    }
+
+    /**
+     * Guarda la persona cargada y después verifica que ninguna de sus claves se haya invalidado desde el inicio de la
+     * carga. Como cada invalidación marca sus claves antes de quitar la persona, una invalidación concurrente o bien
+     * se ve en la verificación, o bien quita la persona recién guardada.
+     */
+    private void guardar(Persona persona, String clave, long inicio) {
+        Persona copia = copiar(persona);
+        porId.put(copia.getId(), copia);
+        if (copia.getDni() != null) {
+            idPorDni.put(copia.getDni(), copia.getId());
+        }
+        if (copia.getNombre() != null) {
+            idPorNombre.put(copia.getNombre(), copia.getId());
+        }
+        if (invalidadaDesde(inicio, clave) || invalidadaDesde(inicio, copia.getId())
+                || invalidadaDesde(inicio, copia.getDni()) || invalidadaDesde(inicio, copia.getNombre())
+                || ultimaInvalidacionTotal > inicio) {
+            porId.asMap().remove(copia.getId(), copia);
+        }
+    }
+
+    private void marcar(String clave) {
+        if (clave != null) {
+            invalidaciones.accumulateAndGet(franja(clave), reloj.incrementAndGet(), Math::max);
+        }
+    }
+
+    private boolean invalidadaDesde(long inicio, String clave) {
+        return clave != null && invalidaciones.get(franja(clave)) > inicio;
+    }
+
+    private static int franja(String clave) {
+        return (clave.hashCode() & 0x7fffffff) % FRANJAS;
+    }
+
+    private void alQuitar(String id, Persona persona, RemovalCause causa) {
+        if (causa.wasEvicted()) {
+            Counter.builder("personas.cache.desalojos")
+                    .tag("causa", causa.name())
+                    .register(meterRegistry)
+                    .increment();
+        }
+        // Si la persona volvió a cargarse, sus índices siguen siendo válidos.
+        if (causa == RemovalCause.REPLACED || id == null || persona == null || porId.asMap().containsKey(id)) {
+            return;
+        }
+        if (persona.getDni() != null) {
+            idPorDni.remove(persona.getDni(), id);
+        }
+        if (persona.getNombre() != null) {
+            idPorNombre.remove(persona.getNombre(), id);
+        }
+    }
+
+    private Counter contadorAccesos(String tipoClave, String resultado) {
+        return Counter.builder("personas.cache.accesos")
+                .tag("clave", tipoClave)
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+
+    private static Persona copiar(Persona persona) {
+        if (persona == null) {
+            return null;
+        }
+        Persona copia = new Persona(persona.getId(), persona.getNombre(), persona.getEdad(), persona.getDni());
+        copia.setCreditos(persona.getCreditos());
+        copia.setDireccion(persona.getDireccion());
+        copia.setFracciones(persona.getFracciones());
+        return copia;
+    }
+}
@@ -0,0 +1,101 @@
+package com.capacitacion.infraestructura.cliente;
+
+import com.capacitacion.domain.model.Sucursal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Catálogo local de sucursales indexado por nombre. Se actualiza en segundo plano con GETs condicionales
+ * ({@code If-None-Match}) contra la API de sucursales y, si la API no responde, sigue sirviendo los últimos datos
+ * obtenidos. Las consultas al catálogo no hacen llamadas remotas, salvo la carga inicial si todavía no se realizó.
+ * Las llamadas pasan por un {@link Disyuntor}: mientras la API falla, o si ya hay una actualización en curso, se
+ * responde de inmediato con los datos anteriores en lugar de bloquear a quien consulta.
+ */
+@Component
+@Slf4j
+public class CatalogoSucursales {
+
+    private final RestTemplate restTemplate;
+    private final Disyuntor disyuntor;
+    private final String url;
+    private volatile Map<String, Sucursal> sucursalesPorNombre = Map.of();
+    private volatile String etag;
+    private volatile boolean cargado;
+
+    /**
+     * Constructor de CatalogoSucursales.
+     *
+     * @param restTemplate Cliente HTTP para consultar la API de sucursales.
+     * @param disyuntor    Disyuntor y límite de llamadas en curso de la API de sucursales.
+     * @param url          URL de la API de sucursales.
+     */
+    public CatalogoSucursales(RestTemplate restTemplate, Disyuntor disyuntor,
+                              @Value("${capacitacion.sucursales.url:https://627303496b04786a09002b27.mockapi.io/mock/sucursales}") String url) {
+        this.restTemplate = restTemplate;
+        this.disyuntor = disyuntor;
+        this.url = url;
+    }
+
+    /**
+     * Busca una sucursal por nombre.
+     *
+     * @param nombre Nombre de la sucursal.
+     * @return Sucursal con el nombre indicado, si existe.
+     */
+    public Optional<Sucursal> buscarPorNombre(String nombre) {
+        if (!cargado) {
+            actualizar();
+        }
+        return Optional.ofNullable(sucursalesPorNombre.get(nombre));
+    }
+
+    /**
+     * Actualiza el catálogo desde la API de sucursales. Si la API informa que los datos no cambiaron,
+     * o si la consulta falla o se rechaza, se conservan los datos anteriores. No es {@code synchronized}: el límite de
+     * llamadas en curso del disyuntor acota las actualizaciones simultáneas sin dejar esperando a las demás.
+     */
+    @Scheduled(fixedDelayString = "${capacitacion.sucursales.intervalo-actualizacion-ms:60000}")
+    public void actualizar() {
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            if (etag != null) {
+                headers.setIfNoneMatch(etag);
+            }
+            ResponseEntity<Sucursal[]> response = disyuntor.ejecutar(
+                    () -> restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), Sucursal[].class));
+            if (response.getStatusCode().value() == HttpStatus.NOT_MODIFIED.value() || response.getBody() == null) {
+                cargado = true;
+                return;
+            }
+            Map<String, Sucursal> sucursales = new HashMap<>();
+            for (Sucursal sucursal : response.getBody()) {
+                // Ante nombres repetidos se conserva la primera sucursal, como al recorrer la lista.
+                if (sucursal.getNombre() != null) {
+                    sucursales.putIfAbsent(sucursal.getNombre(), sucursal);
+                }
+            }
+            sucursalesPorNombre = sucursales;
+            etag = response.getHeaders().getETag();
+            cargado = true;
+            log.debug("Catálogo de sucursales actualizado con {} sucursales", sucursales.size());
+        } catch (LlamadaRechazadaException e) {
+            log.debug("No se actualizó el catálogo de sucursales: {}", e.getMessage());
+        } catch (RestClientException e) {
+            log.warn("No se pudo actualizar el catálogo de sucursales, se conservan las {} sucursales anteriores",
+                    sucursalesPorNombre.size(), e);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.capacitacion.infraestructura.cliente;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Protege las llamadas a un servicio externo con un disyuntor (circuit breaker) y un límite de llamadas en curso
+ * (bulkhead). Después de una cantidad de fallos consecutivos el disyuntor se abre y rechaza las llamadas sin
+ * realizarlas; pasado el tiempo de apertura deja pasar una única llamada de prueba, que lo cierra si resulta exitosa
+ * o lo vuelve a abrir si falla. Las llamadas se cuentan en {@value #CONTADOR}, etiquetadas por cliente y resultado,
+ * y el estado se publica en {@code http.cliente.disyuntor.abierto}.
+ */
+public class Disyuntor {
+
+    public static final String CONTADOR = "http.cliente.llamadas";
+
+    private enum Estado { CERRADO, ABIERTO, SEMIABIERTO }
+
+    private final String cliente;
+    private final int fallosParaAbrir;
+    private final long aperturaNs;
+    private final int llamadasMaximas;
+    private final Semaphore enCurso;
+    private final AtomicReference<Estado> estado = new AtomicReference<>(Estado.CERRADO);
+    private final AtomicInteger fallosConsecutivos = new AtomicInteger();
+    private volatile long abiertoHastaNs;
+    private final Counter exitosas;
+    private final Counter fallidas;
+    private final Counter rechazadasPorDisyuntor;
+    private final Counter rechazadasPorLimite;
+
+    /**
+     * Constructor de Disyuntor.
+     *
+     * @param cliente         Nombre del servicio externo, usado en los mensajes y en las métricas.
+     * @param fallosParaAbrir Cantidad de fallos consecutivos que abren el disyuntor.
+     * @param apertura        Tiempo que el disyuntor permanece abierto antes de la llamada de prueba.
+     * @param llamadasMaximas Cantidad máxima de llamadas en curso.
+     * @param meterRegistry   Registro de métricas de las llamadas.
+     */
+    public Disyuntor(String cliente, int fallosParaAbrir, Duration apertura, int llamadasMaximas, MeterRegistry meterRegistry) {
+        this.cliente = cliente;
+        this.fallosParaAbrir = fallosParaAbrir;
+        this.aperturaNs = apertura.toNanos();
+        this.llamadasMaximas = llamadasMaximas;
+        this.enCurso = new Semaphore(llamadasMaximas);
+        this.exitosas = contador(meterRegistry, "exitosa");
+        this.fallidas = contador(meterRegistry, "fallida");
+        this.rechazadasPorDisyuntor = contador(meterRegistry, "rechazada-disyuntor");
+        this.rechazadasPorLimite = contador(meterRegistry, "rechazada-limite");
+        meterRegistry.gauge("http.cliente.disyuntor.abierto", Tags.of("cliente", cliente),
+                estado, actual -> actual.get() == Estado.CERRADO ? 0 : 1);
+        meterRegistry.gauge("http.cliente.en-curso", Tags.of("cliente", cliente),
+                enCurso, semaforo -> this.llamadasMaximas - semaforo.availablePermits());
+    }
+
+    /**
+     * Realiza una llamada, salvo que el disyuntor esté abierto o que se haya alcanzado el límite de llamadas en curso.
+     *
+     * @param llamada Llamada al servicio externo.
+     * @param <T>     Tipo de la respuesta.
+     * @return Respuesta de la llamada.
+     * @throws LlamadaRechazadaException Si la llamada no se realiza.
+     * @throws RestClientException       Si la llamada falla; cualquier error de la llamada, también los de
+     *                                   interpretar la respuesta, se registra como fallo en el disyuntor.
+     */
+    public <T> T ejecutar(Supplier<T> llamada) {
+        if (!enCurso.tryAcquire()) {
+            rechazadasPorLimite.increment();
+            throw new LlamadaRechazadaException("Se alcanzó el límite de " + llamadasMaximas + " llamadas en curso a " + cliente);
+        }
+        try {
+            if (!permitir()) {
+                rechazadasPorDisyuntor.increment();
+                throw new LlamadaRechazadaException("El disyuntor de " + cliente + " está abierto");
+            }
+            T respuesta;
+            try {
+                respuesta = llamada.get();
+            } catch (Throwable e) {
+                // Cualquier error libera la llamada de prueba; si no, el disyuntor quedaría semiabierto para siempre.
+                registrarFallo();
+                throw e;
+            }
+            registrarExito();
+            return respuesta;
+        } finally {
+            enCurso.release();
+        }
+    }
+
+    /**
+     * Indica si el disyuntor está abierto o esperando el resultado de la llamada de prueba.
+     *
+     * @return true si el disyuntor no está cerrado.
+     */
+    public boolean estaAbierto() {
+        return estado.get() != Estado.CERRADO;
+    }
+
+    private boolean permitir() {
+        Estado actual = estado.get();
+        if (actual == Estado.CERRADO) {
+            return true;
+        }
+        // Sólo la primera llamada después del tiempo de apertura pasa como prueba.
+        return actual == Estado.ABIERTO && System.nanoTime() - abiertoHastaNs >= 0
+                && estado.compareAndSet(Estado.ABIERTO, Estado.SEMIABIERTO);
+    }
+
+    private void registrarExito() {
+        exitosas.increment();
+        fallosConsecutivos.set(0);
+        estado.set(Estado.CERRADO);
+    }
+
+    private void registrarFallo() {
+        fallidas.increment();
+        if (estado.get() == Estado.SEMIABIERTO || fallosConsecutivos.incrementAndGet() >= fallosParaAbrir) {
+            abiertoHastaNs = System.nanoTime() + aperturaNs;
+            estado.set(Estado.ABIERTO);
+            fallosConsecutivos.set(0);
+        }
+    }
+
+    private Counter contador(MeterRegistry meterRegistry, String resultado) {
+        return Counter.builder(CONTADOR)
+                .description("Llamadas a servicios externos realizadas y rechazadas por el disyuntor")
+                .tag("cliente", cliente)
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+}
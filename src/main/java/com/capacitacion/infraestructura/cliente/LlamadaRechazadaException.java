@@ -0,0 +1,16 @@
+package com.capacitacion.infraestructura.cliente;
+
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Llamada a un servicio externo que no se realizó porque el {@link Disyuntor} estaba abierto o porque se alcanzó
+ * el límite de llamadas en curso.
+ */
+public class LlamadaRechazadaException extends RestClientException {
+
+    private static final long serialVersionUID = 1L;
+
+    public LlamadaRechazadaException(String mensaje) {
+        super(mensaje);
+    }
+}
@@ -0,0 +1,108 @@
+package com.capacitacion.infraestructura.config;
+
+import com.capacitacion.infraestructura.cliente.Disyuntor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+
+@Configuration
+public class HttpClientConfig {
+
+    /**
+     * Pool de conexiones HTTP persistentes (keep-alive) compartido por los clientes de servicios externos, con
+     * timeouts de conexión y de lectura. Su ocupación se publica en las métricas {@code httpcomponents.httpclient.pool.*}.
+     *
+     * @param conexionesMaximas         Cantidad máxima de conexiones abiertas en total.
+     * @param conexionesMaximasPorHost  Cantidad máxima de conexiones abiertas a un mismo host.
+     * @param timeoutConexion           Tiempo máximo para establecer una conexión.
+     * @param timeoutLectura            Tiempo máximo de espera de datos en una conexión establecida.
+     * @param meterRegistry             Registro de métricas del pool.
+     * @return Pool de conexiones configurado.
+     */
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager conexionesHttp(@Value("${capacitacion.http.conexiones-maximas:50}") int conexionesMaximas,
+                                                             @Value("${capacitacion.http.conexiones-maximas-por-host:20}") int conexionesMaximasPorHost,
+                                                             @Value("${capacitacion.http.timeout-conexion:2s}") Duration timeoutConexion,
+                                                             @Value("${capacitacion.http.timeout-lectura:5s}") Duration timeoutLectura,
+                                                             MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager conexiones = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(conexionesMaximas)
+                .setMaxConnPerRoute(conexionesMaximasPorHost)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(timeoutConexion))
+                        .setSocketTimeout(Timeout.of(timeoutLectura))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(10))
+                        .build())
+                .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(conexiones, "externo").bindTo(meterRegistry);
+        return conexiones;
+    }
+
+    /**
+     * Cliente HTTP sobre el pool de conexiones. Si no hay una conexión libre, espera a lo sumo
+     * {@code capacitacion.http.timeout-pool} en lugar de bloquearse indefinidamente.
+     *
+     * @param conexionesHttp Pool de conexiones.
+     * @param timeoutPool    Tiempo máximo de espera de una conexión libre del pool.
+     * @return Cliente HTTP configurado.
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient clienteHttp(PoolingHttpClientConnectionManager conexionesHttp,
+                                           @Value("${capacitacion.http.timeout-pool:1s}") Duration timeoutPool) {
+        return HttpClients.custom()
+                .setConnectionManager(conexionesHttp)
+                .setConnectionManagerShared(true)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(timeoutPool))
+                        .build())
+                .evictIdleConnections(TimeValue.ofSeconds(30))
+                .build();
+    }
+
+    /**
+     * Configuración de RestTemplate para realizar solicitudes HTTP sobre el cliente con pool. Al construirse con el
+     * {@link RestTemplateBuilder} de Spring Boot, la latencia de cada llamada se publica en {@code http.client.requests}.
+     *
+     * @param restTemplateBuilder Builder de RestTemplate de Spring Boot.
+     * @param clienteHttp         Cliente HTTP con pool.
+     * @return RestTemplate configurado.
+     */
+    @Bean
+    public RestTemplate restTemplate(RestTemplateBuilder restTemplateBuilder, CloseableHttpClient clienteHttp) {
+        return restTemplateBuilder
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(clienteHttp))
+                .build();
+    }
+
+    /**
+     * Disyuntor y límite de llamadas en curso de la API de sucursales.
+     *
+     * @param fallosParaAbrir Cantidad de fallos consecutivos que abren el disyuntor.
+     * @param apertura        Tiempo que el disyuntor permanece abierto.
+     * @param llamadasMaximas Cantidad máxima de llamadas en curso a la API.
+     * @param meterRegistry   Registro de métricas de las llamadas.
+     * @return Disyuntor configurado.
+     */
+    @Bean
+    public Disyuntor disyuntorSucursales(@Value("${capacitacion.sucursales.fallos-para-abrir:3}") int fallosParaAbrir,
+                                         @Value("${capacitacion.sucursales.apertura:30s}") Duration apertura,
+                                         @Value("${capacitacion.sucursales.llamadas-maximas:1}") int llamadasMaximas,
+                                         MeterRegistry meterRegistry) {
+        return new Disyuntor("sucursales", fallosParaAbrir, apertura, llamadasMaximas, meterRegistry);
+    }
+}
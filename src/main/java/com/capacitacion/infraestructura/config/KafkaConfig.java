@@ -1,31 +1,54 @@
 package com.capacitacion.infraestructura.config;
 
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.util.backoff.FixedBackOff;
 import java.util.HashMap;
 import java.util.Map;
 
 @Configuration
+@EnableKafka
 public class KafkaConfig {
 
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+
     /**
-     * Configuración del productor de Kafka.
+     * Configuración del productor de Kafka. El productor es idempotente, para que los reintentos internos no dupliquen
+     * mensajes, y espera unos milisegundos antes de enviar para agrupar los mensajes en lotes.
      *
      * @return Factory para el productor de Kafka.
      */
     @Bean
     public ProducerFactory<String, Object> producerFactory() {
         Map<String, Object> configProps = new HashMap<>();
-        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, 64 * 1024);
 
         return new DefaultKafkaProducerFactory<>(configProps);
     }
@@ -41,12 +64,79 @@ public class KafkaConfig {
     }
 
     /**
-     * Configuración de RestTemplate para realizar solicitudes HTTP.
+     * Configuración del consumidor de Kafka. Los eventos se deserializan directamente al tipo informado por el
+     * productor en los headers del mensaje; los mensajes que no pueden deserializarse llegan como null en lugar
+     * de detener el consumo.
+     *
+     * @param maxPollRecords  Cantidad máxima de mensajes por poll.
+     * @param autoOffsetReset Posición desde donde empieza a consumir un grupo sin offsets confirmados.
+     * @return Factory para el consumidor de Kafka.
+     */
+    @Bean
+    public ConsumerFactory<String, Object> consumerFactory(@Value("${capacitacion.kafka.consumer.max-poll-records:500}") int maxPollRecords,
+                                                           @Value("${capacitacion.kafka.consumer.auto-offset-reset:latest}") String autoOffsetReset) {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        configProps.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class);
+        configProps.put(JsonDeserializer.TRUSTED_PACKAGES, "com.capacitacion.domain.model");
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, autoOffsetReset);
+
+        return new DefaultKafkaConsumerFactory<>(configProps);
+    }
+
+    /**
+     * Factory de contenedores de listeners que reciben un mensaje por invocación. Un mensaje que falla se reintenta
+     * {@code capacitacion.kafka.consumer.reintentos} veces; después se entrega al recuperador de mensajes fallidos,
+     * si hay uno, y se continúa con el siguiente.
+     *
+     * @param consumerFactory Factory para el consumidor de Kafka.
+     * @param recuperador     Recuperador de los mensajes que agotaron los reintentos.
+     * @param reintentos      Cantidad de reintentos de un mensaje que falla.
+     * @return Factory de contenedores configurado.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory(ConsumerFactory<String, Object> consumerFactory,
+                                                                                                 ObjectProvider<ConsumerRecordRecoverer> recuperador,
+                                                                                                 @Value("${capacitacion.kafka.consumer.reintentos:9}") long reintentos) {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setCommonErrorHandler(new DefaultErrorHandler(recuperador.getIfAvailable(), new FixedBackOff(0L, reintentos)));
+        return factory;
+    }
+
+    /**
+     * Factory de contenedores de listeners que reciben todos los mensajes de un poll en una única invocación.
+     * La concurrencia por defecto puede ajustarse para cada topic con el atributo {@code concurrency} del listener.
+     *
+     * @param consumerFactory Factory para el consumidor de Kafka.
+     * @param concurrencia    Cantidad de consumidores por listener.
+     * @return Factory de contenedores configurado.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaBatchListenerContainerFactory(
+            ConsumerFactory<String, Object> consumerFactory,
+            @Value("${capacitacion.kafka.consumer.concurrencia:1}") int concurrencia) {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setBatchListener(true);
+        factory.setConcurrency(concurrencia);
+        return factory;
+    }
+
+    /**
+     * Topic de solicitudes de transacción. Las solicitudes se publican con el DNI de origen como clave,
+     * por lo que la cantidad de particiones define cuántas cuentas pueden procesarse en paralelo.
      *
-     * @return RestTemplate configurado.
+     * @param particiones Cantidad de particiones del topic.
+     * @return Definición del topic de solicitudes de transacción.
      */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public NewTopic transaccionComandoTopic(@Value("${capacitacion.kafka.transaccion-comando.particiones:12}") int particiones) {
+        return TopicBuilder.name("transaccion-comando-topic")
+                .partitions(particiones)
+                .build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,22 @@
+package com.capacitacion.infraestructura.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+
+@Configuration
+public class MongoConfig {
+
+    /**
+     * Administrador de transacciones de MongoDB, usado por los métodos anotados con {@code @Transactional}.
+     * Requiere que MongoDB se ejecute como replica set (alcanza con un único nodo).
+     *
+     * @param mongoDatabaseFactory Factory de la base de datos de MongoDB.
+     * @return MongoTransactionManager configurado.
+     */
+    @Bean
+    public MongoTransactionManager transactionManager(MongoDatabaseFactory mongoDatabaseFactory) {
+        return new MongoTransactionManager(mongoDatabaseFactory);
+    }
+}
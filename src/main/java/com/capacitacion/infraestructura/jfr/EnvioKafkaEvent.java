@@ -0,0 +1,52 @@
+package com.capacitacion.infraestructura.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Evento de JDK Flight Recorder para el envío de un evento del outbox a Kafka, desde el envío hasta la confirmación
+ * del broker. Como {@link EtapaEvent}, por defecto sólo se registran los envíos que duran al menos 1 ms.
+ */
+@Name("com.capacitacion.EnvioKafka")
+@Label("Envío a Kafka")
+@Description("Duración de un envío a Kafka hasta su confirmación")
+@Category({"Capacitacion", "Kafka"})
+@StackTrace(false)
+@Threshold("1 ms")
+public class EnvioKafkaEvent extends jdk.jfr.Event {
+
+    @Label("Topic")
+    String topic;
+
+    @Label("Clave")
+    String clave;
+
+    @Label("ID del evento")
+    String eventoId;
+
+    @Label("Exitoso")
+    boolean exitoso;
+
+    /**
+     * Termina el evento y lo registra si supera el umbral configurado.
+     *
+     * @param topic    Topic del envío.
+     * @param clave    Clave del mensaje.
+     * @param eventoId ID del evento del outbox.
+     * @param exitoso  Indica si Kafka confirmó el envío.
+     */
+    public void terminar(String topic, String clave, String eventoId, boolean exitoso) {
+        end();
+        if (shouldCommit()) {
+            this.topic = topic;
+            this.clave = clave;
+            this.eventoId = eventoId;
+            this.exitoso = exitoso;
+            commit();
+        }
+    }
+}
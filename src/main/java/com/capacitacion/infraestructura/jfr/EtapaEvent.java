@@ -0,0 +1,63 @@
+package com.capacitacion.infraestructura.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Evento de JDK Flight Recorder para una etapa de una operación de los servicios, con los DNIs y el monto involucrados.
+ * Por defecto sólo se registran las etapas que duran al menos 1 ms, para poder grabar de forma continua con bajo
+ * overhead y analizar después los casos lentos; el umbral se puede cambiar en la configuración de la grabación.
+ */
+@Name("com.capacitacion.Etapa")
+@Label("Etapa de operación")
+@Description("Duración de una etapa de una operación de los servicios")
+@Category({"Capacitacion", "Servicios"})
+@StackTrace(false)
+@Threshold("1 ms")
+public class EtapaEvent extends jdk.jfr.Event {
+
+    @Label("Operación")
+    String operacion;
+
+    @Label("Etapa")
+    String etapa;
+
+    @Label("DNI")
+    String dni;
+
+    @Label("DNI de destino")
+    String dniDestino;
+
+    @Label("Monto")
+    int monto;
+
+    @Label("Exitosa")
+    boolean exitosa;
+
+    /**
+     * Termina el evento y lo registra si supera el umbral configurado.
+     *
+     * @param operacion  Operación del servicio.
+     * @param etapa      Etapa de la operación.
+     * @param dni        DNI de la persona, o de origen en una transacción.
+     * @param dniDestino DNI de destino en una transacción (puede ser nulo).
+     * @param monto      Monto de la transacción (0 si no corresponde).
+     * @param exitosa    Indica si la etapa terminó sin excepciones.
+     */
+    public void terminar(String operacion, String etapa, String dni, String dniDestino, int monto, boolean exitosa) {
+        end();
+        if (shouldCommit()) {
+            this.operacion = operacion;
+            this.etapa = etapa;
+            this.dni = dni;
+            this.dniDestino = dniDestino;
+            this.monto = monto;
+            this.exitosa = exitosa;
+            commit();
+        }
+    }
+}
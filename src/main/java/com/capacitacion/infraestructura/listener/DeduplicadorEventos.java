@@ -0,0 +1,93 @@
+package com.capacitacion.infraestructura.listener;
+
+import com.capacitacion.infraestructura.outbox.RelayOutbox;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Recuerda los IDs de los eventos del outbox ya procesados por cada grupo de consumidores, para descartar las
+ * reentregas: el {@link RelayOutbox} publica cada evento al menos una vez, con su ID en el header
+ * {@value RelayOutbox#HEADER_EVENTO_ID}. Los IDs se guardan en un cache local acotado durante la ventana configurada;
+ * como los eventos se publican con clave, las reentregas de un evento llegan a la misma partición y, salvo un
+ * rebalanceo, al mismo consumidor. Los mensajes sin el header no se deduplican. Los duplicados descartados se cuentan
+ * en {@value #CONTADOR_DUPLICADOS}, por grupo.
+ */
+@Component
+public class DeduplicadorEventos {
+
+    public static final String CONTADOR_DUPLICADOS = "kafka.eventos.duplicados";
+
+    private final Cache<String, Boolean> procesados;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> duplicados = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor de DeduplicadorEventos.
+     *
+     * @param tamanioMaximo Cantidad máxima de IDs recordados.
+     * @param ventana       Tiempo durante el que se recuerda cada ID.
+     * @param meterRegistry Registro de métricas de los duplicados descartados.
+     */
+    public DeduplicadorEventos(@Value("${capacitacion.kafka.deduplicacion.tamanio-maximo:1000000}") long tamanioMaximo,
+                               @Value("${capacitacion.kafka.deduplicacion.ventana:1h}") Duration ventana,
+                               MeterRegistry meterRegistry) {
+        this.procesados = Caffeine.newBuilder()
+                .maximumSize(tamanioMaximo)
+                .expireAfterWrite(ventana)
+                .build();
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Obtiene el ID del evento del outbox de un mensaje.
+     *
+     * @param mensaje Mensaje recibido.
+     * @return ID del evento, o null si el mensaje no lo informa.
+     */
+    public static String eventoId(ConsumerRecord<?, ?> mensaje) {
+        Header header = mensaje.headers().lastHeader(RelayOutbox.HEADER_EVENTO_ID);
+        return header == null || header.value() == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Indica si el grupo ya procesó el evento, y en ese caso lo cuenta como duplicado.
+     *
+     * @param grupo    Grupo de consumidores.
+     * @param eventoId ID del evento (puede ser nulo).
+     * @return true si el evento ya se procesó y debe descartarse.
+     */
+    public boolean procesado(String grupo, String eventoId) {
+        if (eventoId == null || procesados.getIfPresent(grupo + ':' + eventoId) == null) {
+            return false;
+        }
+        duplicados.computeIfAbsent(grupo, clave -> Counter.builder(CONTADOR_DUPLICADOS)
+                .description("Eventos reentregados descartados por los consumidores")
+                .tag("grupo", grupo)
+                .register(meterRegistry)).increment();
+        return true;
+    }
+
+    /**
+     * Registra que el grupo procesó el evento. Debe llamarse recién después de procesarlo, para que un evento cuyo
+     * procesamiento falló se vuelva a procesar cuando Kafka lo reentregue.
+     *
+     * @param grupo    Grupo de consumidores.
+     * @param eventoId ID del evento (puede ser nulo).
+     */
+    public void registrar(String grupo, String eventoId) {
+        if (eventoId != null) {
+            procesados.put(grupo + ':' + eventoId, Boolean.TRUE);
+        }
+    }
+}
@@ -1,76 +1,87 @@
 package com.capacitacion.infraestructura.listener;
 
 import com.capacitacion.domain.application.PersonaService;
-import com.capacitacion.domain.model.Persona;
-import com.capacitacion.domain.model.Sucursal;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.capacitacion.domain.model.PersonaEvent;
+import com.capacitacion.infraestructura.cache.FiltroDnis;
+import com.capacitacion.infraestructura.cliente.CatalogoSucursales;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.ResponseEntity;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class PersonaEventListener {
+    private static final String GRUPO_ALTAS = "group-id";
+
     @Autowired
-    private RestTemplate restTemplate;
+    private CatalogoSucursales catalogoSucursales;
     @Autowired
     private PersonaService personaService;
+    @Autowired
+    private FiltroDnis filtroDnis;
+    @Autowired
+    private DeduplicadorEventos deduplicadorEventos;
 
     /**
-     * Maneja el evento de alta de persona recibido desde Kafka.
+     * Maneja los eventos de alta de persona recibidos desde Kafka en un mismo poll.
+     * Las direcciones de todas las personas del lote con una sucursal coincidente se actualizan en una única escritura,
+     * por DNI. Los eventos de la versión 1, que no traen el DNI de forma confiable, se siguen actualizando por nombre.
+     * Los eventos reentregados por el outbox que ya se procesaron se descartan por su ID.
      *
-     * @param nombrePersona Nombre de la persona recibido en el evento.
-     * @throws JsonProcessingException Excepción lanzada en caso de problemas con el procesamiento JSON.
+     * @param mensajes Mensajes de alta de persona recibidos (los que no pudieron deserializarse llegan con valor null).
      */
-    @KafkaListener(topics = "alta-persona-topic", groupId = "group-id")
-    public void escucharEventoAltaPersona(String nombrePersona) throws JsonProcessingException {
-
-        // Procesa el nombre de la persona desde el evento.
-        ObjectMapper objectMapper = new ObjectMapper();
-        JsonNode jsonNode = objectMapper.readTree(nombrePersona);
-        String nombre = jsonNode.get("nombre").asText();
-
-        // Obtiene la lista de sucursales desde la API mock.
-        List<Sucursal> data = obtenerDatos();
-        List<Sucursal> sucursales = data.stream()
-                .filter(sucursal -> sucursal.getNombre().equals(nombre))
-                .toList();
-
-        // Si hay sucursales coincidentes, actualiza la dirección de la persona.
-        if(!sucursales.isEmpty()) {
-            Persona persona = personaService.obtenerPorNombre(nombre);
-            actualizarDireccionPersona(persona, sucursales.get(0).getDireccion());
+    @KafkaListener(topics = "alta-persona-topic", groupId = GRUPO_ALTAS, containerFactory = "kafkaBatchListenerContainerFactory",
+            concurrency = "${capacitacion.kafka.alta-persona.concurrencia:3}")
+    public void escucharEventosAltaPersona(List<ConsumerRecord<String, PersonaEvent>> mensajes) {
+        Map<String, String> direccionesPorDni = new HashMap<>();
+        Map<String, String> direccionesPorNombre = new HashMap<>();
+        Set<String> eventosLote = new HashSet<>();
+        for (ConsumerRecord<String, PersonaEvent> mensaje : mensajes) {
+            String eventoId = DeduplicadorEventos.eventoId(mensaje);
+            if (deduplicadorEventos.procesado(GRUPO_ALTAS, eventoId) || eventoId != null && !eventosLote.add(eventoId)) {
+                continue;
+            }
+            PersonaEvent evento = mensaje.value();
+            if (evento == null || evento.getNombre() == null) {
+                continue;
+            }
+            boolean conDni = evento.getVersion() >= 2 && evento.getDni() != null;
+            // Si hay una sucursal coincidente en el catálogo local, se actualiza la dirección de la persona.
+            catalogoSucursales.buscarPorNombre(evento.getNombre()).ifPresent(sucursal -> {
+                if (conDni) {
+                    direccionesPorDni.put(evento.getDni(), sucursal.getDireccion());
+                } else {
+                    direccionesPorNombre.put(evento.getNombre(), sucursal.getDireccion());
+                }
+            });
         }
+        if (!direccionesPorDni.isEmpty()) {
+            personaService.actualizarDireccionesPorDni(direccionesPorDni);
+        }
+        if (!direccionesPorNombre.isEmpty()) {
+            personaService.actualizarDirecciones(direccionesPorNombre);
+        }
+        eventosLote.forEach(eventoId -> deduplicadorEventos.registrar(GRUPO_ALTAS, eventoId));
     }
 
     /**
-     * Obtiene la lista de sucursales desde la API mock.
-     *
-     * @return Lista de sucursales.
-     */
-    private List<Sucursal> obtenerDatos() {
-        ResponseEntity<Sucursal[]> response = restTemplate.getForEntity(
-                "https://627303496b04786a09002b27.mockapi.io/mock/sucursales",
-                Sucursal[].class
-        );
-        return Arrays.asList(Objects.requireNonNull(response.getBody()));
-    }
-
-    /**
-     * Actualiza la dirección de una persona.
+     * Agrega al filtro de DNIs de esta instancia los DNIs de las personas dadas de alta, también las de otras
+     * instancias. Cada instancia consume con su propio grupo, de modo que todas reciben todos los eventos.
      *
-     * @param persona Persona a la que se le actualizará la dirección.
-     * @param direccion Nueva dirección.
+     * @param eventos Eventos de alta de persona recibidos (los mensajes que no pudieron deserializarse llegan como null).
      */
-    private void actualizarDireccionPersona(Persona persona, String direccion) {
-        persona.setDireccion(direccion);
-        personaService.actualizar(persona.getId(), persona);
+    @KafkaListener(topics = "alta-persona-topic", groupId = "filtro-dnis-${random.uuid}", containerFactory = "kafkaBatchListenerContainerFactory",
+            properties = "auto.offset.reset=latest")
+    public void actualizarFiltroDnis(List<PersonaEvent> eventos) {
+        for (PersonaEvent evento : eventos) {
+            if (evento != null) {
+                filtroDnis.agregar(evento.getDni());
+            }
+        }
     }
 }
-
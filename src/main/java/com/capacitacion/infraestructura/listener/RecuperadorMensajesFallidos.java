@@ -0,0 +1,38 @@
+package com.capacitacion.infraestructura.listener;
+
+import com.capacitacion.domain.application.TransaccionAsincronaService;
+import com.capacitacion.domain.model.SolicitudTransaccionEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recibe los mensajes que un listener no pudo procesar después de agotar los reintentos del manejador de errores,
+ * antes de que se salteen. Las solicitudes de transacción marcan su ticket como fallido, para que no quede
+ * pendiente o en proceso para siempre; el resto de los mensajes sólo se registra.
+ */
+@Component
+@Slf4j
+public class RecuperadorMensajesFallidos implements ConsumerRecordRecoverer {
+
+    private final TransaccionAsincronaService transaccionAsincronaService;
+
+    /**
+     * Constructor de RecuperadorMensajesFallidos.
+     *
+     * @param transaccionAsincronaService Servicio de transacciones asíncronas donde se marcan los tickets fallidos.
+     */
+    public RecuperadorMensajesFallidos(TransaccionAsincronaService transaccionAsincronaService) {
+        this.transaccionAsincronaService = transaccionAsincronaService;
+    }
+
+    @Override
+    public void accept(ConsumerRecord<?, ?> mensaje, Exception error) {
+        log.error("Se descarta el mensaje {}-{}@{} después de agotar los reintentos",
+                mensaje.topic(), mensaje.partition(), mensaje.offset(), error);
+        if (mensaje.value() instanceof SolicitudTransaccionEvent solicitud && solicitud.getTicketId() != null) {
+            transaccionAsincronaService.marcarFallida(solicitud.getTicketId(), "No se pudo procesar la solicitud: " + error.getMessage());
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.capacitacion.infraestructura.listener;
+
+import com.capacitacion.domain.application.TransaccionAsincronaService;
+import com.capacitacion.domain.model.SolicitudTransaccionEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+@Service
+public class TransaccionComandoListener {
+    private static final String GRUPO = "transaccion-comando-group";
+
+    @Autowired
+    private TransaccionAsincronaService transaccionAsincronaService;
+    @Autowired
+    private DeduplicadorEventos deduplicadorEventos;
+
+    /**
+     * Maneja las solicitudes de transacción recibidas desde Kafka. Cada partición se consume de forma serial,
+     * por lo que las solicitudes de una misma cuenta de origen se aplican en orden, mientras que las
+     * particiones se reparten entre los hilos configurados. Las solicitudes reentregadas por el outbox que ya se
+     * procesaron se descartan por su ID, sin consultar el ticket.
+     *
+     * @param mensaje Mensaje con la solicitud de transacción recibida.
+     */
+    @KafkaListener(topics = "transaccion-comando-topic", groupId = GRUPO,
+            concurrency = "${capacitacion.kafka.transaccion-comando.concurrencia:3}")
+    public void escucharSolicitudTransaccion(ConsumerRecord<String, SolicitudTransaccionEvent> mensaje) {
+        String eventoId = DeduplicadorEventos.eventoId(mensaje);
+        if (deduplicadorEventos.procesado(GRUPO, eventoId)) {
+            return;
+        }
+        transaccionAsincronaService.procesarSolicitud(mensaje.value());
+        deduplicadorEventos.registrar(GRUPO, eventoId);
+    }
+}
@@ -2,30 +2,52 @@ package com.capacitacion.infraestructura.listener;
 
 import com.capacitacion.domain.application.SendEmailService;
 import com.capacitacion.domain.model.TransaccionEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
 
+@Service
+@Slf4j
 public class TransaccionEventListener {
+    private static final String GRUPO = "your-group-id";
+
     private final SendEmailService sendEmailService;
+    private final DeduplicadorEventos deduplicadorEventos;
 
     /**
      * Constructor del listener de eventos de transacciones.
      *
-     * @param sendEmailService Servicio para enviar correos electrónicos (simulado).
+     * @param sendEmailService    Servicio para enviar correos electrónicos (simulado).
+     * @param deduplicadorEventos Registro de los eventos ya procesados, para descartar las reentregas del outbox.
      */
-    public TransaccionEventListener(SendEmailService sendEmailService) {
+    public TransaccionEventListener(SendEmailService sendEmailService, DeduplicadorEventos deduplicadorEventos) {
         this.sendEmailService = sendEmailService;
+        this.deduplicadorEventos = deduplicadorEventos;
     }
 
     /**
-     * Maneja el evento de transacción recibido desde Kafka.
+     * Maneja el evento de transacción recibido desde Kafka, sin consultar la transacción en la base de datos.
+     * Los eventos reentregados por el outbox que ya se procesaron se descartan por su ID.
      *
-     * @param transaccionEvent Evento de transacción recibido.
+     * @param mensaje Mensaje con el evento de transacción recibido.
      */
-    @KafkaListener(topics = "transaccion-topic", groupId = "your-group-id")
-    public void handleTransaccionEvent(TransaccionEvent transaccionEvent) {
-        System.out.println("Evento de Transacción recibido. ID de Transacción: " + transaccionEvent.getTransaccionId());
+    @KafkaListener(topics = "transaccion-topic", groupId = GRUPO)
+    public void handleTransaccionEvent(ConsumerRecord<String, TransaccionEvent> mensaje) {
+        String eventoId = DeduplicadorEventos.eventoId(mensaje);
+        if (deduplicadorEventos.procesado(GRUPO, eventoId)) {
+            return;
+        }
+        TransaccionEvent transaccionEvent = mensaje.value();
+        if (transaccionEvent.getVersion() >= 2) {
+            log.info("Evento de Transacción recibido. ID de Transacción: {}, de {} a {} por {}", transaccionEvent.getTransaccionId(),
+                    transaccionEvent.getDniOrigen(), transaccionEvent.getDniDestino(), transaccionEvent.getMonto());
+        } else {
+            log.info("Evento de Transacción recibido. ID de Transacción: {}", transaccionEvent.getTransaccionId());
+        }
 
         // Simula el envío de un correo electrónico al servicio de envío de correos.
         sendEmailService.sendEmail();
+        deduplicadorEventos.registrar(GRUPO, eventoId);
     }
 }
@@ -0,0 +1,123 @@
+package com.capacitacion.infraestructura.metricas;
+
+import com.capacitacion.infraestructura.jfr.EtapaEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Mide la duración de cada etapa de las operaciones de los servicios (validación, búsquedas, actualización de saldos,
+ * guardado, publicación) con el timer {@value #TIMER}, etiquetado por operación y etapa. Permite distinguir si una
+ * operación lenta se debe a la validación, a la base de datos o a la publicación de eventos.
+ * Cada etapa también genera un {@link EtapaEvent} de JDK Flight Recorder con los DNIs y el monto, para analizar
+ * casos puntuales que el histograma no muestra.
+ */
+@Component
+public class MetricasEtapas {
+
+    public static final String TIMER = "servicio.etapas";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor de MetricasEtapas.
+     *
+     * @param meterRegistry Registro de métricas donde se publican los timers.
+     */
+    public MetricasEtapas(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Inicia la medición de una operación sobre una persona.
+     *
+     * @param operacion Operación del servicio, por ejemplo {@code persona.crear}.
+     * @param dni       DNI de la persona.
+     * @return Operación cuyas etapas se miden.
+     */
+    public Operacion operacion(String operacion, String dni) {
+        return new Operacion(operacion, dni, null, 0);
+    }
+
+    /**
+     * Inicia la medición de una operación sobre una transacción.
+     *
+     * @param operacion  Operación del servicio, por ejemplo {@code transaccion.realizar}.
+     * @param dniOrigen  DNI de origen.
+     * @param dniDestino DNI de destino.
+     * @param monto      Monto de la transacción.
+     * @return Operación cuyas etapas se miden.
+     */
+    public Operacion operacion(String operacion, String dniOrigen, String dniDestino, int monto) {
+        return new Operacion(operacion, dniOrigen, dniDestino, monto);
+    }
+
+    private Timer timer(String operacion, String etapa) {
+        return timers.computeIfAbsent(operacion + '/' + etapa, clave -> Timer.builder(TIMER)
+                .description("Duración de cada etapa de las operaciones de los servicios")
+                .tag("operacion", operacion)
+                .tag("etapa", etapa)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    /**
+     * Operación en curso, con los datos que se registran en los eventos de cada etapa.
+     */
+    public final class Operacion {
+
+        private final String nombre;
+        private final String dni;
+        private final String dniDestino;
+        private final int monto;
+
+        private Operacion(String nombre, String dni, String dniDestino, int monto) {
+            this.nombre = nombre;
+            this.dni = dni;
+            this.dniDestino = dniDestino;
+            this.monto = monto;
+        }
+
+        /**
+         * Ejecuta una etapa que devuelve un resultado, midiendo su duración.
+         *
+         * @param etapa       Etapa de la operación.
+         * @param etapaAccion Código de la etapa.
+         * @param <T>         Tipo del resultado.
+         * @return Resultado de la etapa.
+         */
+        public <T> T medir(String etapa, Supplier<T> etapaAccion) {
+            EtapaEvent evento = new EtapaEvent();
+            evento.begin();
+            long inicio = System.nanoTime();
+            boolean exitosa = false;
+            try {
+                T resultado = etapaAccion.get();
+                exitosa = true;
+                return resultado;
+            } finally {
+                timer(nombre, etapa).record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+                evento.terminar(nombre, etapa, dni, dniDestino, monto, exitosa);
+            }
+        }
+
+        /**
+         * Ejecuta una etapa sin resultado, midiendo su duración.
+         *
+         * @param etapa       Etapa de la operación.
+         * @param etapaAccion Código de la etapa.
+         */
+        public void medirAccion(String etapa, Runnable etapaAccion) {
+            medir(etapa, () -> {
+                etapaAccion.run();
+                return null;
+            });
+        }
+    }
+}
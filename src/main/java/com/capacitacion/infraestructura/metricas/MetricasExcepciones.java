@@ -0,0 +1,60 @@
+package com.capacitacion.infraestructura.metricas;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cuenta las excepciones de dominio ({@code MontoInsuficienteException}, {@code DniAsignadoException}, etc.) que
+ * lanzan los servicios, en el contador {@value #CONTADOR} etiquetado por tipo de excepción. Como un servicio puede
+ * llamar a otro, cada excepción se cuenta una sola vez, al salir de la llamada más externa.
+ */
+@Aspect
+@Component
+public class MetricasExcepciones {
+
+    public static final String CONTADOR = "dominio.excepciones";
+    private static final String PAQUETE_EXCEPCIONES = "com.capacitacion.domain.model.exception";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Class<?>, Counter> contadores = new ConcurrentHashMap<>();
+    private final ThreadLocal<int[]> profundidad = ThreadLocal.withInitial(() -> new int[1]);
+
+    /**
+     * Constructor de MetricasExcepciones.
+     *
+     * @param meterRegistry Registro de métricas donde se publican los contadores.
+     */
+    public MetricasExcepciones(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("within(com.capacitacion.domain.application.impl..*)")
+    public Object contar(ProceedingJoinPoint joinPoint) throws Throwable {
+        int[] llamadas = profundidad.get();
+        llamadas[0]++;
+        try {
+            return joinPoint.proceed();
+        } catch (RuntimeException e) {
+            if (llamadas[0] == 1 && e.getClass().getPackageName().equals(PAQUETE_EXCEPCIONES)) {
+                contador(e.getClass()).increment();
+            }
+            throw e;
+        } finally {
+            llamadas[0]--;
+        }
+    }
+
+    private Counter contador(Class<?> tipo) {
+        return contadores.computeIfAbsent(tipo, clave -> Counter.builder(CONTADOR)
+                .description("Excepciones de dominio lanzadas por los servicios")
+                .tag("tipo", tipo.getSimpleName())
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,65 @@
+package com.capacitacion.infraestructura.metricas;
+
+import com.capacitacion.domain.repository.PersonaRepository;
+import com.capacitacion.domain.repository.TransaccionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registra la latencia de cada método de {@link PersonaRepository} y {@link TransaccionRepository} en el timer
+ * {@value #TIMER}, con histograma, etiquetado por repositorio, método y resultado.
+ */
+@Aspect
+@Component
+public class MetricasRepositorios {
+
+    public static final String TIMER = "repositorio.llamadas";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor de MetricasRepositorios.
+     *
+     * @param meterRegistry Registro de métricas donde se publican los timers.
+     */
+    public MetricasRepositorios(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("this(com.capacitacion.domain.repository.PersonaRepository) "
+            + "|| this(com.capacitacion.domain.repository.TransaccionRepository)")
+    public Object medir(ProceedingJoinPoint joinPoint) throws Throwable {
+        String repositorio = joinPoint.getThis() instanceof PersonaRepository
+                ? PersonaRepository.class.getSimpleName()
+                : TransaccionRepository.class.getSimpleName();
+        String metodo = joinPoint.getSignature().getName();
+        long inicio = System.nanoTime();
+        String resultado = "error";
+        try {
+            Object valor = joinPoint.proceed();
+            resultado = "ok";
+            return valor;
+        } finally {
+            timer(repositorio, metodo, resultado).record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(String repositorio, String metodo, String resultado) {
+        return timers.computeIfAbsent(repositorio + '.' + metodo + '/' + resultado, clave -> Timer.builder(TIMER)
+                .description("Latencia de los métodos de los repositorios")
+                .tag("repositorio", repositorio)
+                .tag("metodo", metodo)
+                .tag("resultado", resultado)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,225 @@
+package com.capacitacion.infraestructura.outbox;
+
+import com.capacitacion.domain.model.EventoOutbox;
+import com.capacitacion.domain.model.EventoOutboxDescartado;
+import com.capacitacion.domain.repository.EventoOutboxDescartadoRepository;
+import com.capacitacion.domain.repository.EventoOutboxRepository;
+import com.capacitacion.infraestructura.jfr.EnvioKafkaEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publica en Kafka los eventos registrados en el outbox, en lotes y en el orden en que se registraron.
+ * Los eventos de un lote se envían sin esperar uno por uno, para aprovechar el batching del productor, y se
+ * eliminan del outbox recién cuando Kafka confirmó todos. Si el proceso se interrumpe antes de eliminarlos se
+ * vuelven a publicar, por lo que cada mensaje lleva el ID del evento en el header {@value #HEADER_EVENTO_ID}
+ * para que los consumidores descarten duplicados. Aunque esté habilitado en varias instancias, sólo publica la que
+ * tiene el arrendamiento del outbox, que se renueva en cada ejecución y pasa a otra instancia si deja de renovarse
+ * durante {@code capacitacion.outbox.relay.arrendamiento}.
+ * Un evento que Kafka rechaza mientras acepta otros del mismo lote suma un intento fallido; al llegar a
+ * {@code capacitacion.outbox.relay.intentos-maximos} se mueve a la colección {@code outbox_descartados} para revisarlo,
+ * y el relay continúa con los eventos siguientes. Si Kafka rechaza el lote completo no se cuentan intentos, para no
+ * descartar eventos mientras Kafka no está disponible.
+ * La latencia de cada envío hasta la confirmación de Kafka se registra en el timer {@value #TIMER_ENVIOS} y los envíos
+ * fallidos en el contador {@value #CONTADOR_FALLOS}, ambos etiquetados por topic, y cada envío genera un
+ * {@link EnvioKafkaEvent} de JDK Flight Recorder.
+ */
+@Component
+@ConditionalOnProperty(name = "capacitacion.outbox.relay.habilitado", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class RelayOutbox {
+
+    public static final String HEADER_EVENTO_ID = "evento-id";
+    public static final String TIMER_ENVIOS = "kafka.envios";
+    public static final String CONTADOR_FALLOS = "kafka.envios.fallidos";
+
+    private final EventoOutboxRepository eventoOutboxRepository;
+    private final EventoOutboxDescartadoRepository descartadoRepository;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final int tamanioLote;
+    private final long timeoutEnvioMs;
+    private final Duration arrendamiento;
+    private final int intentosMaximos;
+    private final String propietario = UUID.randomUUID().toString();
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> fallos = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor de RelayOutbox.
+     *
+     * @param eventoOutboxRepository Repositorio de los eventos pendientes de publicación.
+     * @param descartadoRepository   Repositorio de los eventos que no pudieron publicarse.
+     * @param kafkaTemplate          Plantilla de Kafka para publicar los eventos.
+     * @param tamanioLote            Cantidad máxima de eventos por lote.
+     * @param timeoutEnvioMs         Tiempo máximo de espera de la confirmación de un lote.
+     * @param arrendamiento          Duración del arrendamiento del outbox; debe superar el tiempo de publicar un lote.
+     * @param intentosMaximos        Cantidad de intentos fallidos de un evento antes de descartarlo.
+     * @param meterRegistry          Registro de métricas de los envíos.
+     */
+    public RelayOutbox(EventoOutboxRepository eventoOutboxRepository, EventoOutboxDescartadoRepository descartadoRepository,
+                       KafkaTemplate<String, Object> kafkaTemplate,
+                       @Value("${capacitacion.outbox.relay.tamanio-lote:1000}") int tamanioLote,
+                       @Value("${capacitacion.outbox.relay.timeout-envio-ms:10000}") long timeoutEnvioMs,
+                       @Value("${capacitacion.outbox.relay.arrendamiento:30s}") Duration arrendamiento,
+                       @Value("${capacitacion.outbox.relay.intentos-maximos:10}") int intentosMaximos,
+                       MeterRegistry meterRegistry) {
+        this.eventoOutboxRepository = eventoOutboxRepository;
+        this.descartadoRepository = descartadoRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.tamanioLote = tamanioLote;
+        this.timeoutEnvioMs = timeoutEnvioMs;
+        this.arrendamiento = arrendamiento;
+        this.intentosMaximos = intentosMaximos;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Publica los eventos pendientes hasta vaciar el outbox o hasta que falle un envío, si esta instancia tiene
+     * el arrendamiento del outbox. El arrendamiento se renueva antes de cada lote.
+     */
+    @Scheduled(fixedDelayString = "${capacitacion.outbox.relay.intervalo-ms:100}")
+    public void publicarPendientes() {
+        List<EventoOutbox> lote;
+        do {
+            if (!eventoOutboxRepository.renovarArrendamiento(propietario, arrendamiento)) {
+                return;
+            }
+            lote = eventoOutboxRepository.findAllByOrderByIdAsc(Limit.of(tamanioLote));
+            if (lote.isEmpty() || !publicar(lote)) {
+                return;
+            }
+            eventoOutboxRepository.deleteAllById(lote.stream().map(EventoOutbox::getId).toList());
+        } while (lote.size() == tamanioLote);
+    }
+
+    private boolean publicar(List<EventoOutbox> lote) {
+        List<CompletableFuture<?>> envios = new ArrayList<>(lote.size());
+        for (EventoOutbox evento : lote) {
+            ProducerRecord<String, Object> mensaje = new ProducerRecord<>(evento.getTopic(), evento.getClave(), evento.getEvento());
+            mensaje.headers().add(HEADER_EVENTO_ID, evento.getId().getBytes(StandardCharsets.UTF_8));
+            EnvioKafkaEvent eventoJfr = new EnvioKafkaEvent();
+            eventoJfr.begin();
+            Timer.Sample muestra = Timer.start(meterRegistry);
+            envios.add(enviar(mensaje).whenComplete((resultado, error) -> {
+                registrarEnvio(evento.getTopic(), muestra, error == null);
+                eventoJfr.terminar(evento.getTopic(), evento.getClave(), evento.getId(), error == null);
+            }));
+        }
+        try {
+            CompletableFuture.allOf(envios.toArray(new CompletableFuture<?>[0])).get(timeoutEnvioMs, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("No se pudo publicar un lote de {} eventos del outbox, se reintentará", lote.size(), e);
+            registrarRechazados(lote, envios);
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Envía un mensaje, convirtiendo en un envío fallido el error que el productor lanza sin llegar a enviarlo, como
+     * el de un evento que no puede serializarse.
+     */
+    private CompletableFuture<?> enviar(ProducerRecord<String, Object> mensaje) {
+        try {
+            return kafkaTemplate.send(mensaje);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Suma un intento fallido a los eventos del lote que Kafka rechazó, si aceptó alguno de los demás, y descarta los
+     * que llegaron al máximo de intentos. Los envíos que no terminaron dentro del tiempo de espera no se cuentan.
+     */
+    private void registrarRechazados(List<EventoOutbox> lote, List<CompletableFuture<?>> envios) {
+        List<EventoOutbox> rechazados = new ArrayList<>();
+        List<Throwable> errores = new ArrayList<>();
+        boolean algunoAceptado = false;
+        for (int i = 0; i < lote.size(); i++) {
+            CompletableFuture<?> envio = envios.get(i);
+            if (envio.isCompletedExceptionally()) {
+                rechazados.add(lote.get(i));
+                errores.add(error(envio));
+            } else if (envio.isDone()) {
+                algunoAceptado = true;
+            }
+        }
+        if (!algunoAceptado || rechazados.isEmpty()) {
+            return;
+        }
+        List<Integer> intentos = rechazados.stream().map(evento -> evento.getIntentos() + 1).toList();
+        try {
+            eventoOutboxRepository.sumarIntento(rechazados.stream().map(EventoOutbox::getId).toList());
+            for (int i = 0; i < rechazados.size(); i++) {
+                if (intentos.get(i) >= intentosMaximos) {
+                    descartar(rechazados.get(i), intentos.get(i), errores.get(i));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron registrar los intentos fallidos de {} eventos del outbox", rechazados.size(), e);
+        }
+    }
+
+    private void descartar(EventoOutbox evento, int intentos, Throwable error) {
+        descartadoRepository.save(new EventoOutboxDescartado(evento, intentos, String.valueOf(error.getMessage())));
+        eventoOutboxRepository.deleteById(evento.getId());
+        log.error("Evento {} del outbox para el topic {} movido a outbox_descartados después de {} intentos",
+                evento.getId(), evento.getTopic(), intentos, error);
+    }
+
+    private static Throwable error(CompletableFuture<?> envio) {
+        try {
+            envio.join();
+            return null;
+        } catch (CompletionException e) {
+            return e.getCause() == null ? e : e.getCause();
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    private void registrarEnvio(String topic, Timer.Sample muestra, boolean exitoso) {
+        muestra.stop(timer(topic, exitoso ? "ok" : "error"));
+        if (!exitoso) {
+            fallos.computeIfAbsent(topic, clave -> Counter.builder(CONTADOR_FALLOS)
+                    .description("Envíos a Kafka que fallaron")
+                    .tag("topic", topic)
+                    .register(meterRegistry)).increment();
+        }
+    }
+
+    private Timer timer(String topic, String resultado) {
+        return timers.computeIfAbsent(topic + '/' + resultado, clave -> Timer.builder(TIMER_ENVIOS)
+                .description("Latencia de los envíos a Kafka hasta su confirmación")
+                .tag("topic", topic)
+                .tag("resultado", resultado)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+}
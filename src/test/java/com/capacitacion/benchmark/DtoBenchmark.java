@@ -0,0 +1,54 @@
+package com.capacitacion.benchmark;
+
+import com.capacitacion.domain.model.Persona;
+import com.capacitacion.domain.model.Transaccion;
+import com.capacitacion.infraestructura.api.dto.PersonaDTO;
+import com.capacitacion.infraestructura.api.dto.TransaccionDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide las conversiones entre los DTOs de la API y el modelo de dominio.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoBenchmark {
+
+    private Persona persona;
+    private PersonaDTO personaDTO;
+    private Transaccion transaccion;
+    private TransaccionDTO transaccionDTO;
+
+    @Setup
+    public void preparar() {
+        persona = new Persona("65a1b2c3d4e5f6a7b8c9d0e1", "Juan Perez", 30, "12345678");
+        personaDTO = PersonaDTO.desdeModelo(persona);
+        transaccion = new Transaccion("65a1b2c3d4e5f6a7b8c9d0e2", "12345678", "87654321", 10);
+        transaccionDTO = TransaccionDTO.desdeModelo(transaccion);
+    }
+
+    @Benchmark
+    public PersonaDTO personaDesdeModelo() {
+        return PersonaDTO.desdeModelo(persona);
+    }
+
+    @Benchmark
+    public Persona personaAModelo() {
+        return personaDTO.aModelo();
+    }
+
+    @Benchmark
+    public TransaccionDTO transaccionDesdeModelo() {
+        return TransaccionDTO.desdeModelo(transaccion);
+    }
+
+    @Benchmark
+    public Transaccion transaccionAModelo() {
+        return transaccionDTO.aModelo();
+    }
+}
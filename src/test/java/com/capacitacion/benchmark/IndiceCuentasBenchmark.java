@@ -0,0 +1,121 @@
+package com.capacitacion.benchmark;
+
+import com.capacitacion.domain.ledger.IndiceCuentas;
+import com.capacitacion.domain.ledger.LedgerCreditos;
+import com.capacitacion.domain.model.Persona;
+import com.capacitacion.domain.model.Transaccion;
+import com.capacitacion.soporte.EscenarioServicios;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el {@link IndiceCuentas} solo, el {@link LedgerCreditos} que lo reparte en shards y un
+ * {@code HashMap<String, Persona>} para consultar saldos y transferir entre cuentas al azar, partiendo en todos los
+ * casos del DNI como String. El caso del ledger incluye el lock de cada shard y el encolado de la transacción, que se
+ * drena en la misma operación. Al preparar cada caso se imprime la memoria que retiene la estructura, medida como la
+ * diferencia del heap usado antes y después de cargarla. Para 10 millones de cuentas el {@code HashMap} necesita un
+ * heap grande, por lo que el fork se lanza con {@code -Xmx8g}:
+ * {@code mvn -Pbenchmark -DskipTests test -Djmh.incluir=IndiceCuentasBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class IndiceCuentasBenchmark {
+
+    private static final int CREDITOS_INICIALES = 1_000_000;
+
+    @Param({"1000000", "10000000"})
+    public int cuentas;
+
+    @Param({"indice", "ledger", "hashmap"})
+    public String estructura;
+
+    private IndiceCuentas indice;
+    private LedgerCreditos ledger;
+    private final List<Transaccion> drenadas = new ArrayList<>(1);
+    private Map<String, Persona> personas;
+    private String[] dnis;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        dnis = new String[cuentas];
+        for (int i = 0; i < cuentas; i++) {
+            dnis[i] = EscenarioServicios.dni(i);
+        }
+        long antes = heapUsado();
+        if (estructura.equals("indice")) {
+            indice = new IndiceCuentas(cuentas);
+            for (String dni : dnis) {
+                indice.agregarSiAusente(IndiceCuentas.codificar(dni), CREDITOS_INICIALES);
+            }
+        } else if (estructura.equals("ledger")) {
+            ledger = new LedgerCreditos(64, Duration.ofHours(1));
+            for (String dni : dnis) {
+                ledger.cargar(dni, CREDITOS_INICIALES);
+            }
+        } else {
+            personas = new HashMap<>(cuentas * 4 / 3 + 1);
+            for (String dni : dnis) {
+                Persona persona = new Persona(null, "Persona " + dni, 30, dni);
+                persona.setCreditos(CREDITOS_INICIALES);
+                personas.put(dni, persona);
+            }
+        }
+        System.out.printf("%n%s con %d cuentas: %d MB retenidos%n", estructura, cuentas, (heapUsado() - antes) >> 20);
+    }
+
+    @Benchmark
+    public int consultarSaldo() {
+        String dni = dnis[ThreadLocalRandom.current().nextInt(cuentas)];
+        if (indice != null) {
+            return indice.saldoEn(indice.posicion(IndiceCuentas.codificar(dni)));
+        }
+        if (ledger != null) {
+            return ledger.saldo(dni);
+        }
+        return personas.get(dni).getCreditos();
+    }
+
+    @Benchmark
+    public int transferir() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String dniOrigen = dnis[random.nextInt(cuentas)];
+        String dniDestino = dnis[random.nextInt(cuentas)];
+        if (indice != null) {
+            int origen = indice.posicion(IndiceCuentas.codificar(dniOrigen));
+            int destino = indice.posicion(IndiceCuentas.codificar(dniDestino));
+            indice.sumarEn(origen, -1);
+            indice.sumarEn(destino, 1);
+            return indice.saldoEn(origen);
+        }
+        if (ledger != null) {
+            long secuencia = ledger.transferir(new Transaccion(null, dniOrigen, dniDestino, 1));
+            ledger.drenar(drenadas, 1);
+            drenadas.clear();
+            return (int) secuencia;
+        }
+        Persona origen = personas.get(dniOrigen);
+        Persona destino = personas.get(dniDestino);
+        origen.setCreditos(origen.getCreditos() - 1);
+        destino.setCreditos(destino.getCreditos() + 1);
+        return origen.getCreditos();
+    }
+
+    private static long heapUsado() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,79 @@
+package com.capacitacion.benchmark;
+
+import com.capacitacion.domain.application.impl.PersonaServiceImpl;
+import com.capacitacion.domain.model.Persona;
+import com.capacitacion.soporte.EscenarioServicios;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Mide el alta y la consulta por DNI de {@link PersonaServiceImpl} sobre repositorios en memoria, con uno y
+ * con varios hilos. Las consultas recorren un universo de personas mayor o menor que el cache, según el parámetro.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersonaServiceBenchmark {
+
+    private static final int PRIMER_DNI_NUEVO = 50_000_000;
+
+    @Param({"10000", "200000"})
+    public int personas;
+
+    private EscenarioServicios escenario;
+    private PersonaServiceImpl personaService;
+    private final AtomicInteger siguienteDni = new AtomicInteger(PRIMER_DNI_NUEVO);
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        escenario = new EscenarioServicios(100_000);
+        personaService = escenario.getPersonaService();
+    }
+
+    /**
+     * Vuelve a cargar las personas en cada iteración, para que las altas de la anterior no acumulen memoria.
+     */
+    @Setup(Level.Iteration)
+    public void recargar() {
+        escenario.vaciar();
+        escenario.cargarPersonas(personas, 100);
+        siguienteDni.set(PRIMER_DNI_NUEVO);
+    }
+
+    @Benchmark
+    public Persona crear() {
+        return personaService.crear(nuevaPersona());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Persona crearConcurrente() {
+        return personaService.crear(nuevaPersona());
+    }
+
+    @Benchmark
+    public Persona obtenerPorDni() {
+        return personaService.obtenerPorDni(dniExistente());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Persona obtenerPorDniConcurrente() {
+        return personaService.obtenerPorDni(dniExistente());
+    }
+
+    private Persona nuevaPersona() {
+        int numero = siguienteDni.getAndIncrement();
+        return new Persona(null, "Nueva " + numero, 30, EscenarioServicios.dni(numero));
+    }
+
+    private String dniExistente() {
+        return EscenarioServicios.dni(ThreadLocalRandom.current().nextInt(personas));
+    }
+}
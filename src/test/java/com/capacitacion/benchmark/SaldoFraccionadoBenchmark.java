@@ -0,0 +1,84 @@
+package com.capacitacion.benchmark;
+
+import com.capacitacion.domain.application.impl.PersonaServiceImpl;
+import com.capacitacion.domain.application.impl.TransaccionServiceImpl;
+import com.capacitacion.domain.model.Transaccion;
+import com.capacitacion.soporte.EscenarioServicios;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide las transferencias concurrentes hacia una única cuenta, como la de un comercio, con el saldo de la cuenta
+ * sin fraccionar ({@code fracciones = 1}) y fraccionado en varios sub-saldos. Los repositorios en memoria simulan el
+ * costo de cada escritura con el documento tomado ({@code costoEscrituraUs}), de modo que las escrituras sobre el
+ * mismo documento se serializan como en MongoDB y el throughput muestra cuánto escala con las fracciones.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+public class SaldoFraccionadoBenchmark {
+
+    private static final int PAGADORES = 10_000;
+    private static final int CREDITOS_INICIALES = 100_000_000;
+
+    @Param({"1", "4", "16"})
+    public int fracciones;
+
+    @Param({"20"})
+    public long costoEscrituraUs;
+
+    private EscenarioServicios escenario;
+    private PersonaServiceImpl personaService;
+    private TransaccionServiceImpl transaccionService;
+    private String dniComercio;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        escenario = new EscenarioServicios(200_000, TimeUnit.MICROSECONDS.toNanos(costoEscrituraUs));
+        personaService = escenario.getPersonaService();
+        transaccionService = escenario.getTransaccionService();
+        dniComercio = EscenarioServicios.dni(PAGADORES);
+    }
+
+    /**
+     * Vuelve a cargar las cuentas en cada iteración, para que todas arranquen con el mismo saldo.
+     */
+    @Setup(Level.Iteration)
+    public void recargar() {
+        escenario.vaciar();
+        escenario.cargarPersonas(PAGADORES + 1, CREDITOS_INICIALES);
+        personaService.fraccionarCreditos(dniComercio, fracciones);
+    }
+
+    /**
+     * Sólo el crédito sobre la cuenta del comercio.
+     */
+    @Benchmark
+    public void acreditarComercio() {
+        personaService.acreditarCreditos(dniComercio, 1);
+    }
+
+    /**
+     * Transferencia completa desde una cuenta al azar hacia la del comercio.
+     */
+    @Benchmark
+    public Transaccion pagarAlComercio() {
+        String dniPagador = EscenarioServicios.dni(ThreadLocalRandom.current().nextInt(PAGADORES));
+        return transaccionService.realizarTransaccion(new Transaccion(null, dniPagador, dniComercio, 1));
+    }
+
+    /**
+     * Transferencia desde la cuenta del comercio hacia una cuenta al azar, que debita de las fracciones.
+     */
+    @Benchmark
+    public Transaccion pagarDesdeElComercio() {
+        String dniDestino = EscenarioServicios.dni(ThreadLocalRandom.current().nextInt(PAGADORES));
+        return transaccionService.realizarTransaccion(new Transaccion(null, dniComercio, dniDestino, 1));
+    }
+}
@@ -0,0 +1,118 @@
+package com.capacitacion.benchmark;
+
+import com.capacitacion.domain.application.TransaccionService;
+import com.capacitacion.domain.application.impl.LedgerTransaccionServiceImpl;
+import com.capacitacion.domain.ledger.LedgerCreditos;
+import com.capacitacion.domain.model.ResultadoTransaccion;
+import com.capacitacion.domain.model.Transaccion;
+import com.capacitacion.soporte.AlmacenLedgerEnMemoria;
+import com.capacitacion.soporte.EscenarioServicios;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide las transferencias de créditos con el servicio sobre el repositorio ({@code repositorio}) y con el ledger
+ * en memoria ({@code ledger}), con uno y con varios hilos. Con pocas cuentas casi todas las transferencias compiten
+ * por las mismas; con muchas, la contención es baja.
+ * Las cuentas arrancan con créditos suficientes para que ninguna transferencia se rechace por saldo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransaccionServiceBenchmark {
+
+    private static final int CREDITOS_INICIALES = 1_000_000_000;
+    private static final int TAMANIO_LOTE = 100;
+
+    @Param({"16", "100000"})
+    public int cuentas;
+
+    @Param({"repositorio", "ledger"})
+    public String motor;
+
+    private EscenarioServicios escenario;
+    private TransaccionService transaccionService;
+    private Thread drenador;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        escenario = new EscenarioServicios(200_000);
+        escenario.cargarPersonas(cuentas, CREDITOS_INICIALES);
+        if ("ledger".equals(motor)) {
+            LedgerCreditos ledger = new LedgerCreditos(64, Duration.ofHours(1));
+            LedgerTransaccionServiceImpl ledgerService = new LedgerTransaccionServiceImpl(
+                    escenario.getTransaccionService(), ledger, new AlmacenLedgerEnMemoria(escenario.getPersonaRepository()));
+            ledgerService.cargarSaldos();
+            drenador = iniciarDrenador(ledger);
+            transaccionService = ledgerService;
+        } else {
+            transaccionService = escenario.getTransaccionService();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void terminar() throws InterruptedException {
+        if (drenador != null) {
+            drenador.interrupt();
+            drenador.join();
+        }
+    }
+
+    @Benchmark
+    public Transaccion realizarTransaccion() {
+        return transaccionService.realizarTransaccion(transaccionAleatoria());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Transaccion realizarTransaccionConcurrente() {
+        return transaccionService.realizarTransaccion(transaccionAleatoria());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TAMANIO_LOTE)
+    public List<ResultadoTransaccion> realizarTransacciones() {
+        List<Transaccion> lote = new ArrayList<>(TAMANIO_LOTE);
+        for (int i = 0; i < TAMANIO_LOTE; i++) {
+            lote.add(transaccionAleatoria());
+        }
+        return transaccionService.realizarTransacciones(lote);
+    }
+
+    private Transaccion transaccionAleatoria() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int origen = random.nextInt(cuentas);
+        int destino = random.nextInt(cuentas - 1);
+        if (destino >= origen) {
+            destino++;
+        }
+        return new Transaccion(null, EscenarioServicios.dni(origen), EscenarioServicios.dni(destino), 1);
+    }
+
+    /**
+     * Descarta continuamente las transacciones pendientes del ledger, en reemplazo del persistidor,
+     * para que no se acumulen en memoria durante la medición.
+     */
+    private static Thread iniciarDrenador(LedgerCreditos ledger) {
+        Thread hilo = new Thread(() -> {
+            List<Transaccion> lote = new ArrayList<>();
+            while (!Thread.currentThread().isInterrupted()) {
+                lote.clear();
+                if (ledger.drenar(lote, 10_000) == 0) {
+                    Thread.onSpinWait();
+                }
+            }
+        }, "drenador-ledger");
+        hilo.setDaemon(true);
+        hilo.start();
+        return hilo;
+    }
+}
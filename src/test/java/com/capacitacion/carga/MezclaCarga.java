@@ -0,0 +1,46 @@
+package com.capacitacion.carga;
+
+/**
+ * Mezclas de solicitudes que puede generar la prueba de carga, con el peso relativo de cada operación.
+ */
+public enum MezclaCarga {
+
+    /** Ráfaga de altas de personas. */
+    ALTAS(100, 0, 0),
+    /** Transferencias concentradas en unas pocas cuentas. */
+    TRANSFERENCIAS_CUENTAS_CALIENTES(0, 100, 0),
+    /** Consultas de personas por ID, con algunas altas y transferencias. */
+    LECTURAS(5, 5, 90),
+    /** Combinación de las tres operaciones. */
+    MIXTA(20, 50, 30);
+
+    private final int pesoAltas;
+    private final int pesoTransferencias;
+    private final int pesoLecturas;
+
+    MezclaCarga(int pesoAltas, int pesoTransferencias, int pesoLecturas) {
+        this.pesoAltas = pesoAltas;
+        this.pesoTransferencias = pesoTransferencias;
+        this.pesoLecturas = pesoLecturas;
+    }
+
+    /**
+     * Elige una operación según los pesos de la mezcla.
+     *
+     * @param sorteo Número aleatorio entre 0 (inclusive) y 100 (exclusive).
+     * @return Operación elegida.
+     */
+    public Operacion elegir(int sorteo) {
+        if (sorteo < pesoAltas) {
+            return Operacion.ALTA;
+        }
+        if (sorteo < pesoAltas + pesoTransferencias) {
+            return Operacion.TRANSFERENCIA;
+        }
+        return Operacion.LECTURA;
+    }
+
+    public enum Operacion {
+        ALTA, TRANSFERENCIA, LECTURA
+    }
+}
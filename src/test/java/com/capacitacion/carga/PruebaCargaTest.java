@@ -0,0 +1,183 @@
+package com.capacitacion.carga;
+
+import com.capacitacion.domain.model.Persona;
+import com.capacitacion.domain.repository.PersonaRepository;
+import com.capacitacion.infraestructura.cache.FiltroDnis;
+import com.capacitacion.soporte.RepositoriosEnMemoriaConfiguracion;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Prueba de carga de punta a punta: levanta la aplicación completa con Kafka embebido y repositorios en memoria
+ * en lugar de MongoDB, y genera solicitudes HTTP contra {@code PersonaController} y {@code TransaccionController}
+ * según cada {@link MezclaCarga}. Informa throughput, percentiles p50/p99/p999 y tasa de error, y falla si se superan
+ * los umbrales configurados. No corre con los tests comunes; se ejecuta con {@code mvn -Pcarga test}.
+ *
+ * <p>Propiedades de sistema: {@code carga.mezclas} (por defecto todas), {@code carga.duracion-segundos},
+ * {@code carga.hilos}, {@code carga.tasa-error-maxima} y {@code carga.p99-maximo-ms} (0 desactiva el umbral).
+ */
+@Tag("carga")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "spring.data.mongodb.repositories.type=none",
+        "capacitacion.sucursales.url=http://127.0.0.1:9/sucursales",
+        "capacitacion.admision.habilitada=false",
+        "logging.level.com.capacitacion=WARN",
+        "logging.level.org.mongodb.driver=OFF"
+})
+@EmbeddedKafka(partitions = 3, topics = {"alta-persona-topic", "transaccion-topic"})
+@Import(RepositoriosEnMemoriaConfiguracion.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PruebaCargaTest {
+
+    private static final int CUENTAS_CALIENTES = 10;
+    private static final int PERSONAS_INICIALES = 10_000;
+
+    @LocalServerPort
+    private int puerto;
+    @Autowired
+    private PersonaRepository personaRepository;
+    @Autowired
+    private FiltroDnis filtroDnis;
+
+    @Value("${carga.duracion-segundos:30}")
+    private int duracionSegundos;
+    @Value("${carga.hilos:32}")
+    private int hilos;
+    @Value("${carga.tasa-error-maxima:0.01}")
+    private double tasaErrorMaxima;
+    @Value("${carga.p99-maximo-ms:0}")
+    private double p99MaximoMs;
+
+    private final HttpClient cliente = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final AtomicInteger siguienteDni = new AtomicInteger(30_000_000);
+    private final List<String> idsExistentes = new ArrayList<>();
+
+    @BeforeAll
+    void cargarPersonas() {
+        for (int numero = 0; numero < PERSONAS_INICIALES; numero++) {
+            Persona persona = new Persona(null, "Persona " + numero, 30, String.format("%08d", numero));
+            persona.setCreditos(numero < CUENTAS_CALIENTES ? 1_000_000_000 : 100);
+            idsExistentes.add(personaRepository.save(persona).getId());
+        }
+        filtroDnis.construir();
+    }
+
+    static Stream<MezclaCarga> mezclas() {
+        String seleccion = System.getProperty("carga.mezclas", "");
+        return seleccion.isBlank()
+                ? Arrays.stream(MezclaCarga.values())
+                : Arrays.stream(seleccion.split(",")).map(String::trim).map(MezclaCarga::valueOf);
+    }
+
+    @ParameterizedTest
+    @MethodSource("mezclas")
+    void soportaLaMezcla(MezclaCarga mezcla) throws Exception {
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        long fin = System.nanoTime() + TimeUnit.SECONDS.toNanos(duracionSegundos);
+        long inicio = System.nanoTime();
+        List<Future<ReporteCarga>> resultados = new ArrayList<>();
+        for (int i = 0; i < hilos; i++) {
+            resultados.add(ejecutor.submit(() -> generarCarga(mezcla, fin)));
+        }
+        ReporteCarga reporte = new ReporteCarga();
+        for (Future<ReporteCarga> resultado : resultados) {
+            reporte.sumar(resultado.get());
+        }
+        ejecutor.shutdown();
+        double segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+
+        String texto = reporte.formatear(mezcla, segundos, hilos);
+        System.out.println(texto);
+        Path archivo = Path.of("target", "carga", "reporte-" + mezcla.name().toLowerCase() + ".txt");
+        Files.createDirectories(archivo.getParent());
+        Files.writeString(archivo, texto);
+
+        assertThat(reporte.solicitudes()).isPositive();
+        assertThat(reporte.tasaError()).isLessThanOrEqualTo(tasaErrorMaxima);
+        if (p99MaximoMs > 0) {
+            assertThat(reporte.percentilMs(99)).isLessThanOrEqualTo(p99MaximoMs);
+        }
+    }
+
+    private ReporteCarga generarCarga(MezclaCarga mezcla, long fin) {
+        ReporteCarga reporte = new ReporteCarga();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < fin) {
+            MezclaCarga.Operacion operacion = mezcla.elegir(random.nextInt(100));
+            HttpRequest solicitud = switch (operacion) {
+                case ALTA -> alta();
+                case TRANSFERENCIA -> transferencia(random);
+                case LECTURA -> lectura(random);
+            };
+            long inicio = System.nanoTime();
+            boolean exitosa;
+            try {
+                HttpResponse<Void> respuesta = cliente.send(solicitud, HttpResponse.BodyHandlers.discarding());
+                exitosa = respuesta.statusCode() < 400;
+            } catch (IOException e) {
+                exitosa = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            reporte.registrar(operacion, System.nanoTime() - inicio, exitosa);
+        }
+        return reporte;
+    }
+
+    private HttpRequest alta() {
+        int numero = siguienteDni.getAndIncrement();
+        String cuerpo = String.format("{\"nombre\":\"Nueva %d\",\"edad\":30,\"dni\":\"%08d\",\"creditos\":100}", numero, numero);
+        return post("/api/personas", cuerpo);
+    }
+
+    private HttpRequest transferencia(ThreadLocalRandom random) {
+        int origen = random.nextInt(CUENTAS_CALIENTES);
+        int destino = (origen + 1 + random.nextInt(CUENTAS_CALIENTES - 1)) % CUENTAS_CALIENTES;
+        String cuerpo = String.format("{\"dniOrigen\":\"%08d\",\"dniDestino\":\"%08d\",\"monto\":1}", origen, destino);
+        return post("/api/transaccion", cuerpo);
+    }
+
+    private HttpRequest lectura(ThreadLocalRandom random) {
+        String id = idsExistentes.get(random.nextInt(idsExistentes.size()));
+        return HttpRequest.newBuilder(uri("/api/personas/" + id)).GET().build();
+    }
+
+    private HttpRequest post(String ruta, String cuerpo) {
+        return HttpRequest.newBuilder(uri(ruta))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(cuerpo))
+                .build();
+    }
+
+    private URI uri(String ruta) {
+        return URI.create("http://localhost:" + puerto + ruta);
+    }
+}
@@ -0,0 +1,105 @@
+package com.capacitacion.carga;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resultados de una corrida de la prueba de carga: latencias por operación, cantidad de solicitudes y de errores.
+ * Cada hilo registra en su propio reporte y al terminar se combinan con {@link #sumar(ReporteCarga)}.
+ */
+public class ReporteCarga {
+
+    private static final long LATENCIA_MAXIMA_NS = TimeUnit.MINUTES.toNanos(1);
+
+    private final Map<MezclaCarga.Operacion, Histogram> latencias = new EnumMap<>(MezclaCarga.Operacion.class);
+    private final Map<MezclaCarga.Operacion, Long> errores = new EnumMap<>(MezclaCarga.Operacion.class);
+
+    public ReporteCarga() {
+        for (MezclaCarga.Operacion operacion : MezclaCarga.Operacion.values()) {
+            latencias.put(operacion, new Histogram(LATENCIA_MAXIMA_NS, 3));
+            errores.put(operacion, 0L);
+        }
+    }
+
+    /**
+     * Registra una solicitud.
+     *
+     * @param operacion  Operación realizada.
+     * @param latenciaNs Latencia de la solicitud en nanosegundos.
+     * @param exitosa    Indica si la solicitud terminó sin error.
+     */
+    public void registrar(MezclaCarga.Operacion operacion, long latenciaNs, boolean exitosa) {
+        latencias.get(operacion).recordValue(Math.min(latenciaNs, LATENCIA_MAXIMA_NS));
+        if (!exitosa) {
+            errores.merge(operacion, 1L, Long::sum);
+        }
+    }
+
+    /**
+     * Suma a este reporte los resultados de otro.
+     *
+     * @param otro Reporte a sumar.
+     */
+    public void sumar(ReporteCarga otro) {
+        for (MezclaCarga.Operacion operacion : MezclaCarga.Operacion.values()) {
+            latencias.get(operacion).add(otro.latencias.get(operacion));
+            errores.merge(operacion, otro.errores.get(operacion), Long::sum);
+        }
+    }
+
+    public long solicitudes() {
+        return total().getTotalCount();
+    }
+
+    public double tasaError() {
+        long solicitudes = solicitudes();
+        long totalErrores = errores.values().stream().mapToLong(Long::longValue).sum();
+        return solicitudes == 0 ? 0 : (double) totalErrores / solicitudes;
+    }
+
+    public double percentilMs(double percentil) {
+        return total().getValueAtPercentile(percentil) / 1_000_000.0;
+    }
+
+    /**
+     * Arma el texto del reporte.
+     *
+     * @param mezcla   Mezcla ejecutada.
+     * @param segundos Duración de la corrida.
+     * @param hilos    Cantidad de hilos que generaron carga.
+     * @return Reporte con throughput, percentiles y tasa de error, total y por operación.
+     */
+    public String formatear(MezclaCarga mezcla, double segundos, int hilos) {
+        StringBuilder texto = new StringBuilder();
+        texto.append(String.format("Mezcla %s: %d hilos, %.1f s%n", mezcla, hilos, segundos));
+        texto.append(String.format("%-14s %10s %10s %9s %9s %9s %9s%n",
+                "operacion", "solicitudes", "req/s", "p50 ms", "p99 ms", "p999 ms", "errores"));
+        for (MezclaCarga.Operacion operacion : MezclaCarga.Operacion.values()) {
+            Histogram histograma = latencias.get(operacion);
+            if (histograma.getTotalCount() > 0) {
+                texto.append(linea(operacion.name(), histograma, errores.get(operacion), segundos));
+            }
+        }
+        long totalErrores = errores.values().stream().mapToLong(Long::longValue).sum();
+        texto.append(linea("TOTAL", total(), totalErrores, segundos));
+        return texto.toString();
+    }
+
+    private Histogram total() {
+        Histogram total = new Histogram(LATENCIA_MAXIMA_NS, 3);
+        latencias.values().forEach(total::add);
+        return total;
+    }
+
+    private static String linea(String nombre, Histogram histograma, long errores, double segundos) {
+        long solicitudes = histograma.getTotalCount();
+        return String.format("%-14s %10d %10.0f %9.2f %9.2f %9.2f %8.2f%%%n", nombre, solicitudes, solicitudes / segundos,
+                histograma.getValueAtPercentile(50) / 1_000_000.0,
+                histograma.getValueAtPercentile(99) / 1_000_000.0,
+                histograma.getValueAtPercentile(99.9) / 1_000_000.0,
+                solicitudes == 0 ? 0 : 100.0 * errores / solicitudes);
+    }
+}
@@ -0,0 +1,202 @@
+package com.capacitacion.domain.application.impl;
+
+import com.capacitacion.domain.model.ResultadoIdempotente;
+import com.capacitacion.domain.model.Transaccion;
+import com.capacitacion.domain.model.exception.ClaveIdempotenciaReutilizadaException;
+import com.capacitacion.domain.model.exception.SolicitudEnCursoException;
+import com.capacitacion.soporte.ClaveIdempotenciaRepositoryEnMemoria;
+import com.capacitacion.soporte.TransaccionesEnMemoria;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotenciaServiceImplTest {
+
+    private static final String CLAVE = "clave-1";
+
+    private final ClaveIdempotenciaRepositoryEnMemoria claves = new ClaveIdempotenciaRepositoryEnMemoria();
+    private final AtomicInteger realizadas = new AtomicInteger();
+    private final Map<String, Transaccion> aplicadas = new ConcurrentHashMap<>();
+
+    @Test
+    void devuelveLaTransaccionRealizadaAlRepetirLaClave() {
+        IdempotenciaServiceImpl servicio = servicio(false);
+
+        ResultadoIdempotente primera = servicio.ejecutar(CLAVE, solicitud(100), this::realizar);
+        ResultadoIdempotente repetida = servicio.ejecutar(CLAVE, solicitud(100), this::realizar);
+
+        assertThat(primera.isRepetida()).isFalse();
+        assertThat(repetida.isRepetida()).isTrue();
+        assertThat(repetida.getTransaccion().getId()).isEqualTo(primera.getTransaccion().getId());
+        assertThat(realizadas).hasValue(1);
+    }
+
+    @Test
+    void devuelveLaTransaccionRegistradaPorOtraInstancia() {
+        servicio(false).ejecutar(CLAVE, solicitud(100), this::realizar);
+
+        ResultadoIdempotente repetida = servicio(false).ejecutar(CLAVE, solicitud(100), this::realizar);
+
+        assertThat(repetida.isRepetida()).isTrue();
+        assertThat(realizadas).hasValue(1);
+    }
+
+    @Test
+    void rechazaUnaSolicitudConcurrenteConLaMismaClave() throws Exception {
+        IdempotenciaServiceImpl servicio = servicio(false);
+        CountDownLatch enCurso = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        CompletableFuture<ResultadoIdempotente> primera = CompletableFuture.supplyAsync(() ->
+                servicio.ejecutar(CLAVE, solicitud(100), transaccion -> {
+                    enCurso.countDown();
+                    try {
+                        liberar.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return realizar(transaccion);
+                }));
+        assertThat(enCurso.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> servicio.ejecutar(CLAVE, solicitud(100), this::realizar))
+                .isInstanceOf(SolicitudEnCursoException.class);
+
+        liberar.countDown();
+        assertThat(primera.get(5, TimeUnit.SECONDS).isRepetida()).isFalse();
+        assertThat(servicio.ejecutar(CLAVE, solicitud(100), this::realizar).isRepetida()).isTrue();
+        assertThat(realizadas).hasValue(1);
+    }
+
+    @Test
+    void rechazaLaClaveReutilizadaConOtrosDatos() {
+        IdempotenciaServiceImpl servicio = servicio(false);
+        servicio.ejecutar(CLAVE, solicitud(100), this::realizar);
+
+        assertThatThrownBy(() -> servicio.ejecutar(CLAVE, solicitud(200), this::realizar))
+                .isInstanceOf(ClaveIdempotenciaReutilizadaException.class);
+        assertThatThrownBy(() -> servicio(false).ejecutar(CLAVE, solicitud(200), this::realizar))
+                .isInstanceOf(ClaveIdempotenciaReutilizadaException.class);
+        assertThat(realizadas).hasValue(1);
+    }
+
+    @Test
+    void liberaLaClaveSiLaOperacionFalla() {
+        IdempotenciaServiceImpl servicio = servicio(false);
+
+        assertThatThrownBy(() -> servicio.ejecutar(CLAVE, solicitud(100), transaccion -> {
+            throw new DataAccessResourceFailureException("sin conexión");
+        })).isInstanceOf(DataAccessResourceFailureException.class);
+
+        assertThat(servicio.ejecutar(CLAVE, solicitud(100), this::realizar).isRepetida()).isFalse();
+        assertThat(realizadas).hasValue(1);
+    }
+
+    @Test
+    void conservaLaReservaSiElLedgerAplicoLaTransferencia() {
+        FallaAlRegistrar fallaAlRegistrar = new FallaAlRegistrar();
+        IdempotenciaServiceImpl servicio = servicio(fallaAlRegistrar, true);
+
+        assertThatThrownBy(() -> servicio.ejecutar(CLAVE, solicitud(100), this::realizar))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+
+        assertThatThrownBy(() -> servicio.ejecutar(CLAVE, solicitud(100), this::realizar))
+                .isInstanceOf(SolicitudEnCursoException.class);
+        assertThat(realizadas).hasValue(1);
+    }
+
+    @Test
+    void retomaLaReservaDeUnaTransferenciaAplicadaAlVencerElArrendamiento() {
+        FallaAlRegistrar fallaAlRegistrar = new FallaAlRegistrar();
+        IdempotenciaServiceImpl servicio = servicio(fallaAlRegistrar, true);
+        assertThatThrownBy(() -> servicio.ejecutar(CLAVE, solicitud(100), this::realizar))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+        String aplicada = aplicadas.keySet().iterator().next();
+
+        fallaAlRegistrar.fallar = false;
+        fallaAlRegistrar.vencerArrendamiento(CLAVE);
+        ResultadoIdempotente reintento = servicio(fallaAlRegistrar, true).ejecutar(CLAVE, solicitud(100), this::realizar);
+
+        assertThat(reintento.isRepetida()).isFalse();
+        assertThat(reintento.getTransaccion().getId()).isEqualTo(aplicada);
+        assertThat(realizadas).hasValue(1);
+        assertThat(servicio.ejecutar(CLAVE, solicitud(100), this::realizar).isRepetida()).isTrue();
+    }
+
+    @Test
+    void retomaLaReservaQueNoPudoLiberarseAlVencerElArrendamiento() {
+        FallaAlLiberar fallaAlLiberar = new FallaAlLiberar();
+        IdempotenciaServiceImpl servicio = servicio(fallaAlLiberar, false);
+        assertThatThrownBy(() -> servicio.ejecutar(CLAVE, solicitud(100), transaccion -> {
+            throw new DataAccessResourceFailureException("sin conexión");
+        })).isInstanceOf(DataAccessResourceFailureException.class);
+        assertThatThrownBy(() -> servicio.ejecutar(CLAVE, solicitud(100), this::realizar))
+                .isInstanceOf(SolicitudEnCursoException.class);
+
+        fallaAlLiberar.vencerArrendamiento(CLAVE);
+
+        assertThat(servicio.ejecutar(CLAVE, solicitud(100), this::realizar).isRepetida()).isFalse();
+        assertThat(realizadas).hasValue(1);
+    }
+
+    private IdempotenciaServiceImpl servicio(boolean ledgerHabilitado) {
+        return servicio(claves, ledgerHabilitado);
+    }
+
+    private static IdempotenciaServiceImpl servicio(ClaveIdempotenciaRepositoryEnMemoria repositorio, boolean ledgerHabilitado) {
+        return new IdempotenciaServiceImpl(repositorio.comoRepositorio(), new TransactionTemplate(new TransaccionesEnMemoria()),
+                Duration.ofDays(1), Duration.ofSeconds(30), 1000, ledgerHabilitado);
+    }
+
+    /**
+     * Realiza la transacción a lo sumo una vez por ID, como {@code realizarTransaccionUnica}.
+     */
+    private Transaccion realizar(Transaccion transaccion) {
+        return aplicadas.computeIfAbsent(transaccion.getId(), id -> {
+            realizadas.incrementAndGet();
+            return new Transaccion(id, transaccion.getDniOrigen(), transaccion.getDniDestino(), transaccion.getMonto());
+        });
+    }
+
+    private static Transaccion solicitud(int monto) {
+        return new Transaccion(null, "12345678", "87654321", monto);
+    }
+
+    /**
+     * Repositorio en memoria que no puede registrar las transacciones realizadas, como cuando MongoDB deja de
+     * responder después de aplicar la transferencia en el ledger.
+     */
+    public static class FallaAlRegistrar extends ClaveIdempotenciaRepositoryEnMemoria {
+        volatile boolean fallar = true;
+
+        @Override
+        public synchronized Object save(Object entidad) {
+            if (fallar) {
+                throw new DataAccessResourceFailureException("sin conexión");
+            }
+            return super.save(entidad);
+        }
+    }
+
+    /**
+     * Repositorio en memoria que no puede eliminar las reservas, como cuando la instancia se cae o MongoDB deja de
+     * responder antes de liberar la clave de una operación fallida.
+     */
+    public static class FallaAlLiberar extends ClaveIdempotenciaRepositoryEnMemoria {
+
+        @Override
+        public synchronized void deleteById(Object id) {
+            throw new DataAccessResourceFailureException("sin conexión");
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.capacitacion.domain.application.impl;
+
+import com.capacitacion.domain.model.ErrorImportacion;
+import com.capacitacion.domain.model.FilaImportacion;
+import com.capacitacion.domain.model.Persona;
+import com.capacitacion.domain.model.ResultadoImportacion;
+import com.capacitacion.soporte.EscenarioServicios;
+import com.capacitacion.soporte.PersonaRepositoryEnMemoria;
+import com.capacitacion.soporte.TransaccionesEnMemoria;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class ImportacionPersonasServiceImplTest {
+
+    private static final String DNI_ASIGNADO = "Message Error: El dni ya se encuentra asignado a una persona";
+
+    private final EscenarioServicios escenario = new EscenarioServicios(1000);
+
+    @Test
+    void informaElErrorDeCadaFilaRechazada() {
+        escenario.cargarPersonas(1, 100);
+        ImportacionPersonasServiceImpl servicio = servicio(escenario.getPersonas(), 10, 100);
+
+        ResultadoImportacion resultado = servicio.importar(List.of(
+                fila(2, "Ana", 30, "10000001"),
+                FilaImportacion.erronea(3, "La fila tiene 2 columnas y el encabezado 3"),
+                fila(4, " ", 30, "10000002"),
+                fila(5, "Luis", 120, "10000003"),
+                fila(6, "Eva", 30, "123"),
+                fila(7, "Ana bis", 30, "10000001"),
+                fila(8, "Existente", 30, EscenarioServicios.dni(0)),
+                fila(9, "Juan", 40, "10000004")).iterator());
+
+        assertThat(resultado.getFilas()).isEqualTo(8);
+        assertThat(resultado.getImportadas()).isEqualTo(2);
+        assertThat(resultado.getRechazadas()).isEqualTo(6);
+        assertThat(resultado.getErrores())
+                .extracting(ErrorImportacion::getLinea, ErrorImportacion::getDni, ErrorImportacion::getMensaje)
+                .containsExactlyInAnyOrder(
+                        tuple(3L, null, "La fila tiene 2 columnas y el encabezado 3"),
+                        tuple(4L, "10000002", "Message Error: El nombre no puede ser vacio o nulo"),
+                        tuple(5L, "10000003", "Message Error: Debe tener una edad valida(de 1 a 100)."),
+                        tuple(6L, "123", "Message Error: El dni debe contener solo 8 caracteres"),
+                        tuple(7L, "10000001", "DNI repetido en el archivo"),
+                        tuple(8L, EscenarioServicios.dni(0), DNI_ASIGNADO));
+        assertThat(escenario.getPersonaRepository().findByDni("10000004")).isNotNull();
+        assertThat(escenario.getOutbox().registrados()).isEqualTo(2);
+    }
+
+    @Test
+    void detallaHastaLaCantidadMaximaDeErrores() {
+        ImportacionPersonasServiceImpl servicio = servicio(escenario.getPersonas(), 2, 2);
+
+        ResultadoImportacion resultado = servicio.importar(List.of(
+                FilaImportacion.erronea(2, "error"),
+                FilaImportacion.erronea(3, "error"),
+                FilaImportacion.erronea(4, "error"),
+                fila(5, "Ana", 30, "10000001")).iterator());
+
+        assertThat(resultado.getRechazadas()).isEqualTo(3);
+        assertThat(resultado.getErrores()).extracting(ErrorImportacion::getLinea).containsExactly(2L, 3L);
+        assertThat(resultado.getErroresOmitidos()).isEqualTo(1);
+        assertThat(resultado.getImportadas()).isEqualTo(1);
+    }
+
+    @Test
+    void insertaDeAUnaSiOtraOperacionAsignoUnDniDelLote() {
+        AltaConcurrente personas = new AltaConcurrente();
+        Persona existente = new Persona(null, "Existente", 30, "10000001");
+        personas.save(existente);
+        ImportacionPersonasServiceImpl servicio = servicio(personas, 10, 100);
+
+        ResultadoImportacion resultado = servicio.importar(List.of(
+                fila(2, "Ana", 30, "10000001"),
+                fila(3, "Luis", 40, "10000002"),
+                fila(4, "Eva", 50, "10000003")).iterator());
+
+        assertThat(resultado.getImportadas()).isEqualTo(2);
+        assertThat(resultado.getErrores())
+                .extracting(ErrorImportacion::getLinea, ErrorImportacion::getDni, ErrorImportacion::getMensaje)
+                .containsExactly(tuple(2L, "10000001", DNI_ASIGNADO));
+        assertThat(personas.findByDni("10000001").getNombre()).isEqualTo("Existente");
+        assertThat(personas.findByDni("10000002")).isNotNull();
+        assertThat(personas.findByDni("10000003")).isNotNull();
+        assertThat(escenario.getOutbox().registrados()).isEqualTo(2);
+    }
+
+    private ImportacionPersonasServiceImpl servicio(PersonaRepositoryEnMemoria personas, int tamanioLote, int erroresMaximos) {
+        return new ImportacionPersonasServiceImpl(personas.comoRepositorio(), escenario.getPersonaService(), escenario.getOutbox(),
+                new TransactionTemplate(new TransaccionesEnMemoria()), escenario.getFiltroDnis(), tamanioLote, erroresMaximos);
+    }
+
+    private static FilaImportacion fila(long linea, String nombre, int edad, String dni) {
+        return FilaImportacion.valida(linea, new Persona(null, nombre, edad, dni));
+    }
+
+    /**
+     * Repositorio en memoria en el que la verificación de DNIs no encuentra los ya asignados, como cuando otra
+     * operación da de alta uno de los DNIs del lote entre la verificación y la inserción.
+     */
+    public static class AltaConcurrente extends PersonaRepositoryEnMemoria {
+
+        @Override
+        public List<Persona> findByDniIn(Collection<String> dnis) {
+            return List.of();
+        }
+    }
+}
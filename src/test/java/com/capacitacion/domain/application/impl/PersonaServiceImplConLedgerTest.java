@@ -0,0 +1,59 @@
+package com.capacitacion.domain.application.impl;
+
+import com.capacitacion.domain.ledger.LedgerCreditos;
+import com.capacitacion.domain.model.Persona;
+import com.capacitacion.domain.model.Transaccion;
+import com.capacitacion.soporte.AlmacenLedgerEnMemoria;
+import com.capacitacion.soporte.EscenarioServicios;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Prueba que el borrado de personas con el ledger habilitado quita sus cuentas, para que una persona nueva con el
+ * mismo DNI no herede los créditos que quedaron en memoria.
+ */
+class PersonaServiceImplConLedgerTest {
+
+    private static final String ORIGEN = EscenarioServicios.dni(0);
+    private static final String DESTINO = EscenarioServicios.dni(1);
+
+    private final LedgerCreditos ledger = new LedgerCreditos(4, Duration.ofHours(1));
+    private final EscenarioServicios escenario = new EscenarioServicios(1000, ledger);
+    private final PersonaServiceImpl personaService = escenario.getPersonaService();
+    private LedgerTransaccionServiceImpl ledgerService;
+
+    @BeforeEach
+    void transferir() {
+        escenario.cargarPersonas(2, 100);
+        ledgerService = new LedgerTransaccionServiceImpl(escenario.getTransaccionService(), ledger,
+                new AlmacenLedgerEnMemoria(escenario.getPersonaRepository()));
+        ledgerService.cargarSaldos();
+        ledgerService.realizarTransaccion(new Transaccion(null, ORIGEN, DESTINO, 30));
+    }
+
+    @Test
+    void alEliminarLaPersonaQuitaSuCuentaDelLedger() {
+        personaService.eliminar(escenario.getPersonaRepository().findByDni(DESTINO).getId());
+
+        assertThat(ledger.contiene(DESTINO)).isFalse();
+        assertThat(ledger.saldo(ORIGEN)).isEqualTo(70);
+
+        personaService.crear(new Persona(null, "Otra persona", 30, DESTINO));
+        ledgerService.realizarTransaccion(new Transaccion(null, ORIGEN, DESTINO, 10));
+
+        int creditosIniciales = escenario.getPersonaRepository().findByDni(DESTINO).getCreditos();
+        assertThat(ledger.saldo(DESTINO)).isEqualTo(creditosIniciales + 10);
+    }
+
+    @Test
+    void alEliminarTodoVaciaElLedger() {
+        personaService.eliminarTodo();
+
+        assertThat(ledger.contiene(ORIGEN)).isFalse();
+        assertThat(ledger.contiene(DESTINO)).isFalse();
+    }
+}
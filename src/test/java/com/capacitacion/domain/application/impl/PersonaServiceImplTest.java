@@ -0,0 +1,65 @@
+package com.capacitacion.domain.application.impl;
+
+import com.capacitacion.domain.model.Persona;
+import com.capacitacion.domain.model.SubSaldo;
+import com.capacitacion.soporte.EscenarioServicios;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Prueba la actualización y el borrado de personas con el saldo fraccionado mientras están en el cache.
+ */
+class PersonaServiceImplTest {
+
+    private static final String DNI = EscenarioServicios.dni(0);
+
+    private final EscenarioServicios escenario = new EscenarioServicios(1000);
+    private final PersonaServiceImpl personaService = escenario.getPersonaService();
+    private String id;
+
+    @BeforeEach
+    void fraccionarSaldo() {
+        escenario.cargarPersonas(1, 100);
+        id = escenario.getPersonaRepository().findByDni(DNI).getId();
+        personaService.fraccionarCreditos(DNI, 4);
+        // Deja la persona en el cache con su fraccionamiento.
+        assertThat(personaService.recuperar(id).tieneSaldoFraccionado()).isTrue();
+    }
+
+    @Test
+    void alActualizarReparteLosCreditosEntreLasFracciones() {
+        Persona datos = new Persona(null, "Nuevo nombre", 40, DNI);
+        datos.setCreditos(80);
+
+        Persona actualizada = personaService.actualizar(id, datos);
+        personaService.debitarCreditos(DNI, 10);
+        personaService.acreditarCreditos(DNI, 5);
+
+        assertThat(actualizada.getCreditos()).isEqualTo(80);
+        assertThat(escenario.getPersonaRepository().findByDni(DNI).getFracciones()).isEqualTo(4);
+        assertThat(escenario.getSubSaldos().findByDni(DNI)).hasSize(4);
+        assertThat(sumaFracciones()).isEqualTo(75);
+        assertThat(personaService.obtenerPorDni(DNI).getCreditos()).isEqualTo(75);
+        assertThat(personaService.recuperar(id).getNombre()).isEqualTo("Nuevo nombre");
+    }
+
+    @Test
+    void alEliminarBorraLasFraccionesYLaPersonaNuevaNoLasHereda() {
+        personaService.eliminar(id);
+
+        assertThat(escenario.getSubSaldos().findByDni(DNI)).isEmpty();
+        Persona nueva = personaService.crear(new Persona(null, "Otra persona", 30, DNI));
+        personaService.debitarCreditos(DNI, 10);
+        personaService.acreditarCreditos(DNI, 5);
+
+        assertThat(escenario.getSubSaldos().findByDni(DNI)).isEmpty();
+        assertThat(escenario.getPersonaRepository().findByDni(DNI).getCreditos()).isEqualTo(95);
+        assertThat(personaService.recuperar(nueva.getId()).getCreditos()).isEqualTo(95);
+    }
+
+    private int sumaFracciones() {
+        return escenario.getSubSaldos().findByDni(DNI).stream().mapToInt(SubSaldo::getCreditos).sum();
+    }
+}
@@ -0,0 +1,124 @@
+package com.capacitacion.domain.application.impl;
+
+import com.capacitacion.domain.ledger.LedgerCreditos;
+import com.capacitacion.domain.model.EstadoTicket;
+import com.capacitacion.domain.model.SolicitudTransaccionEvent;
+import com.capacitacion.domain.model.TicketTransaccion;
+import com.capacitacion.domain.model.Transaccion;
+import com.capacitacion.soporte.AlmacenLedgerEnMemoria;
+import com.capacitacion.soporte.EscenarioServicios;
+import com.capacitacion.soporte.TicketTransaccionRepositoryEnMemoria;
+import com.capacitacion.soporte.TransaccionesEnMemoria;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Prueba el procesamiento de las solicitudes de transacción con el ledger habilitado, cuyos saldos en memoria no se
+ * revierten si falla el cierre del ticket.
+ */
+class TransaccionAsincronaServiceImplTest {
+
+    private static final String ORIGEN = EscenarioServicios.dni(0);
+    private static final String DESTINO = EscenarioServicios.dni(1);
+
+    private final EscenarioServicios escenario = new EscenarioServicios(1000);
+    private final LedgerCreditos ledger = new LedgerCreditos(4, Duration.ofHours(1));
+    private final FallaAlCerrar tickets = new FallaAlCerrar();
+    private TransaccionAsincronaServiceImpl servicio;
+
+    @BeforeEach
+    void preparar() {
+        escenario.cargarPersonas(2, 100);
+        LedgerTransaccionServiceImpl ledgerService = new LedgerTransaccionServiceImpl(escenario.getTransaccionService(), ledger,
+                new AlmacenLedgerEnMemoria(escenario.getPersonaRepository()));
+        ledgerService.cargarSaldos();
+        servicio = new TransaccionAsincronaServiceImpl(ledgerService, tickets.comoRepositorio(), escenario.getOutbox(),
+                new TransactionTemplate(new TransaccionesEnMemoria()));
+    }
+
+    @Test
+    void laReentregaDespuesDeFallarElCierreDelTicketNoVuelveAAplicarLaTransaccion() {
+        SolicitudTransaccionEvent solicitud = encolar(30);
+        tickets.fallarAlCerrar = true;
+        assertThatThrownBy(() -> servicio.procesarSolicitud(solicitud)).isInstanceOf(DataAccessResourceFailureException.class);
+        assertThat(servicio.obtenerTicket(solicitud.getTicketId()).getEstado()).isEqualTo(EstadoTicket.PROCESANDO);
+
+        tickets.fallarAlCerrar = false;
+        servicio.procesarSolicitud(solicitud);
+
+        TicketTransaccion ticket = servicio.obtenerTicket(solicitud.getTicketId());
+        assertThat(ticket.getEstado()).isEqualTo(EstadoTicket.COMPLETADA);
+        assertThat(ticket.getTransaccionId()).isNotNull();
+        assertThat(ledger.saldo(ORIGEN)).isEqualTo(70);
+        assertThat(ledger.saldo(DESTINO)).isEqualTo(130);
+        assertThat(ledger.drenar(new ArrayList<>(), 10)).isEqualTo(1);
+    }
+
+    @Test
+    void descartaLaSolicitudDeUnTicketYaCompletado() {
+        SolicitudTransaccionEvent solicitud = encolar(30);
+
+        servicio.procesarSolicitud(solicitud);
+        servicio.procesarSolicitud(solicitud);
+
+        assertThat(servicio.obtenerTicket(solicitud.getTicketId()).getEstado()).isEqualTo(EstadoTicket.COMPLETADA);
+        assertThat(ledger.saldo(ORIGEN)).isEqualTo(70);
+    }
+
+    @Test
+    void rechazaElTicketSinSaldoSuficiente() {
+        SolicitudTransaccionEvent solicitud = encolar(500);
+
+        servicio.procesarSolicitud(solicitud);
+
+        TicketTransaccion ticket = servicio.obtenerTicket(solicitud.getTicketId());
+        assertThat(ticket.getEstado()).isEqualTo(EstadoTicket.RECHAZADA);
+        assertThat(ticket.getMensaje()).isNotBlank();
+        assertThat(ledger.saldo(ORIGEN)).isEqualTo(100);
+    }
+
+    @Test
+    void marcaFallidoSoloElTicketQueSigueAbierto() {
+        SolicitudTransaccionEvent abierta = encolar(30);
+        SolicitudTransaccionEvent completada = encolar(10);
+        servicio.procesarSolicitud(completada);
+
+        servicio.marcarFallida(abierta.getTicketId(), "falla");
+        servicio.marcarFallida(completada.getTicketId(), "falla");
+
+        assertThat(servicio.obtenerTicket(abierta.getTicketId()).getEstado()).isEqualTo(EstadoTicket.FALLIDA);
+        assertThat(servicio.obtenerTicket(abierta.getTicketId()).getMensaje()).isEqualTo("falla");
+        assertThat(servicio.obtenerTicket(completada.getTicketId()).getEstado()).isEqualTo(EstadoTicket.COMPLETADA);
+        // La solicitud fallida que vuelva a llegar ya no se aplica.
+        servicio.procesarSolicitud(abierta);
+        assertThat(ledger.saldo(ORIGEN)).isEqualTo(90);
+    }
+
+    private SolicitudTransaccionEvent encolar(int monto) {
+        return new SolicitudTransaccionEvent(servicio.encolarTransaccion(new Transaccion(null, ORIGEN, DESTINO, monto)));
+    }
+
+    /**
+     * Repositorio de tickets en memoria que puede fallar al cerrar un ticket, como cuando el proceso se cae o MongoDB
+     * deja de responder después de aplicar la transacción.
+     */
+    public static class FallaAlCerrar extends TicketTransaccionRepositoryEnMemoria {
+        volatile boolean fallarAlCerrar;
+
+        @Override
+        public synchronized Object save(Object entidad) {
+            if (fallarAlCerrar && ((TicketTransaccion) entidad).getEstado() == EstadoTicket.COMPLETADA) {
+                throw new DataAccessResourceFailureException("MongoDB no responde");
+            }
+            return super.save(entidad);
+        }
+    }
+}
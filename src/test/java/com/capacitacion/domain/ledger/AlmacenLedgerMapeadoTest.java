@@ -0,0 +1,295 @@
+package com.capacitacion.domain.ledger;
+
+import com.capacitacion.domain.model.LoteLedgerCuarentena;
+import com.capacitacion.domain.model.Persona;
+import com.capacitacion.domain.model.Transaccion;
+import com.capacitacion.domain.repository.LoteLedgerCuarentenaRepository;
+import com.capacitacion.domain.repository.TransaccionRepository;
+import com.capacitacion.infraestructura.cache.PersonaCache;
+import com.capacitacion.soporte.OutboxEnMemoria;
+import com.capacitacion.soporte.PersonaRepositoryEnMemoria;
+import com.capacitacion.soporte.RepositorioEnMemoria;
+import com.capacitacion.soporte.TransaccionesEnMemoria;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Prueba el log de escritura anticipada del {@link AlmacenLedgerMapeado}. Cada apertura del almacén sobre el mismo
+ * directorio, sin cerrar la anterior, simula un reinicio después de una caída.
+ */
+class AlmacenLedgerMapeadoTest {
+
+    private static final String ANA = "10000001";
+    private static final String LUIS = "10000002";
+
+    @TempDir
+    Path directorio;
+
+    private final PersonaRepositoryEnMemoria personas = new PersonaRepositoryEnMemoria();
+    private final TransaccionesGuardadas transacciones = new TransaccionesGuardadas();
+    private final OutboxEnMemoria outbox = new OutboxEnMemoria();
+
+    @BeforeEach
+    void cargarPersonas() {
+        Persona ana = new Persona(null, "Ana", 30, ANA);
+        ana.setCreditos(100);
+        personas.save(ana);
+        Persona luis = new Persona(null, "Luis", 40, LUIS);
+        luis.setCreditos(50);
+        personas.save(luis);
+    }
+
+    @Test
+    void guardaAlIniciarLasTransaccionesDelLogQueNoLlegaronAMongo() {
+        AlmacenLedgerMapeado almacen = abrir();
+        cargar(almacen);
+        Transaccion primera = transferencia(ANA, LUIS, 30);
+        Transaccion segunda = transferencia(LUIS, ANA, 5);
+        transacciones.fallar = true;
+        assertThatThrownBy(() -> almacen.persistir(List.of(primera, segunda)))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+        assertThat(transacciones.guardadas).isEmpty();
+
+        transacciones.fallar = false;
+        Map<String, Integer> saldos = cargar(abrir());
+
+        assertThat(saldos).containsEntry(ANA, 75).containsEntry(LUIS, 75);
+        assertThat(transacciones.guardadas).containsOnlyKeys(primera.getId(), segunda.getId());
+        Transaccion guardada = transacciones.guardadas.get(primera.getId());
+        assertThat(guardada.getDniOrigen()).isEqualTo(ANA);
+        assertThat(guardada.getDniDestino()).isEqualTo(LUIS);
+        assertThat(guardada.getMonto()).isEqualTo(30);
+        assertThat(guardada.getFecha()).isEqualTo(primera.getFecha());
+        assertThat(outbox.registrados()).isEqualTo(2);
+        assertThat(tamanioDiario()).isZero();
+    }
+
+    @Test
+    void noVuelveAGuardarLasTransaccionesYaGuardadas() {
+        AlmacenLedgerMapeado almacen = abrir();
+        cargar(almacen);
+        Transaccion transaccion = transferencia(ANA, LUIS, 30);
+        almacen.persistir(List.of(transaccion));
+        assertThat(tamanioDiario()).isPositive();
+
+        Map<String, Integer> saldos = cargar(abrir());
+
+        assertThat(saldos).containsEntry(ANA, 70).containsEntry(LUIS, 80);
+        assertThat(transacciones.guardadas).containsOnlyKeys(transaccion.getId());
+        assertThat(transacciones.inserciones).isEqualTo(1);
+        assertThat(outbox.registrados()).isEqualTo(1);
+    }
+
+    @Test
+    void agregaLosLotesSiguientesDespuesDelUltimoRegistroCompleto() throws IOException {
+        AlmacenLedgerMapeado almacen = abrir();
+        cargar(almacen);
+        almacen.persistir(List.of(transferencia(ANA, LUIS, 30)));
+        // Registro parcial de una escritura que falló: la longitud de un registro sin su contenido.
+        Files.write(diario(), new byte[] {0, 0, 0, 60, 1, 2, 3}, StandardOpenOption.APPEND);
+        Transaccion siguiente = transferencia(LUIS, ANA, 10);
+        transacciones.fallar = true;
+        assertThatThrownBy(() -> almacen.persistir(List.of(siguiente)))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+
+        transacciones.fallar = false;
+        Map<String, Integer> saldos = cargar(abrir());
+
+        assertThat(transacciones.guardadas).containsKey(siguiente.getId());
+        assertThat(saldos).containsEntry(ANA, 80).containsEntry(LUIS, 70);
+    }
+
+    @Test
+    void descartaAlIniciarElRegistroCortadoAlFinalDelLog() throws IOException {
+        AlmacenLedgerMapeado almacen = abrir();
+        cargar(almacen);
+        Transaccion transaccion = transferencia(ANA, LUIS, 30);
+        transacciones.fallar = true;
+        assertThatThrownBy(() -> almacen.persistir(List.of(transaccion)))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+        long completo = tamanioDiario();
+        Files.write(diario(), new byte[] {0, 0, 0, 60, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        // MongoDB sigue sin responder: el inicio falla, pero el final cortado ya se descartó.
+        assertThatThrownBy(() -> cargar(abrir())).isInstanceOf(DataAccessResourceFailureException.class);
+        assertThat(tamanioDiario()).isEqualTo(completo);
+
+        transacciones.fallar = false;
+        cargar(abrir());
+        assertThat(transacciones.guardadas).containsOnlyKeys(transaccion.getId());
+        assertThat(tamanioDiario()).isZero();
+    }
+
+    @Test
+    void elCheckpointVaciaElLogYCopiaLosCreditosALasPersonas() {
+        AlmacenLedgerMapeado almacen = abrir();
+        cargar(almacen);
+        almacen.persistir(List.of(transferencia(ANA, LUIS, 30)));
+
+        almacen.tomarCheckpoint();
+
+        assertThat(tamanioDiario()).isZero();
+        assertThat(personas.findByDni(ANA).getCreditos()).isEqualTo(70);
+        assertThat(personas.findByDni(LUIS).getCreditos()).isEqualTo(80);
+        assertThat(cargar(abrir())).containsEntry(ANA, 70).containsEntry(LUIS, 80);
+    }
+
+    @Test
+    void elCheckpointSePostergaMientrasElUltimoLoteNoEsteEnMongo() {
+        AlmacenLedgerMapeado almacen = abrir();
+        cargar(almacen);
+        Transaccion transaccion = transferencia(ANA, LUIS, 30);
+        transacciones.fallar = true;
+        assertThatThrownBy(() -> almacen.persistir(List.of(transaccion)))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+
+        almacen.tomarCheckpoint();
+        assertThat(tamanioDiario()).isPositive();
+        assertThat(personas.findByDni(ANA).getCreditos()).isEqualTo(100);
+
+        transacciones.fallar = false;
+        almacen.persistir(List.of(transaccion));
+        almacen.tomarCheckpoint();
+        assertThat(tamanioDiario()).isZero();
+        assertThat(transacciones.guardadas).containsOnlyKeys(transaccion.getId());
+    }
+
+    @Test
+    void fallaLaEsperaDeLasTransaccionesDeUnLoteEnCuarentena() {
+        AlmacenLedgerMapeado almacen = abrir();
+        LedgerCreditos ledger = new LedgerCreditos(4, Duration.ofHours(1));
+        almacen.cargarSaldos(ledger::cargar);
+        LotesEnCuarentena cuarentena = new LotesEnCuarentena();
+        PersistidorLedger persistidor = new PersistidorLedger(ledger, almacen, cuarentena.comoRepositorio(), 1, 2);
+        // Un ID que no entra en un registro del log: agregar el lote al log falla en cada intento.
+        Transaccion invalida = transferencia(ANA, LUIS, 30);
+        invalida.setId("x".repeat(5000));
+        long enCuarentena = ledger.transferir(invalida);
+        Transaccion valida = transferencia(LUIS, ANA, 5);
+        long siguiente = ledger.transferir(valida);
+        CompletableFuture<Void> espera = CompletableFuture.runAsync(() -> almacen.esperarPersistencia(enCuarentena));
+
+        for (int ejecucion = 0; ejecucion < 3; ejecucion++) {
+            persistidor.persistirPendientes();
+        }
+
+        assertThat(cuarentena.lotes).hasSize(1);
+        assertThatThrownBy(espera::join).hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> almacen.esperarPersistencia(enCuarentena))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("cuarentena");
+        almacen.esperarPersistencia(siguiente);
+        assertThat(transacciones.guardadas).containsOnlyKeys(valida.getId());
+    }
+
+    private AlmacenLedgerMapeado abrir() {
+        return new AlmacenLedgerMapeado(personas.comoRepositorio(), transacciones.comoRepositorio(), outbox,
+                new TransactionTemplate(new TransaccionesEnMemoria()), new PersonaCache(1000, 300, new SimpleMeterRegistry()),
+                directorio.toString(), 1000);
+    }
+
+    private static Map<String, Integer> cargar(AlmacenLedgerMapeado almacen) {
+        Map<String, Integer> saldos = new HashMap<>();
+        almacen.cargarSaldos(saldos::put);
+        return saldos;
+    }
+
+    private static Transaccion transferencia(String dniOrigen, String dniDestino, int monto) {
+        Transaccion transaccion = new Transaccion(new ObjectId().toHexString(), dniOrigen, dniDestino, monto);
+        transaccion.setFecha(Instant.now());
+        return transaccion;
+    }
+
+    private Path diario() {
+        return directorio.resolve("diario.log");
+    }
+
+    private long tamanioDiario() {
+        try {
+            return Files.size(diario());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Implementación en memoria de los métodos de {@link LoteLedgerCuarentenaRepository} usados por el persistidor.
+     */
+    public static class LotesEnCuarentena {
+        final List<LoteLedgerCuarentena> lotes = new ArrayList<>();
+
+        LoteLedgerCuarentenaRepository comoRepositorio() {
+            return RepositorioEnMemoria.crear(LoteLedgerCuarentenaRepository.class, this);
+        }
+
+        public Object save(Object entidad) {
+            LoteLedgerCuarentena lote = (LoteLedgerCuarentena) entidad;
+            lote.setId(new ObjectId().toHexString());
+            lotes.add(lote);
+            return lote;
+        }
+    }
+
+    /**
+     * Implementación en memoria de los métodos de {@link TransaccionRepository} usados por el almacén, que guarda las
+     * transacciones por ID y puede fallar como MongoDB cuando no responde.
+     */
+    public static class TransaccionesGuardadas {
+        final Map<String, Transaccion> guardadas = new ConcurrentHashMap<>();
+        volatile boolean fallar;
+        int inserciones;
+
+        TransaccionRepository comoRepositorio() {
+            return RepositorioEnMemoria.crear(TransaccionRepository.class, this);
+        }
+
+        public List<Object> insert(Iterable<Object> entidades) {
+            if (fallar) {
+                throw new DataAccessResourceFailureException("MongoDB no responde");
+            }
+            List<Object> insertadas = new ArrayList<>();
+            for (Object entidad : entidades) {
+                Transaccion transaccion = (Transaccion) entidad;
+                guardadas.put(transaccion.getId(), transaccion);
+                insertadas.add(transaccion);
+                inserciones++;
+            }
+            return insertadas;
+        }
+
+        public List<Object> findAllById(Iterable<Object> ids) {
+            if (fallar) {
+                throw new DataAccessResourceFailureException("MongoDB no responde");
+            }
+            List<Object> encontradas = new ArrayList<>();
+            for (Object id : ids) {
+                Transaccion transaccion = guardadas.get(id);
+                if (transaccion != null) {
+                    encontradas.add(transaccion);
+                }
+            }
+            return encontradas;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.capacitacion.domain.ledger;
+
+import com.capacitacion.domain.model.Transaccion;
+import com.capacitacion.domain.model.exception.CreditosExcedidosException;
+import com.capacitacion.domain.model.exception.MontoNoValidoException;
+import com.capacitacion.soporte.EscenarioServicios;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Prueba la baja de cuentas del ledger y el rechazo de las transacciones que superarían los créditos máximos.
+ * Se usa un único shard, para que las cuentas compartan la tabla y las bajas tengan que correr a las siguientes.
+ */
+class LedgerCreditosTest {
+
+    private static final int CUENTAS = 5000;
+
+    private final LedgerCreditos ledger = new LedgerCreditos(1, Duration.ofHours(1));
+
+    @Test
+    void quitarUnaCuentaConservaLasDemasDeLaTabla() {
+        for (int i = 0; i < CUENTAS; i++) {
+            ledger.cargar(EscenarioServicios.dni(i), i);
+        }
+
+        for (int i = 0; i < CUENTAS; i += 3) {
+            ledger.quitar(EscenarioServicios.dni(i));
+        }
+
+        for (int i = 0; i < CUENTAS; i++) {
+            if (i % 3 == 0) {
+                assertThat(ledger.contiene(EscenarioServicios.dni(i))).isFalse();
+            } else {
+                assertThat(ledger.saldo(EscenarioServicios.dni(i))).isEqualTo(i);
+            }
+        }
+    }
+
+    @Test
+    void laCuentaQuitadaSeVuelveACargarConElSaldoNuevo() {
+        ledger.cargar("30000000", 100);
+        ledger.cargar("A-1", 50);
+        ledger.cargar("A-2", 70);
+
+        ledger.quitar("30000000");
+        ledger.quitar("A-1");
+        ledger.cargar("30000000", 0);
+        ledger.cargar("A-1", 0);
+        ledger.cargar("A-3", 90);
+
+        assertThat(ledger.saldo("30000000")).isZero();
+        assertThat(ledger.saldo("A-1")).isZero();
+        assertThat(ledger.saldo("A-2")).isEqualTo(70);
+        assertThat(ledger.saldo("A-3")).isEqualTo(90);
+    }
+
+    @Test
+    void vaciarQuitaTodasLasCuentas() {
+        ledger.cargar("30000000", 100);
+        ledger.cargar("A-1", 50);
+
+        ledger.vaciar();
+
+        assertThat(ledger.contiene("30000000")).isFalse();
+        assertThat(ledger.contiene("A-1")).isFalse();
+    }
+
+    @Test
+    void rechazaLaTransaccionQueDesbordaLosCreditosDelDestino() {
+        ledger.cargar("30000000", 100);
+        ledger.cargar("30000001", Integer.MAX_VALUE - 5);
+
+        assertThatThrownBy(() -> ledger.transferir(new Transaccion(null, "30000000", "30000001", 10)))
+                .isInstanceOf(CreditosExcedidosException.class)
+                .isInstanceOf(MontoNoValidoException.class);
+
+        assertThat(ledger.saldo("30000000")).isEqualTo(100);
+        assertThat(ledger.saldo("30000001")).isEqualTo(Integer.MAX_VALUE - 5);
+        ledger.transferir(new Transaccion(null, "30000000", "30000001", 5));
+        assertThat(ledger.saldo("30000001")).isEqualTo(Integer.MAX_VALUE);
+    }
+}
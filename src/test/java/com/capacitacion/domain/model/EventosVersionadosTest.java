@@ -0,0 +1,82 @@
+package com.capacitacion.domain.model;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica que los eventos de Kafka de la versión 1 se sigan leyendo con el deserializador de los consumidores, y que
+ * los de la versión actual conserven todos sus datos.
+ */
+class EventosVersionadosTest {
+
+    private static final String TOPIC = "topic";
+
+    @Test
+    void leeLosEventosDeAltaDeLaVersion1() {
+        PersonaEvent evento = leer(PersonaEvent.class, "{\"nombre\":\"Ana\"}");
+
+        assertThat(evento.getVersion()).isEqualTo(1);
+        assertThat(evento.getNombre()).isEqualTo("Ana");
+        assertThat(evento.getDni()).isNull();
+        assertThat(evento.getCreditos()).isNull();
+        assertThat(evento.getFechaEvento()).isNull();
+    }
+
+    @Test
+    void leeLosEventosDeTransaccionDeLaVersion1() {
+        TransaccionEvent evento = leer(TransaccionEvent.class, "{\"transaccionId\":\"tx-1\"}");
+
+        assertThat(evento.getVersion()).isEqualTo(1);
+        assertThat(evento.getTransaccionId()).isEqualTo("tx-1");
+        assertThat(evento.getDniOrigen()).isNull();
+        assertThat(evento.getMonto()).isNull();
+        assertThat(evento.getFecha()).isNull();
+    }
+
+    @Test
+    void ignoraLosCamposDeVersionesPosteriores() {
+        PersonaEvent evento = leer(PersonaEvent.class, "{\"version\":3,\"nombre\":\"Ana\",\"dni\":\"12345678\",\"nuevo\":true}");
+
+        assertThat(evento.getVersion()).isEqualTo(3);
+        assertThat(evento.getDni()).isEqualTo("12345678");
+    }
+
+    @Test
+    void conservaLosDatosDeLaVersionActual() {
+        Persona persona = new Persona("id-1", "Ana", 30, "12345678");
+        persona.setCreditos(100);
+        Transaccion transaccion = new Transaccion("tx-1", "12345678", "87654321", 25);
+        transaccion.setFecha(Instant.parse("2024-05-01T10:15:30.123Z"));
+
+        PersonaEvent alta = idaYVuelta(PersonaEvent.class, new PersonaEvent(persona));
+        TransaccionEvent realizada = idaYVuelta(TransaccionEvent.class, new TransaccionEvent(transaccion));
+
+        assertThat(alta.getVersion()).isEqualTo(PersonaEvent.VERSION);
+        assertThat(alta.getId()).isEqualTo("id-1");
+        assertThat(alta.getEdad()).isEqualTo(30);
+        assertThat(alta.getCreditos()).isEqualTo(100);
+        assertThat(alta.getFechaEvento()).isNotNull();
+        assertThat(realizada.getVersion()).isEqualTo(TransaccionEvent.VERSION);
+        assertThat(realizada.getDniDestino()).isEqualTo("87654321");
+        assertThat(realizada.getMonto()).isEqualTo(25);
+        assertThat(realizada.getFecha()).isEqualTo(transaccion.getFecha());
+    }
+
+    private static <T> T leer(Class<T> tipo, String json) {
+        try (JsonDeserializer<T> deserializer = new JsonDeserializer<>(tipo, false)) {
+            return deserializer.deserialize(TOPIC, json.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static <T> T idaYVuelta(Class<T> tipo, T evento) {
+        try (JsonSerializer<T> serializer = new JsonSerializer<>()) {
+            return leer(tipo, new String(serializer.serialize(TOPIC, evento), StandardCharsets.UTF_8));
+        }
+    }
+}
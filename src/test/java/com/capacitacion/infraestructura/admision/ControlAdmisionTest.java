@@ -0,0 +1,64 @@
+package com.capacitacion.infraestructura.admision;
+
+import com.capacitacion.domain.model.exception.AdmisionRechazadaException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Prueba que los rechazos del control de admisión no consumen los límites que no llegaron a aplicarse y que los lotes
+ * pesan según la cantidad de transacciones. La tasa es tan baja que las cubetas no se recargan durante la prueba.
+ */
+class ControlAdmisionTest {
+
+    @Test
+    void elRechazoPorConcurrenciaNoConsumeElTokenDeLaCuenta() {
+        ControlAdmision control = control(1, 1);
+        ControlAdmision.Permiso enCurso = control.admitir("A");
+
+        assertThatThrownBy(() -> control.admitir("B")).isInstanceOf(AdmisionRechazadaException.class);
+        enCurso.close();
+
+        assertThatCode(() -> control.admitir("B").close()).doesNotThrowAnyException();
+    }
+
+    @Test
+    void elLoteRechazadoPorUnaCuentaReintegraLosTokensDeLasDemas() {
+        ControlAdmision control = control(2, 10);
+        control.admitir("B").close();
+        control.admitir("B").close();
+
+        assertThatThrownBy(() -> control.admitirLote(List.of("A", "A", "B"))).isInstanceOf(AdmisionRechazadaException.class);
+
+        assertThatCode(() -> control.admitirLote(List.of("A", "A")).close()).doesNotThrowAnyException();
+        assertThatThrownBy(() -> control.admitir("A")).isInstanceOf(AdmisionRechazadaException.class);
+    }
+
+    @Test
+    void elLoteOcupaUnLugarDeConcurrenciaPorTransaccion() {
+        ControlAdmision control = control(10, 3);
+        ControlAdmision.Permiso lote = control.admitirLote(List.of("A", "B", "C", "D", "E"));
+
+        assertThatThrownBy(() -> control.admitir("X")).isInstanceOf(AdmisionRechazadaException.class);
+        lote.close();
+
+        assertThatCode(() -> control.admitir("X").close()).doesNotThrowAnyException();
+    }
+
+    @Test
+    void elLoteMayorQueLaRafagaSeAdmiteConLaCubetaLlenaYLaVacia() {
+        ControlAdmision control = control(2, 10);
+
+        assertThatCode(() -> control.admitirLote(List.of("A", "A", "A")).close()).doesNotThrowAnyException();
+        assertThatThrownBy(() -> control.admitir("A")).isInstanceOf(AdmisionRechazadaException.class);
+    }
+
+    private static ControlAdmision control(int rafaga, int concurrenciaMaxima) {
+        return new ControlAdmision(true, 0.001, rafaga, concurrenciaMaxima, 1000, Duration.ofHours(1), new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,109 @@
+package com.capacitacion.infraestructura.api;
+
+import com.capacitacion.domain.model.FilaImportacion;
+import com.capacitacion.domain.model.exception.FormatoImportacionNoValidoException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LectorFilasPersonasTest {
+
+    @Test
+    void leeLasColumnasEnElOrdenDelEncabezado() {
+        List<FilaImportacion> filas = leerCsv("DNI, Edad ,nombre\n12345678,30,Ana\n");
+
+        assertThat(filas).hasSize(1);
+        FilaImportacion fila = filas.get(0);
+        assertThat(fila.getError()).isNull();
+        assertThat(fila.getLinea()).isEqualTo(2);
+        assertThat(fila.getPersona().getNombre()).isEqualTo("Ana");
+        assertThat(fila.getPersona().getEdad()).isEqualTo(30);
+        assertThat(fila.getPersona().getDni()).isEqualTo("12345678");
+        assertThat(fila.getPersona().getDireccion()).isNull();
+    }
+
+    @Test
+    void admiteComasYComillasEntreComillas() {
+        List<FilaImportacion> filas = leerCsv("nombre,edad,dni,direccion\n"
+                + "\"Pérez, Ana\",30,12345678,\"Av. \"\"Siempre\"\" Viva, 742\"\n");
+
+        assertThat(filas).hasSize(1);
+        assertThat(filas.get(0).getPersona().getNombre()).isEqualTo("Pérez, Ana");
+        assertThat(filas.get(0).getPersona().getDireccion()).isEqualTo("Av. \"Siempre\" Viva, 742");
+    }
+
+    @Test
+    void informaLasFilasConOtraCantidadDeColumnas() {
+        List<FilaImportacion> filas = leerCsv("nombre,edad,dni\nAna,30\nLuis,40,87654321\nEva,20,11111111,sobra\n");
+
+        assertThat(filas).hasSize(3);
+        assertThat(filas.get(0).getLinea()).isEqualTo(2);
+        assertThat(filas.get(0).getPersona()).isNull();
+        assertThat(filas.get(0).getError()).isEqualTo("La fila tiene 2 columnas y el encabezado 3");
+        assertThat(filas.get(1).getError()).isNull();
+        assertThat(filas.get(2).getLinea()).isEqualTo(4);
+        assertThat(filas.get(2).getError()).isEqualTo("La fila tiene 4 columnas y el encabezado 3");
+    }
+
+    @Test
+    void informaLaEdadQueNoEsUnNumero() {
+        List<FilaImportacion> filas = leerCsv("nombre,edad,dni\nAna,treinta,12345678\nLuis,,87654321\n");
+
+        assertThat(filas).extracting(FilaImportacion::getError).containsOnly(
+                "Message Error: La edad no puede ser vacia y tiene que ser de tipo Number");
+    }
+
+    @Test
+    void salteaLasLineasEnBlancoSinPerderElNumeroDeLinea() {
+        List<FilaImportacion> filas = leerCsv("nombre,edad,dni\n\nAna,30,12345678\n   \n\nLuis,40,87654321\n\n");
+
+        assertThat(filas).extracting(FilaImportacion::getLinea).containsExactly(3L, 6L);
+    }
+
+    @Test
+    void rechazaElEncabezadoSinLasColumnasObligatorias() {
+        assertThatThrownBy(() -> leerCsv("nombre,dni\nAna,12345678\n"))
+                .isInstanceOf(FormatoImportacionNoValidoException.class);
+        assertThatThrownBy(() -> leerCsv(""))
+                .isInstanceOf(FormatoImportacionNoValidoException.class);
+    }
+
+    @Test
+    void leeNdjsonEInformaLasLineasNoValidas() {
+        LectorFilasPersonas lector = LectorFilasPersonas.ndjson(lector(
+                "{\"nombre\":\"Ana\",\"edad\":30,\"dni\":\"12345678\",\"direccion\":\"Calle 1\"}\n"
+                        + "\n"
+                        + "{\"nombre\":\"Luis\",\n"
+                        + "[1,2]\n"), new ObjectMapper());
+        List<FilaImportacion> filas = leerTodas(lector);
+
+        assertThat(filas).hasSize(3);
+        assertThat(filas.get(0).getPersona().getDireccion()).isEqualTo("Calle 1");
+        assertThat(filas.get(1).getLinea()).isEqualTo(3);
+        assertThat(filas.get(1).getError()).startsWith("JSON no válido");
+        assertThat(filas.get(2).getError()).isEqualTo("La fila debe ser un objeto JSON");
+        assertThatThrownBy(lector::next).isInstanceOf(NoSuchElementException.class);
+    }
+
+    private static List<FilaImportacion> leerCsv(String contenido) {
+        return leerTodas(LectorFilasPersonas.csv(lector(contenido)));
+    }
+
+    private static List<FilaImportacion> leerTodas(LectorFilasPersonas lector) {
+        List<FilaImportacion> filas = new ArrayList<>();
+        lector.forEachRemaining(filas::add);
+        return filas;
+    }
+
+    private static BufferedReader lector(String contenido) {
+        return new BufferedReader(new StringReader(contenido));
+    }
+}
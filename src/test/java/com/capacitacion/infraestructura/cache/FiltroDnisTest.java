@@ -0,0 +1,116 @@
+package com.capacitacion.infraestructura.cache;
+
+import com.capacitacion.domain.model.Persona;
+import com.capacitacion.soporte.EscenarioServicios;
+import com.capacitacion.soporte.PersonaRepositoryEnMemoria;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FiltroDnisTest {
+
+    private static final int CAPACIDAD = 10_000;
+
+    private final PersonaRepositoryEnMemoria personas = new PersonaRepositoryEnMemoria();
+
+    @Test
+    void conoceTodosLosDnisRegistradosYAgregados() {
+        for (int i = 0; i < CAPACIDAD / 2; i++) {
+            personas.save(new Persona(null, "Persona " + i, 30, EscenarioServicios.dni(i)));
+        }
+        FiltroDnis filtro = filtro(true);
+        filtro.construir();
+        for (int i = CAPACIDAD / 2; i < CAPACIDAD; i++) {
+            filtro.agregar(EscenarioServicios.dni(i));
+        }
+
+        for (int i = 0; i < CAPACIDAD; i++) {
+            assertThat(filtro.podriaExistir(EscenarioServicios.dni(i))).isTrue();
+        }
+    }
+
+    @Test
+    void descartaCasiTodosLosDnisDesconocidos() {
+        FiltroDnis filtro = filtro(true);
+        filtro.construir();
+        for (int i = 0; i < CAPACIDAD; i++) {
+            filtro.agregar(EscenarioServicios.dni(i));
+        }
+
+        int posibles = 0;
+        for (int i = CAPACIDAD; i < 2 * CAPACIDAD; i++) {
+            if (filtro.podriaExistir(EscenarioServicios.dni(i))) {
+                posibles++;
+            }
+        }
+        // Tasa esperada del 1 %; el margen evita que la prueba dependa de la distribución exacta del hash.
+        assertThat(posibles).isLessThan(CAPACIDAD * 3 / 100);
+    }
+
+    @Test
+    void consideraPosibleCualquierDniMientrasNoEstaConstruidoOSiEstaDeshabilitado() {
+        FiltroDnis sinConstruir = filtro(true);
+        FiltroDnis deshabilitado = filtro(false);
+        deshabilitado.construir();
+
+        assertThat(sinConstruir.podriaExistir("12345678")).isTrue();
+        assertThat(deshabilitado.podriaExistir("12345678")).isTrue();
+        assertThat(sinConstruir.podriaExistir(null)).isTrue();
+    }
+
+    @Test
+    void dejaDeDescartarUnDniFaltanteRegistrado() {
+        FiltroDnis filtro = filtro(true);
+        filtro.construir();
+        assertThat(filtro.podriaExistir("12345678")).isFalse();
+
+        filtro.registrarFaltante("12345678");
+
+        assertThat(filtro.podriaExistir("12345678")).isTrue();
+    }
+
+    @Test
+    void confirmaEnLaBaseLosDnisDescartadosSoloDuranteLaTolerancia() {
+        FiltroDnis conTolerancia = new FiltroDnis(personas.comoRepositorio(), true, CAPACIDAD, 0.01, Duration.ofHours(1),
+                new SimpleMeterRegistry());
+        FiltroDnis sinTolerancia = filtro(true);
+        assertThat(conTolerancia.requiereConfirmacion()).isFalse();
+
+        conTolerancia.construir();
+        sinTolerancia.construir();
+
+        assertThat(conTolerancia.requiereConfirmacion()).isTrue();
+        assertThat(sinTolerancia.requiereConfirmacion()).isFalse();
+    }
+
+    @Test
+    void descartaSinConsultarLaBaseLosDnisQueElFiltroNoConoce() {
+        EscenarioServicios escenario = new EscenarioServicios(1000);
+        escenario.cargarPersonas(10, 100);
+        // Alta de otra instancia cuyo evento no llegó: está en la base pero no en el filtro.
+        escenario.getPersonaRepository().save(new Persona(null, "Remota", 30, "99999999"));
+
+        assertThat(escenario.getPersonaService().podriaExistir("99999999")).isFalse();
+        assertThat(escenario.getPersonaService().podriaExistir(EscenarioServicios.dni(3))).isTrue();
+        assertThat(escenario.getPersonaRepository().existsByDni("99999999")).isTrue();
+    }
+
+    @Test
+    void confirmaEnLaBaseLosDnisDescartadosDespuesDeVaciarElFiltro() {
+        FiltroDnis filtro = new FiltroDnis(personas.comoRepositorio(), true, CAPACIDAD, 0.01, Duration.ofHours(1),
+                new SimpleMeterRegistry());
+        filtro.construir();
+
+        filtro.vaciar();
+
+        assertThat(filtro.podriaExistir("12345678")).isFalse();
+        assertThat(filtro.requiereConfirmacion()).isTrue();
+    }
+
+    private FiltroDnis filtro(boolean habilitado) {
+        return new FiltroDnis(personas.comoRepositorio(), habilitado, CAPACIDAD, 0.01, Duration.ZERO, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,78 @@
+package com.capacitacion.infraestructura.cache;
+
+import com.capacitacion.domain.model.Persona;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Prueba que una carga que empezó antes de una invalidación concurrente no deja en el cache los datos que leyó.
+ */
+class PersonaCacheTest {
+
+    private static final String DNI = "30000000";
+
+    private final PersonaCache cache = new PersonaCache(1000, 300, new SimpleMeterRegistry());
+    private final AtomicInteger cargas = new AtomicInteger();
+
+    @Test
+    void cacheaLaPersonaCargadaSinInvalidaciones() {
+        cache.obtenerPorDni(DNI, cargador(null));
+        Persona persona = cache.obtenerPorDni(DNI, cargador(null));
+
+        assertThat(persona.getCreditos()).isEqualTo(100);
+        assertThat(cargas).hasValue(1);
+    }
+
+    @Test
+    void noCacheaLaCargaDuranteLaQueSeInvalidoLaPersona() {
+        Persona leida = cache.obtenerPorDni(DNI, cargador(() -> cache.invalidarPorDni(DNI)));
+        Persona siguiente = cache.obtenerPorDni(DNI, cargador(null));
+
+        assertThat(leida.getCreditos()).isEqualTo(100);
+        assertThat(cargas).hasValue(2);
+        assertThat(siguiente.getCreditos()).isEqualTo(100);
+    }
+
+    @Test
+    void noCacheaLaCargaPorDniSiSeInvalidoPorOtraClave() {
+        cache.obtenerPorId("id-1", cargador(() -> cache.invalidar(persona())));
+        cache.obtenerPorDni(DNI, cargador(() -> cache.invalidarPorNombre("Persona")));
+        cache.obtenerPorDni(DNI, cargador(null));
+
+        assertThat(cargas).hasValue(3);
+    }
+
+    @Test
+    void noCacheaLaCargaDuranteLaQueSeVacioElCache() {
+        cache.obtenerPorId("id-1", cargador(cache::invalidarTodo));
+        cache.obtenerPorId("id-1", cargador(null));
+
+        assertThat(cargas).hasValue(2);
+    }
+
+    /**
+     * Cargador que lee la persona y, si se indica, ejecuta una invalidación después de leerla, como la de una
+     * actualización que se confirma mientras la lectura todavía no llegó al cache.
+     */
+    private Function<String, Persona> cargador(Runnable invalidacionConcurrente) {
+        return clave -> {
+            cargas.incrementAndGet();
+            Persona persona = persona();
+            if (invalidacionConcurrente != null) {
+                invalidacionConcurrente.run();
+            }
+            return persona;
+        };
+    }
+
+    private static Persona persona() {
+        Persona persona = new Persona("id-1", "Persona", 30, DNI);
+        persona.setCreditos(100);
+        return persona;
+    }
+}
@@ -0,0 +1,166 @@
+package com.capacitacion.infraestructura.cliente;
+
+import com.capacitacion.infraestructura.config.HttpClientConfig;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogoSucursalesTest {
+
+    private static final String SUCURSALES = "[{\"nombre\":\"Centro\",\"direccion\":\"Av. Siempre Viva 742\"},"
+            + "{\"nombre\":\"Norte\",\"direccion\":\"Calle Falsa 123\"}]";
+    private static final String ETAG = "\"v1\"";
+
+    private HttpServer servidor;
+    private final AtomicInteger solicitudes = new AtomicInteger();
+    private final AtomicInteger noModificadas = new AtomicInteger();
+    private volatile int estadoRespuesta = 200;
+    private volatile long demoraMs;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PoolingHttpClientConnectionManager conexiones;
+    private CloseableHttpClient clienteHttp;
+    private CatalogoSucursales catalogo;
+
+    @BeforeEach
+    void iniciarServidor() throws IOException {
+        servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        servidor.createContext("/sucursales", exchange -> {
+            solicitudes.incrementAndGet();
+            if (demoraMs > 0) {
+                try {
+                    Thread.sleep(demoraMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (estadoRespuesta != 200) {
+                exchange.sendResponseHeaders(estadoRespuesta, -1);
+                exchange.close();
+                return;
+            }
+            if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                noModificadas.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            byte[] cuerpo = SUCURSALES.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.getResponseHeaders().add("ETag", ETAG);
+            exchange.sendResponseHeaders(200, cuerpo.length);
+            try (OutputStream salida = exchange.getResponseBody()) {
+                salida.write(cuerpo);
+            }
+        });
+        servidor.setExecutor(Executors.newCachedThreadPool());
+        servidor.start();
+        HttpClientConfig config = new HttpClientConfig();
+        conexiones = config.conexionesHttp(10, 10, Duration.ofMillis(500), Duration.ofMillis(300), meterRegistry);
+        clienteHttp = config.clienteHttp(conexiones, Duration.ofMillis(500));
+        RestTemplate restTemplate = config.restTemplate(new RestTemplateBuilder(), clienteHttp);
+        Disyuntor disyuntor = new Disyuntor("sucursales", 3, Duration.ofMinutes(1), 1, meterRegistry);
+        catalogo = new CatalogoSucursales(restTemplate, disyuntor,
+                "http://127.0.0.1:" + servidor.getAddress().getPort() + "/sucursales");
+    }
+
+    @AfterEach
+    void detenerServidor() throws IOException {
+        servidor.stop(0);
+        clienteHttp.close();
+        conexiones.close();
+    }
+
+    @Test
+    void indexaLasSucursalesPorNombre() {
+        catalogo.actualizar();
+
+        assertThat(catalogo.buscarPorNombre("Norte")).hasValueSatisfying(
+                sucursal -> assertThat(sucursal.getDireccion()).isEqualTo("Calle Falsa 123"));
+        assertThat(catalogo.buscarPorNombre("Sur")).isEmpty();
+    }
+
+    @Test
+    void noVuelveADescargarLasSucursalesSinCambios() {
+        catalogo.actualizar();
+        catalogo.actualizar();
+
+        assertThat(solicitudes).hasValue(2);
+        assertThat(noModificadas).hasValue(1);
+        assertThat(catalogo.buscarPorNombre("Centro")).isPresent();
+    }
+
+    @Test
+    void conservaLasSucursalesSiLaApiNoResponde() {
+        catalogo.actualizar();
+        servidor.stop(0);
+
+        catalogo.actualizar();
+
+        assertThat(catalogo.buscarPorNombre("Centro")).isPresent();
+    }
+
+    @Test
+    void lasConsultasNoLlamanALaApiUnaVezCargado() {
+        catalogo.actualizar();
+
+        for (int i = 0; i < 1000; i++) {
+            catalogo.buscarPorNombre("Centro");
+        }
+
+        assertThat(solicitudes).hasValue(1);
+    }
+
+    @Test
+    void cortaLasRespuestasLentasPorTimeoutYConservaLasSucursales() {
+        catalogo.actualizar();
+        demoraMs = 2000;
+
+        long inicio = System.nanoTime();
+        catalogo.actualizar();
+
+        assertThat(Duration.ofNanos(System.nanoTime() - inicio)).isLessThan(Duration.ofMillis(1500));
+        assertThat(catalogo.buscarPorNombre("Centro")).isPresent();
+    }
+
+    @Test
+    void dejaDeLlamarALaApiConElDisyuntorAbierto() {
+        catalogo.actualizar();
+        estadoRespuesta = 500;
+
+        for (int i = 0; i < 10; i++) {
+            catalogo.actualizar();
+        }
+
+        assertThat(solicitudes).hasValue(4);
+        assertThat(meterRegistry.counter(Disyuntor.CONTADOR, "cliente", "sucursales", "resultado", "rechazada-disyuntor").count())
+                .isEqualTo(7);
+        assertThat(catalogo.buscarPorNombre("Norte")).isPresent();
+    }
+
+    @Test
+    void devuelveLasConexionesAlPool() {
+        for (int i = 0; i < 5; i++) {
+            catalogo.actualizar();
+        }
+
+        assertThat(solicitudes).hasValue(5);
+        assertThat(conexiones.getTotalStats().getLeased()).isZero();
+        assertThat(conexiones.getTotalStats().getAvailable()).isLessThanOrEqualTo(1);
+    }
+}
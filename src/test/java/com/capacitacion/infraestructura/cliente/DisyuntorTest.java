@@ -0,0 +1,49 @@
+package com.capacitacion.infraestructura.cliente;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DisyuntorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void seAbrePorErroresQueNoSonDelClienteHttp() {
+        Disyuntor disyuntor = new Disyuntor("prueba", 2, Duration.ofMinutes(1), 10, meterRegistry);
+
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> disyuntor.ejecutar(() -> {
+                throw new IllegalStateException("respuesta no válida");
+            })).isInstanceOf(IllegalStateException.class);
+        }
+
+        assertThat(disyuntor.estaAbierto()).isTrue();
+        assertThatThrownBy(() -> disyuntor.ejecutar(() -> "sin llamar"))
+                .isInstanceOf(LlamadaRechazadaException.class);
+        assertThat(meterRegistry.counter(Disyuntor.CONTADOR, "cliente", "prueba", "resultado", "fallida").count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void laLlamadaDePruebaQueFallaConCualquierErrorVuelveAAbrirlo() throws InterruptedException {
+        Disyuntor disyuntor = new Disyuntor("prueba", 1, Duration.ofMillis(10), 10, meterRegistry);
+        assertThatThrownBy(() -> disyuntor.ejecutar(() -> {
+            throw new IllegalStateException("falla");
+        })).isInstanceOf(IllegalStateException.class);
+        Thread.sleep(20);
+
+        assertThatThrownBy(() -> disyuntor.ejecutar(() -> {
+            throw new NullPointerException("falla en la prueba");
+        })).isInstanceOf(NullPointerException.class);
+        Thread.sleep(20);
+
+        // Si la prueba fallida lo hubiera dejado semiabierto, esta llamada se rechazaría.
+        assertThat(disyuntor.ejecutar(() -> "ok")).isEqualTo("ok");
+        assertThat(disyuntor.estaAbierto()).isFalse();
+    }
+}
@@ -0,0 +1,164 @@
+package com.capacitacion.infraestructura.config;
+
+import com.capacitacion.domain.application.PersonaService;
+import com.capacitacion.domain.model.Persona;
+import com.capacitacion.domain.model.PersonaEvent;
+import com.capacitacion.domain.model.Sucursal;
+import com.capacitacion.infraestructura.cache.FiltroDnis;
+import com.capacitacion.infraestructura.cliente.CatalogoSucursales;
+import com.capacitacion.infraestructura.cliente.Disyuntor;
+import com.capacitacion.infraestructura.listener.DeduplicadorEventos;
+import com.capacitacion.infraestructura.listener.PersonaEventListener;
+import com.capacitacion.soporte.PersonaRepositoryEnMemoria;
+import com.capacitacion.soporte.RepositorioEnMemoria;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Publica altas de persona en un Kafka embebido y las consume con el {@link PersonaEventListener} real, sobre un
+ * servicio de Persona que registra las escrituras masivas de direcciones.
+ */
+@SpringJUnitConfig(KafkaConfigTest.Configuracion.class)
+@EmbeddedKafka(partitions = 3, topics = KafkaConfigTest.TOPIC)
+@TestPropertySource(properties = {
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "capacitacion.kafka.consumer.auto-offset-reset=earliest",
+        "random.uuid=prueba"
+})
+@Slf4j
+class KafkaConfigTest {
+
+    static final String TOPIC = "alta-persona-topic";
+    static final int CANTIDAD_EVENTOS = 10_000;
+    /** Cada cuántos eventos se publica uno de la versión 1, que se actualiza por nombre. */
+    static final int CADA_VERSION_1 = 10;
+
+    @Autowired
+    private KafkaTemplate<String, Object> kafkaTemplate;
+    @Autowired
+    private RegistroDirecciones registro;
+
+    @Test
+    void actualizaLasDireccionesDeCadaLoteEnUnaEscrituraMasiva() throws InterruptedException {
+        long inicio = System.nanoTime();
+        for (int i = 0; i < CANTIDAD_EVENTOS; i++) {
+            kafkaTemplate.send(TOPIC, evento(i));
+        }
+        kafkaTemplate.flush();
+
+        assertThat(registro.actualizadas.await(60, TimeUnit.SECONDS)).isTrue();
+        double segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+        int escrituras = registro.escriturasPorDni.get() + registro.escriturasPorNombre.get();
+        log.info("Consumidos {} eventos en {} s ({} eventos/s): {} escrituras masivas, contra {} con una escritura por evento",
+                CANTIDAD_EVENTOS, String.format("%.2f", segundos), String.format("%.0f", CANTIDAD_EVENTOS / segundos),
+                escrituras, CANTIDAD_EVENTOS);
+
+        int version1 = CANTIDAD_EVENTOS / CADA_VERSION_1;
+        assertThat(registro.direccionesPorDni).hasSize(CANTIDAD_EVENTOS - version1);
+        assertThat(registro.direccionesPorNombre).hasSize(version1);
+        assertThat(registro.direccionesPorDni).containsEntry(dni(1), "Dirección de persona-1");
+        assertThat(registro.direccionesPorNombre).containsEntry("persona-0", "Dirección de persona-0");
+        assertThat(registro.escriturasPorDni.get()).isPositive();
+        assertThat(registro.escriturasPorNombre.get()).isPositive();
+        assertThat(escrituras).isLessThan(CANTIDAD_EVENTOS);
+    }
+
+    private static PersonaEvent evento(int numero) {
+        if (numero % CADA_VERSION_1 == 0) {
+            PersonaEvent evento = new PersonaEvent();
+            evento.setNombre("persona-" + numero);
+            return evento;
+        }
+        return new PersonaEvent(new Persona(null, "persona-" + numero, 30, dni(numero)));
+    }
+
+    private static String dni(int numero) {
+        return String.format("%08d", numero);
+    }
+
+    @Configuration
+    @Import({KafkaConfig.class, PersonaEventListener.class})
+    static class Configuracion {
+
+        @Bean
+        RegistroDirecciones registro() {
+            return new RegistroDirecciones();
+        }
+
+        @Bean
+        PersonaService personaService(RegistroDirecciones registro) {
+            return RepositorioEnMemoria.crear(PersonaService.class, registro);
+        }
+
+        @Bean
+        DeduplicadorEventos deduplicadorEventos() {
+            return new DeduplicadorEventos(100_000, Duration.ofHours(1), new SimpleMeterRegistry());
+        }
+
+        @Bean
+        FiltroDnis filtroDnis() {
+            return new FiltroDnis(new PersonaRepositoryEnMemoria().comoRepositorio(), true, 100_000, 0.01, Duration.ZERO, new SimpleMeterRegistry());
+        }
+
+        @Bean
+        CatalogoSucursales catalogoSucursales() {
+            Disyuntor disyuntor = new Disyuntor("sucursales", 3, Duration.ofSeconds(30), 1, new SimpleMeterRegistry());
+            return new CatalogoSucursales(new RestTemplate(), disyuntor, "http://127.0.0.1:1/sucursales") {
+                @Override
+                public Optional<Sucursal> buscarPorNombre(String nombre) {
+                    return Optional.of(new Sucursal(nombre, "Dirección de " + nombre));
+                }
+            };
+        }
+    }
+
+    /**
+     * Implementación en memoria de las escrituras de direcciones de {@link PersonaService}, que cuenta cuántas
+     * escrituras masivas recibe.
+     */
+    public static class RegistroDirecciones {
+        final Map<String, String> direccionesPorDni = new ConcurrentHashMap<>();
+        final Map<String, String> direccionesPorNombre = new ConcurrentHashMap<>();
+        final AtomicInteger escriturasPorDni = new AtomicInteger();
+        final AtomicInteger escriturasPorNombre = new AtomicInteger();
+        final CountDownLatch actualizadas = new CountDownLatch(CANTIDAD_EVENTOS);
+
+        public void actualizarDireccionesPorDni(Map<String, String> direcciones) {
+            escriturasPorDni.incrementAndGet();
+            direcciones.forEach((dni, direccion) -> {
+                if (direccionesPorDni.put(dni, direccion) == null) {
+                    actualizadas.countDown();
+                }
+            });
+        }
+
+        public void actualizarDirecciones(Map<String, String> direcciones) {
+            escriturasPorNombre.incrementAndGet();
+            direcciones.forEach((nombre, direccion) -> {
+                if (direccionesPorNombre.put(nombre, direccion) == null) {
+                    actualizadas.countDown();
+                }
+            });
+        }
+    }
+}
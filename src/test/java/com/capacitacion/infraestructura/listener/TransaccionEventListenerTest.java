@@ -0,0 +1,111 @@
+package com.capacitacion.infraestructura.listener;
+
+import com.capacitacion.domain.application.SendEmailService;
+import com.capacitacion.domain.model.Transaccion;
+import com.capacitacion.domain.model.TransaccionEvent;
+import com.capacitacion.infraestructura.config.KafkaConfig;
+import com.capacitacion.infraestructura.outbox.RelayOutbox;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Publica eventos de transacción en un Kafka embebido y los consume con el {@link TransaccionEventListener} registrado
+ * por el escaneo de componentes, como en la aplicación.
+ */
+@SpringJUnitConfig(TransaccionEventListenerTest.Configuracion.class)
+@EmbeddedKafka(partitions = 1, topics = TransaccionEventListenerTest.TOPIC)
+@TestPropertySource(properties = {
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "capacitacion.kafka.consumer.auto-offset-reset=earliest"
+})
+class TransaccionEventListenerTest {
+
+    static final String TOPIC = "transaccion-topic";
+    static final String GRUPO = "your-group-id";
+
+    @Autowired
+    private KafkaTemplate<String, Object> kafkaTemplate;
+    @Autowired
+    private CorreosEnviados correos;
+    @Autowired
+    private DeduplicadorEventos deduplicadorEventos;
+
+    @Test
+    void consumeLosEventosDeTransaccionYDescartaLasReentregas() throws InterruptedException {
+        enviar("evento-1", new Transaccion("tx-1", "12345678", "87654321", 100));
+        enviar("evento-1", new Transaccion("tx-1", "12345678", "87654321", 100));
+        enviar("evento-2", new Transaccion("tx-2", "87654321", "12345678", 50));
+        kafkaTemplate.flush();
+
+        assertThat(correos.enviados.await(30, TimeUnit.SECONDS)).isTrue();
+        // La reentrega llega antes que el segundo evento, en la misma partición: cuando el segundo queda registrado,
+        // la reentrega ya se procesó.
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!deduplicadorEventos.procesado(GRUPO, "evento-2") && System.nanoTime() < limite) {
+            Thread.sleep(50);
+        }
+        assertThat(deduplicadorEventos.procesado(GRUPO, "evento-2")).isTrue();
+        assertThat(correos.cantidad).hasValue(2);
+    }
+
+    private void enviar(String eventoId, Transaccion transaccion) {
+        ProducerRecord<String, Object> mensaje = new ProducerRecord<>(TOPIC, transaccion.getDniOrigen(), new TransaccionEvent(transaccion));
+        mensaje.headers().add(RelayOutbox.HEADER_EVENTO_ID, eventoId.getBytes(StandardCharsets.UTF_8));
+        kafkaTemplate.send(mensaje);
+    }
+
+    @Configuration
+    @Import(KafkaConfig.class)
+    @ComponentScan(basePackageClasses = TransaccionEventListener.class, excludeFilters = @ComponentScan.Filter(
+            type = FilterType.ASSIGNABLE_TYPE,
+            classes = {PersonaEventListener.class, TransaccionComandoListener.class, RecuperadorMensajesFallidos.class}))
+    static class Configuracion {
+
+        @Bean
+        CorreosEnviados correos() {
+            return new CorreosEnviados();
+        }
+
+        @Bean
+        SendEmailService sendEmailService(CorreosEnviados correos) {
+            return correos::enviar;
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    /**
+     * Cuenta los correos enviados por el listener.
+     */
+    static class CorreosEnviados {
+        final AtomicInteger cantidad = new AtomicInteger();
+        final CountDownLatch enviados = new CountDownLatch(2);
+
+        void enviar() {
+            cantidad.incrementAndGet();
+            enviados.countDown();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.capacitacion.infraestructura.outbox;
+
+import com.capacitacion.domain.model.EventoOutbox;
+import com.capacitacion.domain.model.EventoOutboxDescartado;
+import com.capacitacion.soporte.EventoOutboxDescartadoRepositoryEnMemoria;
+import com.capacitacion.soporte.EventoOutboxRepositoryEnMemoria;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Prueba el descarte de los eventos del outbox que Kafka rechaza, sobre un {@link KafkaTemplate} que responde sin
+ * conectarse a Kafka.
+ */
+class RelayOutboxTest {
+
+    private static final int INTENTOS_MAXIMOS = 3;
+
+    private final EventoOutboxRepositoryEnMemoria outbox = new EventoOutboxRepositoryEnMemoria();
+    private final EventoOutboxDescartadoRepositoryEnMemoria descartados = new EventoOutboxDescartadoRepositoryEnMemoria();
+    private final KafkaSimulado kafka = new KafkaSimulado();
+    private final RelayOutbox relay = new RelayOutbox(outbox.comoRepositorio(), descartados.comoRepositorio(), kafka,
+            1000, 1000, Duration.ofSeconds(30), INTENTOS_MAXIMOS, new SimpleMeterRegistry());
+
+    @Test
+    void descartaElEventoRechazadoYPublicaLosSiguientes() {
+        EventoOutbox rechazado = registrar("topic-roto", "evento que no entra");
+        registrar("transaccion-topic", "primero");
+        registrar("transaccion-topic", "segundo");
+
+        for (int ejecucion = 0; ejecucion < INTENTOS_MAXIMOS; ejecucion++) {
+            relay.publicarPendientes();
+            assertThat(outbox.count()).isEqualTo(ejecucion + 1 < INTENTOS_MAXIMOS ? 3 : 2);
+        }
+        relay.publicarPendientes();
+
+        assertThat(outbox.count()).isZero();
+        assertThat(descartados.count()).isEqualTo(1);
+        EventoOutboxDescartado descartado = (EventoOutboxDescartado) descartados.findById(rechazado.getId()).orElseThrow();
+        assertThat(descartado.getTopic()).isEqualTo("topic-roto");
+        assertThat(descartado.getEvento()).isEqualTo("evento que no entra");
+        assertThat(descartado.getIntentos()).isEqualTo(INTENTOS_MAXIMOS);
+        assertThat(descartado.getMotivo()).isNotBlank();
+        assertThat(kafka.publicados).containsSubsequence("primero", "segundo");
+    }
+
+    @Test
+    void noDescartaEventosMientrasKafkaRechazaElLoteCompleto() {
+        registrar("transaccion-topic", "primero");
+        registrar("transaccion-topic", "segundo");
+        kafka.disponible = false;
+
+        for (int ejecucion = 0; ejecucion < 2 * INTENTOS_MAXIMOS; ejecucion++) {
+            relay.publicarPendientes();
+        }
+
+        assertThat(outbox.count()).isEqualTo(2);
+        assertThat(descartados.count()).isZero();
+        kafka.disponible = true;
+        relay.publicarPendientes();
+        assertThat(outbox.count()).isZero();
+        assertThat(kafka.publicados).containsExactly("primero", "segundo");
+    }
+
+    private EventoOutbox registrar(String topic, String evento) {
+        return (EventoOutbox) outbox.save(new EventoOutbox(topic, "12345678", evento));
+    }
+
+    /**
+     * {@link KafkaTemplate} que confirma los envíos sin conectarse a Kafka. Rechaza los mensajes de {@code topic-roto},
+     * como un mensaje demasiado grande, y todos los mensajes mientras no está disponible.
+     */
+    static class KafkaSimulado extends KafkaTemplate<String, Object> {
+        final List<Object> publicados = new CopyOnWriteArrayList<>();
+        volatile boolean disponible = true;
+
+        KafkaSimulado() {
+            super(new DefaultKafkaProducerFactory<>(Map.of()));
+        }
+
+        @Override
+        public CompletableFuture<SendResult<String, Object>> send(ProducerRecord<String, Object> mensaje) {
+            if (!disponible) {
+                return CompletableFuture.failedFuture(new TimeoutException("Kafka no responde"));
+            }
+            if (mensaje.topic().equals("topic-roto")) {
+                return CompletableFuture.failedFuture(new RecordTooLargeException("El mensaje supera el tamaño máximo"));
+            }
+            publicados.add(mensaje.value());
+            return CompletableFuture.completedFuture(new SendResult<>(mensaje, null));
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.capacitacion.soporte;
+
+import com.capacitacion.domain.ledger.AlmacenLedger;
+import com.capacitacion.domain.model.Persona;
+import com.capacitacion.domain.model.Transaccion;
+import com.capacitacion.domain.repository.PersonaRepository;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * {@link AlmacenLedger} que carga los créditos de un repositorio de Persona en memoria y descarta los lotes persistidos.
+ */
+public class AlmacenLedgerEnMemoria implements AlmacenLedger {
+
+    private final PersonaRepository personaRepository;
+
+    public AlmacenLedgerEnMemoria(PersonaRepository personaRepository) {
+        this.personaRepository = personaRepository;
+    }
+
+    @Override
+    public void cargarSaldos(BiConsumer<String, Integer> cuenta) {
+        try (Stream<Persona> personas = personaRepository.streamAllBy()) {
+            personas.forEach(persona -> cuenta.accept(persona.getDni(), persona.getCreditos()));
+        }
+    }
+
+    @Override
+    public Integer saldo(String dni) {
+        Persona persona = personaRepository.findByDni(dni);
+        return persona == null ? null : persona.getCreditos();
+    }
+
+    @Override
+    public void persistir(List<Transaccion> lote) {
+    }
+}
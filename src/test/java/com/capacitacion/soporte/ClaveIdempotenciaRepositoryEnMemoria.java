@@ -0,0 +1,70 @@
+package com.capacitacion.soporte;
+
+import com.capacitacion.domain.model.ClaveIdempotencia;
+import com.capacitacion.domain.repository.ClaveIdempotenciaRepository;
+import org.bson.types.ObjectId;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Implementación en memoria de los métodos de {@link ClaveIdempotenciaRepository} usados por el servicio de idempotencia.
+ */
+public class ClaveIdempotenciaRepositoryEnMemoria {
+
+    private final Map<String, ClaveIdempotencia> claves = new ConcurrentHashMap<>();
+
+    /**
+     * Crea el repositorio de claves de idempotencia respaldado por esta implementación.
+     *
+     * @return Repositorio de claves de idempotencia en memoria.
+     */
+    public ClaveIdempotenciaRepository comoRepositorio() {
+        return RepositorioEnMemoria.crear(ClaveIdempotenciaRepository.class, this);
+    }
+
+    public synchronized ClaveIdempotencia reservar(String clave, Instant vencidasAntesDe, Instant arrendadaHasta) {
+        Instant ahora = Instant.now();
+        ClaveIdempotencia actual = claves.get(clave);
+        ClaveIdempotencia reserva = new ClaveIdempotencia(clave, null);
+        reserva.setEnCurso(arrendadaHasta);
+        if (actual != null && actual.getTransaccion() == null && actual.getEnCurso() != null && actual.getEnCurso().isBefore(ahora)) {
+            reserva.setTransaccionId(actual.getTransaccionId());
+        } else if (actual != null && !actual.getFecha().isBefore(vencidasAntesDe)) {
+            return null;
+        } else {
+            reserva.setTransaccionId(new ObjectId().toHexString());
+        }
+        claves.put(clave, reserva);
+        return reserva;
+    }
+
+    /**
+     * Da por vencido el arrendamiento de la reserva de una clave, como si hubiera pasado su duración.
+     *
+     * @param clave Clave de idempotencia reservada.
+     */
+    public void vencerArrendamiento(String clave) {
+        claves.get(clave).setEnCurso(Instant.now().minusSeconds(1));
+    }
+
+    public synchronized Object save(Object entidad) {
+        ClaveIdempotencia clave = (ClaveIdempotencia) entidad;
+        claves.put(clave.getId(), clave);
+        return clave;
+    }
+
+    public Optional<Object> findById(Object id) {
+        return Optional.ofNullable(claves.get(id));
+    }
+
+    public synchronized void deleteById(Object id) {
+        claves.remove(id);
+    }
+
+    public void deleteAll() {
+        claves.clear();
+    }
+}
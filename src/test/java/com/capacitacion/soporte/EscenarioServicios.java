@@ -0,0 +1,117 @@
+package com.capacitacion.soporte;
+
+import com.capacitacion.domain.application.impl.PersonaServiceImpl;
+import com.capacitacion.domain.application.impl.TransaccionServiceImpl;
+import com.capacitacion.domain.ledger.LedgerCreditos;
+import com.capacitacion.domain.model.Persona;
+import com.capacitacion.domain.repository.PersonaRepository;
+import com.capacitacion.infraestructura.cache.FiltroDnis;
+import com.capacitacion.infraestructura.cache.PersonaCache;
+import com.capacitacion.infraestructura.metricas.MetricasEtapas;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.Getter;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+/**
+ * Arma los servicios de Persona y de Transacciones sobre repositorios y outbox en memoria, sin Spring, MongoDB
+ * ni Kafka, para medir el costo propio de la capa de servicios.
+ */
+@Getter
+public class EscenarioServicios {
+
+    private final PersonaRepositoryEnMemoria personas;
+    private final SubSaldoRepositoryEnMemoria subSaldos;
+    private final TransaccionRepositoryEnMemoria transacciones = new TransaccionRepositoryEnMemoria();
+    private final OutboxEnMemoria outbox = new OutboxEnMemoria();
+    private final PersonaRepository personaRepository;
+    private final PersonaCache personaCache;
+    private final FiltroDnis filtroDnis;
+    private final PersonaServiceImpl personaService;
+    private final TransaccionServiceImpl transaccionService;
+
+    /**
+     * Constructor de EscenarioServicios.
+     *
+     * @param tamanioCache Cantidad máxima de personas en el cache.
+     */
+    public EscenarioServicios(long tamanioCache) {
+        this(tamanioCache, 0);
+    }
+
+    /**
+     * Constructor de EscenarioServicios con un costo simulado para las actualizaciones de créditos, que se paga con
+     * el documento tomado, para reproducir la contención de las escrituras concurrentes sobre una misma cuenta.
+     *
+     * @param tamanioCache     Cantidad máxima de personas en el cache.
+     * @param costoEscrituraNs Duración simulada de cada actualización de créditos, en nanosegundos.
+     */
+    public EscenarioServicios(long tamanioCache, long costoEscrituraNs) {
+        this(tamanioCache, costoEscrituraNs, null);
+    }
+
+    /**
+     * Constructor de EscenarioServicios con el ledger de créditos habilitado en el servicio de Persona.
+     *
+     * @param tamanioCache   Cantidad máxima de personas en el cache.
+     * @param ledgerCreditos Ledger en memoria que administra los créditos.
+     */
+    public EscenarioServicios(long tamanioCache, LedgerCreditos ledgerCreditos) {
+        this(tamanioCache, 0, ledgerCreditos);
+    }
+
+    private EscenarioServicios(long tamanioCache, long costoEscrituraNs, LedgerCreditos ledgerCreditos) {
+        this.personas = new PersonaRepositoryEnMemoria(costoEscrituraNs);
+        this.subSaldos = new SubSaldoRepositoryEnMemoria(costoEscrituraNs);
+        this.personaRepository = personas.comoRepositorio();
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        MetricasEtapas metricasEtapas = new MetricasEtapas(meterRegistry);
+        this.personaCache = new PersonaCache(tamanioCache, 300, meterRegistry);
+        this.filtroDnis = new FiltroDnis(personaRepository, true, 1_000_000, 0.01, Duration.ZERO, meterRegistry);
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        if (ledgerCreditos != null) {
+            beans.addBean("ledgerCreditos", ledgerCreditos);
+        }
+        this.personaService = new PersonaServiceImpl(personaRepository, subSaldos.comoRepositorio(), outbox, personaCache, metricasEtapas, filtroDnis,
+                beans.getBeanProvider(LedgerCreditos.class));
+        this.transaccionService = new TransaccionServiceImpl(transacciones.comoRepositorio(), personaService, outbox, metricasEtapas,
+                new TransactionTemplate(new TransaccionesEnMemoria()), 1000, 3);
+    }
+
+    /**
+     * Guarda directamente en el repositorio las personas con DNI desde {@code dni(0)} hasta {@code dni(cantidad - 1)},
+     * y vuelve a construir el filtro de DNIs.
+     *
+     * @param cantidad Cantidad de personas.
+     * @param creditos Créditos iniciales de cada persona.
+     */
+    public void cargarPersonas(int cantidad, int creditos) {
+        for (int numero = 0; numero < cantidad; numero++) {
+            Persona persona = new Persona(null, "Persona " + numero, 30, dni(numero));
+            persona.setCreditos(creditos);
+            personaRepository.save(persona);
+        }
+        filtroDnis.construir();
+    }
+
+    /**
+     * Vacía los repositorios y el cache.
+     */
+    public void vaciar() {
+        personaService.eliminarTodo();
+        transacciones.deleteAll();
+    }
+
+    /**
+     * Devuelve el DNI de ocho dígitos correspondiente a un número.
+     *
+     * @param numero Número de la persona.
+     * @return DNI con ceros a la izquierda.
+     */
+    public static String dni(int numero) {
+        return String.format("%08d", numero);
+    }
+}
@@ -0,0 +1,39 @@
+package com.capacitacion.soporte;
+
+import com.capacitacion.domain.model.EventoOutboxDescartado;
+import com.capacitacion.domain.repository.EventoOutboxDescartadoRepository;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Implementación en memoria de los métodos de {@link EventoOutboxDescartadoRepository} usados por el relay del outbox.
+ */
+public class EventoOutboxDescartadoRepositoryEnMemoria {
+
+    private final Map<String, EventoOutboxDescartado> eventos = new ConcurrentHashMap<>();
+
+    /**
+     * Crea el repositorio de eventos descartados respaldado por esta implementación.
+     *
+     * @return Repositorio de eventos descartados en memoria.
+     */
+    public EventoOutboxDescartadoRepository comoRepositorio() {
+        return RepositorioEnMemoria.crear(EventoOutboxDescartadoRepository.class, this);
+    }
+
+    public Object save(Object entidad) {
+        EventoOutboxDescartado evento = (EventoOutboxDescartado) entidad;
+        eventos.put(evento.getId(), evento);
+        return evento;
+    }
+
+    public Optional<Object> findById(Object id) {
+        return Optional.ofNullable(eventos.get(id));
+    }
+
+    public long count() {
+        return eventos.size();
+    }
+}
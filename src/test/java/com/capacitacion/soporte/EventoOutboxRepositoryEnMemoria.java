@@ -0,0 +1,89 @@
+package com.capacitacion.soporte;
+
+import com.capacitacion.domain.model.EventoOutbox;
+import com.capacitacion.domain.repository.EventoOutboxRepository;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Limit;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Implementación en memoria de los métodos de {@link EventoOutboxRepository} usados por el outbox y su relay.
+ * Los eventos se ordenan por ID, que como en MongoDB crece con el orden de registro.
+ */
+public class EventoOutboxRepositoryEnMemoria {
+
+    private final NavigableMap<String, EventoOutbox> eventos = new ConcurrentSkipListMap<>();
+
+    /**
+     * Crea el repositorio del outbox respaldado por esta implementación.
+     *
+     * @return Repositorio del outbox en memoria.
+     */
+    public EventoOutboxRepository comoRepositorio() {
+        return RepositorioEnMemoria.crear(EventoOutboxRepository.class, this);
+    }
+
+    public boolean renovarArrendamiento(String propietario, Duration duracion) {
+        return true;
+    }
+
+    public void sumarIntento(List<String> ids) {
+        for (String id : ids) {
+            EventoOutbox evento = eventos.get(id);
+            if (evento != null) {
+                evento.setIntentos(evento.getIntentos() + 1);
+            }
+        }
+    }
+
+    public Object save(Object entidad) {
+        EventoOutbox evento = (EventoOutbox) entidad;
+        if (evento.getId() == null) {
+            evento.setId(new ObjectId().toHexString());
+        }
+        eventos.put(evento.getId(), evento);
+        return evento;
+    }
+
+    public Object insert(Object entidad) {
+        return save(entidad);
+    }
+
+    public List<Object> insert(Iterable<Object> entidades) {
+        List<Object> insertados = new ArrayList<>();
+        entidades.forEach(entidad -> insertados.add(save(entidad)));
+        return insertados;
+    }
+
+    public List<EventoOutbox> findAllByOrderByIdAsc(Limit limite) {
+        List<EventoOutbox> lote = new ArrayList<>();
+        for (EventoOutbox evento : eventos.values()) {
+            if (limite.isLimited() && lote.size() == limite.max()) {
+                break;
+            }
+            lote.add(evento);
+        }
+        return lote;
+    }
+
+    public void deleteById(Object id) {
+        eventos.remove(id);
+    }
+
+    public void deleteAllById(Iterable<Object> ids) {
+        ids.forEach(eventos::remove);
+    }
+
+    public void deleteAll() {
+        eventos.clear();
+    }
+
+    public long count() {
+        return eventos.size();
+    }
+}
@@ -0,0 +1,30 @@
+package com.capacitacion.soporte;
+
+import com.capacitacion.domain.application.OutboxService;
+import com.capacitacion.domain.model.EventoOutbox;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implementación en memoria de {@link OutboxService}, en reemplazo del outbox y de la publicación en Kafka.
+ * Sólo cuenta los eventos registrados.
+ */
+public class OutboxEnMemoria implements OutboxService {
+
+    private final AtomicLong registrados = new AtomicLong();
+
+    @Override
+    public void registrar(String topic, String clave, Object evento) {
+        registrados.incrementAndGet();
+    }
+
+    @Override
+    public void registrarTodos(List<EventoOutbox> eventos) {
+        registrados.addAndGet(eventos.size());
+    }
+
+    public long registrados() {
+        return registrados.get();
+    }
+}
@@ -0,0 +1,249 @@
+package com.capacitacion.soporte;
+
+import com.capacitacion.domain.model.Persona;
+import com.capacitacion.domain.repository.PersonaRepository;
+import org.bson.types.ObjectId;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Implementación en memoria de los métodos de {@link PersonaRepository} usados por los servicios. Como la base de
+ * datos, devuelve copias de las personas guardadas, aplica cada actualización de créditos de forma atómica
+ * sobre el documento y rechaza los DNIs duplicados como el índice único de {@code dni}.
+ */
+public class PersonaRepositoryEnMemoria {
+
+    private final Map<String, Persona> porId = new ConcurrentHashMap<>();
+    private final Map<String, Persona> porDni = new ConcurrentHashMap<>();
+    private final Map<String, Persona> porNombre = new ConcurrentHashMap<>();
+    private final long costoEscrituraNs;
+
+    /**
+     * Constructor de PersonaRepositoryEnMemoria, sin costo de escritura simulado.
+     */
+    public PersonaRepositoryEnMemoria() {
+        this(0);
+    }
+
+    /**
+     * Constructor de PersonaRepositoryEnMemoria.
+     *
+     * @param costoEscrituraNs Duración simulada de cada actualización de créditos, con el documento tomado.
+     */
+    public PersonaRepositoryEnMemoria(long costoEscrituraNs) {
+        this.costoEscrituraNs = costoEscrituraNs;
+    }
+
+    /**
+     * Crea el repositorio de Persona respaldado por esta implementación.
+     *
+     * @return Repositorio de Persona en memoria.
+     */
+    public PersonaRepository comoRepositorio() {
+        return RepositorioEnMemoria.crear(PersonaRepository.class, this);
+    }
+
+    public synchronized Object save(Object entidad) {
+        Persona persona = (Persona) entidad;
+        Persona conMismoDni = persona.getDni() == null ? null : porDni.get(persona.getDni());
+        if (conMismoDni != null && !conMismoDni.getId().equals(persona.getId())) {
+            throw new DuplicateKeyException("DNI duplicado: " + persona.getDni());
+        }
+        if (persona.getId() == null) {
+            persona.setId(new ObjectId().toHexString());
+        }
+        Persona guardada = copiar(persona);
+        Persona anterior = porId.put(guardada.getId(), guardada);
+        if (anterior != null) {
+            porDni.remove(anterior.getDni(), anterior);
+            porNombre.remove(anterior.getNombre(), anterior);
+        }
+        porDni.put(guardada.getDni(), guardada);
+        porNombre.putIfAbsent(guardada.getNombre(), guardada);
+        return persona;
+    }
+
+    public Object insert(Object entidad) {
+        return save(entidad);
+    }
+
+    public List<Object> insert(Iterable<Object> entidades) {
+        List<Object> guardadas = new ArrayList<>();
+        entidades.forEach(entidad -> guardadas.add(save(entidad)));
+        return guardadas;
+    }
+
+    public Persona findPersonaById(String id) {
+        return copiar(porId.get(id));
+    }
+
+    public Persona findByDni(String dni) {
+        return copiar(porDni.get(dni));
+    }
+
+    public boolean existsByDni(String dni) {
+        return porDni.containsKey(dni);
+    }
+
+    public Persona findByNombre(String nombre) {
+        return copiar(porNombre.get(nombre));
+    }
+
+    public List<Persona> findByDniIn(Collection<String> dnis) {
+        List<Persona> personas = new ArrayList<>();
+        for (String dni : dnis) {
+            Persona persona = porDni.get(dni);
+            if (persona != null) {
+                personas.add(copiar(persona));
+            }
+        }
+        return personas;
+    }
+
+    public Stream<Persona> streamAllBy() {
+        return porId.values().stream().map(PersonaRepositoryEnMemoria::copiar);
+    }
+
+    public Stream<Persona> streamDnisBy() {
+        return streamAllBy();
+    }
+
+    public boolean debitarCreditos(String dni, int monto) {
+        Persona persona = porDni.get(dni);
+        if (persona == null) {
+            return false;
+        }
+        synchronized (persona) {
+            RepositorioEnMemoria.simularEscritura(costoEscrituraNs);
+            if (persona.getCreditos() < monto) {
+                return false;
+            }
+            persona.restarCreditoPorTransaccion(monto);
+            return true;
+        }
+    }
+
+    public boolean acreditarCreditos(String dni, int monto) {
+        Persona persona = porDni.get(dni);
+        if (persona == null || persona.getFracciones() != null) {
+            return false;
+        }
+        return sumarCreditos(persona, monto);
+    }
+
+    public synchronized boolean actualizarDatos(Persona datos) {
+        Persona persona = porId.get(datos.getId());
+        if (persona == null) {
+            return false;
+        }
+        synchronized (persona) {
+            porNombre.remove(persona.getNombre(), persona);
+            persona.setNombre(datos.getNombre());
+            persona.setEdad(datos.getEdad());
+            persona.setDireccion(datos.getDireccion());
+            porNombre.putIfAbsent(persona.getNombre(), persona);
+        }
+        return true;
+    }
+
+    public int aplicarMovimientos(Map<String, Integer> movimientos) {
+        int actualizadas = 0;
+        for (Map.Entry<String, Integer> movimiento : movimientos.entrySet()) {
+            Persona persona = porDni.get(movimiento.getKey());
+            boolean aplicado = movimiento.getValue() < 0
+                    ? debitarCreditos(movimiento.getKey(), -movimiento.getValue())
+                    : persona != null && sumarCreditos(persona, movimiento.getValue());
+            if (aplicado) {
+                actualizadas++;
+            }
+        }
+        return actualizadas;
+    }
+
+    private boolean sumarCreditos(Persona persona, int monto) {
+        synchronized (persona) {
+            RepositorioEnMemoria.simularEscritura(costoEscrituraNs);
+            persona.aumentarCreditoPorTransaccion(monto);
+            return true;
+        }
+    }
+
+    public int fijarCreditos(Map<String, Integer> creditosPorDni) {
+        int encontradas = 0;
+        for (Map.Entry<String, Integer> creditos : creditosPorDni.entrySet()) {
+            Persona persona = porDni.get(creditos.getKey());
+            if (persona != null) {
+                synchronized (persona) {
+                    persona.setCreditos(creditos.getValue());
+                }
+                encontradas++;
+            }
+        }
+        return encontradas;
+    }
+
+    public int actualizarDireccionesPorNombre(Map<String, String> direccionesPorNombre) {
+        int actualizadas = 0;
+        for (Map.Entry<String, String> direccion : direccionesPorNombre.entrySet()) {
+            Persona persona = porNombre.get(direccion.getKey());
+            if (persona != null) {
+                synchronized (persona) {
+                    persona.setDireccion(direccion.getValue());
+                }
+                actualizadas++;
+            }
+        }
+        return actualizadas;
+    }
+
+    public int actualizarDireccionesPorDni(Map<String, String> direccionesPorDni) {
+        int actualizadas = 0;
+        for (Map.Entry<String, String> direccion : direccionesPorDni.entrySet()) {
+            Persona persona = porDni.get(direccion.getKey());
+            if (persona != null) {
+                synchronized (persona) {
+                    persona.setDireccion(direccion.getValue());
+                }
+                actualizadas++;
+            }
+        }
+        return actualizadas;
+    }
+
+    public synchronized void delete(Object entidad) {
+        Persona persona = porId.remove(((Persona) entidad).getId());
+        if (persona != null) {
+            porDni.remove(persona.getDni(), persona);
+            porNombre.remove(persona.getNombre(), persona);
+        }
+    }
+
+    public synchronized void deleteAll() {
+        porId.clear();
+        porDni.clear();
+        porNombre.clear();
+    }
+
+    public long count() {
+        return porId.size();
+    }
+
+    private static Persona copiar(Persona persona) {
+        if (persona == null) {
+            return null;
+        }
+        Persona copia = new Persona(persona.getId(), persona.getNombre(), persona.getEdad(), persona.getDni());
+        synchronized (persona) {
+            copia.setCreditos(persona.getCreditos());
+            copia.setDireccion(persona.getDireccion());
+            copia.setFracciones(persona.getFracciones());
+        }
+        return copia;
+    }
+}
@@ -0,0 +1,69 @@
+package com.capacitacion.soporte;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Crea implementaciones en memoria de las interfaces de repositorio delegando cada método en el método con la misma
+ * firma de una clase de soporte. Los métodos que la clase de soporte no implementa lanzan
+ * {@link UnsupportedOperationException}, de modo que sólo hace falta escribir los métodos que usan los servicios.
+ */
+public final class RepositorioEnMemoria {
+
+    private RepositorioEnMemoria() {}
+
+    /**
+     * Crea un repositorio en memoria.
+     *
+     * @param repositorio    Interfaz del repositorio.
+     * @param implementacion Objeto con los métodos implementados.
+     * @param <R>            Tipo del repositorio.
+     * @return Repositorio que delega en la implementación.
+     */
+    public static <R> R crear(Class<R> repositorio, Object implementacion) {
+        Map<Method, Method> destinos = new ConcurrentHashMap<>();
+        InvocationHandler handler = (proxy, metodo, argumentos) -> {
+            if (metodo.getDeclaringClass() == Object.class) {
+                return metodo.invoke(implementacion, argumentos);
+            }
+            Method destino = destinos.computeIfAbsent(metodo, m -> buscar(implementacion.getClass(), m));
+            try {
+                return destino.invoke(implementacion, argumentos);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+        return repositorio.cast(Proxy.newProxyInstance(repositorio.getClassLoader(), new Class<?>[] {repositorio}, handler));
+    }
+
+    /**
+     * Ocupa el hilo durante el tiempo indicado, para simular el costo de una escritura mientras se tiene tomado el
+     * documento. Las implementaciones en memoria lo usan dentro de la sección sincronizada de cada documento, de
+     * modo que las escrituras concurrentes sobre el mismo documento se serializan como en la base de datos.
+     *
+     * @param nanos Duración de la escritura simulada, en nanosegundos (0 no simula ningún costo).
+     */
+    public static void simularEscritura(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        long fin = System.nanoTime() + nanos;
+        while (System.nanoTime() < fin) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private static Method buscar(Class<?> clase, Method metodo) {
+        try {
+            Method destino = clase.getMethod(metodo.getName(), metodo.getParameterTypes());
+            destino.setAccessible(true);
+            return destino;
+        } catch (NoSuchMethodException e) {
+            throw new UnsupportedOperationException("Método no soportado en memoria: " + metodo);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.capacitacion.soporte;
+
+import com.capacitacion.domain.repository.ClaveIdempotenciaRepository;
+import com.capacitacion.domain.repository.EventoOutboxDescartadoRepository;
+import com.capacitacion.domain.repository.EventoOutboxRepository;
+import com.capacitacion.domain.repository.PersonaRepository;
+import com.capacitacion.domain.repository.SubSaldoRepository;
+import com.capacitacion.domain.repository.TicketTransaccionRepository;
+import com.capacitacion.domain.repository.TransaccionRepository;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Reemplaza los repositorios de MongoDB y su administrador de transacciones por implementaciones en memoria, para
+ * levantar el contexto completo de la aplicación sin una base de datos. Debe usarse junto con
+ * {@code spring.data.mongodb.repositories.type=none}, para que Spring Data no cree los repositorios reales.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class RepositoriosEnMemoriaConfiguracion {
+
+    @Bean
+    public PersonaRepositoryEnMemoria personasEnMemoria() {
+        return new PersonaRepositoryEnMemoria();
+    }
+
+    @Bean
+    public PersonaRepository personaRepository(PersonaRepositoryEnMemoria personasEnMemoria) {
+        return personasEnMemoria.comoRepositorio();
+    }
+
+    @Bean
+    public SubSaldoRepository subSaldoRepository() {
+        return new SubSaldoRepositoryEnMemoria().comoRepositorio();
+    }
+
+    @Bean
+    public TransaccionRepository transaccionRepository() {
+        return new TransaccionRepositoryEnMemoria().comoRepositorio();
+    }
+
+    @Bean
+    public TicketTransaccionRepository ticketTransaccionRepository() {
+        return new TicketTransaccionRepositoryEnMemoria().comoRepositorio();
+    }
+
+    @Bean
+    public EventoOutboxRepository eventoOutboxRepository() {
+        return new EventoOutboxRepositoryEnMemoria().comoRepositorio();
+    }
+
+    @Bean
+    public EventoOutboxDescartadoRepository eventoOutboxDescartadoRepository() {
+        return new EventoOutboxDescartadoRepositoryEnMemoria().comoRepositorio();
+    }
+
+    @Bean
+    public ClaveIdempotenciaRepository claveIdempotenciaRepository() {
+        return new ClaveIdempotenciaRepositoryEnMemoria().comoRepositorio();
+    }
+
+    @Bean
+    @Primary
+    public PlatformTransactionManager transaccionesEnMemoria() {
+        return new TransaccionesEnMemoria();
+    }
+}
@@ -0,0 +1,113 @@
+package com.capacitacion.soporte;
+
+import com.capacitacion.domain.model.SubSaldo;
+import com.capacitacion.domain.repository.SubSaldoRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Implementación en memoria de los métodos de {@link SubSaldoRepository} usados por el servicio de Persona. Como la
+ * base de datos, devuelve copias de las fracciones y aplica cada actualización de forma atómica sobre el documento.
+ */
+public class SubSaldoRepositoryEnMemoria {
+
+    private final Map<String, SubSaldo> porId = new ConcurrentHashMap<>();
+    private final long costoEscrituraNs;
+
+    /**
+     * Constructor de SubSaldoRepositoryEnMemoria, sin costo de escritura simulado.
+     */
+    public SubSaldoRepositoryEnMemoria() {
+        this(0);
+    }
+
+    /**
+     * Constructor de SubSaldoRepositoryEnMemoria.
+     *
+     * @param costoEscrituraNs Duración simulada de cada actualización de créditos, con el documento tomado.
+     */
+    public SubSaldoRepositoryEnMemoria(long costoEscrituraNs) {
+        this.costoEscrituraNs = costoEscrituraNs;
+    }
+
+    /**
+     * Crea el repositorio de fracciones de saldo respaldado por esta implementación.
+     *
+     * @return Repositorio de fracciones de saldo en memoria.
+     */
+    public SubSaldoRepository comoRepositorio() {
+        return RepositorioEnMemoria.crear(SubSaldoRepository.class, this);
+    }
+
+    public List<Object> insert(Iterable<Object> entidades) {
+        List<Object> insertadas = new ArrayList<>();
+        for (Object entidad : entidades) {
+            SubSaldo subSaldo = (SubSaldo) entidad;
+            porId.put(subSaldo.getId(), copiar(subSaldo));
+            insertadas.add(subSaldo);
+        }
+        return insertadas;
+    }
+
+    public List<SubSaldo> findByDni(String dni) {
+        return findByDniIn(Set.of(dni));
+    }
+
+    public List<SubSaldo> findByDniIn(Collection<String> dnis) {
+        Set<String> buscados = new HashSet<>(dnis);
+        List<SubSaldo> subSaldos = new ArrayList<>();
+        for (SubSaldo subSaldo : porId.values()) {
+            if (buscados.contains(subSaldo.getDni())) {
+                subSaldos.add(copiar(subSaldo));
+            }
+        }
+        return subSaldos;
+    }
+
+    public boolean debitar(String dni, int indice, int monto) {
+        SubSaldo subSaldo = porId.get(SubSaldo.id(dni, indice));
+        if (subSaldo == null) {
+            return false;
+        }
+        synchronized (subSaldo) {
+            RepositorioEnMemoria.simularEscritura(costoEscrituraNs);
+            if (subSaldo.getCreditos() < monto) {
+                return false;
+            }
+            subSaldo.setCreditos(subSaldo.getCreditos() - monto);
+            return true;
+        }
+    }
+
+    public boolean acreditar(String dni, int indice, int monto) {
+        SubSaldo subSaldo = porId.get(SubSaldo.id(dni, indice));
+        if (subSaldo == null) {
+            return false;
+        }
+        synchronized (subSaldo) {
+            RepositorioEnMemoria.simularEscritura(costoEscrituraNs);
+            subSaldo.setCreditos(subSaldo.getCreditos() + monto);
+            return true;
+        }
+    }
+
+    public void deleteByDni(String dni) {
+        porId.values().removeIf(subSaldo -> subSaldo.getDni().equals(dni));
+    }
+
+    public void deleteAll() {
+        porId.clear();
+    }
+
+    private static SubSaldo copiar(SubSaldo subSaldo) {
+        synchronized (subSaldo) {
+            return new SubSaldo(subSaldo.getDni(), subSaldo.getIndice(), subSaldo.getCreditos());
+        }
+    }
+}
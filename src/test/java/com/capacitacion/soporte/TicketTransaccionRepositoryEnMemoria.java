@@ -0,0 +1,86 @@
+package com.capacitacion.soporte;
+
+import com.capacitacion.domain.model.EstadoTicket;
+import com.capacitacion.domain.model.TicketTransaccion;
+import com.capacitacion.domain.repository.TicketTransaccionRepository;
+import org.bson.types.ObjectId;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Implementación en memoria de los métodos de {@link TicketTransaccionRepository} usados por las transacciones
+ * asíncronas. Como la base de datos, guarda y devuelve copias de los tickets.
+ */
+public class TicketTransaccionRepositoryEnMemoria {
+
+    private final Map<String, TicketTransaccion> tickets = new ConcurrentHashMap<>();
+
+    /**
+     * Crea el repositorio de tickets respaldado por esta implementación.
+     *
+     * @return Repositorio de tickets en memoria.
+     */
+    public TicketTransaccionRepository comoRepositorio() {
+        return RepositorioEnMemoria.crear(TicketTransaccionRepository.class, this);
+    }
+
+    public synchronized Object save(Object entidad) {
+        TicketTransaccion ticket = (TicketTransaccion) entidad;
+        if (ticket.getId() == null) {
+            ticket.setId(new ObjectId().toHexString());
+        }
+        tickets.put(ticket.getId(), copiar(ticket));
+        return ticket;
+    }
+
+    public Optional<Object> findById(Object id) {
+        return Optional.ofNullable(copiar(tickets.get(id)));
+    }
+
+    public synchronized TicketTransaccion reclamar(String idTicket, String transaccionId) {
+        TicketTransaccion ticket = tickets.get(idTicket);
+        if (ticket == null) {
+            return null;
+        }
+        if (ticket.getEstado() == EstadoTicket.PENDIENTE) {
+            ticket.setEstado(EstadoTicket.PROCESANDO);
+            ticket.setTransaccionId(transaccionId);
+        }
+        return ticket.getEstado() == EstadoTicket.PROCESANDO ? copiar(ticket) : null;
+    }
+
+    public synchronized boolean marcarFallido(String idTicket, String mensaje) {
+        TicketTransaccion ticket = tickets.get(idTicket);
+        if (ticket == null || (ticket.getEstado() != EstadoTicket.PENDIENTE && ticket.getEstado() != EstadoTicket.PROCESANDO)) {
+            return false;
+        }
+        ticket.setEstado(EstadoTicket.FALLIDA);
+        ticket.setMensaje(mensaje);
+        return true;
+    }
+
+    public void deleteAll() {
+        tickets.clear();
+    }
+
+    public long count() {
+        return tickets.size();
+    }
+
+    private static TicketTransaccion copiar(TicketTransaccion ticket) {
+        if (ticket == null) {
+            return null;
+        }
+        TicketTransaccion copia = new TicketTransaccion();
+        copia.setId(ticket.getId());
+        copia.setDniOrigen(ticket.getDniOrigen());
+        copia.setDniDestino(ticket.getDniDestino());
+        copia.setMonto(ticket.getMonto());
+        copia.setEstado(ticket.getEstado());
+        copia.setTransaccionId(ticket.getTransaccionId());
+        copia.setMensaje(ticket.getMensaje());
+        return copia;
+    }
+}
@@ -0,0 +1,60 @@
+package com.capacitacion.soporte;
+
+import com.capacitacion.domain.model.Transaccion;
+import com.capacitacion.domain.repository.TransaccionRepository;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implementación en memoria de los métodos de {@link TransaccionRepository} usados por los servicios.
+ * Sólo cuenta las transacciones guardadas, para que las pruebas largas no acumulen memoria.
+ */
+public class TransaccionRepositoryEnMemoria {
+
+    private final AtomicLong guardadas = new AtomicLong();
+
+    /**
+     * Crea el repositorio de Transacciones respaldado por esta implementación.
+     *
+     * @return Repositorio de Transacciones en memoria.
+     */
+    public TransaccionRepository comoRepositorio() {
+        return RepositorioEnMemoria.crear(TransaccionRepository.class, this);
+    }
+
+    public Object save(Object entidad) {
+        Transaccion transaccion = (Transaccion) entidad;
+        if (transaccion.getId() == null) {
+            transaccion.setId(new ObjectId().toHexString());
+        }
+        guardadas.incrementAndGet();
+        return transaccion;
+    }
+
+    public Object insert(Object entidad) {
+        return save(entidad);
+    }
+
+    public List<Object> insert(Iterable<Object> entidades) {
+        List<Object> insertadas = new ArrayList<>();
+        entidades.forEach(entidad -> insertadas.add(save(entidad)));
+        return insertadas;
+    }
+
+    public Optional<Object> findById(Object id) {
+        // Las transacciones no se guardan: ninguna figura como realizada.
+        return Optional.empty();
+    }
+
+    public void deleteAll() {
+        guardadas.set(0);
+    }
+
+    public long count() {
+        return guardadas.get();
+    }
+}
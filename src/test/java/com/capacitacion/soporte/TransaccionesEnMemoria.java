@@ -0,0 +1,30 @@
+package com.capacitacion.soporte;
+
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+/**
+ * Administrador de transacciones sin recurso transaccional, para usar con los repositorios en memoria.
+ * No aísla ni revierte cambios, pero mantiene la sincronización de transacciones, de modo que las acciones
+ * registradas para después del commit se ejecutan igual que con MongoDB.
+ */
+public class TransaccionesEnMemoria extends AbstractPlatformTransactionManager {
+
+    @Override
+    protected Object doGetTransaction() {
+        return new Object();
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+    }
+}